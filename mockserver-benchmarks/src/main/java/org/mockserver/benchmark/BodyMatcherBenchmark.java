@@ -0,0 +1,90 @@
+package org.mockserver.benchmark;
+
+import org.mockserver.matchers.*;
+import org.mockserver.model.NottableString;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author jamesdbloom
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyMatcherBenchmark {
+
+    private static final String JSON = "{" +
+            "\"id\": 1, " +
+            "\"name\": \"some_name\", " +
+            "\"tags\": [ \"one\", \"two\", \"three\" ], " +
+            "\"address\": { \"street\": \"some_street\", \"city\": \"some_city\" }" +
+            "}";
+    private static final String JSON_SCHEMA = "{" +
+            "\"type\": \"object\", " +
+            "\"properties\": {" +
+            "  \"id\": { \"type\": \"integer\" }, " +
+            "  \"name\": { \"type\": \"string\", \"minLength\": 1 }, " +
+            "  \"tags\": { \"type\": \"array\", \"items\": { \"type\": \"string\" }, \"uniqueItems\": true }, " +
+            "  \"address\": { \"type\": \"object\", \"required\": [ \"street\", \"city\" ] }" +
+            "}, " +
+            "\"required\": [ \"id\", \"name\" ]" +
+            "}";
+    private static final String XML = "" +
+            "<element>" +
+            "   <key>some_key</key>" +
+            "   <value>some_value</value>" +
+            "</element>";
+
+    private RegexStringMatcher literalStringMatcher;
+    private RegexStringMatcher regexStringMatcher;
+    private NottableString matchedString;
+    private JsonStringMatcher onlyMatchingFieldsJsonMatcher;
+    private JsonStringMatcher strictJsonMatcher;
+    private JsonSchemaMatcher jsonSchemaMatcher;
+    private XPathStringMatcher xPathStringMatcher;
+
+    @Setup
+    public void createMatchers() {
+        literalStringMatcher = new RegexStringMatcher("/some/path/with/several/segments");
+        regexStringMatcher = new RegexStringMatcher("/some/path/.*/segments");
+        matchedString = NottableString.string("/some/path/with/several/segments");
+        onlyMatchingFieldsJsonMatcher = new JsonStringMatcher("{ \"name\": \"some_name\", \"address\": { \"city\": \"some_city\" } }", MatchType.ONLY_MATCHING_FIELDS);
+        strictJsonMatcher = new JsonStringMatcher(JSON, MatchType.STRICT);
+        jsonSchemaMatcher = new JsonSchemaMatcher(JSON_SCHEMA);
+        xPathStringMatcher = new XPathStringMatcher("/element[key = 'some_key' and value = 'some_value']");
+    }
+
+    @Benchmark
+    public boolean regexStringMatcherLiteral() {
+        return literalStringMatcher.matches(matchedString);
+    }
+
+    @Benchmark
+    public boolean regexStringMatcherRegex() {
+        return regexStringMatcher.matches(matchedString);
+    }
+
+    @Benchmark
+    public boolean jsonStringMatcherOnlyMatchingFields() {
+        return onlyMatchingFieldsJsonMatcher.matches(JSON);
+    }
+
+    @Benchmark
+    public boolean jsonStringMatcherStrict() {
+        return strictJsonMatcher.matches(JSON);
+    }
+
+    @Benchmark
+    public boolean jsonSchemaMatcher() {
+        return jsonSchemaMatcher.matches(JSON);
+    }
+
+    @Benchmark
+    public boolean xPathStringMatcher() {
+        return xPathStringMatcher.matches(XML);
+    }
+}
@@ -0,0 +1,79 @@
+package org.mockserver.benchmark;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.mockserver.codec.MockServerRequestDecoder;
+import org.mockserver.codec.MockServerResponseEncoder;
+import org.mockserver.model.Cookie;
+import org.mockserver.model.Header;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpHeaders.Names.*;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * Decodes netty requests into MockServer requests and encodes MockServer responses into netty responses
+ * through an EmbeddedChannel, so the cost includes passing each message through the pipeline
+ *
+ * @author jamesdbloom
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final byte[] BODY = "{ \"id\": 1, \"name\": \"some_name\" }".getBytes();
+
+    private EmbeddedChannel decoderChannel;
+    private EmbeddedChannel encoderChannel;
+    private HttpResponse httpResponse;
+
+    @Setup
+    public void createChannels() {
+        decoderChannel = new EmbeddedChannel(new MockServerRequestDecoder(false));
+        encoderChannel = new EmbeddedChannel(new MockServerResponseEncoder());
+        httpResponse = response()
+                .withStatusCode(200)
+                .withHeaders(new Header("Content-Type", "application/json; charset=utf-8"))
+                .withCookies(new Cookie("session", "abcdef0123456789"))
+                .withBody("{ \"id\": 1, \"name\": \"some_name\" }");
+    }
+
+    @TearDown
+    public void closeChannels() {
+        decoderChannel.finish();
+        encoderChannel.finish();
+    }
+
+    @Benchmark
+    public HttpRequest decodeRequest() {
+        FullHttpRequest fullHttpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/some/path?parameterName=parameterValue", Unpooled.wrappedBuffer(BODY));
+        fullHttpRequest.headers().set(HOST, "localhost:1080");
+        fullHttpRequest.headers().set(CONTENT_TYPE, "application/json; charset=utf-8");
+        fullHttpRequest.headers().set(CONTENT_LENGTH, BODY.length);
+        fullHttpRequest.headers().set(COOKIE, "session=abcdef0123456789");
+        decoderChannel.writeInbound(fullHttpRequest);
+        return (HttpRequest) decoderChannel.readInbound();
+    }
+
+    @Benchmark
+    public int encodeResponse() {
+        encoderChannel.writeOutbound(httpResponse);
+        FullHttpResponse fullHttpResponse = (FullHttpResponse) encoderChannel.readOutbound();
+        int contentLength = fullHttpResponse.content().readableBytes();
+        fullHttpResponse.release();
+        return contentLength;
+    }
+}
@@ -0,0 +1,107 @@
+package org.mockserver.benchmark;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.mockserver.model.Cookie;
+import org.mockserver.model.Header;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * Compares the field based equals and hashCode of the model classes with the reflective implementation
+ * they replaced, the reflective benchmarks call EqualsBuilder and HashCodeBuilder directly with the same
+ * excluded fields as ObjectWithReflectiveEqualsHashCodeToString
+ *
+ * @author jamesdbloom
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EqualsHashCodeBenchmark {
+
+    private static final String[] REFLECTIVE_EXCLUDED_FIELDS = new String[]{"logger", "fieldsExcludedFromEqualsAndHashCode"};
+
+    private HttpRequest httpRequest;
+    private HttpRequest equalHttpRequest;
+    private HttpResponse httpResponse;
+    private HttpResponse equalHttpResponse;
+
+    @Setup
+    public void createRequestsAndResponses() {
+        httpRequest = request();
+        equalHttpRequest = request();
+        httpResponse = response();
+        equalHttpResponse = response();
+        for (HttpRequest request : new HttpRequest[]{httpRequest, equalHttpRequest}) {
+            request
+                    .withMethod("POST")
+                    .withPath("/some/path")
+                    .withQueryStringParameter("parameterName", "parameterValue")
+                    .withHeaders(
+                            new Header("Content-Type", "application/json"),
+                            new Header("Accept", "application/json"),
+                            new Header("X-Request-Id", "6d1f2a61-63e4-4b6b-8f2c-4bcdfc3c7f0e")
+                    )
+                    .withCookies(new Cookie("session", "abcdef0123456789"))
+                    .withBody("{ \"id\": 1, \"name\": \"some_name\" }");
+        }
+        for (HttpResponse response : new HttpResponse[]{httpResponse, equalHttpResponse}) {
+            response
+                    .withStatusCode(200)
+                    .withHeaders(new Header("Content-Type", "application/json"))
+                    .withBody("{ \"id\": 1, \"name\": \"some_name\" }");
+        }
+    }
+
+    @Benchmark
+    public boolean httpRequestEquals() {
+        return httpRequest.equals(equalHttpRequest);
+    }
+
+    @Benchmark
+    public boolean httpRequestReflectiveEquals() {
+        return EqualsBuilder.reflectionEquals(httpRequest, equalHttpRequest, REFLECTIVE_EXCLUDED_FIELDS);
+    }
+
+    @Benchmark
+    public int httpRequestHashCode() {
+        return httpRequest.hashCode();
+    }
+
+    @Benchmark
+    public int httpRequestReflectiveHashCode() {
+        return HashCodeBuilder.reflectionHashCode(httpRequest, REFLECTIVE_EXCLUDED_FIELDS);
+    }
+
+    @Benchmark
+    public boolean httpResponseEquals() {
+        return httpResponse.equals(equalHttpResponse);
+    }
+
+    @Benchmark
+    public boolean httpResponseReflectiveEquals() {
+        return EqualsBuilder.reflectionEquals(httpResponse, equalHttpResponse, REFLECTIVE_EXCLUDED_FIELDS);
+    }
+
+    /**
+     * The request log groups responses by request so every logged request is hashed and compared
+     */
+    @Benchmark
+    public Map<HttpRequest, HttpResponse> groupResponsesByRequest() {
+        Map<HttpRequest, HttpResponse> responsesByRequest = new LinkedHashMap<HttpRequest, HttpResponse>();
+        responsesByRequest.put(httpRequest, httpResponse);
+        responsesByRequest.put(equalHttpRequest, equalHttpResponse);
+        return responsesByRequest;
+    }
+}
@@ -0,0 +1,63 @@
+package org.mockserver.benchmark;
+
+import org.mockserver.client.serialization.ExpectationSerializer;
+import org.mockserver.matchers.TimeToLive;
+import org.mockserver.matchers.Times;
+import org.mockserver.mock.Expectation;
+import org.mockserver.model.Cookie;
+import org.mockserver.model.Header;
+import org.mockserver.model.Parameter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * @author jamesdbloom
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpectationSerializerBenchmark {
+
+    private ExpectationSerializer expectationSerializer;
+    private Expectation expectation;
+    private String serializedExpectation;
+
+    @Setup
+    public void createExpectation() {
+        expectationSerializer = new ExpectationSerializer();
+        expectation = new Expectation(
+                request()
+                        .withMethod("POST")
+                        .withPath("/some/path")
+                        .withQueryStringParameters(new Parameter("parameterName", "parameterValue"))
+                        .withHeaders(new Header("Content-Type", "application/json"))
+                        .withCookies(new Cookie("session", "abcdef0123456789"))
+                        .withBody("{ \"id\": 1 }"),
+                Times.exactly(5),
+                TimeToLive.unlimited()
+        ).thenRespond(
+                response()
+                        .withStatusCode(201)
+                        .withHeaders(new Header("Content-Type", "application/json"))
+                        .withBody("{ \"id\": 1, \"name\": \"some_name\" }")
+        );
+        serializedExpectation = expectationSerializer.serialize(expectation);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return expectationSerializer.serialize(expectation);
+    }
+
+    @Benchmark
+    public Expectation deserialize() {
+        return expectationSerializer.deserialize(serializedExpectation);
+    }
+}
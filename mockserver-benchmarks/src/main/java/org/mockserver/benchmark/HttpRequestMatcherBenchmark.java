@@ -0,0 +1,87 @@
+package org.mockserver.benchmark;
+
+import org.mockserver.matchers.HttpRequestMatcher;
+import org.mockserver.matchers.MatcherBuilder;
+import org.mockserver.model.Cookie;
+import org.mockserver.model.Header;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.Parameter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpRequestMatcherBenchmark {
+
+    private HttpRequestMatcher literalMatcher;
+    private HttpRequestMatcher regexMatcher;
+    private HttpRequest matchingRequest;
+    private HttpRequest nonMatchingRequest;
+
+    @Setup
+    public void createMatchersAndRequests() {
+        MatcherBuilder matcherBuilder = new MatcherBuilder();
+        literalMatcher = matcherBuilder.transformsToMatcher(
+                request()
+                        .withMethod("POST")
+                        .withPath("/some/path")
+                        .withQueryStringParameters(new Parameter("parameterName", "parameterValue"))
+                        .withHeaders(new Header("Content-Type", "application/json"))
+                        .withCookies(new Cookie("session", "abcdef0123456789"))
+                        .withBody("{ \"id\": 1 }")
+        );
+        regexMatcher = matcherBuilder.transformsToMatcher(
+                request()
+                        .withMethod("P.*")
+                        .withPath("/some/.*")
+                        .withQueryStringParameters(new Parameter("parameterName", "parameter.*"))
+                        .withHeaders(new Header("Content-.*", "application/.*"))
+                        .withCookies(new Cookie("session", "[a-f0-9]+"))
+        );
+        matchingRequest = request()
+                .withMethod("POST")
+                .withPath("/some/path")
+                .withQueryStringParameters(new Parameter("parameterName", "parameterValue"))
+                .withHeaders(
+                        new Header("Content-Type", "application/json"),
+                        new Header("Accept", "application/json"),
+                        new Header("Host", "localhost:1080")
+                )
+                .withCookies(new Cookie("session", "abcdef0123456789"))
+                .withBody("{ \"id\": 1 }");
+        nonMatchingRequest = request()
+                .withMethod("GET")
+                .withPath("/some/other/path")
+                .withHeaders(new Header("Host", "localhost:1080"));
+    }
+
+    @Benchmark
+    public boolean literalMatch() {
+        return literalMatcher.matches(matchingRequest);
+    }
+
+    @Benchmark
+    public boolean literalMismatch() {
+        return literalMatcher.matches(nonMatchingRequest);
+    }
+
+    @Benchmark
+    public boolean regexMatch() {
+        return regexMatcher.matches(matchingRequest);
+    }
+
+    @Benchmark
+    public boolean regexMismatch() {
+        return regexMatcher.matches(nonMatchingRequest);
+    }
+}
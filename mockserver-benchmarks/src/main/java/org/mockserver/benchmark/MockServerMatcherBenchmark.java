@@ -0,0 +1,61 @@
+package org.mockserver.benchmark;
+
+import org.mockserver.mock.MockServerMatcher;
+import org.mockserver.model.Action;
+import org.mockserver.model.HttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * Matches requests against a MockServerMatcher holding the given number of expectations, one in
+ * every ten expectations has a regex path so it can't be narrowed by path
+ *
+ * @author jamesdbloom
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MockServerMatcherBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int numberOfExpectations;
+
+    private MockServerMatcher mockServerMatcher;
+    private HttpRequest firstExpectationRequest;
+    private HttpRequest lastExpectationRequest;
+    private HttpRequest unmatchedRequest;
+
+    @Setup
+    public void createExpectations() {
+        mockServerMatcher = new MockServerMatcher();
+        for (int i = 0; i < numberOfExpectations; i++) {
+            String path = (i % 10 == 9 ? "/regex/" + i + "/.*" : "/literal/" + i);
+            mockServerMatcher.when(request().withMethod("GET").withPath(path)).thenRespond(response().withBody("response_" + i));
+        }
+        firstExpectationRequest = request().withMethod("GET").withPath("/literal/0");
+        lastExpectationRequest = request().withMethod("GET").withPath("/literal/" + (numberOfExpectations - 2));
+        unmatchedRequest = request().withMethod("GET").withPath("/unmatched");
+    }
+
+    @Benchmark
+    public Action handleFirstExpectation() {
+        return mockServerMatcher.handle(firstExpectationRequest);
+    }
+
+    @Benchmark
+    public Action handleLastExpectation() {
+        return mockServerMatcher.handle(lastExpectationRequest);
+    }
+
+    @Benchmark
+    public Action handleUnmatched() {
+        return mockServerMatcher.handle(unmatchedRequest);
+    }
+}
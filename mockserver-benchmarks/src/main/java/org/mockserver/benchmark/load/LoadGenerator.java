@@ -0,0 +1,307 @@
+package org.mockserver.benchmark.load;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.HdrHistogram.Recorder;
+import org.mockserver.socket.SSLFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaders.Names.HOST;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * Open loop load generator, requests are scheduled at a fixed rate regardless of how quickly responses
+ * arrive and each latency is measured from the time the request was scheduled to be sent, not from the
+ * time it was actually written, so a stalled server is not hidden by the generator slowing down with it
+ * (coordinated omission)
+ * <p/>
+ * Requests that are due while every connection is busy wait in a queue and are sent on the next free
+ * connection, connections are opened on demand up to the maximum
+ *
+ * @author jamesdbloom
+ */
+public class LoadGenerator {
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private final LoadTarget target;
+    private final int maxConnections;
+    private final Bootstrap bootstrap;
+    private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final Queue<Long> waitingRequests = new ConcurrentLinkedQueue<Long>();
+    private final Queue<Channel> idleConnections = new ConcurrentLinkedQueue<Channel>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong outstandingRequests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Recorder latencies = new Recorder(3);
+    private volatile long measurementStartNanos;
+
+    public LoadGenerator(EventLoopGroup eventLoopGroup, LoadTarget target, int maxConnections) {
+        this.target = target;
+        this.maxConnections = maxConnections;
+        this.bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline().addLast("codec", new HttpClientCodec());
+                        channel.pipeline().addLast("aggregator", new HttpObjectAggregator(Integer.MAX_VALUE));
+                        channel.pipeline().addLast("handler", new ResponseHandler());
+                    }
+                });
+    }
+
+    /**
+     * Sends requests at the given rate, requests scheduled during the warmup are sent but not recorded
+     */
+    public LoadResult run(int requestsPerSecond, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long startNanos = System.nanoTime();
+        measurementStartNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = measurementStartNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        long scheduled = 0;
+        for (long intendedStartNanos = startNanos; intendedStartNanos - endNanos < 0; intendedStartNanos = startNanos + (++scheduled * intervalNanos)) {
+            long waitNanos = intendedStartNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            outstandingRequests.incrementAndGet();
+            waitingRequests.offer(intendedStartNanos);
+            sendWaitingRequests();
+        }
+
+        long drainDeadlineNanos = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (outstandingRequests.get() > 0 && System.nanoTime() - drainDeadlineNanos < 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        // anything still unanswered after the drain timeout counts as an error
+        long unanswered = outstandingRequests.get();
+        channels.close().awaitUninterruptibly();
+
+        return new LoadResult(target.getName(), requestsPerSecond, durationSeconds, errors.get() + unanswered, latencies.getIntervalHistogram());
+    }
+
+    /**
+     * Called whenever a request is queued or a connection or connection slot becomes free, both sides
+     * re-check the other after publishing so a request is never left waiting next to an idle connection
+     */
+    private void sendWaitingRequests() {
+        while (!waitingRequests.isEmpty()) {
+            Channel channel = pollIdleConnection();
+            if (channel != null) {
+                Long intendedStartNanos = waitingRequests.poll();
+                if (intendedStartNanos != null) {
+                    send(channel, intendedStartNanos);
+                } else {
+                    idleConnections.offer(channel);
+                    return;
+                }
+            } else if (openConnections.incrementAndGet() <= maxConnections) {
+                Long intendedStartNanos = waitingRequests.poll();
+                if (intendedStartNanos != null) {
+                    openConnection(intendedStartNanos);
+                } else {
+                    openConnections.decrementAndGet();
+                    return;
+                }
+            } else {
+                openConnections.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private Channel pollIdleConnection() {
+        Channel channel;
+        do {
+            channel = idleConnections.poll();
+        } while (channel != null && !channel.isActive());
+        return channel;
+    }
+
+    private void openConnection(final long intendedStartNanos) {
+        bootstrap.connect(target.getAddress()).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (future.isSuccess()) {
+                    channels.add(future.channel());
+                    if (target.getTunnelHost() != null) {
+                        openTunnel(future.channel(), intendedStartNanos);
+                    } else {
+                        send(future.channel(), intendedStartNanos);
+                    }
+                } else {
+                    requestFailed(intendedStartNanos);
+                    connectionClosed();
+                }
+            }
+        });
+    }
+
+    private void openTunnel(Channel channel, long intendedStartNanos) {
+        FullHttpRequest connect = new DefaultFullHttpRequest(HTTP_1_1, HttpMethod.CONNECT, target.getTunnelHost());
+        connect.headers().set(HOST, target.getTunnelHost());
+        channel.pipeline().get(ResponseHandler.class).connecting(intendedStartNanos);
+        channel.writeAndFlush(connect);
+    }
+
+    private void send(final Channel channel, final long intendedStartNanos) {
+        // run on the event loop so the request cannot race with the channel closing
+        channel.eventLoop().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (channel.isActive()) {
+                    write(channel, intendedStartNanos);
+                } else {
+                    requestFailed(intendedStartNanos);
+                }
+            }
+        });
+    }
+
+    private void write(Channel channel, long intendedStartNanos) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, HttpMethod.GET, target.getUri());
+        request.headers().set(HOST, target.getHost());
+        request.headers().set(CONTENT_LENGTH, 0);
+        channel.pipeline().get(ResponseHandler.class).sending(intendedStartNanos);
+        channel.writeAndFlush(request);
+    }
+
+    private void requestSucceeded(long intendedStartNanos) {
+        long nowNanos = System.nanoTime();
+        if (intendedStartNanos - measurementStartNanos >= 0) {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nowNanos - intendedStartNanos));
+        }
+        outstandingRequests.decrementAndGet();
+    }
+
+    private void requestFailed(long intendedStartNanos) {
+        if (intendedStartNanos - measurementStartNanos >= 0) {
+            errors.incrementAndGet();
+        }
+        outstandingRequests.decrementAndGet();
+    }
+
+    private void connectionFree(Channel channel) {
+        if (target.isConnectionPerRequest()) {
+            // the slot is released when the channel becomes inactive
+            channel.close();
+        } else {
+            idleConnections.offer(channel);
+            sendWaitingRequests();
+        }
+    }
+
+    private void connectionClosed() {
+        openConnections.decrementAndGet();
+        sendWaitingRequests();
+    }
+
+    /**
+     * Tracks the single request in flight on a connection, including the CONNECT and TLS handshake that
+     * open a tunnelled connection, and is only accessed from the connection's event loop
+     */
+    private class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+        private boolean inFlight;
+        private boolean connecting;
+        private long intendedStartNanos;
+
+        void connecting(long intendedStartNanos) {
+            this.inFlight = true;
+            this.connecting = true;
+            this.intendedStartNanos = intendedStartNanos;
+        }
+
+        void sending(long intendedStartNanos) {
+            this.inFlight = true;
+            this.connecting = false;
+            this.intendedStartNanos = intendedStartNanos;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+            if (connecting) {
+                connecting = false;
+                if (response.getStatus().code() == 200) {
+                    startTls(ctx.channel());
+                } else {
+                    ctx.close();
+                }
+                return;
+            }
+            if (inFlight) {
+                inFlight = false;
+                if (response.getStatus().code() < 400) {
+                    requestSucceeded(intendedStartNanos);
+                } else {
+                    requestFailed(intendedStartNanos);
+                }
+            }
+            if (HttpHeaders.isKeepAlive(response)) {
+                connectionFree(ctx.channel());
+            } else {
+                ctx.close();
+            }
+        }
+
+        /**
+         * After the CONNECT response the client codec passes bytes through untouched, so it is replaced
+         * with a fresh codec behind the SslHandler
+         */
+        private void startTls(final Channel channel) {
+            ChannelPipeline pipeline = channel.pipeline();
+            pipeline.remove("codec");
+            pipeline.remove("aggregator");
+            String[] hostAndPort = target.getTunnelHost().split(":");
+            SslHandler sslHandler = new SslHandler(SSLFactory.createClientSSLEngine(hostAndPort[0], Integer.parseInt(hostAndPort[1])));
+            pipeline.addFirst("ssl", sslHandler);
+            pipeline.addBefore("handler", "codec", new HttpClientCodec());
+            pipeline.addBefore("handler", "aggregator", new HttpObjectAggregator(Integer.MAX_VALUE));
+            sslHandler.handshakeFuture().addListener(new GenericFutureListener<Future<Channel>>() {
+                @Override
+                public void operationComplete(Future<Channel> future) {
+                    // a tunnel that fails or closes is counted as an error when the channel becomes inactive
+                    if (future.isSuccess() && channel.isActive()) {
+                        write(channel, intendedStartNanos);
+                    } else {
+                        channel.close();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (inFlight) {
+                inFlight = false;
+                requestFailed(intendedStartNanos);
+            }
+            connectionClosed();
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
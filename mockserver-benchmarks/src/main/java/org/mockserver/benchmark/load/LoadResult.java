@@ -0,0 +1,74 @@
+package org.mockserver.benchmark.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+
+/**
+ * The latency distribution and throughput of one load scenario, latencies are recorded in microseconds
+ * from the time each request was scheduled to be sent so any queuing caused by a slow server is included
+ *
+ * @author jamesdbloom
+ */
+public class LoadResult {
+
+    private static final String ROW_FORMAT = "%-14s %10s %10s %8s %10s %10s %10s %10s %10s %10s%n";
+    private final String name;
+    private final int targetRequestsPerSecond;
+    private final int durationSeconds;
+    private final long errors;
+    private final Histogram latencies;
+
+    public LoadResult(String name, int targetRequestsPerSecond, int durationSeconds, long errors, Histogram latencies) {
+        this.name = name;
+        this.targetRequestsPerSecond = targetRequestsPerSecond;
+        this.durationSeconds = durationSeconds;
+        this.errors = errors;
+        this.latencies = latencies;
+    }
+
+    public static void printHeader(PrintStream out) {
+        out.printf(ROW_FORMAT, "scenario", "target/s", "actual/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public Histogram getLatencies() {
+        return latencies;
+    }
+
+    public double requestsPerSecond() {
+        return (double) latencies.getTotalCount() / durationSeconds;
+    }
+
+    public void printRow(PrintStream out) {
+        out.printf(ROW_FORMAT,
+                name,
+                targetRequestsPerSecond,
+                String.format("%.1f", requestsPerSecond()),
+                errors,
+                millis(latencies.getValueAtPercentile(50.0)),
+                millis(latencies.getValueAtPercentile(90.0)),
+                millis(latencies.getValueAtPercentile(99.0)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getValueAtPercentile(99.99)),
+                millis(latencies.getMaxValue())
+        );
+    }
+
+    public void printPercentileDistribution(PrintStream out) {
+        out.println();
+        out.println(name + " latency distribution (ms)");
+        latencies.outputPercentileDistribution(out, 1000.0);
+    }
+
+    private String millis(long micros) {
+        return String.format("%.3f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,77 @@
+package org.mockserver.benchmark.load;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Where and how a load scenario sends its requests, either directly to a server or, when a tunnel is
+ * set, through a CONNECT tunnel and TLS to the tunnel host
+ *
+ * @author jamesdbloom
+ */
+public class LoadTarget {
+
+    private final String name;
+    private final InetSocketAddress address;
+    private String uri = "/";
+    private String host;
+    private String tunnelHost;
+    private boolean connectionPerRequest;
+
+    public LoadTarget(String name, InetSocketAddress address) {
+        this.name = name;
+        this.address = address;
+        this.host = address.getHostName() + ":" + address.getPort();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public LoadTarget withUri(String uri) {
+        this.uri = uri;
+        return this;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public LoadTarget withHost(String host) {
+        this.host = host;
+        return this;
+    }
+
+    public String getTunnelHost() {
+        return tunnelHost;
+    }
+
+    /**
+     * Open each connection with CONNECT to the tunnel host and then start TLS over the tunnel
+     */
+    public LoadTarget withTunnelHost(String tunnelHost) {
+        this.tunnelHost = tunnelHost;
+        this.host = tunnelHost;
+        return this;
+    }
+
+    public boolean isConnectionPerRequest() {
+        return connectionPerRequest;
+    }
+
+    /**
+     * Open a new connection for every request, including the CONNECT and TLS handshake when tunnelling,
+     * instead of reusing keep-alive connections
+     */
+    public LoadTarget withConnectionPerRequest(boolean connectionPerRequest) {
+        this.connectionPerRequest = connectionPerRequest;
+        return this;
+    }
+}
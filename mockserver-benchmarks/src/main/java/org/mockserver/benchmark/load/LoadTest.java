@@ -0,0 +1,153 @@
+package org.mockserver.benchmark.load;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.echo.http.EchoServer;
+import org.mockserver.mockserver.MockServer;
+import org.mockserver.model.Delay;
+import org.mockserver.proxy.http.HttpProxy;
+import org.mockserver.socket.PortFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpForward.forward;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * End to end load test of MockServer and HttpProxy, both are started in process with EchoServer as the
+ * upstream for forwarded and proxied requests and each scenario is driven at a fixed request rate by a
+ * LoadGenerator, run with:
+ * <p/>
+ * mvn -Pbenchmarks -pl mockserver-benchmarks exec:exec -Dload.rate=2000 -Dload.duration=30
+ * <p/>
+ * the following system properties are supported:
+ * <ul>
+ * <li>load.rate - requests per second for each scenario, default 1000</li>
+ * <li>load.warmup - seconds of unrecorded warmup before each scenario, default 5</li>
+ * <li>load.duration - seconds recorded for each scenario, default 30</li>
+ * <li>load.connections - maximum connections for each scenario, default 64</li>
+ * <li>load.delay - milliseconds delay of the delayed mock response, default 50</li>
+ * <li>load.scenarios - comma separated scenarios to run, default all of plain_mock, delayed_mock, forward, proxy, https_proxy, connect</li>
+ * <li>load.histograms - also print the full latency distribution of each scenario, default false</li>
+ * </ul>
+ *
+ * @author jamesdbloom
+ */
+public class LoadTest {
+
+    private static final String LOCALHOST = "localhost";
+
+    public enum Scenario {
+        PLAIN_MOCK,
+        DELAYED_MOCK,
+        FORWARD,
+        PROXY,
+        HTTPS_PROXY,
+        CONNECT
+    }
+
+    private final int echoServerPort = PortFactory.findFreePort();
+    private final int secureEchoServerPort = PortFactory.findFreePort();
+    private final int mockServerPort = PortFactory.findFreePort();
+    private final int proxyPort = PortFactory.findFreePort();
+    private EchoServer echoServer;
+    private EchoServer secureEchoServer;
+    private MockServer mockServer;
+    private HttpProxy httpProxy;
+
+    public static void main(String[] args) throws InterruptedException {
+        int rate = Integer.getInteger("load.rate", 1000);
+        int warmup = Integer.getInteger("load.warmup", 5);
+        int duration = Integer.getInteger("load.duration", 30);
+        int connections = Integer.getInteger("load.connections", 64);
+        int delay = Integer.getInteger("load.delay", 50);
+        boolean histograms = Boolean.getBoolean("load.histograms");
+        List<Scenario> scenarios = new ArrayList<Scenario>();
+        for (String scenario : System.getProperty("load.scenarios", "plain_mock,delayed_mock,forward,proxy,https_proxy,connect").split(",")) {
+            if (!scenario.trim().isEmpty()) {
+                scenarios.add(Scenario.valueOf(scenario.trim().toUpperCase()));
+            }
+        }
+
+        LoadTest loadTest = new LoadTest();
+        loadTest.start(delay);
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
+        List<LoadResult> results = new ArrayList<LoadResult>();
+        try {
+            for (Scenario scenario : scenarios) {
+                System.out.printf("running %s at %d requests/s for %ds after %ds warmup%n", scenario.name().toLowerCase(), rate, duration, warmup);
+                results.add(new LoadGenerator(eventLoopGroup, loadTest.target(scenario), connections).run(rate, warmup, duration));
+            }
+        } finally {
+            eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            loadTest.stop();
+        }
+
+        System.out.println();
+        LoadResult.printHeader(System.out);
+        for (LoadResult result : results) {
+            result.printRow(System.out);
+        }
+        if (histograms) {
+            for (LoadResult result : results) {
+                result.printPercentileDistribution(System.out);
+            }
+        }
+    }
+
+    private void start(int delayMillis) {
+        echoServer = new EchoServer(echoServerPort, false);
+        secureEchoServer = new EchoServer(secureEchoServerPort, true);
+        mockServer = new MockServer(mockServerPort);
+        httpProxy = new HttpProxy(proxyPort);
+
+        MockServerClient mockServerClient = new MockServerClient(LOCALHOST, mockServerPort);
+        mockServerClient
+                .when(request().withPath("/plain_mock"))
+                .respond(response().withStatusCode(200).withBody("plain_mock"));
+        mockServerClient
+                .when(request().withPath("/delayed_mock"))
+                .respond(response().withStatusCode(200).withBody("delayed_mock").withDelay(new Delay(TimeUnit.MILLISECONDS, delayMillis)));
+        mockServerClient
+                .when(request().withPath("/forward"))
+                .forward(forward().withHost(LOCALHOST).withPort(echoServerPort));
+    }
+
+    private void stop() {
+        httpProxy.stop();
+        mockServer.stop();
+        secureEchoServer.stop();
+        echoServer.stop();
+    }
+
+    private LoadTarget target(Scenario scenario) {
+        String name = scenario.name().toLowerCase();
+        switch (scenario) {
+            case PLAIN_MOCK:
+            case DELAYED_MOCK:
+            case FORWARD:
+                return new LoadTarget(name, new InetSocketAddress(LOCALHOST, mockServerPort))
+                        .withUri("/" + name);
+            case PROXY:
+                return new LoadTarget(name, new InetSocketAddress(LOCALHOST, proxyPort))
+                        .withUri("http://" + LOCALHOST + ":" + echoServerPort + "/" + name)
+                        .withHost(LOCALHOST + ":" + echoServerPort);
+            case HTTPS_PROXY:
+                return new LoadTarget(name, new InetSocketAddress(LOCALHOST, proxyPort))
+                        .withTunnelHost(LOCALHOST + ":" + secureEchoServerPort)
+                        .withUri("/" + name);
+            case CONNECT:
+                return new LoadTarget(name, new InetSocketAddress(LOCALHOST, proxyPort))
+                        .withTunnelHost(LOCALHOST + ":" + secureEchoServerPort)
+                        .withUri("/" + name)
+                        .withConnectionPerRequest(true);
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+}
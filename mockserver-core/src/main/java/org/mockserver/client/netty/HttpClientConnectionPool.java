@@ -0,0 +1,219 @@
+package org.mockserver.client.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.ChannelPoolHandler;
+import io.netty.channel.pool.ChannelPoolMap;
+import io.netty.channel.pool.SimpleChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.Promise;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Keeps connections to each destination open between requests, all connections share a single event loop
+ *
+ * @author jamesdbloom
+ */
+public class HttpClientConnectionPool {
+
+    private static final EventLoopGroup EVENT_LOOP_GROUP = new NioEventLoopGroup(0, new DefaultThreadFactory("mockserver-client", true));
+    private final EventLoopGroup eventLoopGroup;
+    private final ChannelPoolMap<Destination, ChannelPool> channelPools;
+
+    public HttpClientConnectionPool() {
+        this(EVENT_LOOP_GROUP, ConfigurationProperties.maxConnectionsPerDestination());
+    }
+
+    public HttpClientConnectionPool(EventLoopGroup eventLoopGroup, final int maxConnectionsPerDestination) {
+        this.eventLoopGroup = eventLoopGroup;
+        final Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(NioSocketChannel.class);
+        this.channelPools = new AbstractChannelPoolMap<Destination, ChannelPool>() {
+            @Override
+            protected ChannelPool newPool(Destination destination) {
+                return new DestinationChannelPool(
+                        bootstrap.clone().remoteAddress(destination.address),
+                        new HttpClientInitializer(destination.address, destination.secure),
+                        maxConnectionsPerDestination
+                );
+            }
+        };
+    }
+
+    public EventLoopGroup eventLoopGroup() {
+        return eventLoopGroup;
+    }
+
+    public Future<Channel> acquire(InetSocketAddress address, boolean secure) {
+        return channelPools.get(new Destination(address, secure)).acquire();
+    }
+
+    public void release(InetSocketAddress address, boolean secure, final Channel channel, boolean keepAlive) {
+        channel.attr(HttpClientHandler.RESPONSE_FUTURE).remove();
+        final ChannelPool channelPool = channelPools.get(new Destination(address, secure));
+        if (keepAlive) {
+            channelPool.release(channel);
+        } else {
+            // the pool drops closed channels so release once closed to return the connection's permit without keeping it
+            channel.close().addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) {
+                    channelPool.release(channel);
+                }
+            });
+        }
+    }
+
+    public boolean isReusedConnection(Channel channel) {
+        return Boolean.TRUE.equals(channel.attr(HttpClientInitializer.REUSED_CONNECTION).get());
+    }
+
+    /**
+     * Limits the number of connections to a destination, like FixedChannelPool, but never keeps or hands out closed
+     * channels, FixedChannelPool in Netty 4.0.28 acquires a replacement for an unhealthy channel through its own limit
+     * while still holding the unhealthy channel's permit so with a full pool the acquire never completes
+     */
+    private static class DestinationChannelPool extends SimpleChannelPool {
+
+        private static final ChannelHealthChecker ALWAYS_HEALTHY = new ChannelHealthChecker() {
+            @Override
+            public Future<Boolean> isHealthy(Channel channel) {
+                return channel.eventLoop().newSucceededFuture(Boolean.TRUE);
+            }
+        };
+        private final EventExecutor executor;
+        private final int maxConnections;
+        private final Queue<Promise<Channel>> pendingAcquires = new ArrayDeque<Promise<Channel>>();
+        // only accessed from the executor
+        private int acquiredChannelCount;
+
+        DestinationChannelPool(Bootstrap bootstrap, ChannelPoolHandler handler, int maxConnections) {
+            // closed channels are dropped by pollChannel and offerChannel instead of being health checked
+            super(bootstrap, handler, ALWAYS_HEALTHY);
+            this.executor = bootstrap.group().next();
+            this.maxConnections = maxConnections;
+        }
+
+        @Override
+        public Future<Channel> acquire(final Promise<Channel> promise) {
+            if (executor.inEventLoop()) {
+                acquireWithinLimit(promise);
+            } else {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        acquireWithinLimit(promise);
+                    }
+                });
+            }
+            return promise;
+        }
+
+        private void acquireWithinLimit(final Promise<Channel> promise) {
+            if (acquiredChannelCount < maxConnections) {
+                acquiredChannelCount++;
+                super.acquire(executor.<Channel>newPromise()).addListener(new FutureListener<Channel>() {
+                    @Override
+                    public void operationComplete(Future<Channel> future) {
+                        if (future.isSuccess()) {
+                            if (!promise.trySuccess(future.getNow())) {
+                                // the acquire was cancelled or timed out
+                                release(future.getNow());
+                            }
+                        } else {
+                            releasePermit();
+                            promise.tryFailure(future.cause());
+                        }
+                    }
+                });
+            } else {
+                pendingAcquires.add(promise);
+            }
+        }
+
+        @Override
+        public Future<Void> release(Channel channel, final Promise<Void> promise) {
+            super.release(channel, executor.<Void>newPromise()).addListener(new FutureListener<Void>() {
+                @Override
+                public void operationComplete(Future<Void> future) {
+                    if (future.isSuccess()) {
+                        releasePermit();
+                        promise.trySuccess(null);
+                    } else {
+                        // an IllegalArgumentException means the channel was not acquired from this pool so holds no permit
+                        if (!(future.cause() instanceof IllegalArgumentException)) {
+                            releasePermit();
+                        }
+                        promise.tryFailure(future.cause());
+                    }
+                }
+            });
+            return promise;
+        }
+
+        private void releasePermit() {
+            acquiredChannelCount--;
+            Promise<Channel> pendingAcquire = pendingAcquires.poll();
+            if (pendingAcquire != null) {
+                acquireWithinLimit(pendingAcquire);
+            }
+        }
+
+        @Override
+        protected Channel pollChannel() {
+            Channel channel = super.pollChannel();
+            while (channel != null && !channel.isActive()) {
+                channel = super.pollChannel();
+            }
+            return channel;
+        }
+
+        @Override
+        protected boolean offerChannel(Channel channel) {
+            return !channel.isActive() || super.offerChannel(channel);
+        }
+    }
+
+    static class Destination {
+        private final InetSocketAddress address;
+        private final boolean secure;
+
+        Destination(InetSocketAddress address, boolean secure) {
+            this.address = address;
+            this.secure = secure;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Destination)) {
+                return false;
+            }
+            Destination that = (Destination) other;
+            return secure == that.secure && address.equals(that.address);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * address.hashCode() + (secure ? 1 : 0);
+        }
+    }
+}
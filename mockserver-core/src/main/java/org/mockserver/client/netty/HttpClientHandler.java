@@ -4,15 +4,15 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.ssl.NotSslRecordException;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.AttributeKey;
 import org.mockserver.model.HttpResponse;
 
-public class HttpClientHandler extends SimpleChannelInboundHandler<HttpResponse> {
+import java.nio.channels.ClosedChannelException;
 
-    private final SettableFuture<HttpResponse> responseFuture = SettableFuture.<HttpResponse>create();
+public class HttpClientHandler extends SimpleChannelInboundHandler<HttpResponse> {
 
-    public SettableFuture<HttpResponse> getResponseFuture() {
-        return responseFuture;
-    }
+    public static final AttributeKey<SettableFuture<HttpResponse>> RESPONSE_FUTURE = AttributeKey.valueOf("RESPONSE_FUTURE");
 
     public HttpClientHandler() {
         super(false);
@@ -20,8 +20,30 @@ public class HttpClientHandler extends SimpleChannelInboundHandler<HttpResponse>
 
     @Override
     public void channelRead0(ChannelHandlerContext ctx, HttpResponse response) {
-        responseFuture.set(response);
-        ctx.close();
+        SettableFuture<HttpResponse> responseFuture = ctx.channel().attr(RESPONSE_FUTURE).getAndRemove();
+        if (responseFuture != null) {
+            responseFuture.set(response);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // connection closed by the remote end before the response was received
+        SettableFuture<HttpResponse> responseFuture = ctx.channel().attr(RESPONSE_FUTURE).getAndRemove();
+        if (responseFuture != null) {
+            responseFuture.setException(new ClosedChannelException());
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        // only close pooled connections that are not waiting for a response
+        if (evt instanceof IdleStateEvent && ctx.channel().attr(RESPONSE_FUTURE).get() == null) {
+            ctx.close();
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
     }
 
     @Override
@@ -29,7 +51,10 @@ public class HttpClientHandler extends SimpleChannelInboundHandler<HttpResponse>
         if (!(cause instanceof NotSslRecordException)) {
             cause.printStackTrace();
         }
-        responseFuture.setException(cause);
+        SettableFuture<HttpResponse> responseFuture = ctx.channel().attr(RESPONSE_FUTURE).getAndRemove();
+        if (responseFuture != null) {
+            responseFuture.setException(cause);
+        }
         ctx.close();
     }
-}
\ No newline at end of file
+}
@@ -1,38 +1,48 @@
 package org.mockserver.client.netty;
 
-import com.google.common.util.concurrent.SettableFuture;
-import io.netty.channel.ChannelInitializer;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
 import org.mockserver.client.netty.codec.MockServerClientCodec;
-import org.mockserver.model.HttpResponse;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.socket.SSLFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
-public class HttpClientInitializer extends ChannelInitializer<SocketChannel> {
+public class HttpClientInitializer extends AbstractChannelPoolHandler {
 
+    public static final AttributeKey<Boolean> REUSED_CONNECTION = AttributeKey.valueOf("REUSED_CONNECTION");
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final InetSocketAddress destination;
     private final boolean secure;
-    private HttpClientHandler httpClientHandler = new HttpClientHandler();
 
-    public HttpClientInitializer(boolean secure) {
+    public HttpClientInitializer(InetSocketAddress destination, boolean secure) {
+        this.destination = destination;
         this.secure = secure;
     }
 
     @Override
-    public void initChannel(SocketChannel channel) throws SSLException {
+    public void channelCreated(Channel channel) throws SSLException {
         ChannelPipeline pipeline = channel.pipeline();
 
+        // close pooled connections that have been idle for too long
+        pipeline.addLast(new IdleStateHandler(0, 0, ConfigurationProperties.connectionIdleTimeout(), TimeUnit.MILLISECONDS));
+
         if (secure) {
-            pipeline.addLast(new SslHandler(SSLFactory.createClientSSLEngine()));
+            // engines for the same host and port can resume previous sessions
+            pipeline.addLast(new SslHandler(SSLFactory.createClientSSLEngine(peerHost(destination), destination.getPort())));
         }
 
         // add logging
@@ -44,14 +54,26 @@ public class HttpClientInitializer extends ChannelInitializer<SocketChannel> {
 
         pipeline.addLast(new HttpContentDecompressor());
 
-        pipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+        pipeline.addLast(new HttpObjectAggregator((int) Math.min(ConfigurationProperties.maxContentLength(), Integer.MAX_VALUE)));
+
+        // writes request bodies streamed from a file
+        pipeline.addLast(new ChunkedWriteHandler());
 
         pipeline.addLast(new MockServerClientCodec());
 
-        pipeline.addLast(httpClientHandler);
+        pipeline.addLast(new HttpClientHandler());
+    }
+
+    @Override
+    public void channelReleased(Channel channel) {
+        channel.attr(REUSED_CONNECTION).set(Boolean.TRUE);
     }
 
-    public SettableFuture<HttpResponse> getResponseFuture() {
-        return httpClientHandler.getResponseFuture();
+    private String peerHost(InetSocketAddress destination) {
+        if (destination.isUnresolved() || destination.getAddress() == null) {
+            return destination.getHostName();
+        } else {
+            return destination.getAddress().getHostAddress();
+        }
     }
-}
\ No newline at end of file
+}
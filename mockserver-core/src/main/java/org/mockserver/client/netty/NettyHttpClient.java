@@ -1,89 +1,206 @@
 package org.mockserver.client.netty;
 
-import io.netty.bootstrap.Bootstrap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.model.OutboundHttpRequest;
+import org.mockserver.socket.CachingHostResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaders.Values.CLOSE;
 
 public class NettyHttpClient {
 
+    private static final Set<String> IDEMPOTENT_METHODS = ImmutableSet.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+    private static final HttpClientConnectionPool CONNECTION_POOL = new HttpClientConnectionPool();
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final HttpClientConnectionPool connectionPool;
+    private final CachingHostResolver hostResolver;
+
+    public NettyHttpClient() {
+        this(CONNECTION_POOL);
+    }
+
+    public NettyHttpClient(HttpClientConnectionPool connectionPool) {
+        this(connectionPool, CachingHostResolver.getInstance());
+    }
+
+    public NettyHttpClient(HttpClientConnectionPool connectionPool, CachingHostResolver hostResolver) {
+        this.connectionPool = connectionPool;
+        this.hostResolver = hostResolver;
+    }
 
     public HttpResponse sendRequest(final OutboundHttpRequest httpRequest) throws SocketConnectionException {
-        return sendRequest(httpRequest, true);
+        try {
+            // the response future always completes within maxSocketTimeout
+            return sendRequestAsync(httpRequest).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new RuntimeException("Exception while sending request", e);
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Exception while sending request", e);
+        }
+    }
+
+    /**
+     * Sends the request without blocking the calling thread, the returned future fails with a SocketConnectionException
+     * or SocketCommunicationException in the same cases sendRequest throws them
+     */
+    public ListenableFuture<HttpResponse> sendRequestAsync(final OutboundHttpRequest httpRequest) {
+        final SettableFuture<HttpResponse> httpResponseFuture = SettableFuture.create();
+
+        // fail the response if it hasn't been received in time
+        final ScheduledFuture<?> timeout = connectionPool.eventLoopGroup().schedule(new Runnable() {
+            @Override
+            public void run() {
+                httpResponseFuture.setException(new SocketCommunicationException("Response was not received after " + ConfigurationProperties.maxSocketTimeout() + " milliseconds, to make the proxy wait longer please use \"mockserver.maxSocketTimeout\" system property or ConfigurationProperties.maxSocketTimeout(long milliseconds)", null));
+            }
+        }, ConfigurationProperties.maxSocketTimeout(), TimeUnit.MILLISECONDS);
+        httpResponseFuture.addListener(new Runnable() {
+            @Override
+            public void run() {
+                timeout.cancel(false);
+            }
+        }, MoreExecutors.directExecutor());
+
+        sendRequest(httpRequest, true, httpResponseFuture);
+        return httpResponseFuture;
     }
 
-    private HttpResponse sendRequest(final OutboundHttpRequest httpRequest, final boolean retry) throws SocketConnectionException {
+    private void sendRequest(final OutboundHttpRequest httpRequest, final boolean retry, final SettableFuture<HttpResponse> httpResponseFuture) {
+        // resolve the destination without blocking the calling thread, which may be an event loop
+        Futures.addCallback(hostResolver.resolveAsync(httpRequest.getDestination()), new FutureCallback<InetSocketAddress>() {
+            @Override
+            public void onSuccess(InetSocketAddress destination) {
+                sendRequest(httpRequest, destination, retry, httpResponseFuture);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                httpResponseFuture.setException(new SocketConnectionException("Unable to resolve host " + httpRequest.getDestination(), throwable));
+            }
+        });
+    }
+
+    private void sendRequest(final OutboundHttpRequest httpRequest, final InetSocketAddress destination, final boolean retry, final SettableFuture<HttpResponse> httpResponseFuture) {
         logger.debug("Sending request: {}", httpRequest);
 
-        // configure the client
-        EventLoopGroup group = new NioEventLoopGroup();
+        final SettableFuture<HttpResponse> responseFuture = SettableFuture.create();
+        final AtomicBoolean reusedConnection = new AtomicBoolean(false);
 
-        try {
-            final HttpClientInitializer channelInitializer = new HttpClientInitializer(httpRequest.isSecure());
-
-            // make the connection attempt
-            new Bootstrap()
-                    .group(group)
-                    .channel(NioSocketChannel.class)
-                    .handler(channelInitializer)
-                    .connect(httpRequest.getDestination())
-                    .addListener(new ChannelFutureListener() {
+        // acquire a pooled connection or make a new connection attempt
+        connectionPool.acquire(destination, httpRequest.isSecure()).addListener(new FutureListener<Channel>() {
+            @Override
+            public void operationComplete(Future<Channel> future) throws Exception {
+                if (future.isSuccess()) {
+                    final Channel channel = future.getNow();
+                    reusedConnection.set(connectionPool.isReusedConnection(channel));
+                    channel.attr(HttpClientHandler.RESPONSE_FUTURE).set(responseFuture);
+
+                    // return connection to the pool once the response has been received, failed or timed out
+                    responseFuture.addListener(new Runnable() {
+                        @Override
+                        public void run() {
+                            connectionPool.release(destination, httpRequest.isSecure(), channel, canReuseConnection(httpRequest, responseFuture));
+                        }
+                    }, MoreExecutors.directExecutor());
+
+                    // send the HTTP request
+                    channel.writeAndFlush(httpRequest).addListener(new ChannelFutureListener() {
                         @Override
                         public void operationComplete(ChannelFuture future) throws Exception {
-                            if (future.isSuccess()) {
-                                // send the HTTP request
-                                future.channel().writeAndFlush(httpRequest);
-                            } else {
-                                channelInitializer.getResponseFuture().setException(future.cause());
+                            if (!future.isSuccess()) {
+                                responseFuture.setException(future.cause());
                             }
                         }
                     });
+                } else {
+                    responseFuture.setException(future.cause());
+                }
+            }
+        });
 
-            // wait for response
-            HttpResponse httpResponse = channelInitializer.getResponseFuture().get(ConfigurationProperties.maxSocketTimeout(), TimeUnit.MILLISECONDS);
-            logger.debug("Received response: {}", httpResponse);
-
-            // shutdown client
-            group.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        // abandon this attempt if the response times out
+        httpResponseFuture.addListener(new Runnable() {
+            @Override
+            public void run() {
+                responseFuture.cancel(true);
+            }
+        }, MoreExecutors.directExecutor());
 
-            return httpResponse;
+        Futures.addCallback(responseFuture, new FutureCallback<HttpResponse>() {
+            @Override
+            public void onSuccess(HttpResponse httpResponse) {
+                logger.debug("Received response: {}", httpResponse);
+                httpResponseFuture.set(httpResponse);
+            }
 
-        } catch (TimeoutException e) {
-            throw new SocketCommunicationException("Response was not received after " + ConfigurationProperties.maxSocketTimeout() + " milliseconds, to make the proxy wait longer please use \"mockserver.maxSocketTimeout\" system property or ConfigurationProperties.maxSocketTimeout(long milliseconds)", e.getCause());
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof ConnectException) {
-                throw new SocketConnectionException("Unable to connect to socket " + httpRequest.getDestination(), e.getCause());
-            } else if (e.getCause() instanceof UnknownHostException) {
-                throw new SocketConnectionException("Unable to resolve host " + httpRequest.getDestination(), e.getCause());
-            } else if (e.getCause() instanceof IOException) {
-                if (retry) {
-                    return sendRequest((OutboundHttpRequest) httpRequest.setSecure(!httpRequest.isSecure()), false);
+            @Override
+            public void onFailure(Throwable throwable) {
+                if (httpResponseFuture.isDone()) {
+                    return;
+                }
+                if (throwable instanceof ConnectException) {
+                    httpResponseFuture.setException(new SocketConnectionException("Unable to connect to socket " + destination, throwable));
+                } else if (throwable instanceof UnknownHostException) {
+                    httpResponseFuture.setException(new SocketConnectionException("Unable to resolve host " + httpRequest.getDestination(), throwable));
+                } else if (throwable instanceof IOException) {
+                    if (reusedConnection.get() && isIdempotent(httpRequest)) {
+                        // pooled connection was closed by the remote end so retry on a new connection, only idempotent
+                        // requests are retried as the remote end may have already processed the request before closing
+                        sendRequest(httpRequest, destination, retry, httpResponseFuture);
+                    } else if (retry) {
+                        sendRequest((OutboundHttpRequest) httpRequest.setSecure(!httpRequest.isSecure()), destination, false, httpResponseFuture);
+                    } else {
+                        httpResponseFuture.setException(new SocketCommunicationException("Error while communicating to " + destination, throwable));
+                    }
                 } else {
-                    throw new SocketCommunicationException("Error while communicating to " + httpRequest.getDestination(), e.getCause());
+                    httpResponseFuture.setException(new RuntimeException("Exception while sending request", throwable));
                 }
-            } else {
-                throw new RuntimeException("Exception while sending request", e);
             }
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Exception while sending request", e);
-        } finally {
-            // shut down executor threads to exit
-            group.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    static boolean isIdempotent(OutboundHttpRequest httpRequest) {
+        return IDEMPOTENT_METHODS.contains(httpRequest.getMethod("GET").toUpperCase());
+    }
+
+    private boolean canReuseConnection(OutboundHttpRequest httpRequest, SettableFuture<HttpResponse> responseFuture) {
+        if (!responseFuture.isDone() || responseFuture.isCancelled()) {
+            return false;
+        }
+        try {
+            HttpResponse httpResponse = responseFuture.get();
+            return httpResponse != null
+                    && !CLOSE.equalsIgnoreCase(httpRequest.getFirstHeader(CONNECTION))
+                    && !CLOSE.equalsIgnoreCase(httpResponse.getFirstHeader(CONNECTION));
+        } catch (Exception e) {
+            return false;
         }
     }
 }
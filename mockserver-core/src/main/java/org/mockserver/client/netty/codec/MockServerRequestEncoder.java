@@ -4,15 +4,18 @@ import com.google.common.base.Strings;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ClientCookieEncoder;
+import io.netty.handler.stream.ChunkedNioFile;
 import org.mockserver.mappers.ContentTypeMapper;
 import org.mockserver.model.*;
 import org.mockserver.model.HttpRequest;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,16 +34,39 @@ public class MockServerRequestEncoder extends MessageToMessageEncoder<OutboundHt
         // method
         HttpMethod httpMethod = HttpMethod.valueOf(httpRequest.getMethod("GET"));
 
-        // the request
-        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, httpMethod, getURI(httpRequest), getBody(httpRequest));
+        if (httpRequest.getBody() instanceof FileBody) {
+            // request bodies spilled to disk are streamed from the file by the ChunkedWriteHandler instead of being read into memory
+            FileBody fileBody = (FileBody) httpRequest.getBody();
+            ChunkedNioFile content;
+            try {
+                content = new ChunkedNioFile(fileBody.resolveFile());
+            } catch (IOException ioe) {
+                throw new EncoderException("Exception opening file " + fileBody.getFile() + " for request body", ioe);
+            }
+
+            // the request
+            DefaultHttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, httpMethod, getURI(httpRequest));
 
-        // headers
-        setHeader(httpRequest, request);
+            // headers
+            setHeader(httpRequest, request, content.endOffset() - content.startOffset());
 
-        // cookies
-        setCookies(httpRequest, request);
+            // cookies
+            setCookies(httpRequest, request);
+
+            out.add(request);
+            out.add(new HttpChunkedInput(content));
+        } else {
+            // the request
+            FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, httpMethod, getURI(httpRequest), getBody(httpRequest));
 
-        out.add(request);
+            // headers
+            setHeader(httpRequest, request, request.content().readableBytes());
+
+            // cookies
+            setCookies(httpRequest, request);
+
+            out.add(request);
+        }
     }
 
     public String getURI(OutboundHttpRequest httpRequest) {
@@ -69,7 +95,9 @@ public class MockServerRequestEncoder extends MessageToMessageEncoder<OutboundHt
         if (body != null) {
             Object bodyContents = body.getValue();
             Charset bodyCharset = body.getCharset(ContentTypeMapper.determineCharsetForMessage(httpRequest));
-            if (bodyContents instanceof byte[]) {
+            if (body instanceof StreamedBody) {
+                content = Unpooled.wrappedBuffer(body.getRawBytes());
+            } else if (bodyContents instanceof byte[]) {
                 content = Unpooled.copiedBuffer((byte[]) bodyContents);
             } else if (bodyContents instanceof String) {
                 content = Unpooled.copiedBuffer(((String) bodyContents).getBytes(bodyCharset));
@@ -80,7 +108,7 @@ public class MockServerRequestEncoder extends MessageToMessageEncoder<OutboundHt
         return content;
     }
 
-    private void setCookies(HttpRequest httpRequest, FullHttpRequest request) {
+    private void setCookies(HttpRequest httpRequest, HttpMessage request) {
         List<Cookie> cookies = new ArrayList<Cookie>();
         for (org.mockserver.model.Cookie cookie : httpRequest.getCookies()) {
             cookies.add(new DefaultCookie(cookie.getName().getValue(), cookie.getValue().getValue()));
@@ -93,7 +121,7 @@ public class MockServerRequestEncoder extends MessageToMessageEncoder<OutboundHt
         }
     }
 
-    private void setHeader(OutboundHttpRequest httpRequest, FullHttpRequest request) {
+    private void setHeader(OutboundHttpRequest httpRequest, HttpMessage request, long contentLength) {
         for (Header header : httpRequest.getHeaders()) {
             String headerName = header.getName().getValue();
             // do not set hop-by-hop headers
@@ -118,7 +146,7 @@ public class MockServerRequestEncoder extends MessageToMessageEncoder<OutboundHt
         }
         request.headers().add(HOST, httpRequest.getDestination().getHostName() + port);
         request.headers().set(ACCEPT_ENCODING, GZIP + "," + DEFLATE);
-        request.headers().set(CONTENT_LENGTH, request.content().readableBytes());
+        request.headers().set(CONTENT_LENGTH, contentLength);
         if (isKeepAlive(request)) {
             request.headers().set(CONNECTION, KEEP_ALIVE);
         } else {
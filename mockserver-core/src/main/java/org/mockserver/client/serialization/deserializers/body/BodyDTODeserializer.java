@@ -38,6 +38,7 @@ public class BodyDTODeserializer extends StdDeserializer<BodyDTO> {
         fieldNameToType.put("jsonSchema".toLowerCase(), Body.Type.JSON_SCHEMA);
         fieldNameToType.put("xpath".toLowerCase(), Body.Type.XPATH);
         fieldNameToType.put("bytes".toLowerCase(), Body.Type.BINARY);
+        fieldNameToType.put("file".toLowerCase(), Body.Type.FILE);
         fieldNameToType.put("parameters".toLowerCase(), Body.Type.PARAMETERS);
     }
 
@@ -52,6 +53,7 @@ public class BodyDTODeserializer extends StdDeserializer<BodyDTO> {
         Body.Type type = null;
         boolean not = false;
         Charset charset = null;
+        long length = 0;
         MatchType matchType = JsonBody.DEFAULT_MATCH_TYPE;
         List<Parameter> parameters = new ArrayList<Parameter>();
         if (currentToken == JsonToken.START_OBJECT) {
@@ -65,7 +67,7 @@ public class BodyDTODeserializer extends StdDeserializer<BodyDTO> {
                         logger.warn("Ignoring invalid value for \"type\" field of \"" + jsonParser.getText() + "\"");
                     }
                 }
-                if (jsonParser.getCurrentToken() == JsonToken.FIELD_NAME && containsIgnoreCase(jsonParser.getText(), "string", "regex", "json", "jsonSchema", "xpath", "bytes", "value") && type != Body.Type.PARAMETERS) {
+                if (jsonParser.getCurrentToken() == JsonToken.FIELD_NAME && containsIgnoreCase(jsonParser.getText(), "string", "regex", "json", "jsonSchema", "xpath", "bytes", "file", "value") && type != Body.Type.PARAMETERS) {
                     String fieldName = jsonParser.getText().toLowerCase();
                     if (fieldNameToType.containsKey(fieldName)) {
                         type = fieldNameToType.get(fieldName);
@@ -87,6 +89,14 @@ public class BodyDTODeserializer extends StdDeserializer<BodyDTO> {
                         logger.warn("Ignoring incorrect JsonBodyMatchType with value \"" + jsonParser.getText() + "\"");
                     }
                 }
+                if (jsonParser.getCurrentToken() == JsonToken.FIELD_NAME && jsonParser.getText().equalsIgnoreCase("length")) {
+                    jsonParser.nextToken();
+                    try {
+                        length = Long.parseLong(jsonParser.getText());
+                    } catch (NumberFormatException nfe) {
+                        logger.warn("Ignoring invalid value for \"length\" field of \"" + jsonParser.getText() + "\"");
+                    }
+                }
                 if (jsonParser.getCurrentToken() == JsonToken.FIELD_NAME && jsonParser.getText().equalsIgnoreCase("charset")) {
                     jsonParser.nextToken();
                     try {
@@ -157,6 +167,10 @@ public class BodyDTODeserializer extends StdDeserializer<BodyDTO> {
                         return new BinaryBodyDTO(new BinaryBody(Base64Converter.base64StringToBytes(valueJsonValue)), not);
                     case PARAMETERS:
                         return new ParameterBodyDTO(new ParameterBody(parameters), not);
+                    case FILE:
+                        return new FileBodyDTO(new FileBody(valueJsonValue), not);
+                    case GENERATED:
+                        return new GeneratedBodyDTO(new GeneratedBody(Math.max(length, 0), valueJsonValue), not);
                 }
             }
         } else if (currentToken == JsonToken.VALUE_STRING) {
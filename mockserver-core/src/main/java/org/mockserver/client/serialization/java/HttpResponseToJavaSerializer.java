@@ -3,6 +3,8 @@ package org.mockserver.client.serialization.java;
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.mockserver.model.Cookie;
+import org.mockserver.model.FileBody;
+import org.mockserver.model.GeneratedBody;
 import org.mockserver.model.Header;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
@@ -24,7 +26,12 @@ public class HttpResponseToJavaSerializer implements ToJavaSerializer<HttpRespon
             }
             outputHeaders(numberOfSpacesToIndent + 8, output, httpResponse.getHeaders());
             outputCookies(numberOfSpacesToIndent + 8, output, httpResponse.getCookies());
-            if (httpResponse.getBodyAsString() != null && httpResponse.getBodyAsString().length() > 0) {
+            if (httpResponse.getBody() instanceof FileBody) {
+                appendNewLineAndIndent(numberOfSpacesToIndent + 8, output).append(".withBody(new FileBody(\"").append(StringEscapeUtils.escapeJava(((FileBody) httpResponse.getBody()).getValue())).append("\"))");
+            } else if (httpResponse.getBody() instanceof GeneratedBody) {
+                GeneratedBody generatedBody = (GeneratedBody) httpResponse.getBody();
+                appendNewLineAndIndent(numberOfSpacesToIndent + 8, output).append(".withBody(new GeneratedBody(").append(generatedBody.getLength()).append("L, \"").append(StringEscapeUtils.escapeJava(generatedBody.getValue())).append("\"))");
+            } else if (httpResponse.getBodyAsString() != null && httpResponse.getBodyAsString().length() > 0) {
                 appendNewLineAndIndent(numberOfSpacesToIndent + 8, output).append(".withBody(\"").append(StringEscapeUtils.escapeJava(httpResponse.getBodyAsString())).append("\")");
             }
         }
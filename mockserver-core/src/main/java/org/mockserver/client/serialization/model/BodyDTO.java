@@ -41,6 +41,15 @@ public abstract class BodyDTO extends NotDTO {
         } else if (body instanceof BinaryBody) {
             BinaryBody binaryBody = (BinaryBody) body;
             result = new BinaryBodyDTO(binaryBody, binaryBody.getNot());
+        } else if (body instanceof TemporaryFileBody) {
+            // the file is deleted once the request is released so the content is serialized, not the file path
+            result = createDTO(((TemporaryFileBody) body).inMemoryBody());
+        } else if (body instanceof FileBody) {
+            FileBody fileBody = (FileBody) body;
+            result = new FileBodyDTO(fileBody, fileBody.getNot());
+        } else if (body instanceof GeneratedBody) {
+            GeneratedBody generatedBody = (GeneratedBody) body;
+            result = new GeneratedBodyDTO(generatedBody, generatedBody.getNot());
         }
 
         return result;
@@ -0,0 +1,31 @@
+package org.mockserver.client.serialization.model;
+
+import org.mockserver.model.FileBody;
+
+/**
+ * @author jamesdbloom
+ */
+public class FileBodyDTO extends BodyDTO {
+
+    private String value;
+
+    public FileBodyDTO(FileBody fileBody) {
+        this(fileBody, false);
+    }
+
+    public FileBodyDTO(FileBody fileBody, Boolean not) {
+        super(fileBody.getType(), not);
+        this.value = fileBody.getValue();
+    }
+
+    protected FileBodyDTO() {
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public FileBody buildObject() {
+        return new FileBody(value);
+    }
+}
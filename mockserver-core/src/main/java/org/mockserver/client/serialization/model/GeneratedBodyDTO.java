@@ -0,0 +1,37 @@
+package org.mockserver.client.serialization.model;
+
+import org.mockserver.model.GeneratedBody;
+
+/**
+ * @author jamesdbloom
+ */
+public class GeneratedBodyDTO extends BodyDTO {
+
+    private String value;
+    private long length;
+
+    public GeneratedBodyDTO(GeneratedBody generatedBody) {
+        this(generatedBody, false);
+    }
+
+    public GeneratedBodyDTO(GeneratedBody generatedBody, Boolean not) {
+        super(generatedBody.getType(), not);
+        this.value = generatedBody.getValue();
+        this.length = generatedBody.getLength();
+    }
+
+    protected GeneratedBodyDTO() {
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public GeneratedBody buildObject() {
+        return new GeneratedBody(length, value);
+    }
+}
@@ -34,7 +34,7 @@ public class HttpResponseDTOSerializer extends StdSerializer<HttpResponseDTO> {
                 jgen.writeObjectField("body", body);
             } else if (body instanceof JsonBodyDTO && !((JsonBodyDTO) body).getJson().isEmpty()) {
                 jgen.writeObjectField("body", ((JsonBodyDTO) body).getJson());
-            } else if (body instanceof BinaryBodyDTO) {
+            } else if (body instanceof BinaryBodyDTO || body instanceof FileBodyDTO || body instanceof GeneratedBodyDTO) {
                 jgen.writeObjectField("body", body);
             }
         }
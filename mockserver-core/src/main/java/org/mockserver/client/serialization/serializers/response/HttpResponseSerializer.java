@@ -34,7 +34,7 @@ public class HttpResponseSerializer extends StdSerializer<HttpResponse> {
                 jgen.writeObjectField("body", body);
             } else if (body instanceof JsonBody && !((JsonBody) body).getValue().isEmpty()) {
                 jgen.writeObjectField("body", ((JsonBody) body).getValue());
-            } else if (body instanceof BinaryBody) {
+            } else if (body instanceof BinaryBody || body instanceof StreamedBody) {
                 jgen.writeObjectField("body", body);
             }
         }
@@ -0,0 +1,169 @@
+package org.mockserver.collections;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A buffer with a fixed maximum size backed by an array allocated up front, once full each add overwrites the oldest entry
+ *
+ * any number of threads can add entries without locking, readers take a snapshot of the entries in the order they
+ * were added without blocking writers, entries that are still being added when the snapshot is taken are not included
+ *
+ * @author jamesdbloom
+ */
+public class ConcurrentCircularBuffer<E> {
+    private final AtomicReferenceArray<Slot<E>> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong firstVisibleSequence = new AtomicLong();
+
+    public ConcurrentCircularBuffer(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size [" + maxSize + "] must be greater then zero");
+        }
+        this.slots = new AtomicReferenceArray<Slot<E>>(maxSize);
+    }
+
+    public int maxSize() {
+        return slots.length();
+    }
+
+    /**
+     * Adds the entry, overwriting the oldest entry once full
+     *
+     * @return the entry that was overwritten, or the entry being added if a later entry has already overwritten it,
+     * or null if nothing was overwritten, each entry is returned at most once by add, removeAll or clear
+     */
+    public E add(E entry) {
+        long sequence = nextSequence.getAndIncrement();
+        Slot<E> slot = new Slot<E>(sequence, entry, false);
+        int index = index(sequence);
+        while (true) {
+            Slot<E> current = slots.get(index);
+            if (current != null && current.sequence > sequence) {
+                // a later entry has already wrapped around into this slot so this entry has been evicted
+                return entry;
+            }
+            if (slots.compareAndSet(index, current, slot)) {
+                return current != null && !current.removed ? current.entry : null;
+            }
+        }
+    }
+
+    public List<E> snapshot() {
+        long end = endSequence();
+        long start = startSequence(end);
+        List<E> entries = new ArrayList<E>((int) Math.max(end - start, 0));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot<E> slot = slots.get(index(sequence));
+            if (slot != null && slot.sequence == sequence && !slot.removed) {
+                entries.add(slot.entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * The sequence number that will be given to the next entry added
+     */
+    public long endSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * The sequence number of the oldest entry that has not been overwritten or cleared
+     */
+    public long startSequence() {
+        return startSequence(endSequence());
+    }
+
+    private long startSequence(long end) {
+        return Math.max(firstVisibleSequence.get(), end - slots.length());
+    }
+
+    /**
+     * The entry added with this sequence number, or null if it has been overwritten, removed, cleared or is still being added
+     */
+    public E get(long sequence) {
+        Slot<E> slot = slots.get(index(sequence));
+        if (slot != null && slot.sequence == sequence && !slot.removed && sequence >= firstVisibleSequence.get()) {
+            return slot.entry;
+        }
+        return null;
+    }
+
+    /**
+     * True if the entry with this sequence number has been allocated a slot but is still being added
+     */
+    public boolean isBeingAdded(long sequence) {
+        if (sequence < startSequence() || sequence >= endSequence()) {
+            return false;
+        }
+        Slot<E> slot = slots.get(index(sequence));
+        return slot == null || slot.sequence < sequence;
+    }
+
+    /**
+     * Removes the entries that are the same instance as any of the specified entries
+     *
+     * @return the entries that were removed, excluding any that had already been overwritten or removed
+     */
+    public List<E> removeAll(Collection<? extends E> entries) {
+        List<E> removed = new ArrayList<E>();
+        if (!entries.isEmpty()) {
+            Set<Object> entriesToRemove = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+            entriesToRemove.addAll(entries);
+            for (int index = 0; index < slots.length(); index++) {
+                Slot<E> slot = slots.get(index);
+                if (slot != null && !slot.removed && entriesToRemove.contains(slot.entry)
+                        && slots.compareAndSet(index, slot, new Slot<E>(slot.sequence, slot.entry, true))) {
+                    removed.add(slot.entry);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return the entries that were cleared in the order they were added, excluding any that had already been removed
+     */
+    public List<E> clear() {
+        List<E> cleared = new ArrayList<E>();
+        long end = endSequence();
+        long start = startSequence(end);
+        while (true) {
+            long current = firstVisibleSequence.get();
+            if (current >= end || firstVisibleSequence.compareAndSet(current, end)) {
+                break;
+            }
+        }
+        // release cleared entries so they can be garbage collected
+        for (long sequence = start; sequence < end; sequence++) {
+            int index = index(sequence);
+            Slot<E> slot = slots.get(index);
+            if (slot != null && slot.sequence == sequence && slots.compareAndSet(index, slot, null) && !slot.removed) {
+                cleared.add(slot.entry);
+            }
+        }
+        return cleared;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % slots.length());
+    }
+
+    /**
+     * Immutable so that overwriting, removing and clearing a slot are each a single compare and set
+     */
+    private static class Slot<E> {
+        private final long sequence;
+        private final E entry;
+        private final boolean removed;
+
+        private Slot(long sequence, E entry, boolean removed) {
+            this.sequence = sequence;
+            this.entry = entry;
+            this.removed = removed;
+        }
+    }
+}
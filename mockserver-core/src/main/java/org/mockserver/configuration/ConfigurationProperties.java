@@ -2,6 +2,7 @@ package org.mockserver.configuration;
 
 import com.google.common.base.Joiner;
 import org.apache.commons.io.IOUtils;
+import org.mockserver.socket.JdkHostResolver;
 import org.mockserver.socket.SSLFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +22,14 @@ import java.util.concurrent.TimeUnit;
 public class ConfigurationProperties {
 
     static final long DEFAULT_MAX_TIMEOUT = 120;
+    static final int DEFAULT_MAX_CONNECTIONS_PER_DESTINATION = 50;
+    static final long DEFAULT_CONNECTION_IDLE_TIMEOUT = 60;
+    static final int DEFAULT_REGEX_CACHE_SIZE = 1000;
+    static final int DEFAULT_REQUEST_LOG_SIZE = 100;
+    static final int DEFAULT_SSL_SESSION_CACHE_SIZE = 20480;
+    static final int DEFAULT_SSL_SESSION_TIMEOUT = (int) TimeUnit.DAYS.toSeconds(1);
+    static final int DEFAULT_SSL_LEAF_CERTIFICATE_CACHE_SIZE = 1000;
+    static final long DEFAULT_HOST_RESOLVER_CACHE_TIME_TO_LIVE = 60;
     static final Logger logger = LoggerFactory.getLogger(ConfigurationProperties.class);
     static final Properties PROPERTIES = readPropertyFile();
 
@@ -38,6 +47,104 @@ public class ConfigurationProperties {
         System.setProperty("mockserver.maxSocketTimeout", "" + milliseconds);
     }
 
+    public static int maxConnectionsPerDestination() {
+        return readIntegerProperty("mockserver.maxConnectionsPerDestination", DEFAULT_MAX_CONNECTIONS_PER_DESTINATION);
+    }
+
+    public static void maxConnectionsPerDestination(int maxConnections) {
+        System.setProperty("mockserver.maxConnectionsPerDestination", "" + maxConnections);
+    }
+
+    public static long connectionIdleTimeout() {
+        return readLongProperty("mockserver.connectionIdleTimeout", TimeUnit.SECONDS.toMillis(DEFAULT_CONNECTION_IDLE_TIMEOUT));
+    }
+
+    public static void connectionIdleTimeout(long milliseconds) {
+        System.setProperty("mockserver.connectionIdleTimeout", "" + milliseconds);
+    }
+
+    // event loop config
+    /**
+     * Use the native epoll transport instead of NIO, ignored where epoll isn't available (i.e. when not on Linux or
+     * when io.netty:netty-transport-native-epoll isn't on the classpath)
+     */
+    public static boolean nativeTransport() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.nativeTransport", "" + false));
+    }
+
+    public static void nativeTransport(boolean nativeTransport) {
+        System.setProperty("mockserver.nativeTransport", "" + nativeTransport);
+    }
+
+    /**
+     * The number of threads accepting connections, 0 uses Netty's default of twice the number of cores
+     */
+    public static int bossThreadCount() {
+        return readIntegerProperty("mockserver.bossThreadCount", 0);
+    }
+
+    public static void bossThreadCount(int bossThreadCount) {
+        System.setProperty("mockserver.bossThreadCount", "" + bossThreadCount);
+    }
+
+    /**
+     * The number of threads handling requests, 0 uses Netty's default of twice the number of cores
+     */
+    public static int workerThreadCount() {
+        return readIntegerProperty("mockserver.workerThreadCount", 0);
+    }
+
+    public static void workerThreadCount(int workerThreadCount) {
+        System.setProperty("mockserver.workerThreadCount", "" + workerThreadCount);
+    }
+
+    /**
+     * The number of server channels bound to each port with SO_REUSEPORT so the kernel spreads new connections across
+     * them, this requires the native transport and is otherwise ignored
+     */
+    public static int acceptorCount() {
+        return readIntegerProperty("mockserver.acceptorCount", 1);
+    }
+
+    public static void acceptorCount(int acceptorCount) {
+        System.setProperty("mockserver.acceptorCount", "" + acceptorCount);
+    }
+
+    // host resolution config
+    /**
+     * The class used to resolve host names, it must implement org.mockserver.socket.HostResolver and have a public no
+     * argument constructor
+     */
+    public static String hostResolverClass() {
+        return readPropertyHierarchically("mockserver.hostResolverClass", JdkHostResolver.class.getName());
+    }
+
+    public static void hostResolverClass(String hostResolverClass) {
+        System.setProperty("mockserver.hostResolverClass", hostResolverClass);
+    }
+
+    /**
+     * The number of milliseconds resolved host names are cached for
+     */
+    public static long hostResolverCacheTimeToLive() {
+        return readLongProperty("mockserver.hostResolverCacheTimeToLive", TimeUnit.SECONDS.toMillis(DEFAULT_HOST_RESOLVER_CACHE_TIME_TO_LIVE));
+    }
+
+    public static void hostResolverCacheTimeToLive(long milliseconds) {
+        System.setProperty("mockserver.hostResolverCacheTimeToLive", "" + milliseconds);
+    }
+
+    /**
+     * A file, in the same format as /etc/hosts, with addresses used instead of resolving the host names it lists
+     */
+    public static String hostsFile() {
+        return readPropertyHierarchically("mockserver.hostsFile", "");
+    }
+
+    public static void hostsFile(String hostsFile) {
+        System.setProperty("mockserver.hostsFile", hostsFile);
+    }
+
     // ssl config
     public static String javaKeyStoreFilePath() {
         return readPropertyHierarchically("mockserver.javaKeyStoreFilePath", SSLFactory.defaultKeyStoreFileName());
@@ -132,6 +239,50 @@ public class ConfigurationProperties {
         }
     }
 
+    /**
+     * The number of TLS sessions cached for resumption, 0 means no limit
+     */
+    public static int sslSessionCacheSize() {
+        return readIntegerProperty("mockserver.sslSessionCacheSize", DEFAULT_SSL_SESSION_CACHE_SIZE);
+    }
+
+    public static void sslSessionCacheSize(int sslSessionCacheSize) {
+        System.setProperty("mockserver.sslSessionCacheSize", "" + sslSessionCacheSize);
+    }
+
+    /**
+     * The number of seconds a cached TLS session can be resumed for, 0 means no limit
+     */
+    public static int sslSessionTimeout() {
+        return readIntegerProperty("mockserver.sslSessionTimeout", DEFAULT_SSL_SESSION_TIMEOUT);
+    }
+
+    public static void sslSessionTimeout(int sslSessionTimeout) {
+        System.setProperty("mockserver.sslSessionTimeout", "" + sslSessionTimeout);
+    }
+
+    /**
+     * The number of per host certificates, issued by the proxy for intercepted TLS connections, that are cached
+     */
+    public static int sslLeafCertificateCacheSize() {
+        return readIntegerProperty("mockserver.sslLeafCertificateCacheSize", DEFAULT_SSL_LEAF_CERTIFICATE_CACHE_SIZE);
+    }
+
+    public static void sslLeafCertificateCacheSize(int sslLeafCertificateCacheSize) {
+        System.setProperty("mockserver.sslLeafCertificateCacheSize", "" + sslLeafCertificateCacheSize);
+    }
+
+    /**
+     * The key algorithm of per host certificates issued by the proxy, either RSA or EC
+     */
+    public static String sslLeafCertificateKeyAlgorithm() {
+        return readPropertyHierarchically("mockserver.sslLeafCertificateKeyAlgorithm", "RSA");
+    }
+
+    public static void sslLeafCertificateKeyAlgorithm(String keyAlgorithm) {
+        System.setProperty("mockserver.sslLeafCertificateKeyAlgorithm", keyAlgorithm);
+    }
+
     public static boolean rebuildKeyStore() {
         return Boolean.parseBoolean(System.getProperty("mockserver.rebuildKeyStore", "false"));
     }
@@ -140,6 +291,89 @@ public class ConfigurationProperties {
         System.setProperty("mockserver.rebuildKeyStore", Boolean.toString(rebuildKeyStore));
     }
 
+    // matcher config
+    public static int regexCacheSize() {
+        return readIntegerProperty("mockserver.regexCacheSize", DEFAULT_REGEX_CACHE_SIZE);
+    }
+
+    public static void regexCacheSize(int size) {
+        System.setProperty("mockserver.regexCacheSize", "" + size);
+    }
+
+    // request log config
+    public static int requestLogSize() {
+        return readIntegerProperty("mockserver.requestLogSize", DEFAULT_REQUEST_LOG_SIZE);
+    }
+
+    public static void requestLogSize(int size) {
+        System.setProperty("mockserver.requestLogSize", "" + size);
+    }
+
+    public static String[] requestLogIndexedHeaders() {
+        String requestLogIndexedHeaders = readPropertyHierarchically("mockserver.requestLogIndexedHeaders", "");
+        if (requestLogIndexedHeaders.isEmpty()) {
+            return new String[0];
+        } else {
+            return requestLogIndexedHeaders.split(",");
+        }
+    }
+
+    public static void requestLogIndexedHeaders(String... headerNames) {
+        System.setProperty("mockserver.requestLogIndexedHeaders", Joiner.on(",").join(headerNames));
+    }
+
+    // codec config
+    /**
+     * Decoded request bodies wrap the received buffer instead of copying it, the buffer is released once the
+     * response has been written and the request has left the request log
+     */
+    public static boolean zeroCopyRequestBodies() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.zeroCopyRequestBodies", "" + false));
+    }
+
+    public static void zeroCopyRequestBodies(boolean zeroCopyRequestBodies) {
+        System.setProperty("mockserver.zeroCopyRequestBodies", "" + zeroCopyRequestBodies);
+    }
+
+    /**
+     * The largest request body accepted, larger requests are rejected with 413 Request Entity Too Large and the
+     * connection is closed, this also limits the size of forwarded responses
+     */
+    public static long maxContentLength() {
+        return readLongProperty("mockserver.maxContentLength", Integer.MAX_VALUE);
+    }
+
+    public static void maxContentLength(long maxContentLength) {
+        System.setProperty("mockserver.maxContentLength", "" + maxContentLength);
+    }
+
+    /**
+     * Request bodies received by MockServer that are larger than this are written to a temporary file instead of
+     * being held in memory, expectations with a body matcher don't match these requests, the file is streamed when the
+     * request is forwarded, read when it is retrieved and deleted once the request has left the request log
+     */
+    public static long maxInMemoryContentLength() {
+        return readLongProperty("mockserver.maxInMemoryContentLength", maxContentLength());
+    }
+
+    public static void maxInMemoryContentLength(long maxInMemoryContentLength) {
+        System.setProperty("mockserver.maxInMemoryContentLength", "" + maxInMemoryContentLength);
+    }
+
+    // response body config
+
+    /**
+     * FILE response bodies are only served from this directory, relative paths are resolved against it, if it isn't
+     * set FILE response bodies are rejected when the expectation is created
+     */
+    public static String fileBodyDirectory() {
+        return readPropertyHierarchically("mockserver.fileBodyDirectory", "");
+    }
+
+    public static void fileBodyDirectory(String fileBodyDirectory) {
+        System.setProperty("mockserver.fileBodyDirectory", fileBodyDirectory);
+    }
+
     // mockserver config
     public static int mockServerPort() {
         return readIntegerProperty("mockserver.mockServerPort", -1);
@@ -6,9 +6,8 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.logging.LoggingHandler;
+import org.mockserver.socket.NettyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,7 +16,7 @@ import java.util.concurrent.TimeUnit;
 
 public class EchoServer {
 
-    private NioEventLoopGroup eventLoopGroup;
+    private EventLoopGroup eventLoopGroup;
 
     public EchoServer(final int port, final boolean secure) {
         Logger logger = LoggerFactory.getLogger(EchoServer.class);
@@ -26,11 +25,12 @@ public class EchoServer {
         new Thread(new Runnable() {
             @Override
             public void run() {
-                eventLoopGroup = new NioEventLoopGroup();
-                EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-                EventLoopGroup workerGroup = new NioEventLoopGroup();
+                NettyTransport transport = NettyTransport.configured();
+                eventLoopGroup = transport.createEventLoopGroup(0);
+                EventLoopGroup bossGroup = transport.createEventLoopGroup(1);
+                EventLoopGroup workerGroup = transport.createWorkerGroup();
                 new ServerBootstrap().group(bossGroup, workerGroup)
-                        .channel(NioServerSocketChannel.class)
+                        .channel(transport.serverChannelClass())
                         .option(ChannelOption.SO_BACKLOG, 100)
                         .handler(new LoggingHandler("EchoServer Handler"))
                         .childHandler(new EchoServerInitializer(secure))
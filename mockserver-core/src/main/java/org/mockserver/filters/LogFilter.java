@@ -2,9 +2,10 @@ package org.mockserver.filters;
 
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
+import org.mockserver.client.serialization.model.HttpRequestDTO;
 import org.mockserver.client.serialization.java.ExpectationToJavaSerializer;
-import org.mockserver.collections.CircularLinkedList;
-import org.mockserver.collections.CircularMultiMap;
+import org.mockserver.collections.ConcurrentCircularBuffer;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.logging.LogFormatter;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
@@ -19,9 +20,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 
@@ -32,185 +37,347 @@ public class LogFilter implements ResponseFilter, RequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(ResponseFilter.class);
     // request / response persistence
-    private final CircularMultiMap<HttpRequest, HttpResponse> requestResponseLog = new CircularMultiMap<HttpRequest, HttpResponse>(100, 100);
-    private final CircularLinkedList<HttpRequest> requestLog = new CircularLinkedList<HttpRequest>(100);
+    private final ConcurrentCircularBuffer<RequestResponse> requestResponseLog;
+    private final ConcurrentCircularBuffer<HttpRequest> requestLog;
+    private final RequestLogIndex<RequestResponse> requestResponseLogIndex;
+    private final RequestLogIndex<HttpRequest> requestLogIndex;
+    // each logged request retains its body, which is released once no reader can still be looking at it
+    private final Queue<HttpRequest> pendingRelease = new ConcurrentLinkedQueue<HttpRequest>();
+    private final ReadWriteLock logReaders = new ReentrantReadWriteLock();
     // matcher
     private final MatcherBuilder matcherBuilder = new MatcherBuilder();
     private LogFormatter logFormatter = new LogFormatter(logger);
     private Logger requestLogger = LoggerFactory.getLogger("REQUEST");
     private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
 
+    public LogFilter() {
+        this(ConfigurationProperties.requestLogSize());
+    }
+
+    public LogFilter(int requestLogSize) {
+        this(requestLogSize, ConfigurationProperties.requestLogIndexedHeaders());
+    }
+
+    public LogFilter(int requestLogSize, String... indexedHeaderNames) {
+        requestResponseLog = new ConcurrentCircularBuffer<RequestResponse>(requestLogSize);
+        requestLog = new ConcurrentCircularBuffer<HttpRequest>(requestLogSize);
+        requestResponseLogIndex = new RequestLogIndex<RequestResponse>(requestResponseLog, indexedHeaderNames) {
+            @Override
+            HttpRequest httpRequest(RequestResponse requestResponse) {
+                return requestResponse.httpRequest;
+            }
+        };
+        requestLogIndex = new RequestLogIndex<HttpRequest>(requestLog, indexedHeaderNames) {
+            @Override
+            HttpRequest httpRequest(HttpRequest httpRequest) {
+                return httpRequest;
+            }
+        };
+    }
+
     @Override
-    public synchronized HttpResponse onResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
-        if (httpRequest != null && httpResponse != null) {
-            requestResponseLog.put(httpRequest, httpResponse);
-        } else if (httpRequest != null) {
-            requestResponseLog.put(httpRequest, notFoundResponse());
+    public HttpResponse onResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
+        if (httpRequest != null) {
+            RequestResponse evicted = requestResponseLog.add(new RequestResponse(httpRequest.retain(), httpResponse != null ? httpResponse : notFoundResponse()));
+            if (evicted != null) {
+                release(evicted.httpRequest);
+            }
         }
         return httpResponse;
     }
 
     @Override
-    public synchronized HttpRequest onRequest(HttpRequest httpRequest) {
-        requestLog.add(httpRequest);
+    public HttpRequest onRequest(HttpRequest httpRequest) {
+        if (httpRequest != null) {
+            httpRequest.retain();
+        }
+        release(requestLog.add(httpRequest));
         return httpRequest;
     }
 
-    public synchronized List<HttpResponse> httpResponses(HttpRequest httpRequest) {
-        List<HttpResponse> httpResponses = new ArrayList<HttpResponse>();
-        HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-        for (HttpRequest loggedHttpRequest : requestResponseLog.keySet()) {
-            if (httpRequestMatcher.matches(loggedHttpRequest)) {
-                httpResponses.addAll(requestResponseLog.getAll(loggedHttpRequest));
+    public List<HttpResponse> httpResponses(HttpRequest httpRequest) {
+        logReaders.readLock().lock();
+        try {
+            List<HttpResponse> httpResponses = new ArrayList<HttpResponse>();
+            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+            for (Map.Entry<HttpRequest, List<HttpResponse>> entry : requestResponsesGroupedByRequest(requestResponseLogIndex.candidatesFor(httpRequest)).entrySet()) {
+                if (httpRequestMatcher.matches(entry.getKey())) {
+                    httpResponses.addAll(entry.getValue());
+                }
             }
+            return httpResponses;
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
         }
-        return httpResponses;
     }
 
-    public synchronized List<HttpRequest> httpRequests(HttpRequest httpRequest) {
-        List<HttpRequest> httpRequests = new ArrayList<HttpRequest>();
-        HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-        for (HttpRequest loggedHttpRequest : requestLog) {
-            if (httpRequestMatcher.matches(loggedHttpRequest)) {
-                httpRequests.add(loggedHttpRequest);
+    public List<HttpRequest> httpRequests(HttpRequest httpRequest) {
+        logReaders.readLock().lock();
+        try {
+            List<HttpRequest> httpRequests = new ArrayList<HttpRequest>();
+            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+            for (HttpRequest loggedHttpRequest : requestLogIndex.candidatesFor(httpRequest)) {
+                if (httpRequestMatcher.matches(loggedHttpRequest)) {
+                    httpRequests.add(detached(loggedHttpRequest));
+                }
             }
+            return httpRequests;
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
         }
-        return httpRequests;
     }
 
-    public synchronized void reset() {
-        requestResponseLog.clear();
-        requestLog.clear();
+    public void reset() {
+        for (RequestResponse requestResponse : requestResponseLog.clear()) {
+            release(requestResponse.httpRequest);
+        }
+        for (HttpRequest httpRequest : requestLog.clear()) {
+            release(httpRequest);
+        }
+        requestResponseLogIndex.clear();
+        requestLogIndex.clear();
     }
 
-    public synchronized void clear(HttpRequest httpRequest) {
-        if (httpRequest != null) {
-            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (HttpRequest key : new LinkedList<HttpRequest>(requestResponseLog.keySet())) {
-                if (httpRequestMatcher.matches(key)) {
-                    requestResponseLog.removeAll(key);
+    public void clear(HttpRequest httpRequest) {
+        logReaders.readLock().lock();
+        try {
+            if (httpRequest != null) {
+                HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+                List<RequestResponse> matchingRequestResponses = new ArrayList<RequestResponse>();
+                for (RequestResponse requestResponse : requestResponseLogIndex.candidatesFor(httpRequest)) {
+                    if (httpRequestMatcher.matches(requestResponse.httpRequest)) {
+                        matchingRequestResponses.add(requestResponse);
+                    }
                 }
-            }
-            for (HttpRequest value : new LinkedList<HttpRequest>(requestLog)) {
-                if (httpRequestMatcher.matches(value, true)) {
-                    requestLog.remove(value);
+                List<HttpRequest> matchingRequests = new ArrayList<HttpRequest>();
+                for (HttpRequest value : requestLogIndex.candidatesFor(httpRequest)) {
+                    if (httpRequestMatcher.matches(value, true)) {
+                        matchingRequests.add(value);
+                    }
+                }
+                for (RequestResponse requestResponse : requestResponseLog.removeAll(matchingRequestResponses)) {
+                    release(requestResponse.httpRequest);
+                }
+                for (HttpRequest value : requestLog.removeAll(matchingRequests)) {
+                    release(value);
                 }
+            } else {
+                reset();
             }
-        } else {
-            reset();
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
         }
     }
 
-    public synchronized void dumpToLog(HttpRequest httpRequest, boolean asJava) {
-        ExpectationSerializer expectationSerializer = new ExpectationSerializer();
-        ExpectationToJavaSerializer expectationToJavaSerializer = new ExpectationToJavaSerializer();
-        if (httpRequest != null) {
-            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (Map.Entry<HttpRequest, HttpResponse> entry : requestResponseLog.entrySet()) {
-                if (httpRequestMatcher.matches(entry.getKey(), true)) {
-                    if (asJava) {
-                        requestLogger.warn(expectationToJavaSerializer.serializeAsJava(0, new Expectation(entry.getKey(), Times.once(), TimeToLive.unlimited()).thenRespond(entry.getValue())));
-                    } else {
-                        requestLogger.warn(expectationSerializer.serialize(new Expectation(entry.getKey(), Times.once(), TimeToLive.unlimited()).thenRespond(entry.getValue())));
+    public void dumpToLog(HttpRequest httpRequest, boolean asJava) {
+        logReaders.readLock().lock();
+        try {
+            ExpectationSerializer expectationSerializer = new ExpectationSerializer();
+            ExpectationToJavaSerializer expectationToJavaSerializer = new ExpectationToJavaSerializer();
+            if (httpRequest != null) {
+                HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+                for (Map.Entry<HttpRequest, List<HttpResponse>> entry : requestResponsesGroupedByRequest(requestResponseLogIndex.candidatesFor(httpRequest)).entrySet()) {
+                    if (httpRequestMatcher.matches(entry.getKey(), true)) {
+                        for (HttpResponse value : entry.getValue()) {
+                            if (asJava) {
+                                requestLogger.warn(expectationToJavaSerializer.serializeAsJava(0, new Expectation(detached(entry.getKey()), Times.once(), TimeToLive.unlimited()).thenRespond(value)));
+                            } else {
+                                requestLogger.warn(expectationSerializer.serialize(new Expectation(detached(entry.getKey()), Times.once(), TimeToLive.unlimited()).thenRespond(value)));
+                            }
+                        }
                     }
                 }
-            }
-        } else {
-            for (Map.Entry<HttpRequest, HttpResponse> entry : requestResponseLog.entrySet()) {
-                if (asJava) {
-                    requestLogger.warn(expectationToJavaSerializer.serializeAsJava(0, new Expectation(entry.getKey(), Times.once(), TimeToLive.unlimited()).thenRespond(entry.getValue())));
-                } else {
-                    requestLogger.warn(expectationSerializer.serialize(new Expectation(entry.getKey(), Times.once(), TimeToLive.unlimited()).thenRespond(entry.getValue())));
+            } else {
+                for (Map.Entry<HttpRequest, List<HttpResponse>> entry : requestResponsesGroupedByRequest(requestResponseLog.snapshot()).entrySet()) {
+                    for (HttpResponse value : entry.getValue()) {
+                        if (asJava) {
+                            requestLogger.warn(expectationToJavaSerializer.serializeAsJava(0, new Expectation(detached(entry.getKey()), Times.once(), TimeToLive.unlimited()).thenRespond(value)));
+                        } else {
+                            requestLogger.warn(expectationSerializer.serialize(new Expectation(detached(entry.getKey()), Times.once(), TimeToLive.unlimited()).thenRespond(value)));
+                        }
+                    }
                 }
             }
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
         }
     }
 
-    public synchronized Expectation[] retrieve(HttpRequest httpRequest) {
-        List<Expectation> expectations = new ArrayList<Expectation>();
-        if (httpRequest != null) {
-            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (HttpRequest key : requestResponseLog.keySet()) {
-                for (HttpResponse value : requestResponseLog.getAll(key)) {
-                    if (httpRequestMatcher.matches(key, true)) {
-                        expectations.add(new Expectation(key, Times.once(), TimeToLive.unlimited()).thenRespond(value));
+    public Expectation[] retrieve(HttpRequest httpRequest) {
+        logReaders.readLock().lock();
+        try {
+            List<Expectation> expectations = new ArrayList<Expectation>();
+            if (httpRequest != null) {
+                HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+                for (Map.Entry<HttpRequest, List<HttpResponse>> entry : requestResponsesGroupedByRequest(requestResponseLogIndex.candidatesFor(httpRequest)).entrySet()) {
+                    if (httpRequestMatcher.matches(entry.getKey(), true)) {
+                        for (HttpResponse value : entry.getValue()) {
+                            expectations.add(new Expectation(detached(entry.getKey()), Times.once(), TimeToLive.unlimited()).thenRespond(value));
+                        }
                     }
                 }
-            }
-        } else {
-            for (HttpRequest key : requestResponseLog.keySet()) {
-                for (HttpResponse value : requestResponseLog.getAll(key)) {
-                    expectations.add(new Expectation(key, Times.once(), TimeToLive.unlimited()).thenRespond(value));
+            } else {
+                for (Map.Entry<HttpRequest, List<HttpResponse>> entry : requestResponsesGroupedByRequest(requestResponseLog.snapshot()).entrySet()) {
+                    for (HttpResponse value : entry.getValue()) {
+                        expectations.add(new Expectation(detached(entry.getKey()), Times.once(), TimeToLive.unlimited()).thenRespond(value));
+                    }
                 }
             }
+            return expectations.toArray(new Expectation[expectations.size()]);
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
         }
-        return expectations.toArray(new Expectation[expectations.size()]);
     }
 
-    public synchronized String verify(Verification verification) {
-        String failureMessage = "";
+    public String verify(Verification verification) {
+        logReaders.readLock().lock();
+        try {
+            String failureMessage = "";
 
-        if (verification != null) {
-            List<HttpRequest> matchingRequests = new ArrayList<HttpRequest>();
-            if (verification.getHttpRequest() != null) {
-                HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verification.getHttpRequest());
-                for (HttpRequest httpRequest : requestLog) {
-                    if (httpRequestMatcher.matches(httpRequest, true)) {
-                        matchingRequests.add(httpRequest);
+            if (verification != null) {
+                List<HttpRequest> matchingRequests = new ArrayList<HttpRequest>();
+                if (verification.getHttpRequest() != null) {
+                    HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verification.getHttpRequest());
+                    // only the requests the index can't rule out are run through the full matcher
+                    for (HttpRequest httpRequest : requestLogIndex.candidatesFor(verification.getHttpRequest())) {
+                        if (httpRequestMatcher.matches(httpRequest, true)) {
+                            matchingRequests.add(httpRequest);
+                        }
                     }
                 }
-            }
 
-            boolean verified = true;
+                boolean verified = true;
 
-            if (verification.getTimes().getCount() != 0 && matchingRequests.isEmpty()) {
-                verified = false;
-            } else if (verification.getTimes().isExact() && matchingRequests.size() != verification.getTimes().getCount()) {
-                verified = false;
-            } else if (matchingRequests.size() < verification.getTimes().getCount()) {
-                verified = false;
-            }
+                if (verification.getTimes().getCount() != 0 && matchingRequests.isEmpty()) {
+                    verified = false;
+                } else if (verification.getTimes().isExact() && matchingRequests.size() != verification.getTimes().getCount()) {
+                    verified = false;
+                } else if (matchingRequests.size() < verification.getTimes().getCount()) {
+                    verified = false;
+                }
 
-            if (!verified) {
-                HttpRequest[] allRequestsArray = requestLog.toArray(new HttpRequest[requestLog.size()]);
-                String serializedRequestToBeVerified = httpRequestSerializer.serialize(verification.getHttpRequest());
-                String serializedAllRequestInLog = allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray);
-                logFormatter.infoLog("request not found " + verification.getTimes() + ", expected:{}" + System.getProperty("line.separator") + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
-                failureMessage = "Request not found " + verification.getTimes() + ", expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
+                if (!verified) {
+                    List<HttpRequest> requestLog = this.requestLog.snapshot();
+                    HttpRequest[] allRequestsArray = requestLog.toArray(new HttpRequest[requestLog.size()]);
+                    String serializedRequestToBeVerified = httpRequestSerializer.serialize(verification.getHttpRequest());
+                    String serializedAllRequestInLog = allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray);
+                    logFormatter.infoLog("request not found " + verification.getTimes() + ", expected:{}" + System.getProperty("line.separator") + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
+                    failureMessage = "Request not found " + verification.getTimes() + ", expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
+                }
             }
-        }
 
-        return failureMessage;
+            return failureMessage;
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
+        }
     }
 
     public String verify(VerificationSequence verificationSequence) {
-        String failureMessage = "";
+        logReaders.readLock().lock();
+        try {
+            String failureMessage = "";
 
-        if (verificationSequence != null) {
+            if (verificationSequence != null) {
 
-            int requestLogCounter = 0;
+                List<HttpRequest> requestLog = this.requestLog.snapshot();
+                int requestLogCounter = 0;
 
-            for (HttpRequest verificationHttpRequest : verificationSequence.getHttpRequests()) {
-                if (verificationHttpRequest != null) {
-                    HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verificationHttpRequest);
-                    boolean foundRequest = false;
-                    for (; !foundRequest && requestLogCounter < requestLog.size(); requestLogCounter++) {
-                        if (httpRequestMatcher.matches(requestLog.get(requestLogCounter), true)) {
-                            // move on to next request
-                            foundRequest = true;
+                for (HttpRequest verificationHttpRequest : verificationSequence.getHttpRequests()) {
+                    if (verificationHttpRequest != null) {
+                        HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verificationHttpRequest);
+                        boolean foundRequest = false;
+                        // snapshot is array backed so get(int) is constant time and the whole sequence is verified in a single pass
+                        for (; !foundRequest && requestLogCounter < requestLog.size(); requestLogCounter++) {
+                            if (httpRequestMatcher.matches(requestLog.get(requestLogCounter), true)) {
+                                // move on to next request
+                                foundRequest = true;
+                            }
+                        }
+                        if (!foundRequest) {
+                            String serializedRequestToBeVerified = httpRequestSerializer.serialize(verificationSequence.getHttpRequests());
+                            String serializedAllRequestInLog = httpRequestSerializer.serialize(requestLog);
+                            failureMessage = "Request sequence not found, expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
+                            logFormatter.infoLog("request sequence not found, expected:{}" + System.getProperty("line.separator") + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
+                            break;
                         }
-                    }
-                    if (!foundRequest) {
-                        String serializedRequestToBeVerified = httpRequestSerializer.serialize(verificationSequence.getHttpRequests());
-                        String serializedAllRequestInLog = httpRequestSerializer.serialize(requestLog);
-                        failureMessage = "Request sequence not found, expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
-                        logFormatter.infoLog("request sequence not found, expected:{}" + System.getProperty("line.separator") + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
-                        break;
                     }
                 }
             }
+
+            return failureMessage;
+        } finally {
+            logReaders.readLock().unlock();
+            releasePending();
         }
+    }
 
-        return failureMessage;
+    /**
+     * Queues a request that is no longer logged to have its body released once no reader can still be using it,
+     * entries are only ever taken from the log while holding a read lock so once the write lock can be taken any
+     * request removed from the log before then is unreachable
+     */
+    private void release(HttpRequest httpRequest) {
+        if (httpRequest != null) {
+            pendingRelease.add(httpRequest);
+            releasePending();
+        }
+    }
+
+    private void releasePending() {
+        while (!pendingRelease.isEmpty() && logReaders.writeLock().tryLock()) {
+            try {
+                HttpRequest httpRequest;
+                while ((httpRequest = pendingRelease.poll()) != null) {
+                    httpRequest.release();
+                }
+            } finally {
+                logReaders.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * A logged request that is still usable after it has been released by the log, requests with a body that wraps
+     * a pooled buffer are copied
+     */
+    private HttpRequest detached(HttpRequest httpRequest) {
+        if (httpRequest != null && httpRequest.getBody() != null && httpRequest.getBody().isReferenceCounted()) {
+            return new HttpRequestDTO(httpRequest).buildObject()
+                    .setKeepAlive(httpRequest.isKeepAlive())
+                    .setSecure(httpRequest.isSecure());
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Responses grouped by equal request, in the order each request was first logged
+     */
+    private Map<HttpRequest, List<HttpResponse>> requestResponsesGroupedByRequest(List<RequestResponse> requestResponseLog) {
+        Map<HttpRequest, List<HttpResponse>> requestResponses = new LinkedHashMap<HttpRequest, List<HttpResponse>>();
+        for (RequestResponse requestResponse : requestResponseLog) {
+            List<HttpResponse> httpResponses = requestResponses.get(requestResponse.httpRequest);
+            if (httpResponses == null) {
+                httpResponses = new ArrayList<HttpResponse>();
+                requestResponses.put(requestResponse.httpRequest, httpResponses);
+            }
+            httpResponses.add(requestResponse.httpResponse);
+        }
+        return requestResponses;
+    }
+
+    private static class RequestResponse {
+        private final HttpRequest httpRequest;
+        private final HttpResponse httpResponse;
+
+        private RequestResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
+            this.httpRequest = httpRequest;
+            this.httpResponse = httpResponse;
+        }
     }
 }
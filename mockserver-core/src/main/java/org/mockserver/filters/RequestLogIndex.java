@@ -0,0 +1,253 @@
+package org.mockserver.filters;
+
+import org.mockserver.collections.ConcurrentCircularBuffer;
+import org.mockserver.model.Header;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.NottableString;
+
+import java.util.*;
+
+import static org.mockserver.matchers.RegexStringMatcher.isLiteral;
+
+/**
+ * Indexes a request log by method, path and selected header names so a query only runs the full request matcher
+ * against logged requests that could possibly match it
+ *
+ * logged requests with a regex or "not" value are kept in a fallback group that is always a candidate and a query
+ * with a regex or "not" value is not narrowed, so the candidates always include every logged request that matches
+ *
+ * the index is only updated when queried, so adding to the log never waits for the index
+ *
+ * @author jamesdbloom
+ */
+abstract class RequestLogIndex<E> {
+
+    private final ConcurrentCircularBuffer<E> log;
+    private final Set<String> indexedHeaderNames = new HashSet<String>();
+    private final Map<String, List<Long>> sequencesByMethod = new HashMap<String, List<Long>>();
+    private final Map<String, List<Long>> sequencesByPath = new HashMap<String, List<Long>>();
+    private final Map<String, List<Long>> sequencesByHeaderName = new HashMap<String, List<Long>>();
+    private final List<Long> unindexedMethodSequences = new ArrayList<Long>();
+    private final List<Long> unindexedPathSequences = new ArrayList<Long>();
+    private final List<Long> unindexedHeaderSequences = new ArrayList<Long>();
+    private long nextSequenceToIndex;
+    private long sequencesIndexedSinceLastSweep;
+
+    RequestLogIndex(ConcurrentCircularBuffer<E> log, String... indexedHeaderNames) {
+        this.log = log;
+        for (String indexedHeaderName : indexedHeaderNames) {
+            if (!indexedHeaderName.trim().isEmpty()) {
+                this.indexedHeaderNames.add(indexedHeaderName.trim().toLowerCase());
+            }
+        }
+    }
+
+    abstract HttpRequest httpRequest(E entry);
+
+    /**
+     * The logged entries that could match the request, in the order they were logged
+     */
+    synchronized List<E> candidatesFor(HttpRequest httpRequest) {
+        updateIndex();
+
+        List<Long> candidateSequences = narrowestCandidates(httpRequest);
+        if (candidateSequences == null) {
+            return log.snapshot();
+        }
+
+        List<E> candidates = new ArrayList<E>(candidateSequences.size());
+        for (Long sequence : candidateSequences) {
+            E entry = log.get(sequence);
+            if (entry != null) {
+                candidates.add(entry);
+            }
+        }
+        // entries that were still being added when the index was updated haven't been indexed
+        long end = log.endSequence();
+        for (long sequence = Math.max(nextSequenceToIndex, log.startSequence()); sequence < end; sequence++) {
+            E entry = log.get(sequence);
+            if (entry != null) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    synchronized void clear() {
+        sequencesByMethod.clear();
+        sequencesByPath.clear();
+        sequencesByHeaderName.clear();
+        unindexedMethodSequences.clear();
+        unindexedPathSequences.clear();
+        unindexedHeaderSequences.clear();
+        nextSequenceToIndex = log.startSequence();
+        sequencesIndexedSinceLastSweep = 0;
+    }
+
+    private void updateIndex() {
+        long end = log.endSequence();
+        nextSequenceToIndex = Math.max(nextSequenceToIndex, log.startSequence());
+        while (nextSequenceToIndex < end && !log.isBeingAdded(nextSequenceToIndex)) {
+            E entry = log.get(nextSequenceToIndex);
+            if (entry != null && httpRequest(entry) != null) {
+                index(nextSequenceToIndex, httpRequest(entry));
+            }
+            nextSequenceToIndex++;
+            sequencesIndexedSinceLastSweep++;
+        }
+        if (sequencesIndexedSinceLastSweep >= log.maxSize()) {
+            removeOverwrittenSequences();
+            sequencesIndexedSinceLastSweep = 0;
+        }
+    }
+
+    private void index(Long sequence, HttpRequest httpRequest) {
+        String method = indexableValue(httpRequest, httpRequest.getMethod());
+        if (method != null) {
+            add(sequencesByMethod, method, sequence);
+        } else {
+            unindexedMethodSequences.add(sequence);
+        }
+
+        String path = indexableValue(httpRequest, httpRequest.getPath());
+        if (path != null) {
+            add(sequencesByPath, path, sequence);
+        } else {
+            unindexedPathSequences.add(sequence);
+        }
+
+        if (!indexedHeaderNames.isEmpty()) {
+            Set<String> headerNames = new HashSet<String>();
+            boolean allHeaderNamesIndexable = true;
+            for (Header header : httpRequest.getHeaders()) {
+                String headerName = indexableValue(httpRequest, header.getName());
+                if (headerName == null) {
+                    allHeaderNamesIndexable = false;
+                } else if (indexedHeaderNames.contains(headerName.toLowerCase())) {
+                    headerNames.add(headerName.toLowerCase());
+                }
+            }
+            if (allHeaderNamesIndexable) {
+                for (String headerName : headerNames) {
+                    add(sequencesByHeaderName, headerName, sequence);
+                }
+            } else {
+                unindexedHeaderSequences.add(sequence);
+            }
+        }
+    }
+
+    /**
+     * The smallest set of candidates from the method, path and header indexes or null if the request can't be narrowed
+     */
+    private List<Long> narrowestCandidates(HttpRequest httpRequest) {
+        if (httpRequest == null || httpRequest.isNot()) {
+            return null;
+        }
+        List<Long> narrowest = null;
+        int narrowestSize = Integer.MAX_VALUE;
+
+        String method = queryValue(httpRequest.getMethod());
+        if (method != null) {
+            List<Long> indexed = valueOrEmpty(sequencesByMethod.get(method));
+            narrowestSize = indexed.size() + unindexedMethodSequences.size();
+            narrowest = mergeInSequenceOrder(indexed, unindexedMethodSequences);
+        }
+
+        String path = queryValue(httpRequest.getPath());
+        if (path != null) {
+            List<Long> indexed = valueOrEmpty(sequencesByPath.get(path));
+            if (indexed.size() + unindexedPathSequences.size() < narrowestSize) {
+                narrowestSize = indexed.size() + unindexedPathSequences.size();
+                narrowest = mergeInSequenceOrder(indexed, unindexedPathSequences);
+            }
+        }
+
+        for (Header header : httpRequest.getHeaders()) {
+            String headerName = queryValue(header.getName());
+            // a header without values doesn't need to be present to match
+            if (headerName != null && indexedHeaderNames.contains(headerName.toLowerCase()) && !header.getValues().isEmpty()) {
+                List<Long> indexed = valueOrEmpty(sequencesByHeaderName.get(headerName.toLowerCase()));
+                if (indexed.size() + unindexedHeaderSequences.size() < narrowestSize) {
+                    narrowestSize = indexed.size() + unindexedHeaderSequences.size();
+                    narrowest = mergeInSequenceOrder(indexed, unindexedHeaderSequences);
+                }
+            }
+        }
+
+        return narrowest;
+    }
+
+    private String indexableValue(HttpRequest httpRequest, NottableString value) {
+        if (!httpRequest.isNot() && value != null && !value.isNot() && value.getValue() != null && isLiteral(value.getValue())) {
+            return value.getValue();
+        } else {
+            return null;
+        }
+    }
+
+    private String queryValue(NottableString value) {
+        // an empty value matches everything
+        if (value != null && !value.isNot() && value.getValue() != null && !value.getValue().isEmpty() && isLiteral(value.getValue())) {
+            return value.getValue();
+        } else {
+            return null;
+        }
+    }
+
+    private void add(Map<String, List<Long>> index, String key, Long sequence) {
+        List<Long> sequences = index.get(key);
+        if (sequences == null) {
+            sequences = new ArrayList<Long>();
+            index.put(key, sequences);
+        }
+        sequences.add(sequence);
+    }
+
+    private List<Long> valueOrEmpty(List<Long> sequences) {
+        return sequences != null ? sequences : Collections.<Long>emptyList();
+    }
+
+    private List<Long> mergeInSequenceOrder(List<Long> first, List<Long> second) {
+        List<Long> merged = new ArrayList<Long>(first.size() + second.size());
+        int firstIndex = 0;
+        int secondIndex = 0;
+        while (firstIndex < first.size() || secondIndex < second.size()) {
+            if (secondIndex >= second.size() || (firstIndex < first.size() && first.get(firstIndex) < second.get(secondIndex))) {
+                merged.add(first.get(firstIndex++));
+            } else {
+                merged.add(second.get(secondIndex++));
+            }
+        }
+        return merged;
+    }
+
+    private void removeOverwrittenSequences() {
+        long start = log.startSequence();
+        removeOverwrittenSequences(sequencesByMethod, start);
+        removeOverwrittenSequences(sequencesByPath, start);
+        removeOverwrittenSequences(sequencesByHeaderName, start);
+        removeSequencesBefore(unindexedMethodSequences, start);
+        removeSequencesBefore(unindexedPathSequences, start);
+        removeSequencesBefore(unindexedHeaderSequences, start);
+    }
+
+    private void removeOverwrittenSequences(Map<String, List<Long>> index, long start) {
+        Iterator<Map.Entry<String, List<Long>>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            List<Long> sequences = iterator.next().getValue();
+            removeSequencesBefore(sequences, start);
+            if (sequences.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeSequencesBefore(List<Long> sequences, long start) {
+        int overwritten = 0;
+        while (overwritten < sequences.size() && sequences.get(overwritten) < start) {
+            overwritten++;
+        }
+        sequences.subList(0, overwritten).clear();
+    }
+}
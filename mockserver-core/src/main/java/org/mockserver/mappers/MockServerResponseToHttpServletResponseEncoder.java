@@ -59,7 +59,11 @@ public class MockServerResponseToHttpServletResponseEncoder {
     }
 
     private void setBody(HttpResponse httpResponse, HttpServletResponse httpServletResponse) {
-        if (httpResponse.getBodyAsString() != null) {
+        if (httpResponse.getBody() instanceof StreamedBody) {
+            StreamedBody streamedBody = (StreamedBody) httpResponse.getBody();
+            httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(streamedBody.getContentLength()));
+            IOStreamUtils.writeToOutputStream(streamedBody, httpServletResponse);
+        } else if (httpResponse.getBodyAsString() != null) {
             if (httpResponse.getBody() instanceof BinaryBody) {
                 IOStreamUtils.writeToOutputStream(Base64Converter.base64StringToBytes(httpResponse.getBodyAsString()), httpServletResponse);
             } else {
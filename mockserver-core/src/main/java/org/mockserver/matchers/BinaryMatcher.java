@@ -11,9 +11,16 @@ import java.util.Arrays;
 public class BinaryMatcher extends BodyMatcher<byte[]> {
     private static Logger logger = LoggerFactory.getLogger(BinaryMatcher.class);
     private final byte[] matcher;
+    // the matcher is a copy that is never modified so its hash is only calculated once
+    private final int matcherHashCode;
 
     public BinaryMatcher(byte[] matcher) {
-        this.matcher = matcher;
+        this.matcher = matcher != null ? matcher.clone() : null;
+        this.matcherHashCode = Arrays.hashCode(matcher);
+    }
+
+    public boolean matchesParsed(ParsedBody parsedBody) {
+        return matches(parsedBody.rawBytes());
     }
 
     public boolean matches(byte[] matched) {
@@ -23,8 +30,8 @@ public class BinaryMatcher extends BodyMatcher<byte[]> {
             result = true;
         }
 
-        if (!result) {
-            logger.trace("Failed to perform binary match [{}] with [{}] because {}", matched);
+        if (!result && logger.isTraceEnabled()) {
+            logger.trace("Failed to perform binary match expected [{}] but was [{}]", Arrays.toString(this.matcher), Arrays.toString(matched));
         }
 
         return reverseResultIfNot(result);
@@ -32,6 +39,23 @@ public class BinaryMatcher extends BodyMatcher<byte[]> {
 
     @Override
     public String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger"};
+        return new String[]{"logger", "matcherHashCode"};
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        BinaryMatcher that = (BinaryMatcher) other;
+        return not == that.not && matcherHashCode == that.matcherHashCode && Arrays.equals(matcher, that.matcher);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * matcherHashCode + (not ? 1 : 0);
     }
 }
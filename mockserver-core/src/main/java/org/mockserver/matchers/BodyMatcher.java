@@ -5,4 +5,9 @@ package org.mockserver.matchers;
  */
 public abstract class BodyMatcher<MatchedType> extends NotMatcher<MatchedType> {
 
+    /**
+     * Matches against the views of the request body that are shared by every expectation checked for a request
+     */
+    public abstract boolean matchesParsed(ParsedBody parsedBody);
+
 }
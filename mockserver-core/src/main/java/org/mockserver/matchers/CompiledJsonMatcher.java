@@ -0,0 +1,296 @@
+package org.mockserver.matchers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * An expected JSON document parsed once into an immutable tree that is matched against a streaming parser
+ * over the request body, reading stops at the first mismatch
+ * <p/>
+ * The semantics are the same as the JSONAssert comparison this replaced, ONLY_MATCHING_FIELDS is lenient
+ * (extra object fields allowed, array order ignored) and STRICT is strict (no extra object fields, array
+ * order significant), arrays must always have the same length and numbers are compared as doubles
+ *
+ * @author jamesdbloom
+ */
+abstract class CompiledJsonMatcher {
+
+    // same leniency as the org.json parser used by JSONAssert
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .enable(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES);
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    /**
+     * Returns null if the expected value is not a JSON object, array, string or number
+     */
+    static CompiledJsonMatcher compile(String json, MatchType matchType) throws IOException {
+        String trimmed = json.trim();
+        if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+            JsonParser parser = JSON_FACTORY.createParser(json);
+            try {
+                parser.nextToken();
+                return compile(parser, matchType == MatchType.STRICT);
+            } finally {
+                parser.close();
+            }
+        } else if (trimmed.startsWith("\"") || NUMBER.matcher(trimmed).matches()) {
+            return new LiteralMatcher(json);
+        }
+        return null;
+    }
+
+    private static CompiledJsonMatcher compile(JsonParser parser, boolean strict) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == null) {
+            throw new JsonParseException("Unexpected end of JSON", parser.getCurrentLocation());
+        } else if (token == JsonToken.START_OBJECT) {
+            Map<String, CompiledJsonMatcher> fields = new LinkedHashMap<String, CompiledJsonMatcher>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                fields.put(name, compile(parser, strict));
+            }
+            if (parser.getCurrentToken() != JsonToken.END_OBJECT) {
+                throw new JsonParseException("Unexpected end of JSON", parser.getCurrentLocation());
+            }
+            return new ObjectMatcher(fields, strict);
+        } else if (token == JsonToken.START_ARRAY) {
+            List<CompiledJsonMatcher> elements = new ArrayList<CompiledJsonMatcher>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                elements.add(compile(parser, strict));
+            }
+            return new ArrayMatcher(elements.toArray(new CompiledJsonMatcher[elements.size()]), strict);
+        } else {
+            return new ValueMatcher(parser);
+        }
+    }
+
+    boolean matches(String json) throws IOException {
+        if (!startsWithContainer(json)) {
+            // not JSON, avoid the cost of a parser and its exception
+            return false;
+        }
+        JsonParser parser = JSON_FACTORY.createParser(json);
+        try {
+            return parser.nextToken() != null && matches(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Matches the value starting at the parser's current token, returns as soon as a mismatch is found
+     * leaving the parser part way through the value
+     */
+    abstract boolean matches(JsonParser parser) throws IOException;
+
+    private static boolean startsWithContainer(String json) {
+        for (int i = 0; i < json.length(); i++) {
+            char character = json.charAt(i);
+            if (!Character.isWhitespace(character)) {
+                return character == '{' || character == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A top level string or number, which JSONAssert compared as text
+     */
+    private static class LiteralMatcher extends CompiledJsonMatcher {
+        private final String literal;
+
+        LiteralMatcher(String literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        boolean matches(String json) {
+            return literal.equals(json);
+        }
+
+        @Override
+        boolean matches(JsonParser parser) {
+            return false;
+        }
+    }
+
+    private static class ValueMatcher extends CompiledJsonMatcher {
+        private final JsonToken token;
+        private final String text;
+        private final double number;
+
+        ValueMatcher(JsonParser parser) throws IOException {
+            this.token = parser.getCurrentToken();
+            this.text = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+            this.number = token.isNumeric() ? parser.getDoubleValue() : 0;
+        }
+
+        @Override
+        boolean matches(JsonParser parser) throws IOException {
+            JsonToken actual = parser.getCurrentToken();
+            if (token.isNumeric()) {
+                return actual != null && actual.isNumeric() && parser.getDoubleValue() == number;
+            } else if (token == JsonToken.VALUE_STRING) {
+                return actual == JsonToken.VALUE_STRING && text.equals(parser.getText());
+            } else {
+                return actual == token;
+            }
+        }
+    }
+
+    private static class ObjectMatcher extends CompiledJsonMatcher {
+        private final Map<String, Integer> fieldIndexes = new HashMap<String, Integer>();
+        private final CompiledJsonMatcher[] fields;
+        private final boolean strict;
+
+        ObjectMatcher(Map<String, CompiledJsonMatcher> fields, boolean strict) {
+            this.fields = fields.values().toArray(new CompiledJsonMatcher[fields.size()]);
+            this.strict = strict;
+            int index = 0;
+            for (String name : fields.keySet()) {
+                fieldIndexes.put(name, index++);
+            }
+        }
+
+        @Override
+        boolean matches(JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            boolean[] matched = new boolean[fields.length];
+            int matchedCount = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Integer index = fieldIndexes.get(parser.getCurrentName());
+                parser.nextToken();
+                if (index != null) {
+                    // duplicate fields are not valid JSON for JSONAssert
+                    if (matched[index] || !fields[index].matches(parser)) {
+                        return false;
+                    }
+                    matched[index] = true;
+                    matchedCount++;
+                } else if (strict) {
+                    return false;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return parser.getCurrentToken() == JsonToken.END_OBJECT && matchedCount == fields.length;
+        }
+    }
+
+    private static class ArrayMatcher extends CompiledJsonMatcher {
+        private final CompiledJsonMatcher[] elements;
+        private final boolean strict;
+
+        ArrayMatcher(CompiledJsonMatcher[] elements, boolean strict) {
+            this.elements = elements;
+            this.strict = strict;
+        }
+
+        @Override
+        boolean matches(JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+                return false;
+            }
+            return strict ? matchesInOrder(parser) : matchesInAnyOrder(parser);
+        }
+
+        private boolean matchesInOrder(JsonParser parser) throws IOException {
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || index == elements.length || !elements[index].matches(parser)) {
+                    return false;
+                }
+                index++;
+            }
+            return index == elements.length;
+        }
+
+        /**
+         * Buffers each element so it can be replayed against more than one expected element then looks for
+         * a pairing of expected and actual elements, trying the element at the same position first
+         */
+        private boolean matchesInAnyOrder(JsonParser parser) throws IOException {
+            List<TokenBuffer> actual = new ArrayList<TokenBuffer>(elements.length);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || actual.size() == elements.length) {
+                    return false;
+                }
+                TokenBuffer element = new TokenBuffer(parser);
+                element.copyCurrentStructure(parser);
+                actual.add(element);
+            }
+            if (actual.size() != elements.length) {
+                return false;
+            }
+            return new UnorderedMatch(elements, actual).matches();
+        }
+    }
+
+    /**
+     * Bipartite matching of expected to actual array elements, each pair is compared at most once
+     */
+    private static class UnorderedMatch {
+        private final CompiledJsonMatcher[] expected;
+        private final List<TokenBuffer> actual;
+        private final Boolean[] pairMatches;
+        private final int[] expectedForActual;
+
+        UnorderedMatch(CompiledJsonMatcher[] expected, List<TokenBuffer> actual) {
+            this.expected = expected;
+            this.actual = actual;
+            this.pairMatches = new Boolean[expected.length * expected.length];
+            this.expectedForActual = new int[expected.length];
+            Arrays.fill(expectedForActual, -1);
+        }
+
+        boolean matches() throws IOException {
+            for (int expectedIndex = 0; expectedIndex < expected.length; expectedIndex++) {
+                if (!assign(expectedIndex, new boolean[expected.length])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean assign(int expectedIndex, boolean[] visited) throws IOException {
+            for (int offset = 0; offset < expected.length; offset++) {
+                int actualIndex = (expectedIndex + offset) % expected.length;
+                if (!visited[actualIndex] && pairMatches(expectedIndex, actualIndex)) {
+                    visited[actualIndex] = true;
+                    if (expectedForActual[actualIndex] == -1 || assign(expectedForActual[actualIndex], visited)) {
+                        expectedForActual[actualIndex] = expectedIndex;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean pairMatches(int expectedIndex, int actualIndex) throws IOException {
+            int pair = expectedIndex * expected.length + actualIndex;
+            if (pairMatches[pair] == null) {
+                JsonParser parser = actual.get(actualIndex).asParser();
+                try {
+                    parser.nextToken();
+                    pairMatches[pair] = expected[expectedIndex].matches(parser);
+                } finally {
+                    parser.close();
+                }
+            }
+            return pairMatches[pair];
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package org.mockserver.matchers;
 
-import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.logging.LogFormatter;
 import org.mockserver.model.*;
@@ -83,6 +83,9 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
                     BinaryBody binaryBody = (BinaryBody) body;
                     this.bodyMatcher = new BinaryMatcher(binaryBody.getValue());
                     break;
+                default:
+                    // FILE and GENERATED bodies are streamed when a response is written, there is nothing to match them against
+                    throw new IllegalArgumentException(body.getType() + " body can only be used in a response, not to match a request");
             }
             if (body.isNot()) {
                 this.bodyMatcher = not(this.bodyMatcher);
@@ -116,6 +119,13 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
     }
 
     public boolean matches(HttpRequest httpRequest, boolean logMatchResults) {
+        return matches(httpRequest, new ParsedBody(httpRequest), logMatchResults);
+    }
+
+    /**
+     * @param parsedBody the body of httpRequest, shared when the same request is matched against several expectations
+     */
+    public boolean matches(HttpRequest httpRequest, ParsedBody parsedBody, boolean logMatchResults) {
         if (httpRequest == this.httpRequest) {
             return true;
         } else if (this.httpRequest == null) {
@@ -124,14 +134,7 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
             boolean methodMatches = matches(methodMatcher, httpRequest.getMethod());
             boolean pathMatches = matches(pathMatcher, httpRequest.getPath());
             boolean queryStringParametersMatches = matches(queryStringParameterMatcher, (httpRequest.getQueryStringParameters() != null ? new ArrayList<KeyToMultiValue>(httpRequest.getQueryStringParameters()) : null));
-            boolean bodyMatches;
-            if (bodyMatcher instanceof BinaryMatcher) {
-                bodyMatches = matches(bodyMatcher, httpRequest.getBodyAsRawBytes());
-            } else if (bodyMatcher instanceof ExactStringMatcher || bodyMatcher instanceof RegexStringMatcher) {
-                bodyMatches = matches(bodyMatcher, string(httpRequest.getBody() != null ? new String(httpRequest.getBody().getRawBytes(), httpRequest.getBody().getCharset(Charsets.UTF_8)) : ""));
-            } else {
-                bodyMatches = matches(bodyMatcher, (httpRequest.getBody() != null ? new String(httpRequest.getBody().getRawBytes(), httpRequest.getBody().getCharset(Charsets.UTF_8)) : ""));
-            }
+            boolean bodyMatches = bodyMatcher == null || (!parsedBody.isSpilled() && bodyMatcher.matchesParsed(parsedBody));
             boolean headersMatch = matches(headerMatcher, (httpRequest.getHeaders() != null ? new ArrayList<KeyToMultiValue>(httpRequest.getHeaders()) : null));
             boolean cookiesMatch = matches(cookieMatcher, (httpRequest.getCookies() != null ? new ArrayList<KeyAndValue>(httpRequest.getCookies()) : null));
             boolean result = methodMatches && pathMatches && queryStringParametersMatches && bodyMatches && headersMatch && cookiesMatch;
@@ -182,4 +185,22 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
             return super.toString();
         }
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        // every field matcher is built from the request
+        HttpRequestMatcher that = (HttpRequestMatcher) other;
+        return not == that.not && Objects.equal(httpRequest, that.httpRequest);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (httpRequest != null ? httpRequest.hashCode() : 0) + (not ? 1 : 0);
+    }
 }
@@ -2,7 +2,9 @@ package org.mockserver.matchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.google.common.base.Objects;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 
 /**
@@ -11,23 +13,37 @@ import org.mockserver.client.serialization.ObjectMapperFactory;
  * @author jamesdbloom
  */
 public class JsonSchemaMatcher extends BodyMatcher<String> {
+    private static final JsonSchemaFactory JSON_SCHEMA_FACTORY = JsonSchemaFactory.byDefault();
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.createObjectMapper();
     private final String schema;
-    private ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+    private JsonSchema jsonSchema;
+    private Exception schemaException;
 
     protected String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger", "objectMapper"};
+        return new String[]{"logger", "jsonSchema", "schemaException"};
     }
 
     public JsonSchemaMatcher(String schema) {
         this.schema = schema;
+        try {
+            jsonSchema = JSON_SCHEMA_FACTORY.getJsonSchema(OBJECT_MAPPER.readTree(schema));
+        } catch (Exception e) {
+            // reported on each match, as it was before the schema was compiled up front
+            schemaException = e;
+        }
     }
 
     public boolean matches(String matched) {
+        return matchesParsed(new ParsedBody(matched));
+    }
+
+    public boolean matchesParsed(ParsedBody parsedBody) {
         boolean result = false;
+        String matched = parsedBody.string();
 
         ProcessingReport processingReport;
         try {
-            processingReport = validateJson(matched);
+            processingReport = validateJson(parsedBody);
 
             if (processingReport.isSuccess()) {
                 result = true;
@@ -44,9 +60,34 @@ public class JsonSchemaMatcher extends BodyMatcher<String> {
     }
 
     public ProcessingReport validateJson(String json) throws Exception {
-        return JsonSchemaFactory
-                .byDefault()
-                .getValidator()
-                .validate(objectMapper.readTree(schema), objectMapper.readTree(json), true);
+        return validateJson(new ParsedBody(json));
+    }
+
+    private ProcessingReport validateJson(ParsedBody parsedBody) throws Exception {
+        if (schemaException != null) {
+            throw schemaException;
+        }
+        if (jsonSchema == null) {
+            throw new IllegalArgumentException("schema must not be null");
+        }
+        return jsonSchema.validate(parsedBody.jsonTree(), true);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        // the compiled schema is derived from the schema
+        JsonSchemaMatcher that = (JsonSchemaMatcher) other;
+        return not == that.not && Objects.equal(schema, that.schema);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (schema != null ? schema.hashCode() : 0) + (not ? 1 : 0);
     }
 }
@@ -1,10 +1,7 @@
 package org.mockserver.matchers;
 
-import org.mockserver.model.JsonBody;
-import org.skyscreamer.jsonassert.JSONCompareMode;
-import org.skyscreamer.jsonassert.JSONCompareResult;
-
-import static org.skyscreamer.jsonassert.JSONCompare.compareJSON;
+import com.google.common.base.Objects;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * @author jamesdbloom
@@ -12,34 +9,63 @@ import static org.skyscreamer.jsonassert.JSONCompare.compareJSON;
 public class JsonStringMatcher extends BodyMatcher<String> {
     private final String matcher;
     private final MatchType matchType;
+    private CompiledJsonMatcher compiledJsonMatcher = null;
 
     public JsonStringMatcher(String matcher, MatchType matchType) {
         this.matcher = matcher;
         this.matchType = matchType;
+        if (StringUtils.isNotEmpty(matcher)) {
+            try {
+                compiledJsonMatcher = CompiledJsonMatcher.compile(matcher, matchType);
+            } catch (Exception e) {
+                logger.trace("Error while parsing json [" + matcher + "] assuming matcher not json - " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public boolean matchesParsed(ParsedBody parsedBody) {
+        // the expected json is streamed against the text stopping at the first difference so no tree is shared
+        return matches(parsedBody.string());
     }
 
     public boolean matches(String matched) {
         boolean result = false;
 
-        JSONCompareResult jsonCompareResult;
-        try {
-            JSONCompareMode jsonCompareMode = JSONCompareMode.LENIENT;
-            if (matchType == MatchType.STRICT) {
-                jsonCompareMode = JSONCompareMode.STRICT;
-            }
-            jsonCompareResult = compareJSON(matcher, matched, jsonCompareMode);
-
-            if (jsonCompareResult.passed()) {
-                result = true;
-            }
+        if (compiledJsonMatcher != null && matched != null) {
+            try {
+                result = compiledJsonMatcher.matches(matched);
 
-            if (!result) {
-                logger.trace("Failed to perform JSON match \"{}\" with \"{}\" because {}", matched, this.matcher, jsonCompareResult.getMessage());
+                if (!result) {
+                    logger.trace("Failed to perform JSON match \"{}\" with \"{}\"", matched, this.matcher);
+                }
+            } catch (Exception e) {
+                logger.trace("Failed to perform JSON match \"{}\" with \"{}\" because {}", matched, this.matcher, e.getMessage());
             }
-        } catch (Exception e) {
-            logger.trace("Failed to perform JSON match \"{}\" with \"{}\" because {}", matched, this.matcher, e.getMessage());
         }
 
         return reverseResultIfNot(result);
     }
+
+    @Override
+    public String[] fieldsExcludedFromEqualsAndHashCode() {
+        return new String[]{"logger", "compiledJsonMatcher"};
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        // the compiled json is derived from the matcher and match type
+        JsonStringMatcher that = (JsonStringMatcher) other;
+        return not == that.not && Objects.equal(matcher, that.matcher) && matchType == that.matchType;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(matcher, matchType) + (not ? 1 : 0);
+    }
 }
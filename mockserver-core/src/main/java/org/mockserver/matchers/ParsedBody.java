@@ -0,0 +1,197 @@
+package org.mockserver.matchers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.mockserver.client.serialization.ObjectMapperFactory;
+import org.mockserver.model.Body;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.KeyToMultiValue;
+import org.mockserver.model.Parameter;
+import org.mockserver.model.TemporaryFileBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * The views of a request body used by the body matchers, each one is decoded or parsed the first time it is used
+ * and then shared by every matcher checked against the same request, so a body matched against many expectations
+ * is only decoded and parsed once per format
+ * <p/>
+ * Instances are created for a single request and are not thread safe
+ *
+ * @author jamesdbloom
+ */
+public class ParsedBody {
+    private static final Logger logger = LoggerFactory.getLogger(ParsedBody.class);
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.createObjectMapper();
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+            try {
+                return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new RuntimeException("Failed to create DocumentBuilder", e);
+            }
+        }
+    };
+    private final Body body;
+    private byte[] rawBytes;
+    private String string;
+    private boolean decoded;
+    private List<KeyToMultiValue> parameters;
+    private JsonNode jsonTree;
+    private Document document;
+    private Exception jsonException;
+    private Exception documentException;
+    private boolean jsonParsed;
+    private boolean documentParsed;
+    private boolean streamed;
+
+    public ParsedBody(HttpRequest httpRequest) {
+        this.body = httpRequest != null ? httpRequest.getBody() : null;
+    }
+
+    public ParsedBody(String string) {
+        this.body = null;
+        this.string = string;
+        this.decoded = true;
+    }
+
+    /**
+     * @return true if the body was too large to hold in memory so was written to a temporary file, body matchers
+     * aren't checked against these bodies so the file is never read back into memory while matching
+     */
+    public boolean isSpilled() {
+        return body instanceof TemporaryFileBody;
+    }
+
+    public byte[] rawBytes() {
+        if (rawBytes == null) {
+            if (body != null) {
+                rawBytes = body.getRawBytes();
+            } else if (string != null) {
+                rawBytes = string.getBytes(Charsets.UTF_8);
+            } else {
+                rawBytes = new byte[0];
+            }
+        }
+        return rawBytes;
+    }
+
+    /**
+     * The body decoded with its charset, an empty string if the request has no body
+     */
+    public String string() {
+        if (!decoded) {
+            string = body != null ? new String(rawBytes(), body.getCharset(Charsets.UTF_8)) : "";
+            decoded = true;
+        }
+        return string;
+    }
+
+    /**
+     * The body decoded as form parameters
+     */
+    public List<KeyToMultiValue> parameters() {
+        if (parameters == null) {
+            Map<String, Parameter> mappedParameters = new HashMap<String, Parameter>();
+            Map<String, List<String>> decodedParameters = new QueryStringDecoder("?" + string()).parameters();
+            for (String name : decodedParameters.keySet()) {
+                // TODO(jamesdbloom) support nottable parameters
+                for (String value : decodedParameters.get(name)) {
+                    if (mappedParameters.containsKey(name)) {
+                        mappedParameters.get(name).addValue(value);
+                    } else {
+                        mappedParameters.put(name, new Parameter(name, value));
+                    }
+                }
+            }
+            parameters = Collections.unmodifiableList(new ArrayList<KeyToMultiValue>(mappedParameters.values()));
+        }
+        return parameters;
+    }
+
+    /**
+     * The body parsed as JSON, the tree is shared so must not be modified
+     *
+     * @throws Exception the parse failure, thrown again each time the tree is requested
+     */
+    public JsonNode jsonTree() throws Exception {
+        if (!jsonParsed) {
+            try {
+                jsonTree = OBJECT_MAPPER.readTree(string());
+            } catch (Exception e) {
+                jsonException = e;
+            }
+            jsonParsed = true;
+        }
+        if (jsonException != null) {
+            throw jsonException;
+        }
+        return jsonTree;
+    }
+
+    /**
+     * Evaluates a simple xpath expression while streaming the body, the body is streamed at most once so only the first
+     * xpath matcher checked against it streams it, the others share the DOM from {@link #document()}
+     *
+     * @return null if the document must be used instead
+     */
+    Boolean streamedXPath(StreamingXPath streamingXPath) {
+        if (streamed || documentParsed) {
+            return null;
+        }
+        streamed = true;
+        return streamingXPath.matches(string());
+    }
+
+    /**
+     * The body parsed as a non namespace aware DOM, the document is shared so must not be modified
+     *
+     * @throws Exception the parse failure, thrown again each time the document is requested
+     */
+    public Document document() throws Exception {
+        if (!documentParsed) {
+            final String xml = string();
+            DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+            documentBuilder.setErrorHandler(new ErrorHandler() {
+                @Override
+                public void warning(SAXParseException exception) throws SAXException {
+                    logger.debug("SAXParseException while parsing [" + xml + "]", exception);
+                }
+
+                @Override
+                public void error(SAXParseException exception) throws SAXException {
+                    logger.debug("SAXParseException while parsing [" + xml + "]", exception);
+                }
+
+                @Override
+                public void fatalError(SAXParseException exception) throws SAXException {
+                    logger.debug("SAXParseException while parsing [" + xml + "]", exception);
+                }
+            });
+            try {
+                document = documentBuilder.parse(new InputSource(new StringReader(xml)));
+            } catch (Exception e) {
+                documentException = e;
+            }
+            documentParsed = true;
+        }
+        if (documentException != null) {
+            throw documentException;
+        }
+        return document;
+    }
+}
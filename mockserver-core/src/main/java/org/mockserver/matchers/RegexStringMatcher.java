@@ -1,10 +1,17 @@
 package org.mockserver.matchers;
 
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.NottableString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import static org.mockserver.model.NottableString.string;
@@ -14,14 +21,46 @@ import static org.mockserver.model.NottableString.string;
  */
 public class RegexStringMatcher extends BodyMatcher<NottableString> {
     private static final Logger logger = LoggerFactory.getLogger(RegexStringMatcher.class);
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+    private static final LoadingCache<String, Optional<Pattern>> COMPILED_PATTERNS = CacheBuilder.newBuilder()
+            .maximumSize(ConfigurationProperties.regexCacheSize())
+            .build(new CacheLoader<String, Optional<Pattern>>() {
+                @Override
+                public Optional<Pattern> load(String regex) {
+                    try {
+                        return Optional.of(Pattern.compile(regex));
+                    } catch (PatternSyntaxException pse) {
+                        logger.trace("Error while compiling regex [" + regex + "] " + pse.getMessage());
+                        return Optional.absent();
+                    }
+                }
+            });
     private final NottableString matcher;
+    private final Pattern matcherPattern;
 
     public RegexStringMatcher(String matcher) {
-        this.matcher = string(matcher);
+        this(string(matcher));
     }
 
     public RegexStringMatcher(NottableString matcher) {
         this.matcher = matcher;
+        // compiled once when the expectation is created, null if the value is a literal (or invalid regex)
+        this.matcherPattern = (matcher != null && !Strings.isNullOrEmpty(matcher.getValue()) && !isLiteral(matcher.getValue()) ? compile(matcher.getValue()) : null);
+        addFieldsExcludedFromEqualsAndHashCode("matcherPattern");
+    }
+
+    /**
+     * A literal value contains no regex meta characters so, when used as a regex, it can only ever match itself
+     */
+    public static boolean isLiteral(String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                if (REGEX_META_CHARACTERS.indexOf(value.charAt(i)) != -1) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     public static boolean matches(NottableString matcher, NottableString matched, boolean ignoreCase) {
@@ -29,6 +68,10 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
     }
 
     public static boolean matches(String matcher, String matched, boolean ignoreCase) {
+        return matches(matcher, null, matched, ignoreCase);
+    }
+
+    private static boolean matches(String matcher, Pattern matcherPattern, String matched, boolean ignoreCase) {
         boolean result = false;
 
         if (Strings.isNullOrEmpty(matcher)) {
@@ -40,20 +83,12 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
             }
             if (!result) {
                 // match as regex - matcher -> matched
-                try {
-                    if (matched.matches(matcher)) {
-                        result = true;
-                    }
-                } catch (PatternSyntaxException pse) {
-                    logger.trace("Error while matching regex [" + matcher + "] for string [" + matched + "] " + pse.getMessage());
+                if (matchesRegex(matcher, matcherPattern, matched)) {
+                    result = true;
                 }
                 // match as regex - matched -> matcher
-                try {
-                    if (matcher.matches(matched)) {
-                        result = true;
-                    }
-                } catch (PatternSyntaxException pse) {
-                    logger.trace("Error while matching regex [" + matched + "] for string [" + matcher + "] " + pse.getMessage());
+                if (matchesRegex(matched, null, matcher)) {
+                    result = true;
                 }
                 // case insensitive comparison is mainly to improve matching in web containers like Tomcat that convert header names to lower case
                 if (!result && ignoreCase) {
@@ -61,21 +96,15 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
                     if (matched.equalsIgnoreCase(matcher)) {
                         result = true;
                     }
+                    String matcherLowerCase = matcher.toLowerCase();
+                    String matchedLowerCase = matched.toLowerCase();
                     // match as regex - matcher -> matched
-                    try {
-                        if (matched.toLowerCase().matches(matcher.toLowerCase())) {
-                            result = true;
-                        }
-                    } catch (PatternSyntaxException pse) {
-                        logger.trace("Error while matching regex [" + matcher.toLowerCase() + "] for string [" + matched.toLowerCase() + "] " + pse.getMessage());
+                    if (matchesRegex(matcherLowerCase, null, matchedLowerCase)) {
+                        result = true;
                     }
                     // match as regex - matched -> matcher
-                    try {
-                        if (matcher.toLowerCase().matches(matched.toLowerCase())) {
-                            result = true;
-                        }
-                    } catch (PatternSyntaxException pse) {
-                        logger.trace("Error while matching regex [" + matched.toLowerCase() + "] for string [" + matcher.toLowerCase() + "] " + pse.getMessage());
+                    if (matchesRegex(matchedLowerCase, null, matcherLowerCase)) {
+                        result = true;
                     }
                 }
             }
@@ -84,14 +113,38 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
         return result;
     }
 
+    private static boolean matchesRegex(String regex, Pattern compiledRegex, String value) {
+        if (isLiteral(regex)) {
+            // a literal can only match itself so skip the regex engine
+            return regex.equals(value);
+        } else {
+            Pattern pattern = (compiledRegex != null ? compiledRegex : compile(regex));
+            return pattern != null && pattern.matcher(value).matches();
+        }
+    }
+
+    /**
+     * Compiles the regex using a bounded cache shared by all matchers, so values from incoming requests
+     * (which are also treated as regex) are not recompiled for every comparison
+     *
+     * @return the compiled pattern or null if the value is not a valid regex
+     */
+    static Pattern compile(String regex) {
+        return COMPILED_PATTERNS.getUnchecked(regex).orNull();
+    }
+
     public boolean matches(String matched) {
         return matches(string(matched));
     }
 
+    public boolean matchesParsed(ParsedBody parsedBody) {
+        return matches(string(parsedBody.string()));
+    }
+
     public boolean matches(NottableString matched) {
         boolean result = false;
 
-        if (matches(matcher.getValue(), matched.getValue(), false)) {
+        if (matches(matcher.getValue(), matcherPattern, matched.getValue(), false)) {
             result = true;
         }
 
@@ -101,4 +154,22 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
 
         return (matcher.isNot() || matched.isNot()) != reverseResultIfNot(result);
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        // the compiled pattern is derived from the matcher
+        RegexStringMatcher that = (RegexStringMatcher) other;
+        return not == that.not && Objects.equal(matcher, that.matcher);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (matcher != null ? matcher.hashCode() : 0) + (not ? 1 : 0);
+    }
 }
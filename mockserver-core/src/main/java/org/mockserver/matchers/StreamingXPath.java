@@ -0,0 +1,460 @@
+package org.mockserver.matchers;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates the simple XPath expressions most expectations use with a StAX reader instead of building a DOM,
+ * supported expressions are absolute child paths, optionally starting with //, where each step is a name or *
+ * with predicates combining the following conditions with "and":
+ * <ul>
+ * <li>@attribute or @attribute='value' on any step</li>
+ * <li>child, child='value' or text()='value' on the last step</li>
+ * </ul>
+ * <p/>
+ * The result is the same as evaluating the expression as a boolean against the non namespace aware DOM the
+ * XPathStringMatcher builds, when a document uses anything the streaming evaluation cannot reproduce exactly
+ * (a DTD, prefixed names or anything the reader rejects) null is returned and the DOM must be used instead
+ *
+ * @author jamesdbloom
+ */
+class StreamingXPath {
+
+    private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+            xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return xmlInputFactory;
+        }
+    };
+    private static final int MAX_STEPS = 63;
+    private final boolean descendant;
+    private final Step[] steps;
+
+    private StreamingXPath(boolean descendant, Step[] steps) {
+        this.descendant = descendant;
+        this.steps = steps;
+    }
+
+    /**
+     * Returns null if the expression is not supported
+     */
+    static StreamingXPath compile(String xpath) {
+        if (xpath == null) {
+            return null;
+        }
+        return new ExpressionParser(xpath).parse();
+    }
+
+    /**
+     * Returns null if the document must be evaluated with a DOM instead
+     */
+    Boolean matches(String xml) {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.get().createXMLStreamReader(new StringReader(xml));
+            return evaluate(reader);
+        } catch (XMLStreamException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private Boolean evaluate(XMLStreamReader reader) throws XMLStreamException {
+        Step lastStep = steps[steps.length - 1];
+        long lastStepBit = 1L << (steps.length - 1);
+        List<Frame> stack = new ArrayList<Frame>();
+        stack.add(new Frame(null, 0));
+        int capturing = 0;
+        boolean found = false;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (found) {
+                // keep reading so a document the DOM would reject is never matched
+                continue;
+            }
+            Frame current = stack.get(stack.size() - 1);
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (hasPrefix(reader)) {
+                        return null;
+                    }
+                    found = current.flushText();
+                    String name = reader.getLocalName();
+                    Frame frame = new Frame(current, matchedSteps(reader, name, current.steps, stack.size()));
+                    if ((frame.steps & lastStepBit) != 0) {
+                        if (lastStep.contentConditions.isEmpty()) {
+                            found = true;
+                        } else {
+                            frame.pending(lastStep);
+                        }
+                    }
+                    if (current.conditions != null) {
+                        found |= current.childStarted(name, frame);
+                        if (frame.stringValue != null) {
+                            capturing++;
+                        }
+                    }
+                    stack.add(frame);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    current.appendText(reader.getText());
+                    if (capturing > 0) {
+                        for (Frame open : stack) {
+                            if (open.stringValue != null) {
+                                open.stringValue.append(reader.getText());
+                            }
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    found = current.flushText();
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    found = current.flushText();
+                    if (current.stringValue != null) {
+                        found |= current.parent.childEnded(current);
+                        capturing--;
+                    }
+                    stack.remove(stack.size() - 1);
+                    break;
+                case XMLStreamConstants.DTD:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    return null;
+                default:
+                    break;
+            }
+        }
+        return found;
+    }
+
+    private long matchedSteps(XMLStreamReader reader, String name, long parentSteps, int depth) {
+        long matched = 0;
+        for (int index = 0; index < steps.length; index++) {
+            boolean parentMatched = index == 0 ? (descendant || depth == 1) : (parentSteps & (1L << (index - 1))) != 0;
+            if (parentMatched && steps[index].matches(reader, name)) {
+                matched |= 1L << index;
+            }
+        }
+        return matched;
+    }
+
+    private static boolean hasPrefix(XMLStreamReader reader) {
+        if (reader.getPrefix() != null && !reader.getPrefix().isEmpty()) {
+            return true;
+        }
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            if (reader.getAttributePrefix(index) != null && !reader.getAttributePrefix(index).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Step {
+        private final String name;
+        private final List<Condition> attributeConditions = new ArrayList<Condition>();
+        private final List<Condition> contentConditions = new ArrayList<Condition>();
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        boolean matches(XMLStreamReader reader, String elementName) {
+            if (!name.equals("*") && !name.equals(elementName)) {
+                return false;
+            }
+            for (Condition condition : attributeConditions) {
+                String value = reader.getAttributeValue(null, condition.name);
+                if (value == null || (condition.value != null && !condition.value.equals(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Condition {
+        private final ConditionType type;
+        private final String name;
+        private final String value;
+
+        Condition(ConditionType type, String name, String value) {
+            this.type = type;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private enum ConditionType {
+        ATTRIBUTE,
+        CHILD,
+        TEXT
+    }
+
+    /**
+     * An open element, when it matches the last step its content conditions are pending until each one
+     * is satisfied by a direct text node or child element
+     */
+    private static class Frame {
+        private final Frame parent;
+        private final long steps;
+        private List<Condition> conditions;
+        private boolean[] satisfied;
+        private int unsatisfied;
+        private StringBuilder text;
+        // the parent conditions this element's string value is compared with
+        private List<Integer> feeds;
+        private StringBuilder stringValue;
+
+        Frame(Frame parent, long steps) {
+            this.parent = parent;
+            this.steps = steps;
+        }
+
+        void pending(Step step) {
+            conditions = step.contentConditions;
+            satisfied = new boolean[conditions.size()];
+            unsatisfied = conditions.size();
+            for (Condition condition : conditions) {
+                if (condition.type == ConditionType.TEXT) {
+                    text = new StringBuilder();
+                }
+            }
+        }
+
+        void appendText(String characters) {
+            if (text != null) {
+                text.append(characters);
+            }
+        }
+
+        boolean flushText() {
+            boolean found = false;
+            if (text != null && text.length() > 0) {
+                for (int index = 0; index < conditions.size(); index++) {
+                    Condition condition = conditions.get(index);
+                    if (condition.type == ConditionType.TEXT && condition.value.contentEquals(text)) {
+                        found |= satisfy(index);
+                    }
+                }
+                text.setLength(0);
+            }
+            return found;
+        }
+
+        boolean childStarted(String name, Frame child) {
+            boolean found = false;
+            for (int index = 0; index < conditions.size(); index++) {
+                Condition condition = conditions.get(index);
+                if (condition.type == ConditionType.CHILD && condition.name.equals(name)) {
+                    if (condition.value == null) {
+                        found |= satisfy(index);
+                    } else {
+                        if (child.feeds == null) {
+                            child.feeds = new ArrayList<Integer>();
+                            child.stringValue = new StringBuilder();
+                        }
+                        child.feeds.add(index);
+                    }
+                }
+            }
+            return found;
+        }
+
+        boolean childEnded(Frame child) {
+            boolean found = false;
+            for (Integer index : child.feeds) {
+                if (conditions.get(index).value.contentEquals(child.stringValue)) {
+                    found |= satisfy(index);
+                }
+            }
+            return found;
+        }
+
+        private boolean satisfy(int index) {
+            if (!satisfied[index]) {
+                satisfied[index] = true;
+                unsatisfied--;
+            }
+            return unsatisfied == 0;
+        }
+    }
+
+    private static class ExpressionParser {
+        private final String expression;
+        private int position;
+
+        ExpressionParser(String expression) {
+            this.expression = expression;
+        }
+
+        StreamingXPath parse() {
+            boolean descendant;
+            if (expression.startsWith("//")) {
+                descendant = true;
+                position = 2;
+            } else if (expression.startsWith("/")) {
+                descendant = false;
+                position = 1;
+            } else {
+                return null;
+            }
+            List<Step> steps = new ArrayList<Step>();
+            while (true) {
+                Step step = parseStep();
+                if (step == null || steps.size() == MAX_STEPS) {
+                    return null;
+                }
+                steps.add(step);
+                if (position == expression.length()) {
+                    break;
+                }
+                if (!consume('/') || peek() == '/') {
+                    return null;
+                }
+            }
+            // content conditions are only known once an element has been read so only the last step may use them
+            for (int index = 0; index < steps.size() - 1; index++) {
+                if (!steps.get(index).contentConditions.isEmpty()) {
+                    return null;
+                }
+            }
+            return new StreamingXPath(descendant, steps.toArray(new Step[steps.size()]));
+        }
+
+        private Step parseStep() {
+            String name = consume('*') ? "*" : parseName();
+            if (name == null) {
+                return null;
+            }
+            Step step = new Step(name);
+            while (consume('[')) {
+                do {
+                    skipWhitespace();
+                    Condition condition = parseCondition();
+                    if (condition == null) {
+                        return null;
+                    }
+                    if (condition.type == ConditionType.ATTRIBUTE) {
+                        step.attributeConditions.add(condition);
+                    } else {
+                        step.contentConditions.add(condition);
+                    }
+                    skipWhitespace();
+                } while (consumeAnd());
+                if (!consume(']')) {
+                    return null;
+                }
+            }
+            return step;
+        }
+
+        private Condition parseCondition() {
+            ConditionType type;
+            String name = null;
+            if (consume('@')) {
+                type = ConditionType.ATTRIBUTE;
+                name = parseName();
+                if (name == null || name.startsWith("xmlns")) {
+                    return null;
+                }
+            } else if (expression.startsWith("text()", position)) {
+                type = ConditionType.TEXT;
+                position += "text()".length();
+            } else {
+                type = ConditionType.CHILD;
+                name = parseName();
+                if (name == null) {
+                    return null;
+                }
+            }
+            skipWhitespace();
+            String value = null;
+            if (consume('=')) {
+                skipWhitespace();
+                value = parseLiteral();
+                if (value == null) {
+                    return null;
+                }
+            } else if (type == ConditionType.TEXT) {
+                return null;
+            }
+            return new Condition(type, name, value);
+        }
+
+        private String parseName() {
+            int start = position;
+            while (position < expression.length()) {
+                char character = expression.charAt(position);
+                boolean nameStart = Character.isLetter(character) || character == '_';
+                if (!(nameStart || (position > start && (Character.isDigit(character) || character == '-' || character == '.')))) {
+                    break;
+                }
+                position++;
+            }
+            return position > start ? expression.substring(start, position) : null;
+        }
+
+        private String parseLiteral() {
+            char quote = peek();
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+            int end = expression.indexOf(quote, position + 1);
+            if (end < 0) {
+                return null;
+            }
+            String literal = expression.substring(position + 1, end);
+            position = end + 1;
+            return literal;
+        }
+
+        private boolean consumeAnd() {
+            if (expression.startsWith("and", position) && position + 3 < expression.length() && Character.isWhitespace(expression.charAt(position + 3))) {
+                position += 3;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+        }
+
+        private boolean consume(char character) {
+            if (peek() == character) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private char peek() {
+            return position < expression.length() ? expression.charAt(position) : 0;
+        }
+    }
+}
@@ -2,13 +2,16 @@ package org.mockserver.matchers;
 
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * @author jamesdbloom
  */
 public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    private int remainingTimes;
-    private boolean unlimited;
+    private static final AtomicIntegerFieldUpdater<Times> REMAINING_TIMES = AtomicIntegerFieldUpdater.newUpdater(Times.class, "remainingTimes");
+    private volatile int remainingTimes;
+    private volatile boolean unlimited;
 
     private Times(int remainingTimes, boolean unlimited) {
         this.remainingTimes = remainingTimes;
@@ -46,13 +49,33 @@ public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
 
     public Times decrement() {
         if (!unlimited) {
-            remainingTimes--;
+            REMAINING_TIMES.decrementAndGet(this);
         }
         return this;
     }
 
-    public Times setNotUnlimitedResponses() {
+    /**
+     * Atomically consumes one of the remaining times so, when the same expectation is matched
+     * concurrently by multiple threads, only the number of remaining times can succeed
+     *
+     * @return true if unlimited or one of the remaining times was consumed, false if there were none left
+     */
+    public boolean tryDecrement() {
+        while (!unlimited) {
+            int current = remainingTimes;
+            if (current <= 0) {
+                return false;
+            }
+            if (REMAINING_TIMES.compareAndSet(this, current, current - 1)) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    public synchronized Times setNotUnlimitedResponses() {
         if (unlimited) {
+            // set remaining times before clearing unlimited so no thread sees limited with zero remaining
             remainingTimes = 1;
             unlimited = false;
         }
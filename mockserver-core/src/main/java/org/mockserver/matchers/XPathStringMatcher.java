@@ -1,71 +1,92 @@
 package org.mockserver.matchers;
 
+import com.google.common.base.Objects;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
-import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author jamesdbloom
  */
 public class XPathStringMatcher extends BodyMatcher<String> {
     private static Logger logger = LoggerFactory.getLogger(XPathStringMatcher.class);
+    private static final ThreadLocal<XPathFactory> XPATH_FACTORY = new ThreadLocal<XPathFactory>() {
+        @Override
+        protected XPathFactory initialValue() {
+            return XPathFactory.newInstance();
+        }
+    };
+    private static final int MAX_COMPILED_EXPRESSIONS_PER_THREAD = 1000;
+    // XPathExpression is not thread safe so each thread compiles its own, the least recently used are dropped
+    private static final ThreadLocal<Map<String, XPathExpression>> XPATH_EXPRESSIONS = new ThreadLocal<Map<String, XPathExpression>>() {
+        @Override
+        protected Map<String, XPathExpression> initialValue() {
+            return new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                    return size() > MAX_COMPILED_EXPRESSIONS_PER_THREAD;
+                }
+            };
+        }
+    };
     private final String matcher;
-    private XPathExpression xpathExpression = null;
+    private boolean validExpression = false;
+    private StreamingXPath streamingXPath = null;
 
-    public XPathStringMatcher(String matcher) {
+    public XPathStringMatcher(final String matcher) {
         this.matcher = matcher;
         if (StringUtils.isNotEmpty(matcher)) {
             try {
-                xpathExpression = XPathFactory.newInstance().newXPath().compile(matcher);
+                xpathExpression();
+                validExpression = true;
+                streamingXPath = StreamingXPath.compile(matcher);
             } catch (XPathExpressionException e) {
                 logger.trace("Error while creating xpath expression for [" + matcher + "] assuming matcher not xpath - " + e.getMessage(), e);
             }
         }
     }
 
-    public boolean matches(final String matched) {
+    private XPathExpression xpathExpression() throws XPathExpressionException {
+        Map<String, XPathExpression> xpathExpressions = XPATH_EXPRESSIONS.get();
+        XPathExpression xpathExpression = xpathExpressions.get(matcher);
+        if (xpathExpression == null) {
+            xpathExpression = XPATH_FACTORY.get().newXPath().compile(matcher);
+            xpathExpressions.put(matcher, xpathExpression);
+        }
+        return xpathExpression;
+    }
+
+    public boolean matches(String matched) {
+        return matchesParsed(new ParsedBody(matched));
+    }
+
+    public boolean matchesParsed(ParsedBody parsedBody) {
         boolean result = false;
+        String matched = parsedBody.string();
 
-        if (xpathExpression == null) {
+        if (!validExpression) {
             logger.warn("Attempting match against null XPath Expression for [" + matched + "]" + new RuntimeException("Attempting match against null XPath Expression for [" + matched + "]"));
         } else if (matcher.equals(matched)) {
             result = true;
         } else if (matched != null) {
-            // match as xpath - matcher -> matched
-            try {
-                DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-                DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-                documentBuilder.setErrorHandler(new ErrorHandler() {
-                    @Override
-                    public void warning(SAXParseException exception) throws SAXException {
-                        logger.debug("SAXParseException while performing match between [" + matcher + "] and [" + matched + "]", exception);
-                    }
-
-                    @Override
-                    public void error(SAXParseException exception) throws SAXException {
-                        logger.debug("SAXParseException while performing match between [" + matcher + "] and [" + matched + "]", exception);
-                    }
-
-                    @Override
-                    public void fatalError(SAXParseException exception) throws SAXException {
-                        logger.debug("SAXParseException while performing match between [" + matcher + "] and [" + matched + "]", exception);
-                    }
-                });
-                result = (Boolean) xpathExpression.evaluate(documentBuilder.parse(new InputSource(new StringReader(matched))), XPathConstants.BOOLEAN);
-            } catch (Exception e) {
-                logger.trace("Error while matching xpath [" + matcher + "] against string [" + matched + "] assuming no match - " + e.getMessage());
+            // simple expressions are evaluated without building a DOM, unless the body is shared with other xpath matchers
+            Boolean streamedResult = streamingXPath != null ? parsedBody.streamedXPath(streamingXPath) : null;
+            if (streamedResult != null) {
+                result = streamedResult;
+            } else {
+                // match as xpath - matcher -> matched
+                try {
+                    result = (Boolean) xpathExpression().evaluate(parsedBody.document(), XPathConstants.BOOLEAN);
+                } catch (Exception e) {
+                    logger.trace("Error while matching xpath [" + matcher + "] against string [" + matched + "] assuming no match - " + e.getMessage());
+                }
             }
         }
 
@@ -78,6 +99,25 @@ public class XPathStringMatcher extends BodyMatcher<String> {
 
     @Override
     public String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger", "xpathExpression"};
+        return new String[]{"logger", "validExpression", "streamingXPath"};
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        // the compiled xpath expression is derived from the matcher
+        XPathStringMatcher that = (XPathStringMatcher) other;
+        return not == that.not && Objects.equal(matcher, that.matcher);
     }
+
+    @Override
+    public int hashCode() {
+        return 31 * (matcher != null ? matcher.hashCode() : 0) + (not ? 1 : 0);
+    }
+
 }
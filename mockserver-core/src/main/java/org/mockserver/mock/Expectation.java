@@ -2,6 +2,7 @@ package org.mockserver.mock;
 
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
+import org.mockserver.matchers.ParsedBody;
 import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
 import org.mockserver.model.*;
@@ -113,7 +114,11 @@ public class Expectation extends ObjectWithJsonToString {
     }
 
     public boolean matches(HttpRequest httpRequest) {
-        return hasRemainingMatches() && isStillAlive() && httpRequestMatcher.matches(httpRequest, true);
+        return matches(httpRequest, new ParsedBody(httpRequest));
+    }
+
+    public boolean matches(HttpRequest httpRequest, ParsedBody parsedBody) {
+        return hasRemainingMatches() && isStillAlive() && httpRequestMatcher.matches(httpRequest, parsedBody, true);
     }
 
     public boolean hasRemainingMatches() {
@@ -124,10 +129,11 @@ public class Expectation extends ObjectWithJsonToString {
         return timeToLive == null || timeToLive.stillAlive();
     }
 
-    public void decrementRemainingMatches() {
-        if (times != null) {
-            times.decrement();
-        }
+    /**
+     * @return false if another thread has already consumed the last remaining match
+     */
+    public boolean decrementRemainingMatches() {
+        return times == null || times.tryDecrement();
     }
 
     public void setNotUnlimitedResponses() {
@@ -0,0 +1,216 @@
+package org.mockserver.mock;
+
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.NottableString;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.mockserver.matchers.RegexStringMatcher.isLiteral;
+
+/**
+ * Groups expectations by literal path or, when the path is a regex, by literal method so an incoming
+ * request is only matched against the expectations that could possibly match it, expectations with
+ * a regex or "not" path and method are kept in a fallback group that is always a candidate
+ *
+ * candidates are always returned in the order the expectations were added so "first match wins" is preserved
+ *
+ * each group is an immutable list that is replaced when it changes so any number of threads can read the index
+ * without a lock, an add or remove only copies the one group it changes, updates must be synchronized by the caller
+ *
+ * @author jamesdbloom
+ */
+public class ExpectationIndex {
+
+    private final ConcurrentMap<String, List<IndexedExpectation>> expectationsByPath = new ConcurrentHashMap<String, List<IndexedExpectation>>();
+    private final ConcurrentMap<String, List<IndexedExpectation>> expectationsByMethod = new ConcurrentHashMap<String, List<IndexedExpectation>>();
+    private volatile List<IndexedExpectation> unindexedExpectations = Collections.emptyList();
+    // every expectation in insertion order, for requests that can't be narrowed
+    private final ConcurrentNavigableMap<Long, Expectation> allExpectations = new ConcurrentSkipListMap<Long, Expectation>();
+    private long nextInsertionOrder = 0;
+
+    public void add(Expectation expectation) {
+        IndexedExpectation indexedExpectation = new IndexedExpectation(nextInsertionOrder++, expectation);
+        HttpRequest httpRequest = expectation.getHttpRequest();
+        String path = indexableValue(httpRequest, httpRequest != null ? httpRequest.getPath() : null);
+        String method = indexableValue(httpRequest, httpRequest != null ? httpRequest.getMethod() : null);
+        allExpectations.put(indexedExpectation.insertionOrder, expectation);
+        if (path != null) {
+            addToGroup(expectationsByPath, path, indexedExpectation);
+        } else if (method != null) {
+            addToGroup(expectationsByMethod, method, indexedExpectation);
+        } else {
+            unindexedExpectations = withAdded(unindexedExpectations, indexedExpectation);
+        }
+    }
+
+    /**
+     * @return false if the expectation is not in the index
+     */
+    public boolean remove(Expectation expectation) {
+        HttpRequest httpRequest = expectation.getHttpRequest();
+        String path = indexableValue(httpRequest, httpRequest != null ? httpRequest.getPath() : null);
+        String method = indexableValue(httpRequest, httpRequest != null ? httpRequest.getMethod() : null);
+        IndexedExpectation removed;
+        if (path != null) {
+            removed = removeFromGroup(expectationsByPath, path, expectation);
+        } else if (method != null) {
+            removed = removeFromGroup(expectationsByMethod, method, expectation);
+        } else {
+            removed = find(unindexedExpectations, expectation);
+            if (removed != null) {
+                unindexedExpectations = withRemoved(unindexedExpectations, removed);
+            }
+        }
+        if (removed != null) {
+            allExpectations.remove(removed.insertionOrder);
+            return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        expectationsByPath.clear();
+        expectationsByMethod.clear();
+        unindexedExpectations = Collections.emptyList();
+        allExpectations.clear();
+    }
+
+    /**
+     * A live view of every expectation in the order they were added, iterating it never throws a
+     * ConcurrentModificationException
+     */
+    public Collection<Expectation> expectations() {
+        return Collections.unmodifiableCollection(allExpectations.values());
+    }
+
+    /**
+     * Requests with a regex or "not" path or method could match expectations in any group so can't be narrowed
+     */
+    public boolean canNarrow(HttpRequest httpRequest) {
+        return httpRequest != null
+                && !httpRequest.isNot()
+                && isLiteralValue(httpRequest.getPath())
+                && isLiteralValue(httpRequest.getMethod());
+    }
+
+    /**
+     * The expectations that could match the request, in the order they were added, only valid when canNarrow(httpRequest) is true
+     */
+    public List<Expectation> candidatesFor(HttpRequest httpRequest) {
+        List<IndexedExpectation> byPath = expectationsByPath.get(valueOrEmpty(httpRequest.getPath()));
+        List<IndexedExpectation> byMethod = expectationsByMethod.get(valueOrEmpty(httpRequest.getMethod()));
+        return mergeInInsertionOrder(byPath, byMethod, unindexedExpectations);
+    }
+
+    /**
+     * Any expectation equal to this request is in the same group so this is the only group that needs checking
+     */
+    public List<Expectation> sameGroupAs(HttpRequest httpRequest) {
+        String path = indexableValue(httpRequest, httpRequest != null ? httpRequest.getPath() : null);
+        String method = indexableValue(httpRequest, httpRequest != null ? httpRequest.getMethod() : null);
+        List<IndexedExpectation> group;
+        if (path != null) {
+            group = expectationsByPath.get(path);
+        } else if (method != null) {
+            group = expectationsByMethod.get(method);
+        } else {
+            group = unindexedExpectations;
+        }
+        return mergeInInsertionOrder(group, null, null);
+    }
+
+    private String indexableValue(HttpRequest httpRequest, NottableString value) {
+        if (httpRequest != null && !httpRequest.isNot() && value != null && !value.isNot() && value.getValue() != null && !value.getValue().isEmpty() && isLiteral(value.getValue())) {
+            return value.getValue();
+        } else {
+            return null;
+        }
+    }
+
+    private boolean isLiteralValue(NottableString value) {
+        return value == null || (!value.isNot() && isLiteral(value.getValue()));
+    }
+
+    private String valueOrEmpty(NottableString value) {
+        return value != null && value.getValue() != null ? value.getValue() : "";
+    }
+
+    private void addToGroup(ConcurrentMap<String, List<IndexedExpectation>> index, String key, IndexedExpectation indexedExpectation) {
+        List<IndexedExpectation> group = index.get(key);
+        index.put(key, withAdded(group != null ? group : Collections.<IndexedExpectation>emptyList(), indexedExpectation));
+    }
+
+    private IndexedExpectation removeFromGroup(ConcurrentMap<String, List<IndexedExpectation>> index, String key, Expectation expectation) {
+        List<IndexedExpectation> group = index.get(key);
+        IndexedExpectation removed = (group != null ? find(group, expectation) : null);
+        if (removed != null) {
+            if (group.size() == 1) {
+                index.remove(key);
+            } else {
+                index.put(key, withRemoved(group, removed));
+            }
+        }
+        return removed;
+    }
+
+    private IndexedExpectation find(List<IndexedExpectation> group, Expectation expectation) {
+        for (IndexedExpectation indexedExpectation : group) {
+            if (indexedExpectation.expectation == expectation) {
+                return indexedExpectation;
+            }
+        }
+        return null;
+    }
+
+    private List<IndexedExpectation> withAdded(List<IndexedExpectation> group, IndexedExpectation indexedExpectation) {
+        List<IndexedExpectation> copy = new ArrayList<IndexedExpectation>(group.size() + 1);
+        copy.addAll(group);
+        copy.add(indexedExpectation);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private List<IndexedExpectation> withRemoved(List<IndexedExpectation> group, IndexedExpectation indexedExpectation) {
+        List<IndexedExpectation> copy = new ArrayList<IndexedExpectation>(group);
+        copy.remove(indexedExpectation);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private List<Expectation> mergeInInsertionOrder(List<IndexedExpectation> first, List<IndexedExpectation> second, List<IndexedExpectation> third) {
+        List<IndexedExpectation> emptyGroup = Collections.emptyList();
+        first = (first != null ? first : emptyGroup);
+        second = (second != null ? second : emptyGroup);
+        third = (third != null ? third : emptyGroup);
+
+        List<Expectation> merged = new ArrayList<Expectation>(first.size() + second.size() + third.size());
+        int firstIndex = 0;
+        int secondIndex = 0;
+        int thirdIndex = 0;
+        while (firstIndex < first.size() || secondIndex < second.size() || thirdIndex < third.size()) {
+            long firstOrder = (firstIndex < first.size() ? first.get(firstIndex).insertionOrder : Long.MAX_VALUE);
+            long secondOrder = (secondIndex < second.size() ? second.get(secondIndex).insertionOrder : Long.MAX_VALUE);
+            long thirdOrder = (thirdIndex < third.size() ? third.get(thirdIndex).insertionOrder : Long.MAX_VALUE);
+            if (firstOrder < secondOrder && firstOrder < thirdOrder) {
+                merged.add(first.get(firstIndex++).expectation);
+            } else if (secondOrder < thirdOrder) {
+                merged.add(second.get(secondIndex++).expectation);
+            } else {
+                merged.add(third.get(thirdIndex++).expectation);
+            }
+        }
+        return merged;
+    }
+
+    private static class IndexedExpectation {
+        private final long insertionOrder;
+        private final Expectation expectation;
+
+        private IndexedExpectation(long insertionOrder, Expectation expectation) {
+            this.insertionOrder = insertionOrder;
+            this.expectation = expectation;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.mockserver.client.serialization.Base64Converter;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
+import org.mockserver.matchers.ParsedBody;
 import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
 import org.mockserver.model.*;
@@ -15,8 +16,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,18 +24,20 @@ import java.util.regex.Pattern;
  */
 public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    protected final List<Expectation> expectations = Collections.synchronizedList(new ArrayList<Expectation>());
+    // requests are matched without taking a lock, all updates are synchronized
+    private final ExpectationIndex expectationIndex = new ExpectationIndex();
+    protected final Collection<Expectation> expectations = expectationIndex.expectations();
     private Logger requestLogger = LoggerFactory.getLogger("REQUEST");
 
     public Expectation when(HttpRequest httpRequest) {
         return when(httpRequest, Times.unlimited(), TimeToLive.unlimited());
     }
 
-    public Expectation when(final HttpRequest httpRequest, Times times, TimeToLive timeToLive) {
+    public synchronized Expectation when(final HttpRequest httpRequest, Times times, TimeToLive timeToLive) {
         Expectation expectation;
         if (times.isUnlimited()) {
             Collection<Expectation> existingExpectationsWithMatchingRequest = new ArrayList<Expectation>();
-            for (Expectation potentialExpectation : new ArrayList<Expectation>(this.expectations)) {
+            for (Expectation potentialExpectation : expectationIndex.sameGroupAs(httpRequest)) {
                 if (potentialExpectation.contains(httpRequest)) {
                     existingExpectationsWithMatchingRequest.add(potentialExpectation);
                 }
@@ -52,24 +53,33 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
         } else {
             expectation = new Expectation(httpRequest, times, timeToLive);
         }
-        this.expectations.add(expectation);
+        addExpectation(expectation);
         return expectation;
     }
 
     public Action handle(HttpRequest httpRequest) {
-        for (Expectation expectation : new ArrayList<Expectation>(this.expectations)) {
-            if (expectation.matches(httpRequest)) {
-                expectation.decrementRemainingMatches();
-                if (!expectation.hasRemainingMatches()) {
-                    if (this.expectations.contains(expectation)) {
-                        this.expectations.remove(expectation);
+        return handle(httpRequest, true);
+    }
+
+    /**
+     * @param applyDelay false if the caller will apply any response delay itself, for example by scheduling the response write
+     */
+    public Action handle(HttpRequest httpRequest, boolean applyDelay) {
+        // the body is decoded and parsed at most once however many expectations look at it
+        ParsedBody parsedBody = new ParsedBody(httpRequest);
+        for (Expectation expectation : candidateExpectations(httpRequest)) {
+            if (expectation.matches(httpRequest, parsedBody)) {
+                if (expectation.decrementRemainingMatches()) {
+                    if (!expectation.hasRemainingMatches()) {
+                        removeExpectation(expectation);
                     }
+                    return expectation.getAction(applyDelay);
+                } else {
+                    // last remaining match was consumed by another thread
+                    removeExpectation(expectation);
                 }
-                return expectation.getAction(true);
             } else if (!expectation.isStillAlive()) {
-                if (this.expectations.contains(expectation)) {
-                    this.expectations.remove(expectation);
-                }
+                removeExpectation(expectation);
             }
         }
         return null;
@@ -78,11 +88,9 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
     public void clear(HttpRequest httpRequest) {
         if (httpRequest != null) {
             HttpRequestMatcher httpRequestMatcher = new MatcherBuilder().transformsToMatcher(httpRequest);
-            for (Expectation expectation : new ArrayList<Expectation>(this.expectations)) {
+            for (Expectation expectation : this.expectations) {
                 if (httpRequestMatcher.matches(expectation.getHttpRequest(), true)) {
-                    if (this.expectations.contains(expectation)) {
-                        this.expectations.remove(expectation);
-                    }
+                    removeExpectation(expectation);
                 }
             }
         } else {
@@ -90,21 +98,38 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
         }
     }
 
-    public void reset() {
-        this.expectations.clear();
+    public synchronized void reset() {
+        this.expectationIndex.clear();
+    }
+
+    private synchronized void addExpectation(Expectation expectation) {
+        this.expectationIndex.add(expectation);
+    }
+
+    private synchronized void removeExpectation(Expectation expectation) {
+        this.expectationIndex.remove(expectation);
+    }
+
+    private Collection<Expectation> candidateExpectations(HttpRequest httpRequest) {
+        if (expectationIndex.canNarrow(httpRequest)) {
+            return expectationIndex.candidatesFor(httpRequest);
+        } else {
+            return this.expectations;
+        }
     }
 
     public void dumpToLog(HttpRequest httpRequest) {
         if (httpRequest != null) {
             ExpectationSerializer expectationSerializer = new ExpectationSerializer();
-            for (Expectation expectation : new ArrayList<Expectation>(this.expectations)) {
-                if (expectation.matches(httpRequest)) {
+            ParsedBody parsedBody = new ParsedBody(httpRequest);
+            for (Expectation expectation : this.expectations) {
+                if (expectation.matches(httpRequest, parsedBody)) {
                     requestLogger.warn(cleanBase64Response(expectationSerializer.serialize(expectation)));
                 }
             }
         } else {
             ExpectationSerializer expectationSerializer = new ExpectationSerializer();
-            for (Expectation expectation : new ArrayList<Expectation>(this.expectations)) {
+            for (Expectation expectation : this.expectations) {
                 requestLogger.warn(cleanBase64Response(expectationSerializer.serialize(expectation)));
             }
         }
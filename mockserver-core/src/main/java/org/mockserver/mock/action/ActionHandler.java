@@ -1,5 +1,8 @@
 package org.mockserver.mock.action;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.mockserver.filters.Filters;
 import org.mockserver.filters.HopByHopHeaderFilter;
 import org.mockserver.filters.LogFilter;
@@ -40,4 +43,21 @@ public class ActionHandler {
         }
         return filters.applyOnResponseFilters(httpRequest, httpResponse);
     }
+
+    /**
+     * Forwarded requests are sent without blocking and the response filters are applied once the response is received,
+     * all other actions are processed immediately
+     */
+    public ListenableFuture<HttpResponse> processActionAsync(Action action, HttpRequest httpRequest) {
+        if (action == null || action.getType() != Action.Type.FORWARD) {
+            return Futures.immediateFuture(processAction(action, httpRequest));
+        }
+        final HttpRequest filteredHttpRequest = filters.applyOnRequestFilters(httpRequest);
+        return Futures.transform(httpForwardActionHandler.handleAsync((HttpForward) action, filteredHttpRequest), new Function<HttpResponse, HttpResponse>() {
+            @Override
+            public HttpResponse apply(HttpResponse httpResponse) {
+                return filters.applyOnResponseFilters(filteredHttpRequest, httpResponse);
+            }
+        });
+    }
 }
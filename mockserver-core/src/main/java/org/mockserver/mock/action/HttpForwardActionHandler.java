@@ -1,5 +1,8 @@
 package org.mockserver.mock.action;
 
+import com.google.common.util.concurrent.FutureFallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.mockserver.client.netty.NettyHttpClient;
 import org.mockserver.model.*;
 import org.slf4j.Logger;
@@ -18,12 +21,20 @@ public class HttpForwardActionHandler {
     private NettyHttpClient httpClient = new NettyHttpClient();
 
     public HttpResponse handle(HttpForward httpForward, HttpRequest httpRequest) {
+        return sendRequest(outboundHttpRequest(httpForward, httpRequest));
+    }
+
+    public ListenableFuture<HttpResponse> handleAsync(HttpForward httpForward, HttpRequest httpRequest) {
+        return sendRequestAsync(outboundHttpRequest(httpForward, httpRequest));
+    }
+
+    private OutboundHttpRequest outboundHttpRequest(HttpForward httpForward, HttpRequest httpRequest) {
         if (httpForward.getScheme().equals(HttpForward.Scheme.HTTPS)) {
             httpRequest.setSecure(true);
         } else {
             httpRequest.setSecure(false);
         }
-        return sendRequest(outboundRequest(httpForward.getHost(), httpForward.getPort(), "", httpRequest));
+        return outboundRequest(httpForward.getHost(), httpForward.getPort(), "", httpRequest);
     }
 
     private HttpResponse sendRequest(OutboundHttpRequest httpRequest) {
@@ -36,4 +47,17 @@ public class HttpForwardActionHandler {
         }
         return null;
     }
+
+    private ListenableFuture<HttpResponse> sendRequestAsync(final OutboundHttpRequest httpRequest) {
+        if (httpRequest != null) {
+            return Futures.withFallback(httpClient.sendRequestAsync(httpRequest), new FutureFallback<HttpResponse>() {
+                @Override
+                public ListenableFuture<HttpResponse> create(Throwable throwable) {
+                    logger.error("Exception forwarding request " + httpRequest, throwable);
+                    return Futures.immediateFuture(null);
+                }
+            });
+        }
+        return Futures.immediateFuture(null);
+    }
 }
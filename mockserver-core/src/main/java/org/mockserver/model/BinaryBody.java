@@ -1,17 +1,33 @@
 package org.mockserver.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.netty.buffer.ByteBuf;
 import org.mockserver.client.serialization.Base64Converter;
 
+import java.util.Arrays;
+
 /**
  * @author jamesdbloom
  */
 public class BinaryBody extends Body<byte[]> {
 
     private final byte[] bytes;
+    private final BufferContent content;
 
     public BinaryBody(byte[] bytes) {
         super(Type.BINARY);
         this.bytes = bytes;
+        this.content = null;
+    }
+
+    /**
+     * A body that wraps a retained buffer and copies it each time it is read, the body takes over the caller's
+     * reference which is released by {@link #release()}
+     */
+    public BinaryBody(ByteBuf content) {
+        super(Type.BINARY);
+        this.bytes = null;
+        this.content = new BufferContent(content);
     }
 
     public static BinaryBody binary(byte[] body) {
@@ -19,15 +35,44 @@ public class BinaryBody extends Body<byte[]> {
     }
 
     public byte[] getValue() {
-        return bytes;
+        return content != null ? content.bytes() : bytes;
     }
 
     public byte[] getRawBytes() {
-        return bytes;
+        return getValue();
+    }
+
+    @JsonIgnore
+    public boolean isReferenceCounted() {
+        return content != null;
+    }
+
+    @Override
+    public BinaryBody retain() {
+        if (content != null) {
+            content.retain();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return content != null && content.release();
     }
 
     @Override
     public String toString() {
+        byte[] bytes = getValue();
         return bytes != null ? Base64Converter.stringToBase64Bytes(bytes) : null;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Arrays.equals(getValue(), ((BinaryBody) other).getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Arrays.hashCode(getValue());
+    }
 }
@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
 
 import java.nio.charset.Charset;
 
@@ -36,6 +37,43 @@ public abstract class Body<T> extends Not {
         return null;
     }
 
+    /**
+     * Bodies that wrap a pooled buffer are reference counted, each holder of the body retains it and releases it
+     * when finished, other bodies ignore retain and release
+     */
+    @JsonIgnore
+    public boolean isReferenceCounted() {
+        return false;
+    }
+
+    public Body<T> retain() {
+        return this;
+    }
+
+    /**
+     * @return true if this was the last reference and the wrapped buffer has been released
+     */
+    public boolean release() {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        Body that = (Body) other;
+        return type == that.type && Objects.equal(not, that.not);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(type, not);
+    }
+
     public enum Type {
         PARAMETERS,
         XPATH,
@@ -43,6 +81,8 @@ public abstract class Body<T> extends Not {
         JSON_SCHEMA,
         REGEX,
         STRING,
-        BINARY
+        BINARY,
+        FILE,
+        GENERATED
     }
 }
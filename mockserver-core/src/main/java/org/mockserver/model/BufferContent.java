@@ -0,0 +1,38 @@
+package org.mockserver.model;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.Charset;
+
+/**
+ * A retained slice of the buffer a body was received into, the bytes are copied or decoded each time they are
+ * read instead of being kept so a logged body is only held once, in the buffer
+ *
+ * @author jamesdbloom
+ */
+class BufferContent {
+
+    private final ByteBuf content;
+
+    BufferContent(ByteBuf content) {
+        this.content = content;
+    }
+
+    byte[] bytes() {
+        byte[] bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+        return bytes;
+    }
+
+    String string(Charset charset) {
+        return content.toString(charset);
+    }
+
+    void retain() {
+        content.retain();
+    }
+
+    boolean release() {
+        return content.release();
+    }
+}
@@ -1,5 +1,7 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
+
 /**
  * @author jamesdbloom
  */
@@ -91,4 +93,25 @@ public class ConnectionOptions extends ObjectWithJsonToString {
     public Boolean getKeepAliveOverride() {
         return keepAliveOverride;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        ConnectionOptions that = (ConnectionOptions) other;
+        return Objects.equal(suppressContentLengthHeader, that.suppressContentLengthHeader)
+                && Objects.equal(contentLengthHeaderOverride, that.contentLengthHeaderOverride)
+                && Objects.equal(suppressConnectionHeader, that.suppressConnectionHeader)
+                && Objects.equal(keepAliveOverride, that.keepAliveOverride)
+                && Objects.equal(closeSocket, that.closeSocket);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(suppressContentLengthHeader, contentLengthHeaderOverride, suppressConnectionHeader, keepAliveOverride, closeSocket);
+    }
 }
@@ -33,4 +33,21 @@ public class Delay extends ObjectWithReflectiveEqualsHashCodeToString {
             }
         }
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        Delay that = (Delay) other;
+        return value == that.value && timeUnit == that.timeUnit;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (timeUnit != null ? timeUnit.hashCode() : 0) + (int) (value ^ (value >>> 32));
+    }
 }
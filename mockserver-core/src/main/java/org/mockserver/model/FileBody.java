@@ -0,0 +1,114 @@
+package org.mockserver.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A response body read from a local file each time the response is written, the file is sent with zero-copy
+ * file transfer where the connection allows it
+ * <p/>
+ * Relative paths are resolved against the directory set with mockserver.fileBodyDirectory
+ *
+ * @author jamesdbloom
+ */
+public class FileBody extends StreamedBody<String> {
+
+    private final String filePath;
+
+    public FileBody(String filePath) {
+        super(Type.FILE);
+        this.filePath = filePath;
+    }
+
+    public static FileBody file(String filePath) {
+        return new FileBody(filePath);
+    }
+
+    public String getValue() {
+        return filePath;
+    }
+
+    @JsonIgnore
+    public File getFile() {
+        File file = new File(filePath);
+        String fileBodyDirectory = ConfigurationProperties.fileBodyDirectory();
+        if (!file.isAbsolute() && !Strings.isNullOrEmpty(fileBodyDirectory)) {
+            file = new File(fileBodyDirectory, filePath);
+        }
+        return file;
+    }
+
+    /**
+     * Checked when an expectation is created, so an expectation can't be used to read any file the process can read
+     * and a missing file is reported before any response headers have been written
+     *
+     * @throws IllegalArgumentException if mockserver.fileBodyDirectory isn't set, the file is outside that directory
+     *                                  or the file can't be read
+     */
+    public FileBody validate() {
+        File file;
+        try {
+            file = resolveFile();
+        } catch (IOException ioe) {
+            throw new IllegalArgumentException(ioe.getMessage(), ioe);
+        }
+        if (!file.isFile() || !file.canRead()) {
+            throw new IllegalArgumentException("File [" + filePath + "] does not exist or can't be read");
+        }
+        return this;
+    }
+
+    /**
+     * The canonical file, checked again each time the file is opened for a response because a symbolic link under
+     * mockserver.fileBodyDirectory could have been changed to point outside it since the expectation was created
+     *
+     * @throws IOException if mockserver.fileBodyDirectory isn't set, the file is outside that directory or its path
+     *                     can't be resolved
+     */
+    public File resolveFile() throws IOException {
+        String fileBodyDirectory = ConfigurationProperties.fileBodyDirectory();
+        if (Strings.isNullOrEmpty(fileBodyDirectory)) {
+            throw new IOException("File bodies are disabled, set mockserver.fileBodyDirectory to the directory files can be served from");
+        }
+        String directory = new File(fileBodyDirectory).getCanonicalPath() + File.separator;
+        File file = getFile().getCanonicalFile();
+        if (!file.getPath().startsWith(directory)) {
+            throw new IOException("File [" + filePath + "] is not in file body directory [" + fileBodyDirectory + "]");
+        }
+        return file;
+    }
+
+    /**
+     * @return the length of the file, or zero if it is no longer in mockserver.fileBodyDirectory in which case opening
+     * it for the response fails
+     */
+    @JsonIgnore
+    public long getContentLength() {
+        try {
+            return resolveFile().length();
+        } catch (IOException ioe) {
+            return 0;
+        }
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Files.copy(resolveFile(), outputStream);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Objects.equal(filePath, ((FileBody) other).filePath);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(filePath);
+    }
+}
@@ -0,0 +1,81 @@
+package org.mockserver.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A response body of the given length generated by repeating a pattern while the response is written, useful for
+ * mocking large downloads without holding them in memory
+ *
+ * @author jamesdbloom
+ */
+public class GeneratedBody extends StreamedBody<String> {
+
+    public static final String DEFAULT_PATTERN = "0123456789";
+    private final String pattern;
+    private final long length;
+
+    public GeneratedBody(long length) {
+        this(length, DEFAULT_PATTERN);
+    }
+
+    public GeneratedBody(long length, String pattern) {
+        super(Type.GENERATED);
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        this.length = length;
+        this.pattern = Strings.isNullOrEmpty(pattern) ? DEFAULT_PATTERN : pattern;
+    }
+
+    public static GeneratedBody generated(long length) {
+        return new GeneratedBody(length);
+    }
+
+    public static GeneratedBody generated(long length, String pattern) {
+        return new GeneratedBody(length, pattern);
+    }
+
+    /**
+     * The pattern repeated to fill the body, the last repetition is truncated to the length
+     */
+    public String getValue() {
+        return pattern;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    @JsonIgnore
+    public byte[] getPatternBytes() {
+        return pattern.getBytes(Charsets.UTF_8);
+    }
+
+    @JsonIgnore
+    public long getContentLength() {
+        return length;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        byte[] patternBytes = getPatternBytes();
+        for (long remaining = length; remaining > 0; remaining -= patternBytes.length) {
+            outputStream.write(patternBytes, 0, (int) Math.min(patternBytes.length, remaining));
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && length == ((GeneratedBody) other).length && Objects.equal(pattern, ((GeneratedBody) other).pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(length, pattern);
+    }
+}
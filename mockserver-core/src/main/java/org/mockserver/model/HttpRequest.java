@@ -2,6 +2,7 @@ package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 
 import java.nio.charset.Charset;
@@ -24,6 +25,7 @@ public class HttpRequest extends Not {
     Map<NottableString, Cookie> cookies = new LinkedHashMap<NottableString, Cookie>();
     boolean isKeepAlive = false;
     boolean secure;
+    Integer streamId;
 
     public static HttpRequest request() {
         return new HttpRequest();
@@ -53,6 +55,19 @@ public class HttpRequest extends Not {
         return this;
     }
 
+    /**
+     * @return the HTTP/2 stream the request was received on or null if it was received over HTTP/1.x
+     */
+    @JsonIgnore
+    public Integer getStreamId() {
+        return streamId;
+    }
+
+    public HttpRequest withStreamId(Integer streamId) {
+        this.streamId = streamId;
+        return this;
+    }
+
     /**
      * The HTTP method to match on such as "GET" or "POST"
      *
@@ -363,6 +378,23 @@ public class HttpRequest extends Not {
         }
     }
 
+    /**
+     * Retains the body if it wraps a pooled buffer, see {@link Body#retain()}
+     */
+    public HttpRequest retain() {
+        if (body != null) {
+            body.retain();
+        }
+        return this;
+    }
+
+    /**
+     * Releases the body if it wraps a pooled buffer, see {@link Body#release()}
+     */
+    public boolean release() {
+        return body != null && body.release();
+    }
+
     /**
      * The headers to match on as a list of Header objects where the values or keys of each header can be either a string or a regex
      * (for more details of the supported regex syntax see http://docs.oracle.com/javase/6/docs/api/java/util/regex/Pattern.html)
@@ -550,4 +582,29 @@ public class HttpRequest extends Not {
     public List<Cookie> getCookies() {
         return new ArrayList<Cookie>(cookies.values());
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        HttpRequest that = (HttpRequest) other;
+        return isKeepAlive == that.isKeepAlive
+                && secure == that.secure
+                && Objects.equal(not, that.not)
+                && Objects.equal(method, that.method)
+                && Objects.equal(path, that.path)
+                && Objects.equal(queryStringParameters, that.queryStringParameters)
+                && Objects.equal(body, that.body)
+                && Objects.equal(headers, that.headers)
+                && Objects.equal(cookies, that.cookies);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(not, method, path, queryStringParameters, body, headers, cookies, isKeepAlive, secure);
+    }
 }
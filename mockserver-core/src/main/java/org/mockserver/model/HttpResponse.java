@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 
 import java.nio.charset.Charset;
@@ -21,6 +22,7 @@ public class HttpResponse extends Action {
     private Map<NottableString, Cookie> cookies = new LinkedHashMap<NottableString, Cookie>();
     private Delay delay;
     private ConnectionOptions connectionOptions;
+    private Integer streamId;
 
     public HttpResponse() {
     }
@@ -327,6 +329,19 @@ public class HttpResponse extends Action {
         return connectionOptions;
     }
 
+    /**
+     * The HTTP/2 stream to write the response to, this is set from the request and is null for HTTP/1.x
+     */
+    public HttpResponse withStreamId(Integer streamId) {
+        this.streamId = streamId;
+        return this;
+    }
+
+    @JsonIgnore
+    public Integer getStreamId() {
+        return streamId;
+    }
+
     @JsonIgnore
     public HttpResponse applyDelay() {
         if (delay != null) {
@@ -340,5 +355,26 @@ public class HttpResponse extends Action {
     public Type getType() {
         return Type.RESPONSE;
     }
-}
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        HttpResponse that = (HttpResponse) other;
+        return Objects.equal(statusCode, that.statusCode)
+                && Objects.equal(body, that.body)
+                && Objects.equal(headers, that.headers)
+                && Objects.equal(cookies, that.cookies)
+                && Objects.equal(delay, that.delay)
+                && Objects.equal(connectionOptions, that.connectionOptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(statusCode, body, headers, cookies, delay, connectionOptions);
+    }
+}
@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
 import org.mockserver.matchers.MatchType;
 
 import java.nio.charset.Charset;
@@ -81,4 +82,18 @@ public class JsonBody extends Body {
         return "application/json";
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        // raw binary data is derived from json and charset
+        JsonBody that = (JsonBody) other;
+        return Objects.equal(json, that.json) && matchType == that.matchType && Objects.equal(charset, that.charset);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(json, matchType, charset);
+    }
 }
@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import org.apache.commons.io.IOUtils;
 
 import java.io.FileInputStream;
@@ -43,4 +44,13 @@ public class JsonSchemaBody extends Body {
         return jsonSchema;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Objects.equal(jsonSchema, ((JsonSchemaBody) other).jsonSchema);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (jsonSchema != null ? jsonSchema.hashCode() : 0);
+    }
 }
@@ -1,5 +1,6 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
 import org.mockserver.collections.CaseInsensitiveRegexHashMap;
 
 import java.util.Arrays;
@@ -45,4 +46,20 @@ public class KeyAndValue extends ObjectWithJsonToString {
         return value;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        KeyAndValue that = (KeyAndValue) other;
+        return Objects.equal(name, that.name) && Objects.equal(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name, value);
+    }
 }
@@ -1,5 +1,6 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
 import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
 
 import java.util.ArrayList;
@@ -101,4 +102,21 @@ public class KeyToMultiValue extends ObjectWithJsonToString {
     public void addValues(NottableString... values) {
         addNottableValues(Arrays.asList(values));
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        KeyToMultiValue that = (KeyToMultiValue) other;
+        return Objects.equal(name, that.name) && Objects.equal(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name, values);
+    }
 }
@@ -1,5 +1,7 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
+
 import java.net.InetSocketAddress;
 
 /**
@@ -23,8 +25,11 @@ public class OutboundHttpRequest extends HttpRequest {
         this.isKeepAlive = httpRequest.isKeepAlive;
     }
 
+    /**
+     * The host isn't resolved here, it is resolved without blocking when the request is sent
+     */
     public static OutboundHttpRequest outboundRequest(String host, int port, String contextPath, HttpRequest httpRequest) {
-        return new OutboundHttpRequest(new InetSocketAddress(host, port), contextPath, httpRequest);
+        return new OutboundHttpRequest(InetSocketAddress.createUnresolved(host, port), contextPath, httpRequest);
     }
 
     public static OutboundHttpRequest outboundRequest(InetSocketAddress destination, String contextPath, HttpRequest httpRequest) {
@@ -38,4 +43,18 @@ public class OutboundHttpRequest extends HttpRequest {
     public String getContextPath() {
         return contextPath;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        OutboundHttpRequest that = (OutboundHttpRequest) other;
+        return Objects.equal(destination, that.destination) && Objects.equal(contextPath, that.contextPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(destination, contextPath);
+    }
 }
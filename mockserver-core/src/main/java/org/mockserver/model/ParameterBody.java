@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
@@ -66,4 +67,14 @@ public class ParameterBody extends Body<List<Parameter>> {
         }
         return body.toString();
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Objects.equal(parameters, ((ParameterBody) other).parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (parameters != null ? parameters.hashCode() : 0);
+    }
 }
@@ -1,5 +1,7 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
+
 /**
  * @author jamesdbloom
  */
@@ -20,4 +22,13 @@ public class RegexBody extends Body {
         return new RegexBody(regex);
     }
 
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Objects.equal(regex, ((RegexBody) other).regex);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (regex != null ? regex.hashCode() : 0);
+    }
 }
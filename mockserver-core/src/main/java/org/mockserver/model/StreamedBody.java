@@ -0,0 +1,45 @@
+package org.mockserver.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A response body that is streamed when the response is written instead of being held in memory, so very large
+ * bodies can be returned with constant memory
+ *
+ * @author jamesdbloom
+ */
+public abstract class StreamedBody<T> extends Body<T> {
+
+    public StreamedBody(Type type) {
+        super(type);
+    }
+
+    /**
+     * @return the number of bytes that will be streamed
+     */
+    @JsonIgnore
+    public abstract long getContentLength();
+
+    /**
+     * Copies the body to the output stream without reading all of it into memory
+     */
+    public abstract void writeTo(OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads the whole body into memory, streamed bodies are normally too large for this so it should be avoided
+     */
+    @JsonIgnore
+    public byte[] getRawBytes() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            writeTo(outputStream);
+        } catch (IOException ioe) {
+            throw new RuntimeException("IOException while reading streamed body " + this, ioe);
+        }
+        return outputStream.toByteArray();
+    }
+}
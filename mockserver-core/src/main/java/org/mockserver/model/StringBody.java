@@ -1,7 +1,9 @@
 package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
 import com.google.common.net.MediaType;
+import io.netty.buffer.ByteBuf;
 
 import java.nio.charset.Charset;
 
@@ -15,6 +17,7 @@ public class StringBody extends Body<String> {
     private final String value;
     private final byte[] rawBinaryData;
     private final Charset charset;
+    private final BufferContent content;
 
     public StringBody(String value) {
         this(value, null);
@@ -24,6 +27,7 @@ public class StringBody extends Body<String> {
         super(Type.STRING);
         this.value = value;
         this.charset = charset;
+        this.content = null;
 
         if (value != null) {
             this.rawBinaryData = value.getBytes(charset != null ? charset : DEFAULT_HTTP_CHARACTER_SET);
@@ -32,6 +36,18 @@ public class StringBody extends Body<String> {
         }
     }
 
+    /**
+     * A body that wraps a retained buffer and decodes it each time it is read, the body takes over the caller's
+     * reference which is released by {@link #release()}
+     */
+    public StringBody(ByteBuf content, Charset charset) {
+        super(Type.STRING);
+        this.value = null;
+        this.rawBinaryData = null;
+        this.charset = charset;
+        this.content = new BufferContent(content);
+    }
+
     public static StringBody exact(String body) {
         return new StringBody(body);
     }
@@ -41,11 +57,11 @@ public class StringBody extends Body<String> {
     }
 
     public String getValue() {
-        return value;
+        return content != null ? content.string(charset != null ? charset : DEFAULT_HTTP_CHARACTER_SET) : value;
     }
 
     public byte[] getRawBytes() {
-        return rawBinaryData;
+        return content != null ? content.bytes() : rawBinaryData;
     }
 
     public Charset getCharset() {
@@ -62,8 +78,41 @@ public class StringBody extends Body<String> {
         return MediaType.create("text", "plain").toString();
     }
 
+    @JsonIgnore
+    public boolean isReferenceCounted() {
+        return content != null;
+    }
+
+    @Override
+    public StringBody retain() {
+        if (content != null) {
+            content.retain();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return content != null && content.release();
+    }
+
     @Override
     public String toString() {
-        return value;
+        return getValue();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        // raw binary data is derived from value and charset
+        StringBody that = (StringBody) other;
+        return Objects.equal(getValue(), that.getValue()) && Objects.equal(charset, that.charset);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(getValue(), charset);
     }
 }
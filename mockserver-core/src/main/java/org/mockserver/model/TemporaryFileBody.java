@@ -0,0 +1,80 @@
+package org.mockserver.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Charsets;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A request body that was too large to hold in memory so was written to a temporary file as it was received, the
+ * file is streamed when the request is forwarded and deleted when the last holder of the body releases it
+ * <p/>
+ * Body matchers are not checked against these bodies, so matching never reads the file back into memory
+ *
+ * @author jamesdbloom
+ */
+public class TemporaryFileBody extends FileBody {
+
+    private final Charset charset;
+    private final boolean binary;
+    private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+    public TemporaryFileBody(File file, Charset charset) {
+        this(file, charset, false);
+    }
+
+    public TemporaryFileBody(File file, Charset charset, boolean binary) {
+        super(file.getAbsolutePath());
+        this.charset = charset;
+        this.binary = binary;
+    }
+
+    @JsonIgnore
+    public Charset getCharset(Charset defaultIfNotSet) {
+        return charset != null ? charset : defaultIfNotSet;
+    }
+
+    /**
+     * Reads the file into the body the request would have had if it had been small enough to hold in memory, used when
+     * the request is retrieved or logged because the file is deleted once the request is released
+     */
+    public Body inMemoryBody() {
+        byte[] bytes = getRawBytes();
+        if (binary) {
+            return not(new BinaryBody(bytes), getNot());
+        } else {
+            // ISO-8859-1 is the HTTP default
+            return not(new StringBody(new String(bytes, getCharset(Charsets.ISO_8859_1)), charset), getNot());
+        }
+    }
+
+    /**
+     * The file was created by MockServer in the temporary directory, not in mockserver.fileBodyDirectory
+     */
+    @Override
+    public File resolveFile() {
+        return getFile();
+    }
+
+    @JsonIgnore
+    public boolean isReferenceCounted() {
+        return true;
+    }
+
+    @Override
+    public TemporaryFileBody retain() {
+        referenceCount.incrementAndGet();
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        if (referenceCount.decrementAndGet() == 0) {
+            getFile().delete();
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
+
 /**
  * @author jamesdbloom
  */
@@ -20,4 +22,13 @@ public class XPathBody extends Body {
         return new XPathBody(xpath);
     }
 
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && Objects.equal(xpath, ((XPathBody) other).xpath);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (xpath != null ? xpath.hashCode() : 0);
+    }
 }
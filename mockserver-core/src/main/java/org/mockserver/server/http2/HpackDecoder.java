@@ -0,0 +1,176 @@
+package org.mockserver.server.http2;
+
+import com.google.common.base.Charsets;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes HPACK header blocks, see RFC 7541, each connection has its own decoder because the dynamic table is shared
+ * by every header block received on the connection
+ * <p/>
+ * Instances are not thread safe
+ *
+ * @author jamesdbloom
+ */
+public class HpackDecoder {
+
+    public static final int DEFAULT_HEADER_TABLE_SIZE = 4096;
+    private static final int ENTRY_OVERHEAD = 32;
+    // newest entry first, so index 0 is HPACK index LENGTH + 1
+    private final LinkedList<String[]> dynamicTable = new LinkedList<String[]>();
+    private final int maxHeaderTableSize;
+    private final int maxHeaderListSize;
+    private int headerTableSize;
+    private int dynamicTableSize;
+    private byte[] block;
+    private int position;
+    private int limit;
+
+    public HpackDecoder() {
+        this(DEFAULT_HEADER_TABLE_SIZE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxHeaderTableSize the SETTINGS_HEADER_TABLE_SIZE sent to the peer
+     * @param maxHeaderListSize  the largest decoded header list accepted, measured as in SETTINGS_MAX_HEADER_LIST_SIZE,
+     *                           this stops a small block of indexed fields expanding into a very large list
+     */
+    public HpackDecoder(int maxHeaderTableSize, int maxHeaderListSize) {
+        this.maxHeaderTableSize = maxHeaderTableSize;
+        this.maxHeaderListSize = maxHeaderListSize;
+        this.headerTableSize = maxHeaderTableSize;
+    }
+
+    /**
+     * @return the header fields in the order they were encoded, names and values are decoded as ISO-8859-1
+     * @throws Http2Exception with COMPRESSION_ERROR if the block is invalid
+     */
+    public List<Map.Entry<String, String>> decode(byte[] block) {
+        this.block = block;
+        this.position = 0;
+        this.limit = block.length;
+        List<Map.Entry<String, String>> headers = new ArrayList<Map.Entry<String, String>>();
+        long headerListSize = 0;
+        while (position < limit) {
+            int first = block[position] & 0xff;
+            if ((first & 0x80) != 0) {
+                // indexed header field
+                int index = readInteger(7);
+                headerListSize += add(headers, name(index), value(index), headerListSize);
+            } else if ((first & 0x40) != 0) {
+                // literal header field with incremental indexing
+                int index = readInteger(6);
+                String name = index == 0 ? readString() : name(index);
+                String value = readString();
+                addToDynamicTable(name, value);
+                headerListSize += add(headers, name, value, headerListSize);
+            } else if ((first & 0x20) != 0) {
+                // dynamic table size update
+                int size = readInteger(5);
+                if (size > maxHeaderTableSize) {
+                    throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Dynamic table size update " + size + " is larger than " + maxHeaderTableSize);
+                }
+                headerTableSize = size;
+                evict(0);
+            } else {
+                // literal header field without indexing or never indexed
+                int index = readInteger(4);
+                String name = index == 0 ? readString() : name(index);
+                headerListSize += add(headers, name, readString(), headerListSize);
+            }
+        }
+        this.block = null;
+        return headers;
+    }
+
+    private int add(List<Map.Entry<String, String>> headers, String name, String value, long headerListSize) {
+        int size = name.length() + value.length() + ENTRY_OVERHEAD;
+        if (headerListSize + size > maxHeaderListSize) {
+            throw new Http2Exception(Http2Exception.ENHANCE_YOUR_CALM, "Header list is larger than " + maxHeaderListSize);
+        }
+        headers.add(new AbstractMap.SimpleImmutableEntry<String, String>(name, value));
+        return size;
+    }
+
+    private String[] field(int index) {
+        if (index <= 0) {
+            throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Invalid header index " + index);
+        } else if (index <= HpackStaticTable.LENGTH) {
+            return new String[]{HpackStaticTable.name(index), HpackStaticTable.value(index)};
+        } else if (index - HpackStaticTable.LENGTH <= dynamicTable.size()) {
+            return dynamicTable.get(index - HpackStaticTable.LENGTH - 1);
+        } else {
+            throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Invalid header index " + index);
+        }
+    }
+
+    private String name(int index) {
+        return field(index)[0];
+    }
+
+    private String value(int index) {
+        return field(index)[1];
+    }
+
+    private void addToDynamicTable(String name, String value) {
+        int size = name.length() + value.length() + ENTRY_OVERHEAD;
+        evict(size);
+        // an entry larger than the table empties the table and is not added
+        if (size <= headerTableSize) {
+            dynamicTable.addFirst(new String[]{name, value});
+            dynamicTableSize += size;
+        }
+    }
+
+    private void evict(int space) {
+        while (!dynamicTable.isEmpty() && dynamicTableSize + space > headerTableSize) {
+            String[] evicted = dynamicTable.removeLast();
+            dynamicTableSize -= evicted[0].length() + evicted[1].length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private int readInteger(int prefixBits) {
+        int mask = (1 << prefixBits) - 1;
+        int value = block[position++] & mask;
+        if (value < mask) {
+            return value;
+        }
+        int shift = 0;
+        int next;
+        do {
+            if (position >= limit) {
+                throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Truncated integer");
+            }
+            if (shift > 21) {
+                throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Integer too large");
+            }
+            next = block[position++] & 0xff;
+            value += (next & 0x7f) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return value;
+    }
+
+    private String readString() {
+        if (position >= limit) {
+            throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Truncated string");
+        }
+        boolean huffman = (block[position] & 0x80) != 0;
+        int length = readInteger(7);
+        if (length > limit - position) {
+            throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Truncated string");
+        }
+        String string;
+        if (huffman) {
+            string = new String(HpackHuffman.decode(block, position, length), Charsets.ISO_8859_1);
+        } else {
+            string = new String(block, position, length, Charsets.ISO_8859_1);
+        }
+        position += length;
+        return string;
+    }
+}
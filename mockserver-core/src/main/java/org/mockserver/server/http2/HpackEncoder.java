@@ -0,0 +1,69 @@
+package org.mockserver.server.http2;
+
+import com.google.common.base.Charsets;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodes HPACK header blocks, see RFC 7541, fields matching the static table are indexed and all other fields are
+ * written as literals without indexing, the dynamic table and Huffman coding are never used so the encoder holds no
+ * state and the peer's SETTINGS_HEADER_TABLE_SIZE can be ignored
+ *
+ * @author jamesdbloom
+ */
+public class HpackEncoder {
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+
+    /**
+     * @param name must already be lowercase
+     */
+    public HpackEncoder encodeHeader(String name, String value) {
+        int index = HpackStaticTable.indexOf(name, value);
+        if (index != -1) {
+            // indexed header field
+            writeInteger(0x80, 7, index);
+        } else {
+            // literal header field without indexing
+            int nameIndex = HpackStaticTable.indexOfName(name);
+            if (nameIndex != -1) {
+                writeInteger(0x00, 4, nameIndex);
+            } else {
+                writeInteger(0x00, 4, 0);
+                writeString(name);
+            }
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     * @return the encoded header block, the encoder is reset ready for the next header block
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = block.toByteArray();
+        block.reset();
+        return bytes;
+    }
+
+    private void writeInteger(int mask, int prefixBits, int value) {
+        int maxPrefix = (1 << prefixBits) - 1;
+        if (value < maxPrefix) {
+            block.write(mask | value);
+        } else {
+            block.write(mask | maxPrefix);
+            value -= maxPrefix;
+            while (value >= 0x80) {
+                block.write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            block.write(value);
+        }
+    }
+
+    private void writeString(String string) {
+        byte[] bytes = string.getBytes(Charsets.ISO_8859_1);
+        writeInteger(0x00, 7, bytes.length);
+        block.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,114 @@
+package org.mockserver.server.http2;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The HPACK static table, see RFC 7541 appendix A
+ *
+ * @author jamesdbloom
+ */
+class HpackStaticTable {
+
+    private static final String[][] ENTRIES = {
+            {":authority", ""},
+            {":method", "GET"},
+            {":method", "POST"},
+            {":path", "/"},
+            {":path", "/index.html"},
+            {":scheme", "http"},
+            {":scheme", "https"},
+            {":status", "200"},
+            {":status", "204"},
+            {":status", "206"},
+            {":status", "304"},
+            {":status", "400"},
+            {":status", "404"},
+            {":status", "500"},
+            {"accept-charset", ""},
+            {"accept-encoding", "gzip, deflate"},
+            {"accept-language", ""},
+            {"accept-ranges", ""},
+            {"accept", ""},
+            {"access-control-allow-origin", ""},
+            {"age", ""},
+            {"allow", ""},
+            {"authorization", ""},
+            {"cache-control", ""},
+            {"content-disposition", ""},
+            {"content-encoding", ""},
+            {"content-language", ""},
+            {"content-length", ""},
+            {"content-location", ""},
+            {"content-range", ""},
+            {"content-type", ""},
+            {"cookie", ""},
+            {"date", ""},
+            {"etag", ""},
+            {"expect", ""},
+            {"expires", ""},
+            {"from", ""},
+            {"host", ""},
+            {"if-match", ""},
+            {"if-modified-since", ""},
+            {"if-none-match", ""},
+            {"if-range", ""},
+            {"if-unmodified-since", ""},
+            {"last-modified", ""},
+            {"link", ""},
+            {"location", ""},
+            {"max-forwards", ""},
+            {"proxy-authenticate", ""},
+            {"proxy-authorization", ""},
+            {"range", ""},
+            {"referer", ""},
+            {"refresh", ""},
+            {"retry-after", ""},
+            {"server", ""},
+            {"set-cookie", ""},
+            {"strict-transport-security", ""},
+            {"transfer-encoding", ""},
+            {"user-agent", ""},
+            {"vary", ""},
+            {"via", ""},
+            {"www-authenticate", ""}
+    };
+    static final int LENGTH = ENTRIES.length;
+    private static final Map<String, Integer> NAME_INDEX = new HashMap<String, Integer>();
+    private static final Map<String, Integer> NAME_VALUE_INDEX = new HashMap<String, Integer>();
+
+    static {
+        // iterate backwards so the lowest index is kept for names that appear more than once
+        for (int i = ENTRIES.length - 1; i >= 0; i--) {
+            NAME_INDEX.put(ENTRIES[i][0], i + 1);
+            NAME_VALUE_INDEX.put(ENTRIES[i][0] + "\0" + ENTRIES[i][1], i + 1);
+        }
+    }
+
+    /**
+     * @param index the index from 1 to LENGTH
+     */
+    static String name(int index) {
+        return ENTRIES[index - 1][0];
+    }
+
+    static String value(int index) {
+        return ENTRIES[index - 1][1];
+    }
+
+    /**
+     * @return the index of the entry with the same name and value or -1
+     */
+    static int indexOf(String name, String value) {
+        Integer index = NAME_VALUE_INDEX.get(name + "\0" + value);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the index of the first entry with the same name or -1
+     */
+    static int indexOfName(String name) {
+        Integer index = NAME_INDEX.get(name);
+        return index != null ? index : -1;
+    }
+}
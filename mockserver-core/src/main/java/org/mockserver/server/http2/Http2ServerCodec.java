@@ -0,0 +1,833 @@
+package org.mockserver.server.http2;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.*;
+import io.netty.util.ReferenceCountUtil;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+/**
+ * Converts an HTTP/2 connection, see RFC 7540, to and from the HTTP/1.x messages used by the rest of the pipeline so
+ * many requests can be handled concurrently on a single connection
+ * <p/>
+ * Each request is fired as a FullHttpRequest once the stream is half closed, the stream id is passed in the
+ * {@value #STREAM_ID_HEADER} header which must be copied to the HttpResponse written for the request, a response
+ * that isn't a FullHttpResponse is followed by HttpContent for the same stream up to and including LastHttpContent
+ * <p/>
+ * Response data is sent as the peer's flow control windows allow, data that is blocked by flow control is buffered
+ * until the peer sends a WINDOW_UPDATE
+ * <p/>
+ * Request bodies are held in memory until the request is complete, each stream's receive window is one byte larger
+ * than the maximum request body so a larger body is detected and rejected, and the connection's receive window is
+ * only restored once a request has been passed on or its body discarded, so the request bodies buffered for a
+ * connection never exceed its receive window
+ *
+ * @author jamesdbloom
+ */
+public class Http2ServerCodec extends ChannelDuplexHandler {
+
+    public static final String STREAM_ID_HEADER = "x-http2-stream-id";
+    public static final int DEFAULT_MAX_CONCURRENT_STREAMS = 1000;
+    public static final long DEFAULT_MAX_CONTENT_LENGTH = 10 * 1024 * 1024;
+    private static final Logger logger = LoggerFactory.getLogger(Http2ServerCodec.class);
+    private static final byte[] CONNECTION_PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(Charsets.US_ASCII);
+    private static final int FRAME_HEADER_LENGTH = 9;
+    private static final int DEFAULT_WINDOW_SIZE = 65535;
+    private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+    private static final int MAX_HEADER_LIST_SIZE = 65536;
+    // frame types
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int PRIORITY = 0x2;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PUSH_PROMISE = 0x5;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+    // frame flags
+    private static final int FLAG_END_STREAM = 0x1;
+    private static final int FLAG_ACK = 0x1;
+    private static final int FLAG_END_HEADERS = 0x4;
+    private static final int FLAG_PADDED = 0x8;
+    private static final int FLAG_PRIORITY = 0x20;
+    // settings
+    private static final int SETTINGS_ENABLE_PUSH = 0x2;
+    private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    private static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+    private static final int SETTINGS_MAX_HEADER_LIST_SIZE = 0x6;
+    private static final Set<String> CONNECTION_SPECIFIC_HEADERS = new HashSet<String>(Arrays.asList(
+            "connection",
+            "keep-alive",
+            "proxy-connection",
+            "transfer-encoding",
+            "upgrade",
+            STREAM_ID_HEADER
+    ));
+
+    private final int maxConcurrentStreams;
+    private final long maxContentLength;
+    private final int receiveWindowSize;
+    private final HpackDecoder hpackDecoder = new HpackDecoder(HpackDecoder.DEFAULT_HEADER_TABLE_SIZE, MAX_HEADER_LIST_SIZE);
+    private final HpackEncoder hpackEncoder = new HpackEncoder();
+    private final Map<Integer, Stream> streams = new LinkedHashMap<Integer, Stream>();
+    private ByteBuf cumulation;
+    private boolean prefaceReceived;
+    private boolean goAwaySent;
+    private int lastStreamId;
+    private int continuationStreamId;
+    private int continuationFlags;
+    private ByteArrayOutputStream headerBlock;
+    private int peerInitialWindowSize = DEFAULT_WINDOW_SIZE;
+    private int peerMaxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+    private long connectionSendWindow = DEFAULT_WINDOW_SIZE;
+    private int currentOutboundStreamId;
+    private boolean prefaceSent;
+
+    /**
+     * Request bodies are held in memory, they aren't written to a temporary file like HTTP/1.x bodies, so are limited
+     * to {@value #DEFAULT_MAX_CONTENT_LENGTH} bytes even when mockserver.maxContentLength is larger
+     */
+    public Http2ServerCodec() {
+        this(DEFAULT_MAX_CONCURRENT_STREAMS, Math.min(ConfigurationProperties.maxContentLength(), DEFAULT_MAX_CONTENT_LENGTH));
+    }
+
+    /**
+     * @param maxConcurrentStreams the number of requests that can be in progress at once, further streams are refused
+     * @param maxContentLength     the largest request body accepted, larger requests are answered with a 413
+     */
+    public Http2ServerCodec(int maxConcurrentStreams, long maxContentLength) {
+        if (maxContentLength < 0) {
+            throw new IllegalArgumentException("maxContentLength must not be negative: " + maxContentLength);
+        }
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.maxContentLength = Math.min(maxContentLength, MAX_WINDOW_SIZE - 1);
+        this.receiveWindowSize = (int) this.maxContentLength + 1;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        if (ctx.channel().isActive()) {
+            writePreface(ctx);
+        }
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        writePreface(ctx);
+        super.channelActive(ctx);
+    }
+
+    private void writePreface(ChannelHandlerContext ctx) {
+        if (prefaceSent) {
+            return;
+        }
+        prefaceSent = true;
+        // the server connection preface
+        ByteBuf settings = frameHeader(ctx, 18, SETTINGS, 0, 0);
+        settings.writeShort(SETTINGS_MAX_CONCURRENT_STREAMS).writeInt(maxConcurrentStreams);
+        settings.writeShort(SETTINGS_INITIAL_WINDOW_SIZE).writeInt(receiveWindowSize);
+        settings.writeShort(SETTINGS_MAX_HEADER_LIST_SIZE).writeInt(MAX_HEADER_LIST_SIZE);
+        ctx.write(settings, ctx.voidPromise());
+        // the connection window can only be changed with a WINDOW_UPDATE, it has to hold at least one whole request body
+        if (receiveWindowSize > DEFAULT_WINDOW_SIZE) {
+            writeWindowUpdate(ctx, 0, receiveWindowSize - DEFAULT_WINDOW_SIZE);
+        }
+        ctx.flush();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        releaseAll();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseAll();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        if (goAwaySent) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        cumulate(ctx, (ByteBuf) msg);
+        try {
+            readFrames(ctx, cumulation);
+        } catch (Http2Exception e) {
+            connectionError(ctx, e);
+        } finally {
+            if (cumulation != null && !cumulation.isReadable()) {
+                cumulation.release();
+                cumulation = null;
+            } else if (cumulation != null && cumulation.refCnt() == 1) {
+                // request bodies hold retained slices of the cumulation so it is only compacted once they are released
+                cumulation.discardSomeReadBytes();
+            }
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        // settings acknowledgements, pings, window updates and data released by window updates
+        ctx.flush();
+        ctx.fireChannelReadComplete();
+    }
+
+    private void cumulate(ChannelHandlerContext ctx, ByteBuf in) {
+        if (cumulation == null) {
+            cumulation = in;
+        } else {
+            if (cumulation.writerIndex() > cumulation.maxCapacity() - in.readableBytes() || cumulation.refCnt() > 1) {
+                ByteBuf expanded = ctx.alloc().buffer(cumulation.readableBytes() + in.readableBytes());
+                expanded.writeBytes(cumulation);
+                cumulation.release();
+                cumulation = expanded;
+            }
+            cumulation.writeBytes(in);
+            in.release();
+        }
+    }
+
+    private void readFrames(ChannelHandlerContext ctx, ByteBuf in) {
+        if (!prefaceReceived) {
+            if (in.readableBytes() < CONNECTION_PREFACE.length) {
+                return;
+            }
+            for (byte expected : CONNECTION_PREFACE) {
+                if (in.readByte() != expected) {
+                    throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid connection preface");
+                }
+            }
+            prefaceReceived = true;
+        }
+        while (!goAwaySent && in.readableBytes() >= FRAME_HEADER_LENGTH) {
+            int length = in.getUnsignedMedium(in.readerIndex());
+            if (length > DEFAULT_MAX_FRAME_SIZE) {
+                throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Frame of " + length + " bytes is larger than SETTINGS_MAX_FRAME_SIZE");
+            }
+            if (in.readableBytes() < FRAME_HEADER_LENGTH + length) {
+                return;
+            }
+            in.skipBytes(3);
+            int type = in.readUnsignedByte();
+            int flags = in.readUnsignedByte();
+            int streamId = in.readInt() & 0x7fffffff;
+            readFrame(ctx, type, flags, streamId, in.readSlice(length));
+        }
+    }
+
+    private void readFrame(ChannelHandlerContext ctx, int type, int flags, int streamId, ByteBuf payload) {
+        if (continuationStreamId != 0 && (type != CONTINUATION || streamId != continuationStreamId)) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Expected CONTINUATION frame for stream " + continuationStreamId);
+        }
+        switch (type) {
+            case DATA:
+                readDataFrame(ctx, flags, streamId, payload);
+                break;
+            case HEADERS:
+                readHeadersFrame(ctx, flags, streamId, payload);
+                break;
+            case PRIORITY:
+                requireStream(streamId);
+                requireLength(payload, 5);
+                break;
+            case RST_STREAM:
+                requireStream(streamId);
+                requireLength(payload, 4);
+                if (streamId > lastStreamId) {
+                    throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "RST_STREAM for idle stream " + streamId);
+                }
+                Stream resetStream = streams.get(streamId);
+                if (resetStream != null) {
+                    closeStream(ctx, resetStream);
+                }
+                break;
+            case SETTINGS:
+                readSettingsFrame(ctx, flags, streamId, payload);
+                break;
+            case PUSH_PROMISE:
+                throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "PUSH_PROMISE sent by client");
+            case PING:
+                requireConnection(streamId);
+                requireLength(payload, 8);
+                if ((flags & FLAG_ACK) == 0) {
+                    ByteBuf ping = frameHeader(ctx, 8, PING, FLAG_ACK, 0);
+                    ping.writeBytes(payload);
+                    ctx.write(ping, ctx.voidPromise());
+                }
+                break;
+            case GOAWAY:
+                requireConnection(streamId);
+                // the client closes the connection once its streams have completed
+                break;
+            case WINDOW_UPDATE:
+                readWindowUpdateFrame(ctx, streamId, payload);
+                break;
+            case CONTINUATION:
+                readContinuationFrame(ctx, flags, streamId, payload);
+                break;
+            default:
+                // unknown frame types must be ignored
+                break;
+        }
+    }
+
+    private void readDataFrame(ChannelHandlerContext ctx, int flags, int streamId, ByteBuf payload) {
+        requireStream(streamId);
+        if (streamId > lastStreamId) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "DATA for idle stream " + streamId);
+        }
+        int frameLength = payload.readableBytes();
+        ByteBuf data = removePadding(flags, payload);
+
+        // the whole frame is counted against the receive windows, the stream's window is never restored because it
+        // already holds the largest body accepted, the connection's window is restored once the body is no longer held
+        Stream stream = streams.get(streamId);
+        boolean endStream = (flags & FLAG_END_STREAM) != 0;
+        if (stream == null || stream.request == null) {
+            // the stream has already been reset or answered so the data is discarded
+            returnReceiveWindow(ctx, frameLength);
+            if (stream != null && stream.remoteClosed) {
+                resetStream(ctx, stream, Http2Exception.STREAM_CLOSED);
+            }
+            return;
+        }
+        stream.receivedFrameBytes += frameLength;
+        CompositeByteBuf content = (CompositeByteBuf) stream.request.content();
+        if (content.readableBytes() + data.readableBytes() > maxContentLength) {
+            rejectTooLarge(ctx, stream);
+            return;
+        } else if (data.isReadable()) {
+            content.addComponent(data.retain());
+            content.writerIndex(content.writerIndex() + data.readableBytes());
+        }
+        if (endStream) {
+            endOfRequest(ctx, stream);
+        }
+    }
+
+    private void readHeadersFrame(ChannelHandlerContext ctx, int flags, int streamId, ByteBuf payload) {
+        requireStream(streamId);
+        ByteBuf fragment = removePadding(flags, payload);
+        if ((flags & FLAG_PRIORITY) != 0) {
+            if (fragment.readableBytes() < 5) {
+                throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "HEADERS frame too short for priority");
+            }
+            fragment.skipBytes(5);
+        }
+        headerBlock = new ByteArrayOutputStream(fragment.readableBytes());
+        appendHeaderBlockFragment(fragment);
+        if ((flags & FLAG_END_HEADERS) != 0) {
+            readHeaderBlock(ctx, flags, streamId);
+        } else {
+            continuationStreamId = streamId;
+            continuationFlags = flags;
+        }
+    }
+
+    private void readContinuationFrame(ChannelHandlerContext ctx, int flags, int streamId, ByteBuf payload) {
+        if (continuationStreamId == 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Unexpected CONTINUATION frame for stream " + streamId);
+        }
+        appendHeaderBlockFragment(payload);
+        if ((flags & FLAG_END_HEADERS) != 0) {
+            continuationStreamId = 0;
+            readHeaderBlock(ctx, continuationFlags, streamId);
+        }
+    }
+
+    private void appendHeaderBlockFragment(ByteBuf fragment) {
+        if (headerBlock.size() + fragment.readableBytes() > MAX_HEADER_LIST_SIZE) {
+            throw new Http2Exception(Http2Exception.ENHANCE_YOUR_CALM, "Header block is larger than " + MAX_HEADER_LIST_SIZE + " bytes");
+        }
+        byte[] bytes = new byte[fragment.readableBytes()];
+        fragment.readBytes(bytes);
+        headerBlock.write(bytes, 0, bytes.length);
+    }
+
+    private void readHeaderBlock(ChannelHandlerContext ctx, int flags, int streamId) {
+        // header blocks are always decoded to keep the dynamic table in step with the client
+        List<Map.Entry<String, String>> headers = hpackDecoder.decode(headerBlock.toByteArray());
+        headerBlock = null;
+        boolean endStream = (flags & FLAG_END_STREAM) != 0;
+
+        Stream stream = streams.get(streamId);
+        if (streamId > lastStreamId) {
+            if (streamId % 2 == 0) {
+                throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Client initiated stream " + streamId + " must be odd");
+            }
+            lastStreamId = streamId;
+            if (streams.size() >= maxConcurrentStreams) {
+                writeRstStream(ctx, streamId, Http2Exception.REFUSED_STREAM);
+                return;
+            }
+            stream = new Stream(streamId, peerInitialWindowSize);
+            stream.request = createRequest(ctx, headers);
+            if (stream.request == null) {
+                writeRstStream(ctx, streamId, Http2Exception.PROTOCOL_ERROR);
+                return;
+            }
+            streams.put(streamId, stream);
+            stream.head = HttpMethod.HEAD.equals(stream.request.getMethod());
+            if (HttpMethod.CONNECT.equals(stream.request.getMethod())) {
+                // tunnels are not supported over HTTP/2
+                stream.remoteClosed = true;
+                stream.request.release();
+                stream.request = null;
+                writeHeaders(ctx, stream, HttpResponseStatus.NOT_IMPLEMENTED, true);
+                return;
+            }
+        } else if (stream != null && !stream.remoteClosed) {
+            // trailers
+            if (!endStream) {
+                resetStream(ctx, stream, Http2Exception.PROTOCOL_ERROR);
+                return;
+            }
+            if (stream.request != null) {
+                for (Map.Entry<String, String> header : headers) {
+                    if (!header.getKey().startsWith(":")) {
+                        stream.request.trailingHeaders().add(header.getKey(), header.getValue());
+                    }
+                }
+            }
+        } else {
+            writeRstStream(ctx, streamId, Http2Exception.STREAM_CLOSED);
+            return;
+        }
+        if (endStream) {
+            endOfRequest(ctx, stream);
+        }
+    }
+
+    private FullHttpRequest createRequest(ChannelHandlerContext ctx, List<Map.Entry<String, String>> headers) {
+        String method = null;
+        String path = null;
+        String authority = null;
+        List<String> cookies = new ArrayList<String>();
+        HttpHeaders httpHeaders = new DefaultHttpHeaders();
+        for (Map.Entry<String, String> header : headers) {
+            String name = header.getKey();
+            if (name.equals(":method")) {
+                method = header.getValue();
+            } else if (name.equals(":path")) {
+                path = header.getValue();
+            } else if (name.equals(":authority")) {
+                authority = header.getValue();
+            } else if (name.equals("cookie")) {
+                // cookies may be split in to separate fields for better compression
+                cookies.add(header.getValue());
+            } else if (!name.startsWith(":")) {
+                httpHeaders.add(name, header.getValue());
+            }
+        }
+        if (method == null || (path == null && !method.equals(HttpMethod.CONNECT.name()))) {
+            return null;
+        }
+        if (authority != null && !httpHeaders.contains(HttpHeaders.Names.HOST)) {
+            httpHeaders.set(HttpHeaders.Names.HOST, authority);
+        }
+        if (!cookies.isEmpty()) {
+            httpHeaders.set(HttpHeaders.Names.COOKIE, join(cookies));
+        }
+        HttpMethod httpMethod;
+        try {
+            httpMethod = HttpMethod.valueOf(method);
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, httpMethod, path != null ? path : authority, ctx.alloc().compositeBuffer());
+        request.headers().add(httpHeaders);
+        return request;
+    }
+
+    private String join(List<String> cookies) {
+        StringBuilder cookieHeader = new StringBuilder();
+        for (String cookie : cookies) {
+            if (cookieHeader.length() > 0) {
+                cookieHeader.append("; ");
+            }
+            cookieHeader.append(cookie);
+        }
+        return cookieHeader.toString();
+    }
+
+    private void endOfRequest(ChannelHandlerContext ctx, Stream stream) {
+        stream.remoteClosed = true;
+        FullHttpRequest request = stream.request;
+        if (request != null) {
+            stream.request = null;
+            // the body is passed on with the request so is no longer held for the connection
+            returnReceiveWindow(ctx, stream);
+            if (request.content().isReadable() && !request.headers().contains(HttpHeaders.Names.CONTENT_LENGTH)) {
+                HttpHeaders.setContentLength(request, request.content().readableBytes());
+            }
+            request.headers().set(STREAM_ID_HEADER, stream.id);
+            ctx.fireChannelRead(request);
+        }
+    }
+
+    private void rejectTooLarge(ChannelHandlerContext ctx, Stream stream) {
+        stream.request.release();
+        stream.request = null;
+        returnReceiveWindow(ctx, stream);
+        writeHeaders(ctx, stream, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE, true);
+        // the response is complete so the client can stop sending the request body
+        resetStream(ctx, stream, Http2Exception.NO_ERROR);
+    }
+
+    private void readSettingsFrame(ChannelHandlerContext ctx, int flags, int streamId, ByteBuf payload) {
+        requireConnection(streamId);
+        if ((flags & FLAG_ACK) != 0) {
+            requireLength(payload, 0);
+            return;
+        }
+        if (payload.readableBytes() % 6 != 0) {
+            throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "SETTINGS frame length must be a multiple of 6");
+        }
+        while (payload.isReadable()) {
+            int identifier = payload.readUnsignedShort();
+            long value = payload.readUnsignedInt();
+            switch (identifier) {
+                case SETTINGS_ENABLE_PUSH:
+                    if (value > 1) {
+                        throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid SETTINGS_ENABLE_PUSH " + value);
+                    }
+                    break;
+                case SETTINGS_INITIAL_WINDOW_SIZE:
+                    if (value > Integer.MAX_VALUE) {
+                        throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Invalid SETTINGS_INITIAL_WINDOW_SIZE " + value);
+                    }
+                    int delta = (int) value - peerInitialWindowSize;
+                    for (Stream stream : streams.values()) {
+                        stream.sendWindow += delta;
+                    }
+                    peerInitialWindowSize = (int) value;
+                    break;
+                case SETTINGS_MAX_FRAME_SIZE:
+                    if (value < DEFAULT_MAX_FRAME_SIZE || value > 0xffffff) {
+                        throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid SETTINGS_MAX_FRAME_SIZE " + value);
+                    }
+                    peerMaxFrameSize = (int) value;
+                    break;
+                default:
+                    // the encoder doesn't use the dynamic table so SETTINGS_HEADER_TABLE_SIZE is ignored
+                    break;
+            }
+        }
+        ctx.write(frameHeader(ctx, 0, SETTINGS, FLAG_ACK, 0), ctx.voidPromise());
+        writePendingData(ctx);
+    }
+
+    private void readWindowUpdateFrame(ChannelHandlerContext ctx, int streamId, ByteBuf payload) {
+        requireLength(payload, 4);
+        int increment = payload.readInt() & 0x7fffffff;
+        if (streamId == 0) {
+            if (increment == 0) {
+                throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "WINDOW_UPDATE increment of 0");
+            }
+            connectionSendWindow += increment;
+            if (connectionSendWindow > Integer.MAX_VALUE) {
+                throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Connection window larger than 2^31-1");
+            }
+        } else {
+            Stream stream = streams.get(streamId);
+            if (stream != null) {
+                stream.sendWindow += increment;
+                if (increment == 0) {
+                    resetStream(ctx, stream, Http2Exception.PROTOCOL_ERROR);
+                    return;
+                } else if (stream.sendWindow > Integer.MAX_VALUE) {
+                    resetStream(ctx, stream, Http2Exception.FLOW_CONTROL_ERROR);
+                    return;
+                }
+            }
+        }
+        writePendingData(ctx);
+    }
+
+    private ByteBuf removePadding(int flags, ByteBuf payload) {
+        if ((flags & FLAG_PADDED) != 0) {
+            if (!payload.isReadable()) {
+                throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Frame too short for padding");
+            }
+            int padLength = payload.readUnsignedByte();
+            if (padLength > payload.readableBytes()) {
+                throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Padding is longer than the frame");
+            }
+            return payload.readSlice(payload.readableBytes() - padLength);
+        }
+        return payload;
+    }
+
+    private void requireStream(int streamId) {
+        if (streamId == 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Frame must be sent on a stream");
+        }
+    }
+
+    private void requireConnection(int streamId) {
+        if (streamId != 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Frame must be sent on stream 0");
+        }
+    }
+
+    private void requireLength(ByteBuf payload, int length) {
+        if (payload.readableBytes() != length) {
+            throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Frame must be " + length + " bytes");
+        }
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (msg instanceof HttpResponse) {
+            writeResponse(ctx, (HttpResponse) msg, promise);
+        } else if (msg instanceof HttpContent) {
+            Stream stream = streams.get(currentOutboundStreamId);
+            boolean last = msg instanceof LastHttpContent;
+            if (last) {
+                currentOutboundStreamId = 0;
+            }
+            if (stream == null || stream.head) {
+                ReferenceCountUtil.release(msg);
+                if (stream != null && last) {
+                    closeStream(ctx, stream);
+                }
+                promise.setSuccess();
+            } else {
+                queueData(ctx, stream, ((HttpContent) msg).content(), last, promise);
+            }
+        } else {
+            ReferenceCountUtil.release(msg);
+            promise.setFailure(new UnsupportedOperationException(msg.getClass().getSimpleName() + " can't be written to an HTTP/2 connection"));
+        }
+    }
+
+    private void writeResponse(ChannelHandlerContext ctx, HttpResponse response, ChannelPromise promise) {
+        String streamIdHeader = response.headers().get(STREAM_ID_HEADER);
+        if (streamIdHeader == null) {
+            ReferenceCountUtil.release(response);
+            promise.setFailure(new IllegalArgumentException("Response has no " + STREAM_ID_HEADER + " header"));
+            return;
+        }
+        int streamId = Integer.parseInt(streamIdHeader);
+        boolean full = response instanceof FullHttpResponse;
+        if (!full) {
+            currentOutboundStreamId = streamId;
+        }
+        Stream stream = streams.get(streamId);
+        if (stream == null) {
+            // the stream was reset by the client
+            ReferenceCountUtil.release(response);
+            promise.setSuccess();
+            return;
+        }
+
+        hpackEncoder.encodeHeader(":status", String.valueOf(response.getStatus().code()));
+        for (Map.Entry<String, String> header : response.headers()) {
+            String name = header.getKey().toLowerCase();
+            if (!CONNECTION_SPECIFIC_HEADERS.contains(name)) {
+                hpackEncoder.encodeHeader(name, header.getValue());
+            }
+        }
+        byte[] headerBlock = hpackEncoder.toByteArray();
+
+        if (full && !stream.head && ((FullHttpResponse) response).content().isReadable()) {
+            writeHeaders(ctx, stream.id, headerBlock, false, ctx.voidPromise());
+            // the content is released once it has been written
+            queueData(ctx, stream, ((FullHttpResponse) response).content(), true, promise);
+        } else {
+            ReferenceCountUtil.release(response);
+            boolean endStream = full || stream.head;
+            writeHeaders(ctx, stream.id, headerBlock, endStream, promise);
+            if (endStream && full) {
+                closeStream(ctx, stream);
+            }
+        }
+    }
+
+    private void writeHeaders(ChannelHandlerContext ctx, Stream stream, HttpResponseStatus status, boolean endStream) {
+        writeHeaders(ctx, stream.id, hpackEncoder.encodeHeader(":status", String.valueOf(status.code())).toByteArray(), endStream, ctx.voidPromise());
+        if (endStream) {
+            closeStream(ctx, stream);
+        }
+    }
+
+    private void writeHeaders(ChannelHandlerContext ctx, int streamId, byte[] headerBlock, boolean endStream, ChannelPromise promise) {
+        int offset = 0;
+        do {
+            int length = Math.min(headerBlock.length - offset, peerMaxFrameSize);
+            boolean endHeaders = offset + length == headerBlock.length;
+            int flags = (endHeaders ? FLAG_END_HEADERS : 0) | (offset == 0 && endStream ? FLAG_END_STREAM : 0);
+            ByteBuf frame = frameHeader(ctx, length, offset == 0 ? HEADERS : CONTINUATION, flags, streamId);
+            frame.writeBytes(headerBlock, offset, length);
+            ctx.write(frame, endHeaders ? promise : ctx.voidPromise());
+            offset += length;
+        } while (offset < headerBlock.length);
+    }
+
+    private void queueData(ChannelHandlerContext ctx, Stream stream, ByteBuf data, boolean endStream, ChannelPromise promise) {
+        stream.pendingData.add(new PendingData(data, endStream, promise));
+        writePendingData(ctx, stream);
+    }
+
+    private void writePendingData(ChannelHandlerContext ctx) {
+        for (Stream stream : new ArrayList<Stream>(streams.values())) {
+            if (connectionSendWindow <= 0) {
+                return;
+            }
+            writePendingData(ctx, stream);
+        }
+    }
+
+    private void writePendingData(ChannelHandlerContext ctx, Stream stream) {
+        while (!stream.pendingData.isEmpty()) {
+            PendingData pendingData = stream.pendingData.peek();
+            int readableBytes = pendingData.data.readableBytes();
+            int length = (int) Math.min(readableBytes, Math.min(Math.min(connectionSendWindow, stream.sendWindow), peerMaxFrameSize));
+            if (length <= 0 && readableBytes > 0) {
+                // blocked by flow control until the client sends a WINDOW_UPDATE
+                return;
+            }
+            boolean lastFrame = length == readableBytes;
+            connectionSendWindow -= length;
+            stream.sendWindow -= length;
+            if (lastFrame) {
+                stream.pendingData.poll();
+                if (length == 0 && !pendingData.endStream) {
+                    pendingData.data.release();
+                    pendingData.promise.setSuccess();
+                    continue;
+                }
+                ctx.write(frameHeader(ctx, length, DATA, pendingData.endStream ? FLAG_END_STREAM : 0, stream.id), ctx.voidPromise());
+                ctx.write(pendingData.data, pendingData.promise);
+                if (pendingData.endStream) {
+                    closeStream(ctx, stream);
+                }
+            } else {
+                ctx.write(frameHeader(ctx, length, DATA, 0, stream.id), ctx.voidPromise());
+                ctx.write(pendingData.data.readSlice(length).retain(), ctx.voidPromise());
+            }
+        }
+    }
+
+    private void returnReceiveWindow(ChannelHandlerContext ctx, Stream stream) {
+        returnReceiveWindow(ctx, stream.receivedFrameBytes);
+        stream.receivedFrameBytes = 0;
+    }
+
+    private void returnReceiveWindow(ChannelHandlerContext ctx, int length) {
+        if (length > 0) {
+            writeWindowUpdate(ctx, 0, length);
+        }
+    }
+
+    private void writeWindowUpdate(ChannelHandlerContext ctx, int streamId, int increment) {
+        ByteBuf windowUpdate = frameHeader(ctx, 4, WINDOW_UPDATE, 0, streamId);
+        windowUpdate.writeInt(increment);
+        ctx.write(windowUpdate, ctx.voidPromise());
+    }
+
+    private void resetStream(ChannelHandlerContext ctx, Stream stream, int errorCode) {
+        writeRstStream(ctx, stream.id, errorCode);
+        closeStream(ctx, stream);
+    }
+
+    private void writeRstStream(ChannelHandlerContext ctx, int streamId, int errorCode) {
+        ByteBuf rstStream = frameHeader(ctx, 4, RST_STREAM, 0, streamId);
+        rstStream.writeInt(errorCode);
+        ctx.write(rstStream, ctx.voidPromise());
+    }
+
+    private void connectionError(ChannelHandlerContext ctx, Http2Exception e) {
+        logger.debug("HTTP/2 connection error", e);
+        goAwaySent = true;
+        ByteBuf goAway = frameHeader(ctx, 8, GOAWAY, 0, 0);
+        goAway.writeInt(lastStreamId).writeInt(e.getErrorCode());
+        ctx.writeAndFlush(goAway).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private ByteBuf frameHeader(ChannelHandlerContext ctx, int length, int type, int flags, int streamId) {
+        ByteBuf frame = ctx.alloc().buffer(FRAME_HEADER_LENGTH + (type == DATA ? 0 : length));
+        frame.writeMedium(length).writeByte(type).writeByte(flags).writeInt(streamId);
+        return frame;
+    }
+
+    private void closeStream(ChannelHandlerContext ctx, Stream stream) {
+        streams.remove(stream.id);
+        if (stream.request != null) {
+            returnReceiveWindow(ctx, stream);
+        }
+        stream.release();
+    }
+
+    private void releaseAll() {
+        if (cumulation != null) {
+            cumulation.release();
+            cumulation = null;
+        }
+        for (Stream stream : streams.values()) {
+            stream.release();
+        }
+        streams.clear();
+    }
+
+    private static class Stream {
+        private final int id;
+        private final Queue<PendingData> pendingData = new ArrayDeque<PendingData>();
+        private long sendWindow;
+        private FullHttpRequest request;
+        // the DATA frames held in the request body that haven't been returned to the connection's receive window
+        private int receivedFrameBytes;
+        private boolean remoteClosed;
+        private boolean head;
+
+        private Stream(int id, int sendWindow) {
+            this.id = id;
+            this.sendWindow = sendWindow;
+        }
+
+        private void release() {
+            if (request != null) {
+                request.release();
+                request = null;
+            }
+            PendingData pending;
+            while ((pending = pendingData.poll()) != null) {
+                pending.data.release();
+                pending.promise.tryFailure(new Http2Exception(Http2Exception.CANCEL, "Stream " + id + " closed before data was written"));
+            }
+        }
+    }
+
+    private static class PendingData {
+        private final ByteBuf data;
+        private final boolean endStream;
+        private final ChannelPromise promise;
+
+        private PendingData(ByteBuf data, boolean endStream, ChannelPromise promise) {
+            this.data = data;
+            this.endStream = endStream;
+            this.promise = promise;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.mockserver.server.unification;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.*;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+import static io.netty.handler.codec.http.HttpHeaders.Names.*;
+import static io.netty.handler.codec.http.HttpHeaders.Values.CLOSE;
+import static io.netty.handler.codec.http.HttpResponseStatus.*;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * Aggregates each request and its content into a FullHttpRequest, the same as HttpObjectAggregator, but with a bound
+ * on the size of the body and the option to write large bodies to a temporary file instead of holding them in memory
+ * <p/>
+ * A request that declares a Content-Length larger than the maximum is rejected before any of its body is read, a
+ * chunked request is rejected as soon as the maximum is exceeded, in both cases with 413 Request Entity Too Large
+ * <p/>
+ * Once a body grows beyond the in-memory maximum it is written to a temporary file and the request is passed on as a
+ * SpilledHttpRequest with empty content, whoever takes the file from the request is responsible for deleting it
+ *
+ * @author jamesdbloom
+ */
+public class HttpRequestAggregator extends ChannelInboundHandlerAdapter {
+
+    private static final int MAX_COMPOSITE_BUFFER_COMPONENTS = 1024;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final long maxContentLength;
+    private final long maxInMemoryContentLength;
+    private HttpRequest currentRequest;
+    private CompositeByteBuf content;
+    private File spillFile;
+    private FileChannel spillChannel;
+    private long receivedLength;
+
+    /**
+     * Aggregates requests up to the configured maximum content length and writes bodies larger than the configured
+     * maximum in-memory content length to a temporary file
+     */
+    public HttpRequestAggregator() {
+        this(ConfigurationProperties.maxContentLength(), ConfigurationProperties.maxInMemoryContentLength());
+    }
+
+    /**
+     * Aggregates requests up to maxContentLength, holding the whole body in memory
+     */
+    public HttpRequestAggregator(long maxContentLength) {
+        this(maxContentLength, maxContentLength);
+    }
+
+    public HttpRequestAggregator(long maxContentLength, long maxInMemoryContentLength) {
+        if (maxContentLength < 0) {
+            throw new IllegalArgumentException("maxContentLength must not be negative: " + maxContentLength);
+        }
+        this.maxContentLength = maxContentLength;
+        this.maxInMemoryContentLength = Math.min(Math.max(maxInMemoryContentLength, 0), maxContentLength);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpRequest) {
+            startRequest(ctx, (HttpRequest) msg);
+        } else if (msg instanceof HttpContent) {
+            addContent(ctx, (HttpContent) msg);
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    private void startRequest(ChannelHandlerContext ctx, HttpRequest request) {
+        releaseRequest();
+
+        if (request instanceof FullHttpRequest) {
+            // already aggregated, for example by the decoder when a request failed to decode
+            ctx.fireChannelRead(request);
+            return;
+        }
+
+        if (!request.getDecoderResult().isSuccess()) {
+            ctx.fireChannelRead(toFullHttpRequest(request, Unpooled.EMPTY_BUFFER));
+            return;
+        }
+
+        long declaredLength = HttpHeaders.getContentLength(request, -1);
+        if (declaredLength > maxContentLength) {
+            reject(ctx, REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        if (HttpHeaders.is100ContinueExpected(request)) {
+            ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE));
+            request.headers().remove(EXPECT);
+        }
+
+        currentRequest = request;
+        content = ctx.alloc().compositeBuffer(MAX_COMPOSITE_BUFFER_COMPONENTS);
+        receivedLength = 0;
+        if (declaredLength > maxInMemoryContentLength) {
+            try {
+                startSpilling();
+            } catch (IOException ioe) {
+                logger.error("Exception while creating temporary file for request body", ioe);
+                reject(ctx, INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    private void addContent(ChannelHandlerContext ctx, HttpContent chunk) {
+        try {
+            if (currentRequest == null) {
+                // the rest of a rejected request
+                return;
+            }
+
+            ByteBuf chunkContent = chunk.content();
+            receivedLength += chunkContent.readableBytes();
+            if (receivedLength > maxContentLength) {
+                reject(ctx, REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+
+            try {
+                if (spillChannel == null && receivedLength > maxInMemoryContentLength) {
+                    startSpilling();
+                }
+                if (spillChannel != null) {
+                    spill(chunkContent);
+                } else if (chunkContent.isReadable()) {
+                    content.addComponent(chunkContent.retain());
+                    content.writerIndex(content.writerIndex() + chunkContent.readableBytes());
+                }
+                if (chunk instanceof LastHttpContent) {
+                    finishRequest(ctx, ((LastHttpContent) chunk).trailingHeaders());
+                }
+            } catch (IOException ioe) {
+                logger.error("Exception while writing request body to temporary file " + spillFile, ioe);
+                reject(ctx, INTERNAL_SERVER_ERROR);
+            }
+        } finally {
+            chunk.release();
+        }
+    }
+
+    private void startSpilling() throws IOException {
+        spillFile = File.createTempFile("mockserver-request-", ".body");
+        spillChannel = new RandomAccessFile(spillFile, "rw").getChannel();
+        // move anything already received in to the file
+        spill(content);
+        content.release();
+        content = null;
+    }
+
+    private void spill(ByteBuf buffer) throws IOException {
+        while (buffer.isReadable()) {
+            buffer.readBytes(spillChannel, buffer.readableBytes());
+        }
+    }
+
+    private void finishRequest(ChannelHandlerContext ctx, HttpHeaders trailingHeaders) throws IOException {
+        FullHttpRequest fullHttpRequest;
+        if (spillChannel != null) {
+            spillChannel.close();
+            spillChannel = null;
+            fullHttpRequest = new SpilledHttpRequest(currentRequest.getProtocolVersion(), currentRequest.getMethod(), currentRequest.getUri(), spillFile);
+            fullHttpRequest.headers().set(currentRequest.headers());
+            spillFile = null;
+        } else {
+            fullHttpRequest = toFullHttpRequest(currentRequest, content);
+            content = null;
+        }
+        fullHttpRequest.trailingHeaders().set(trailingHeaders);
+        fullHttpRequest.headers().remove(TRANSFER_ENCODING);
+        HttpHeaders.setContentLength(fullHttpRequest, receivedLength);
+        currentRequest = null;
+        ctx.fireChannelRead(fullHttpRequest);
+    }
+
+    private FullHttpRequest toFullHttpRequest(HttpRequest request, ByteBuf content) {
+        FullHttpRequest fullHttpRequest = new DefaultFullHttpRequest(request.getProtocolVersion(), request.getMethod(), request.getUri(), content);
+        fullHttpRequest.headers().set(request.headers());
+        fullHttpRequest.setDecoderResult(request.getDecoderResult());
+        return fullHttpRequest;
+    }
+
+    private void reject(ChannelHandlerContext ctx, HttpResponseStatus status) {
+        releaseRequest();
+        FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+        HttpHeaders.setContentLength(response, 0);
+        response.headers().set(CONNECTION, CLOSE);
+        // the rest of the body is not read so the connection can't be reused
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private void releaseRequest() {
+        currentRequest = null;
+        receivedLength = 0;
+        if (content != null) {
+            content.release();
+            content = null;
+        }
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException ioe) {
+                logger.warn("Exception while closing temporary file " + spillFile, ioe);
+            }
+            spillChannel = null;
+        }
+        if (spillFile != null) {
+            if (!spillFile.delete()) {
+                logger.warn("Failed to delete temporary file " + spillFile);
+            }
+            spillFile = null;
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseRequest();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseRequest();
+        super.handlerRemoved(ctx);
+    }
+}
@@ -6,14 +6,17 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslHandler;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.server.http2.Http2ServerCodec;
 import org.mockserver.socket.SSLFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLEngine;
+
 /**
  * @author jamesdbloom
  */
@@ -35,6 +38,8 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
 
         if (isSsl(msg)) {
             enableSsl(ctx, msg);
+        } else if (isHttp2(msg)) {
+            switchToHttp2(ctx, msg);
         } else if (isHttp(msg)) {
             switchToHttp(ctx, msg);
         } else {
@@ -49,6 +54,14 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
         return buf.readableBytes() >= 5 && SslHandler.isEncrypted(buf);
     }
 
+    private boolean isHttp2(ByteBuf msg) {
+        // the HTTP/2 connection preface starts "PRI * HTTP/2.0", either sent with prior knowledge or after ALPN
+        return supportsHttp2() &&
+                msg.getUnsignedByte(msg.readerIndex()) == 'P' &&
+                msg.getUnsignedByte(msg.readerIndex() + 1) == 'R' &&
+                msg.getUnsignedByte(msg.readerIndex() + 2) == 'I';
+    }
+
     private boolean isHttp(ByteBuf msg) {
         int letterOne = (int) msg.getUnsignedByte(msg.readerIndex());
         int letterTwo = (int) msg.getUnsignedByte(msg.readerIndex() + 1);
@@ -66,7 +79,11 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
 
     private void enableSsl(ChannelHandlerContext ctx, ByteBuf msg) {
         ChannelPipeline pipeline = ctx.pipeline();
-        pipeline.addFirst(new SslHandler(SSLFactory.createServerSSLEngine()));
+        SSLEngine engine = SSLFactory.createServerSSLEngine();
+        if (supportsHttp2()) {
+            SSLFactory.withApplicationProtocols(engine, "h2", "http/1.1");
+        }
+        pipeline.addFirst(new SslHandler(engine));
 
         // re-unify (with SSL enabled)
         ctx.pipeline().fireChannelRead(msg);
@@ -77,7 +94,22 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
 
         addLastIfNotPresent(pipeline, new HttpServerCodec());
         addLastIfNotPresent(pipeline, new HttpContentDecompressor());
-        addLastIfNotPresent(pipeline, new HttpObjectAggregator(Integer.MAX_VALUE));
+        addLastIfNotPresent(pipeline, createRequestAggregator());
+        if (logger.isDebugEnabled()) {
+            addLastIfNotPresent(pipeline, new LoggingHandler());
+        }
+        configurePipeline(ctx, pipeline);
+        pipeline.remove(this);
+
+        // fire message back through pipeline
+        ctx.fireChannelRead(msg);
+    }
+
+    private void switchToHttp2(ChannelHandlerContext ctx, ByteBuf msg) {
+        ChannelPipeline pipeline = ctx.pipeline();
+
+        // each stream is aggregated by the codec, request bodies are neither decompressed nor written to disk
+        addLastIfNotPresent(pipeline, new Http2ServerCodec());
         if (logger.isDebugEnabled()) {
             addLastIfNotPresent(pipeline, new LoggingHandler());
         }
@@ -88,11 +120,25 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
         ctx.fireChannelRead(msg);
     }
 
+    /**
+     * The handler that aggregates each request in to a FullHttpRequest, by default the whole body is held in memory
+     */
+    protected ChannelHandler createRequestAggregator() {
+        return new HttpRequestAggregator(ConfigurationProperties.maxContentLength());
+    }
+
     protected void addLastIfNotPresent(ChannelPipeline pipeline, ChannelHandler channelHandler) {
         if (pipeline.get(channelHandler.getClass()) == null) {
             pipeline.addLast(channelHandler);
         }
     }
 
+    /**
+     * @return true if HTTP/2 connections should be accepted, with prior knowledge or by ALPN for TLS connections
+     */
+    protected boolean supportsHttp2() {
+        return false;
+    }
+
     protected abstract void configurePipeline(ChannelHandlerContext ctx, ChannelPipeline pipeline);
 }
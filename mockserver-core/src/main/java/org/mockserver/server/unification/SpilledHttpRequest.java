@@ -0,0 +1,53 @@
+package org.mockserver.server.unification;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+
+import java.io.File;
+
+/**
+ * A request whose body was too large to hold in memory so was written to a temporary file by HttpRequestAggregator,
+ * the content of the request is empty and the body is read from the file
+ * <p/>
+ * The file is deleted when the request is released unless it has been taken by calling takeFile()
+ *
+ * @author jamesdbloom
+ */
+public class SpilledHttpRequest extends DefaultFullHttpRequest {
+
+    private File file;
+
+    public SpilledHttpRequest(HttpVersion httpVersion, HttpMethod method, String uri, File file) {
+        super(httpVersion, method, uri, Unpooled.buffer(0));
+        this.file = file;
+    }
+
+    /**
+     * @return the file containing the body, the caller becomes responsible for deleting it
+     */
+    public File takeFile() {
+        File file = this.file;
+        this.file = null;
+        return file;
+    }
+
+    @Override
+    public boolean release() {
+        return deleteFileIfReleased(super.release());
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return deleteFileIfReleased(super.release(decrement));
+    }
+
+    private boolean deleteFileIfReleased(boolean released) {
+        if (released && file != null) {
+            file.delete();
+            file = null;
+        }
+        return released;
+    }
+}
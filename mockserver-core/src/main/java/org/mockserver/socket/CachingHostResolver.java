@@ -0,0 +1,225 @@
+package org.mockserver.socket;
+
+import com.google.common.base.Function;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.io.IOUtils;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves host names on a separate thread pool, so a slow resolver never blocks an event loop, and caches the result
+ * for a fixed time to live, hosts listed in the hosts file are never resolved so they can be used offline
+ * <p/>
+ * Failed lookups aren't cached so the next request for the host resolves it again
+ *
+ * @author jamesdbloom
+ */
+public class CachingHostResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingHostResolver.class);
+    private static final int MAXIMUM_CACHED_HOSTS = 10000;
+    private static final CachingHostResolver CACHING_HOST_RESOLVER = new CachingHostResolver(
+            hostResolver(ConfigurationProperties.hostResolverClass()),
+            ConfigurationProperties.hostResolverCacheTimeToLive(),
+            readHostsFile(ConfigurationProperties.hostsFile())
+    );
+    private final HostResolver hostResolver;
+    private final Map<String, InetAddress[]> hosts;
+    private final Cache<String, ListenableFuture<InetAddress[]>> addresses;
+    private final ListeningExecutorService resolvingExecutor;
+
+    public CachingHostResolver(HostResolver hostResolver, long timeToLiveMillis, Map<String, InetAddress[]> hosts) {
+        this.hostResolver = hostResolver;
+        this.hosts = hosts;
+        this.addresses = CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_CACHED_HOSTS)
+                .expireAfterWrite(timeToLiveMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.resolvingExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors()),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("mockserver-resolver-%d").build()
+        ));
+    }
+
+    public static CachingHostResolver getInstance() {
+        return CACHING_HOST_RESOLVER;
+    }
+
+    private static HostResolver hostResolver(String hostResolverClass) {
+        try {
+            return (HostResolver) Class.forName(hostResolverClass).newInstance();
+        } catch (Exception e) {
+            logger.error("Exception creating host resolver [" + hostResolverClass + "] using " + JdkHostResolver.class.getSimpleName() + " instead", e);
+            return new JdkHostResolver();
+        }
+    }
+
+    /**
+     * Reads a file in the same format as /etc/hosts, each line is an address followed by one or more host names and
+     * anything after a # is a comment
+     */
+    static Map<String, InetAddress[]> readHostsFile(String hostsFile) {
+        Map<String, List<InetAddress>> hosts = new HashMap<String, List<InetAddress>>();
+        if (!Strings.isNullOrEmpty(hostsFile)) {
+            BufferedReader reader = null;
+            try {
+                reader = new BufferedReader(new FileReader(hostsFile));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.contains("#")) {
+                        line = line.substring(0, line.indexOf('#'));
+                    }
+                    String[] fields = line.trim().split("\\s+");
+                    if (fields.length < 2 || !InetAddresses.isInetAddress(fields[0])) {
+                        continue;
+                    }
+                    byte[] address = InetAddresses.forString(fields[0]).getAddress();
+                    for (int i = 1; i < fields.length; i++) {
+                        String host = fields[i].toLowerCase(Locale.ENGLISH);
+                        if (!hosts.containsKey(host)) {
+                            hosts.put(host, new ArrayList<InetAddress>());
+                        }
+                        hosts.get(host).add(InetAddress.getByAddress(host, address));
+                    }
+                }
+            } catch (IOException ioe) {
+                logger.error("Exception reading hosts file [" + hostsFile + "]", ioe);
+            } finally {
+                IOUtils.closeQuietly(reader);
+            }
+        }
+        Map<String, InetAddress[]> hostAddresses = new HashMap<String, InetAddress[]>();
+        for (Map.Entry<String, List<InetAddress>> host : hosts.entrySet()) {
+            hostAddresses.put(host.getKey(), host.getValue().toArray(new InetAddress[host.getValue().size()]));
+        }
+        return hostAddresses;
+    }
+
+    /**
+     * @return a future for the addresses of the host, this is already complete for ip addresses, hosts in the hosts
+     * file and cached hosts, it fails with an UnknownHostException if the host couldn't be resolved
+     */
+    public ListenableFuture<InetAddress[]> resolveAsync(String host) {
+        if (InetAddresses.isInetAddress(host)) {
+            return Futures.immediateFuture(new InetAddress[]{InetAddresses.forString(host)});
+        }
+        final String key = host.toLowerCase(Locale.ENGLISH);
+        if (hosts.containsKey(key)) {
+            return Futures.immediateFuture(hosts.get(key));
+        }
+        final boolean[] looked = new boolean[1];
+        ListenableFuture<InetAddress[]> resolved;
+        try {
+            resolved = addresses.get(key, new Callable<ListenableFuture<InetAddress[]>>() {
+                @Override
+                public ListenableFuture<InetAddress[]> call() {
+                    looked[0] = true;
+                    final ListenableFuture<InetAddress[]> lookup = resolvingExecutor.submit(new Callable<InetAddress[]>() {
+                        @Override
+                        public InetAddress[] call() throws UnknownHostException {
+                            InetAddress[] resolved = hostResolver.resolve(key);
+                            if (resolved == null || resolved.length == 0) {
+                                throw new UnknownHostException(key);
+                            }
+                            return resolved;
+                        }
+                    });
+                    lookup.addListener(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (addresses(lookup) == null) {
+                                addresses.asMap().remove(key, lookup);
+                            }
+                        }
+                    }, MoreExecutors.directExecutor());
+                    return lookup;
+                }
+            });
+        } catch (ExecutionException ee) {
+            return Futures.immediateFailedFuture(ee.getCause());
+        }
+        if (resolved.isDone() && addresses(resolved) == null) {
+            addresses.asMap().remove(key, resolved);
+            if (!looked[0]) {
+                // an earlier lookup that failed but hadn't been removed yet, so look the host up again
+                return resolveAsync(host);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * @return a future for the address with the host resolved to its first address, the host name is kept so it is
+     * still available from the resolved address, addresses that are already resolved are returned unchanged, the
+     * resolved address renders the same as one resolved by the JDK
+     */
+    public ListenableFuture<InetSocketAddress> resolveAsync(final InetSocketAddress address) {
+        if (!address.isUnresolved()) {
+            return Futures.immediateFuture(address);
+        }
+        return Futures.transform(resolveAsync(address.getHostName()), new Function<InetAddress[], InetSocketAddress>() {
+            @Override
+            public InetSocketAddress apply(InetAddress[] resolved) {
+                if (InetAddresses.isInetAddress(address.getHostName())) {
+                    // like the JDK an address literal has no host name, so the address renders as /127.0.0.1:80
+                    return new InetSocketAddress(resolved[0], address.getPort());
+                }
+                try {
+                    return new InetSocketAddress(InetAddress.getByAddress(address.getHostName(), resolved[0].getAddress()), address.getPort());
+                } catch (UnknownHostException uhe) {
+                    // only thrown for an address of invalid length
+                    throw new RuntimeException(uhe);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Waits for the host to be resolved so must not be called from an event loop
+     */
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        try {
+            return resolveAsync(host).get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException(host);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof UnknownHostException) {
+                throw (UnknownHostException) ee.getCause();
+            }
+            throw new RuntimeException("Exception resolving " + host, ee.getCause());
+        }
+    }
+
+    private InetAddress[] addresses(ListenableFuture<InetAddress[]> resolved) {
+        try {
+            return resolved.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ee) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.mockserver.socket;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Resolves host names for forwarded and proxied requests, implementations may block as they are only called from the
+ * threads of {@link CachingHostResolver} and never from an event loop
+ *
+ * @author jamesdbloom
+ */
+public interface HostResolver {
+
+    /**
+     * @return all addresses of the host, the first is used to connect
+     * @throws UnknownHostException if the host has no addresses
+     */
+    InetAddress[] resolve(String host) throws UnknownHostException;
+
+}
@@ -0,0 +1,18 @@
+package org.mockserver.socket;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Resolves host names with the JVM's resolver, which includes the JVM's own address cache
+ *
+ * @author jamesdbloom
+ */
+public class JdkHostResolver implements HostResolver {
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        return InetAddress.getAllByName(host);
+    }
+
+}
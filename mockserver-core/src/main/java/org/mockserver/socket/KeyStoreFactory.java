@@ -64,6 +64,12 @@ public class KeyStoreFactory {
      */
     private static final int FAKE_KEYSIZE = 1024;
 
+    /**
+     * Generates a 256 bit EC key pair, on the P-256 curve, for server
+     * certificates when EC keys are configured.
+     */
+    private static final int FAKE_EC_KEYSIZE = 256;
+
     /**
      * Current time minus 1 year, just in case software clock goes back due to
      * time synchronization
@@ -79,7 +85,14 @@ public class KeyStoreFactory {
      * Create a random 2048 bit RSA key pair with the given length
      */
     public static KeyPair generateKeyPair(int keySize) throws Exception {
-        KeyPairGenerator generator = KeyPairGenerator.getInstance(KEY_GENERATION_ALGORITHM, PROVIDER_NAME);
+        return generateKeyPair(KEY_GENERATION_ALGORITHM, keySize);
+    }
+
+    /**
+     * Create a random key pair with the given algorithm, RSA or EC, and length
+     */
+    public static KeyPair generateKeyPair(String algorithm, int keySize) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm, PROVIDER_NAME);
         generator.initialize(keySize, new SecureRandom());
         return generator.generateKeyPair();
     }
@@ -204,6 +217,27 @@ public class KeyStoreFactory {
         return cert;
     }
 
+    /**
+     * Create a server certificate for a single host, an ip address or domain name, with a new key pair of the given
+     * algorithm, RSA or EC, signed by the given Certificate Authority.
+     */
+    public KeyStore.PrivateKeyEntry createLeafCertificate(String host, String keyAlgorithm, X509Certificate certificateAuthorityCert, PrivateKey certificateAuthorityPrivateKey) throws Exception {
+        KeyPair keyPair;
+        if ("EC".equalsIgnoreCase(keyAlgorithm)) {
+            keyPair = generateKeyPair("EC", FAKE_EC_KEYSIZE);
+        } else {
+            keyPair = generateKeyPair(KEY_GENERATION_ALGORITHM, FAKE_KEYSIZE);
+        }
+
+        X509Certificate leafCert;
+        if (IPAddress.isValidIPv4(host) || IPAddress.isValidIPv6(host)) {
+            leafCert = createClientCert(keyPair.getPublic(), certificateAuthorityCert, certificateAuthorityPrivateKey, certificateAuthorityCert.getPublicKey(), host, null, new String[]{host});
+        } else {
+            leafCert = createClientCert(keyPair.getPublic(), certificateAuthorityCert, certificateAuthorityPrivateKey, certificateAuthorityCert.getPublicKey(), host, new String[0], null);
+        }
+        return new KeyStore.PrivateKeyEntry(keyPair.getPrivate(), new X509Certificate[]{leafCert, certificateAuthorityCert});
+    }
+
     /**
      * Create a KeyStore with a server certificate for the given domain and subject alternative names.
      */
@@ -219,8 +253,8 @@ public class KeyStoreFactory {
         //
         // ca keys
         //
-        PrivateKey caPrivateKey = loadPrivateKeyFromPEMFile("org/mockserver/socket/CertificateAuthorityPrivateKey.pem");
-        X509Certificate caCert = (X509Certificate) loadCertificateFromKeyStore("org/mockserver/socket/CertificateAuthorityKeyStore.jks", certificateAuthorityAlias, keyStorePassword);
+        PrivateKey caPrivateKey = loadCertificateAuthorityPrivateKey();
+        X509Certificate caCert = loadCertificateAuthorityCertificate(certificateAuthorityAlias, keyStorePassword);
 
         //
         // regenerate ca private key and ca certificate (for development / debugging only)
@@ -265,6 +299,20 @@ public class KeyStoreFactory {
         );
     }
 
+    /**
+     * Load the Certificate Authority PrivateKey from the class path.
+     */
+    PrivateKey loadCertificateAuthorityPrivateKey() {
+        return loadPrivateKeyFromPEMFile("org/mockserver/socket/CertificateAuthorityPrivateKey.pem");
+    }
+
+    /**
+     * Load the Certificate Authority X509Certificate from the class path.
+     */
+    X509Certificate loadCertificateAuthorityCertificate(String certificateAuthorityAlias, char[] keyStorePassword) {
+        return (X509Certificate) loadCertificateFromKeyStore("org/mockserver/socket/CertificateAuthorityKeyStore.jks", certificateAuthorityAlias, keyStorePassword);
+    }
+
     /**
      * Saves X509Certificate as Base-64 encoded PEM file.
      */
@@ -0,0 +1,133 @@
+package org.mockserver.socket;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Issues a certificate per host, signed by the MockServer Certificate Authority, for TLS connections intercepted by
+ * the proxy, this avoids adding every intercepted host as a subject alternative name, which rebuilds the key store
+ * <p/>
+ * Key pairs are generated on a separate thread pool so a host seen for the first time doesn't block an event loop,
+ * issued certificates are kept in a bounded least recently used cache
+ *
+ * @author jamesdbloom
+ */
+public class LeafCertificateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeafCertificateCache.class);
+    private static final LeafCertificateCache LEAF_CERTIFICATE_CACHE = new LeafCertificateCache(ConfigurationProperties.sslLeafCertificateCacheSize(), ConfigurationProperties.sslLeafCertificateKeyAlgorithm());
+    private final KeyStoreFactory keyStoreFactory = new KeyStoreFactory();
+    private final Cache<String, ListenableFuture<KeyStore.PrivateKeyEntry>> certificates;
+    private final ListeningExecutorService issuingExecutor;
+    private final String keyAlgorithm;
+    private volatile PrivateKey certificateAuthorityPrivateKey;
+    private volatile X509Certificate certificateAuthorityCertificate;
+
+    LeafCertificateCache(int maximumSize, String keyAlgorithm) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.certificates = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.issuingExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("mockserver-certificate-%d").build()
+        ));
+    }
+
+    public static LeafCertificateCache getInstance() {
+        return LEAF_CERTIFICATE_CACHE;
+    }
+
+    /**
+     * @return a future for the certificate of the host, this is already complete if the certificate has been issued
+     */
+    public ListenableFuture<KeyStore.PrivateKeyEntry> issue(String host) {
+        final String key = host.toLowerCase(Locale.ENGLISH);
+        ListenableFuture<KeyStore.PrivateKeyEntry> certificate;
+        try {
+            certificate = certificates.get(key, new Callable<ListenableFuture<KeyStore.PrivateKeyEntry>>() {
+                @Override
+                public ListenableFuture<KeyStore.PrivateKeyEntry> call() {
+                    return issuingExecutor.submit(new Callable<KeyStore.PrivateKeyEntry>() {
+                        @Override
+                        public KeyStore.PrivateKeyEntry call() throws Exception {
+                            try {
+                                return keyStoreFactory.createLeafCertificate(key, keyAlgorithm, certificateAuthorityCertificate(), certificateAuthorityPrivateKey());
+                            } catch (Exception e) {
+                                logger.warn("Exception issuing certificate for [" + key + "]", e);
+                                throw e;
+                            }
+                        }
+                    });
+                }
+            });
+        } catch (ExecutionException ee) {
+            return Futures.immediateFailedFuture(ee.getCause());
+        }
+        if (certificate.isDone() && certificate(certificate) == null) {
+            // so the next connection to the host retries
+            certificates.asMap().remove(key, certificate);
+        }
+        return certificate;
+    }
+
+    /**
+     * Waits for the certificate if it is still being issued
+     *
+     * @return the certificate of the host or null if it could not be issued
+     */
+    public KeyStore.PrivateKeyEntry certificate(String host) {
+        return certificate(issue(host));
+    }
+
+    /**
+     * Never waits, if the certificate is still being issued null is returned
+     *
+     * @return the certificate of the host or null if it hasn't been issued
+     */
+    public KeyStore.PrivateKeyEntry issuedCertificate(String host) {
+        ListenableFuture<KeyStore.PrivateKeyEntry> certificate = issue(host);
+        return certificate.isDone() ? certificate(certificate) : null;
+    }
+
+    private KeyStore.PrivateKeyEntry certificate(ListenableFuture<KeyStore.PrivateKeyEntry> certificate) {
+        try {
+            return certificate.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ee) {
+            return null;
+        }
+    }
+
+    private PrivateKey certificateAuthorityPrivateKey() {
+        if (certificateAuthorityPrivateKey == null) {
+            certificateAuthorityPrivateKey = keyStoreFactory.loadCertificateAuthorityPrivateKey();
+        }
+        return certificateAuthorityPrivateKey;
+    }
+
+    private X509Certificate certificateAuthorityCertificate() {
+        if (certificateAuthorityCertificate == null) {
+            certificateAuthorityCertificate = keyStoreFactory.loadCertificateAuthorityCertificate(SSLFactory.KEY_STORE_CA_ALIAS, ConfigurationProperties.javaKeyStorePassword().toCharArray());
+        }
+        return certificateAuthorityCertificate;
+    }
+}
@@ -0,0 +1,112 @@
+package org.mockserver.socket;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509KeyManager;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Selects the per host certificate for server SSLEngines created with a peer host, see
+ * {@link SSLFactory#createServerSSLEngine(String)}, all other connections use the key store certificate
+ * <p/>
+ * The certificate is looked up once per engine and held until the engine is garbage collected so the key and chain
+ * JSSE reads during the handshake always belong together, even if the certificate is evicted from the cache, and a
+ * certificate that hasn't been issued yet is never waited for on the event loop
+ *
+ * @author jamesdbloom
+ */
+public class LeafCertificateKeyManager extends X509ExtendedKeyManager {
+
+    static final String LEAF_CERTIFICATE_ALIAS_PREFIX = "mockserver-leaf-cert:";
+    private final X509KeyManager keyStoreKeyManager;
+    private final LeafCertificateCache leafCertificateCache;
+    private final Cache<SSLEngine, KeyStore.PrivateKeyEntry> engineCertificates = CacheBuilder.newBuilder().weakKeys().build();
+    private final Cache<String, KeyStore.PrivateKeyEntry> aliasCertificates = CacheBuilder.newBuilder().weakValues().build();
+    private final AtomicLong nextAliasId = new AtomicLong();
+
+    public LeafCertificateKeyManager(X509KeyManager keyStoreKeyManager, LeafCertificateCache leafCertificateCache) {
+        this.keyStoreKeyManager = keyStoreKeyManager;
+        this.leafCertificateCache = leafCertificateCache;
+    }
+
+    @Override
+    public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+        if (engine != null && engine.getPeerHost() != null) {
+            KeyStore.PrivateKeyEntry certificate = engineCertificates.getIfPresent(engine);
+            if (certificate == null) {
+                certificate = leafCertificateCache.issuedCertificate(engine.getPeerHost());
+                if (certificate != null) {
+                    engineCertificates.put(engine, certificate);
+                }
+            }
+            // a type not matching the key, for example RSA with an EC key, is retried by JSSE with the next type
+            if (certificate != null && certificate.getPrivateKey().getAlgorithm().equalsIgnoreCase(keyType)) {
+                String alias = LEAF_CERTIFICATE_ALIAS_PREFIX + engine.getPeerHost() + ":" + nextAliasId.incrementAndGet();
+                aliasCertificates.put(alias, certificate);
+                return alias;
+            }
+        }
+        if (keyStoreKeyManager instanceof X509ExtendedKeyManager) {
+            return ((X509ExtendedKeyManager) keyStoreKeyManager).chooseEngineServerAlias(keyType, issuers, engine);
+        } else {
+            return keyStoreKeyManager.chooseServerAlias(keyType, issuers, null);
+        }
+    }
+
+    @Override
+    public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+        if (keyStoreKeyManager instanceof X509ExtendedKeyManager) {
+            return ((X509ExtendedKeyManager) keyStoreKeyManager).chooseEngineClientAlias(keyType, issuers, engine);
+        } else {
+            return keyStoreKeyManager.chooseClientAlias(keyType, issuers, null);
+        }
+    }
+
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+        return keyStoreKeyManager.getClientAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+        return keyStoreKeyManager.chooseClientAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+        return keyStoreKeyManager.getServerAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+        return keyStoreKeyManager.chooseServerAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+        if (alias != null && alias.startsWith(LEAF_CERTIFICATE_ALIAS_PREFIX)) {
+            KeyStore.PrivateKeyEntry certificate = aliasCertificates.getIfPresent(alias);
+            return certificate != null ? (X509Certificate[]) certificate.getCertificateChain() : null;
+        } else {
+            return keyStoreKeyManager.getCertificateChain(alias);
+        }
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+        if (alias != null && alias.startsWith(LEAF_CERTIFICATE_ALIAS_PREFIX)) {
+            KeyStore.PrivateKeyEntry certificate = aliasCertificates.getIfPresent(alias);
+            return certificate != null ? certificate.getPrivateKey() : null;
+        } else {
+            return keyStoreKeyManager.getPrivateKey(alias);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.mockserver.socket;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the event loops and channels for a server using either NIO or, when configured and available, the native
+ * epoll transport, with epoll several server channels can be bound to the same port with SO_REUSEPORT so accepting
+ * connections is spread across threads
+ *
+ * @author jamesdbloom
+ */
+public class NettyTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyTransport.class);
+    // the epoll classes are optional so are only touched once a native transport has been created
+    private static volatile boolean nativeTransportUsed;
+    private final boolean nativeTransport;
+
+    public NettyTransport(boolean nativeTransport) {
+        this.nativeTransport = nativeTransport;
+        if (nativeTransport) {
+            nativeTransportUsed = true;
+        }
+    }
+
+    /**
+     * @return the transport configured by mockserver.nativeTransport, falling back to NIO if epoll isn't available
+     */
+    public static NettyTransport configured() {
+        boolean nativeTransport = ConfigurationProperties.nativeTransport();
+        if (nativeTransport) {
+            try {
+                if (!Epoll.isAvailable()) {
+                    logger.warn("Native transport is not available using NIO instead", Epoll.unavailabilityCause());
+                    nativeTransport = false;
+                }
+            } catch (NoClassDefFoundError ncdfe) {
+                logger.warn("Native transport is not on the classpath, add io.netty:netty-transport-native-epoll to use it, using NIO instead");
+                nativeTransport = false;
+            }
+        }
+        return new NettyTransport(nativeTransport);
+    }
+
+    /**
+     * @return the client channel type that can be registered with the same event loop as channel
+     */
+    public static Class<? extends Channel> socketChannelClass(Channel channel) {
+        if (nativeTransportUsed && channel instanceof EpollSocketChannel) {
+            return EpollSocketChannel.class;
+        } else {
+            return NioSocketChannel.class;
+        }
+    }
+
+    public boolean isNative() {
+        return nativeTransport;
+    }
+
+    public EventLoopGroup createBossGroup() {
+        return createEventLoopGroup(ConfigurationProperties.bossThreadCount());
+    }
+
+    public EventLoopGroup createWorkerGroup() {
+        return createEventLoopGroup(ConfigurationProperties.workerThreadCount());
+    }
+
+    /**
+     * @param threadCount the number of threads, 0 for Netty's default
+     */
+    public EventLoopGroup createEventLoopGroup(int threadCount) {
+        if (nativeTransport) {
+            return new EpollEventLoopGroup(threadCount);
+        } else {
+            return new NioEventLoopGroup(threadCount);
+        }
+    }
+
+    public Class<? extends ServerChannel> serverChannelClass() {
+        if (nativeTransport) {
+            return EpollServerSocketChannel.class;
+        } else {
+            return NioServerSocketChannel.class;
+        }
+    }
+
+    /**
+     * Binds the configured number of server channels to port, the additional channels are closed when the returned
+     * channel is closed
+     *
+     * @return the first bound channel
+     */
+    public Channel bind(ServerBootstrap serverBootstrap, int port) throws InterruptedException {
+        int acceptorCount = nativeTransport ? Math.max(ConfigurationProperties.acceptorCount(), 1) : 1;
+        if (acceptorCount > 1) {
+            serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        Channel channel = serverBootstrap.bind(port).sync().channel();
+
+        // bind to the port actually used in case port was 0
+        int boundPort = ((InetSocketAddress) channel.localAddress()).getPort();
+        final List<Channel> additionalChannels = new ArrayList<Channel>();
+        for (int i = 1; i < acceptorCount; i++) {
+            additionalChannels.add(serverBootstrap.bind(boundPort).sync().channel());
+        }
+        if (!additionalChannels.isEmpty()) {
+            channel.closeFuture().addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) {
+                    for (Channel additionalChannel : additionalChannels) {
+                        additionalChannel.close();
+                    }
+                }
+            });
+        }
+        return channel;
+    }
+}
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import javax.net.ssl.*;
 import java.io.File;
 import java.io.FileInputStream;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
@@ -27,7 +28,9 @@ public class SSLFactory {
     public static final String KEY_STORE_CA_ALIAS = "mockserver-ca-cert";
     private static final Logger logger = LoggerFactory.getLogger(SSLFactory.class);
     private static final SSLFactory SSL_FACTORY = new SSLFactory();
+    private static final Method SET_APPLICATION_PROTOCOLS = applicationProtocolsMethod();
     private KeyStore keystore;
+    private volatile SSLContext sslContext;
 
     private SSLFactory() {
 
@@ -55,19 +58,66 @@ public class SSLFactory {
         return engine;
     }
 
+    public static SSLEngine createClientSSLEngine(String peerHost, int peerPort) {
+        SSLEngine engine = SSLFactory.getInstance().sslContext().createSSLEngine(peerHost, peerPort);
+        engine.setUseClientMode(true);
+        return engine;
+    }
+
     public static SSLEngine createServerSSLEngine() {
         SSLEngine engine = SSLFactory.getInstance().sslContext().createSSLEngine();
         engine.setUseClientMode(false);
         return engine;
     }
 
+    /**
+     * Creates a server SSLEngine that presents a certificate issued for the host, instead of the key store certificate,
+     * the certificate should be issued with {@link LeafCertificateCache#issue(String)} first, if it hasn't been issued by
+     * the time of the handshake the key store certificate is presented
+     */
+    public static SSLEngine createServerSSLEngine(String host) {
+        SSLEngine engine = SSLFactory.getInstance().sslContext().createSSLEngine(host, -1);
+        engine.setUseClientMode(false);
+        return engine;
+    }
+
+    /**
+     * Offers the protocols to the client with ALPN, this is skipped if the JVM doesn't support ALPN which was added to
+     * SSLParameters in Java 9 and backported to Java 8u252
+     */
+    public static SSLEngine withApplicationProtocols(SSLEngine engine, String... protocols) {
+        if (SET_APPLICATION_PROTOCOLS != null) {
+            try {
+                SSLParameters sslParameters = engine.getSSLParameters();
+                SET_APPLICATION_PROTOCOLS.invoke(sslParameters, new Object[]{protocols});
+                engine.setSSLParameters(sslParameters);
+            } catch (Exception e) {
+                logger.warn("Exception setting ALPN protocols", e);
+            }
+        }
+        return engine;
+    }
+
+    private static Method applicationProtocolsMethod() {
+        try {
+            return SSLParameters.class.getMethod("setApplicationProtocols", String[].class);
+        } catch (NoSuchMethodException nsme) {
+            logger.debug("ALPN is not supported by this JVM");
+            return null;
+        }
+    }
+
+    /**
+     * Returns once the subject alternative names have been added so a TLS connection made after an expectation has
+     * been created is presented a certificate for the host, only the control plane calls this
+     */
     public static void addSubjectAlternativeName(String host) {
         if (host != null) {
             String hostWithoutPort = StringUtils.substringBefore(host, ":");
 
             try {
                 // resolve host name for subject alternative name in case host name is ip address
-                for (InetAddress addr : InetAddress.getAllByName(hostWithoutPort)) {
+                for (InetAddress addr : CachingHostResolver.getInstance().resolve(hostWithoutPort)) {
                     ConfigurationProperties.addSslSubjectAlternativeNameIps(addr.getHostAddress());
                     ConfigurationProperties.addSslSubjectAlternativeNameDomains(addr.getHostName());
                     ConfigurationProperties.addSslSubjectAlternativeNameDomains(addr.getCanonicalHostName());
@@ -89,18 +139,52 @@ public class SSLFactory {
         return sslSocket;
     }
 
-    public synchronized SSLContext sslContext() {
-        try {
-            // key manager
-            KeyManagerFactory keyManagerFactory = getKeyManagerFactoryInstance(KeyManagerFactory.getDefaultAlgorithm());
-            keyManagerFactory.init(buildKeyStore(), ConfigurationProperties.javaKeyStorePassword().toCharArray());
-
-            // ssl context
-            SSLContext sslContext = getSSLContextInstance("TLS");
-            sslContext.init(keyManagerFactory.getKeyManagers(), InsecureTrustManagerFactory.INSTANCE.getTrustManagers(), null);
-            return sslContext;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize the SSLContext", e);
+    /**
+     * The SSLContext is built once and shared by every connection so TLS sessions can be resumed, it is only rebuilt
+     * when the key store changes, for example when a new subject alternative name is added, connections already open
+     * keep using the previous SSLContext
+     */
+    public SSLContext sslContext() {
+        SSLContext current = sslContext;
+        if (current == null || ConfigurationProperties.rebuildKeyStore()) {
+            current = rebuildSSLContext();
+        }
+        return current;
+    }
+
+    private synchronized SSLContext rebuildSSLContext() {
+        // another thread may have rebuilt the context while this one was waiting
+        if (sslContext == null || ConfigurationProperties.rebuildKeyStore()) {
+            try {
+                // key manager
+                KeyManagerFactory keyManagerFactory = getKeyManagerFactoryInstance(KeyManagerFactory.getDefaultAlgorithm());
+                keyManagerFactory.init(buildKeyStore(), ConfigurationProperties.javaKeyStorePassword().toCharArray());
+
+                // certificates issued per host for engines created with a peer host
+                KeyManager[] keyManagers = keyManagerFactory.getKeyManagers();
+                for (int i = 0; i < keyManagers.length; i++) {
+                    if (keyManagers[i] instanceof X509KeyManager) {
+                        keyManagers[i] = new LeafCertificateKeyManager((X509KeyManager) keyManagers[i], LeafCertificateCache.getInstance());
+                    }
+                }
+
+                // ssl context
+                SSLContext newSSLContext = getSSLContextInstance("TLS");
+                newSSLContext.init(keyManagers, InsecureTrustManagerFactory.INSTANCE.getTrustManagers(), null);
+                configureSessionCache(newSSLContext.getServerSessionContext());
+                configureSessionCache(newSSLContext.getClientSessionContext());
+                sslContext = newSSLContext;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to initialize the SSLContext", e);
+            }
+        }
+        return sslContext;
+    }
+
+    private void configureSessionCache(SSLSessionContext sessionContext) {
+        if (sessionContext != null) {
+            sessionContext.setSessionCacheSize(ConfigurationProperties.sslSessionCacheSize());
+            sessionContext.setSessionTimeout(ConfigurationProperties.sslSessionTimeout());
         }
     }
 
@@ -110,15 +194,21 @@ public class SSLFactory {
 
     public synchronized KeyStore buildKeyStore(boolean forceRebuild) {
         if (keystore == null || forceRebuild) {
+            // cleared before building so changes made while building trigger another rebuild
+            ConfigurationProperties.rebuildKeyStore(false);
+            sslContext = null;
             File keyStoreFile = new File(ConfigurationProperties.javaKeyStoreFilePath());
             System.setProperty("javax.net.ssl.trustStore", keyStoreFile.getAbsolutePath());
-            if (keyStoreFile.exists()) {
-                keystore = updateExistingKeyStore(keyStoreFile);
-            } else {
-                createNewKeyStore();
+            try {
+                if (keyStoreFile.exists()) {
+                    keystore = updateExistingKeyStore(keyStoreFile);
+                } else {
+                    createNewKeyStore();
+                }
+            } catch (RuntimeException re) {
+                ConfigurationProperties.rebuildKeyStore(true);
+                throw re;
             }
-            // don't rebuild again and again and again
-            ConfigurationProperties.rebuildKeyStore(false);
         }
         return keystore;
     }
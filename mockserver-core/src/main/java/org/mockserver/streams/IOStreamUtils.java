@@ -2,6 +2,7 @@ package org.mockserver.streams;
 
 import com.google.common.base.Charsets;
 import org.apache.commons.io.IOUtils;
+import org.mockserver.model.StreamedBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +74,17 @@ public class IOStreamUtils {
         }
     }
 
+    public static void writeToOutputStream(StreamedBody body, ServletResponse response) {
+        try {
+            OutputStream output = response.getOutputStream();
+            body.writeTo(output);
+            output.close();
+        } catch (IOException ioe) {
+            logger.error(String.format("IOException while writing [%s] to HttpServletResponse output stream", body), ioe);
+            throw new RuntimeException(String.format("IOException while writing [%s] to HttpServletResponse output stream", body), ioe);
+        }
+    }
+
     public static ByteBuffer createBasicByteBuffer(String input) {
         ByteBuffer byteBuffer = ByteBuffer.allocateDirect(input.length()).put(input.getBytes());
         byteBuffer.flip();
@@ -0,0 +1,80 @@
+package org.mockserver.client.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockserver.echo.http.EchoServer;
+import org.mockserver.socket.PortFactory;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * @author jamesdbloom
+ */
+public class HttpClientConnectionPoolTest {
+
+    private static EchoServer echoServer;
+    private static EventLoopGroup eventLoopGroup;
+    private static InetSocketAddress destination;
+
+    @BeforeClass
+    public static void startEchoServer() {
+        int freePort = PortFactory.findFreePort();
+        echoServer = new EchoServer(freePort, false);
+        eventLoopGroup = new NioEventLoopGroup(1);
+        destination = new InetSocketAddress("127.0.0.1", freePort);
+    }
+
+    @AfterClass
+    public static void stopEchoServer() {
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        echoServer.stop();
+    }
+
+    @Test
+    public void shouldReuseReleasedConnection() throws Exception {
+        // given
+        HttpClientConnectionPool connectionPool = new HttpClientConnectionPool(eventLoopGroup, 1);
+        Channel firstChannel = connectionPool.acquire(destination, false).get(10, TimeUnit.SECONDS);
+
+        // when
+        connectionPool.release(destination, false, firstChannel, true);
+        Channel secondChannel = connectionPool.acquire(destination, false).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(secondChannel, sameInstance(firstChannel));
+        assertThat(connectionPool.isReusedConnection(firstChannel), is(true));
+    }
+
+    @Test
+    public void shouldNotReuseClosedConnection() throws Exception {
+        // given
+        HttpClientConnectionPool connectionPool = new HttpClientConnectionPool(eventLoopGroup, 1);
+        Channel firstChannel = connectionPool.acquire(destination, false).get(10, TimeUnit.SECONDS);
+
+        // when
+        connectionPool.release(destination, false, firstChannel, false);
+        firstChannel.closeFuture().await(10, TimeUnit.SECONDS);
+        Channel secondChannel = connectionPool.acquire(destination, false).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(secondChannel, not(sameInstance(firstChannel)));
+        assertThat(connectionPool.isReusedConnection(secondChannel), is(false));
+    }
+
+    @Test
+    public void shouldKeepSeparatePoolsForSecureAndInsecureConnections() {
+        assertThat(new HttpClientConnectionPool.Destination(destination, false), is(new HttpClientConnectionPool.Destination(destination, false)));
+        assertThat(new HttpClientConnectionPool.Destination(destination, false).hashCode(), is(new HttpClientConnectionPool.Destination(destination, false).hashCode()));
+        assertThat(new HttpClientConnectionPool.Destination(destination, true), not(new HttpClientConnectionPool.Destination(destination, false)));
+    }
+}
@@ -1,6 +1,7 @@
 package org.mockserver.client.netty;
 
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.handler.codec.http.HttpHeaders;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -9,12 +10,22 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockserver.echo.http.EchoServer;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.socket.CachingHostResolver;
+import org.mockserver.socket.JdkHostResolver;
 import org.mockserver.socket.PortFactory;
 
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import static io.netty.handler.codec.http.HttpHeaders.Names.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 import static org.mockserver.model.Cookie.cookie;
 import static org.mockserver.model.Header.header;
 import static org.mockserver.model.HttpRequest.request;
@@ -90,6 +101,77 @@ public class NettyHttpClientTest {
         ));
     }
 
+    @Test
+    public void shouldSendSequentialRequestsOverPooledConnection() {
+        // given
+        NettyHttpClient nettyHttpClient = new NettyHttpClient();
+
+        // when
+        HttpResponse firstResponse = nettyHttpClient.sendRequest(outboundRequest("0.0.0.0", freePort, "", request().withBody(exact("first body"))));
+        HttpResponse secondResponse = nettyHttpClient.sendRequest(outboundRequest("0.0.0.0", freePort, "", request().withBody(exact("second body"))));
+
+        // then
+        assertThat(firstResponse.getBodyAsString(), is("first body"));
+        assertThat(secondResponse.getBodyAsString(), is("second body"));
+    }
+
+    @Test
+    public void shouldSendRequestAsynchronously() throws Exception {
+        // given
+        NettyHttpClient nettyHttpClient = new NettyHttpClient();
+
+        // when
+        ListenableFuture<HttpResponse> httpResponseFuture = nettyHttpClient.sendRequestAsync(outboundRequest("0.0.0.0", freePort, "", request().withBody(exact("some body"))));
+
+        // then
+        assertThat(httpResponseFuture.get(10, TimeUnit.SECONDS).getBodyAsString(), is("some body"));
+    }
+
+    @Test
+    public void shouldResolveHostFromHostsFile() throws Exception {
+        // given
+        Map<String, InetAddress[]> hosts = new HashMap<String, InetAddress[]>();
+        hosts.put("offline.mock-server.com", new InetAddress[]{InetAddress.getByAddress("offline.mock-server.com", new byte[]{127, 0, 0, 1})});
+        NettyHttpClient nettyHttpClient = new NettyHttpClient(new HttpClientConnectionPool(), new CachingHostResolver(new JdkHostResolver(), 60000, hosts));
+
+        // when
+        HttpResponse httpResponse = nettyHttpClient.sendRequest(outboundRequest("offline.mock-server.com", freePort, "", request()));
+
+        // then
+        assertThat(httpResponse.getFirstHeader(HOST), is("offline.mock-server.com:" + freePort));
+    }
+
+    @Test
+    public void shouldOnlyRetryIdempotentRequests() {
+        // then
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request())), is(true));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("GET"))), is(true));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("head"))), is(true));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("OPTIONS"))), is(true));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("PUT"))), is(true));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("DELETE"))), is(true));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("POST"))), is(false));
+        assertThat(NettyHttpClient.isIdempotent(outboundRequest("127.0.0.1", freePort, "", request().withMethod("PATCH"))), is(false));
+    }
+
+    @Test
+    public void shouldFailFutureWithSocketConnectionExceptionForConnectException() throws Exception {
+        // given
+        NettyHttpClient nettyHttpClient = new NettyHttpClient();
+        int freePort = PortFactory.findFreePort();
+
+        // when
+        ListenableFuture<HttpResponse> httpResponseFuture = nettyHttpClient.sendRequestAsync(outboundRequest("127.0.0.1", freePort, "", request()));
+
+        // then
+        try {
+            httpResponseFuture.get(10, TimeUnit.SECONDS);
+            fail("expected exception");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(SocketConnectionException.class));
+        }
+    }
+
     @Test
     public void shouldThrowSocketCommunicationExceptionForConnectException() {
         // given
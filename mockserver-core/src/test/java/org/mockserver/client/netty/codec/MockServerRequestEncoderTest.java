@@ -1,9 +1,12 @@
 package org.mockserver.client.netty.codec;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import com.google.common.net.MediaType;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockserver.mappers.ContentTypeMapper;
@@ -11,6 +14,7 @@ import org.mockserver.matchers.MatchType;
 import org.mockserver.model.*;
 import org.mockserver.model.Cookie;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -241,6 +245,32 @@ public class MockServerRequestEncoderTest {
         assertThat(fullHttpRequest.headers().get(CONTENT_TYPE), is(MediaType.create("text", "plain").toString()));
     }
 
+    @Test
+    public void shouldStreamSpilledBodyFromFile() throws Exception {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new ChunkedWriteHandler(), new MockServerRequestEncoder());
+        File tempFile = File.createTempFile("mockserver-request-", ".body");
+        Files.write("somebody", tempFile, Charsets.UTF_8);
+        TemporaryFileBody temporaryFileBody = new TemporaryFileBody(tempFile, null);
+        httpRequest.withBody(temporaryFileBody);
+
+        // when
+        channel.writeOutbound(httpRequest);
+
+        // then
+        io.netty.handler.codec.http.HttpRequest request = (io.netty.handler.codec.http.HttpRequest) channel.readOutbound();
+        assertThat(request instanceof FullHttpRequest, is(false));
+        assertThat(request.headers().get(CONTENT_LENGTH), is("8"));
+        StringBuilder body = new StringBuilder();
+        for (Object content = channel.readOutbound(); content != null; content = channel.readOutbound()) {
+            body.append(((HttpContent) content).content().toString(Charsets.UTF_8));
+            ((HttpContent) content).release();
+        }
+        assertThat(body.toString(), is("somebody"));
+        assertThat(channel.finish(), is(false));
+        temporaryFileBody.release();
+    }
+
     @Test
     public void shouldEncodeBinaryBody() {
         // given
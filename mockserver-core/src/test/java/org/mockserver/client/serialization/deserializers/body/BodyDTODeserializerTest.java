@@ -1099,4 +1099,50 @@ public class BodyDTODeserializerTest {
                 ), expectationDTO);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldParseJSONWithFileBody() throws IOException {
+        // given
+        String json = ("{" + System.getProperty("line.separator") +
+                "    \"httpResponse\": {" + System.getProperty("line.separator") +
+                "        \"body\" : {" + System.getProperty("line.separator") +
+                "            \"file\" : \"/some/file.bin\"" + System.getProperty("line.separator") +
+                "        }" + System.getProperty("line.separator") +
+                "    }" + System.getProperty("line.separator") +
+                "}");
+
+        // when
+        ExpectationDTO expectationDTO = ObjectMapperFactory.createObjectMapper().readValue(json, ExpectationDTO.class);
+
+        // then
+        assertEquals(new ExpectationDTO()
+                .setHttpResponse(
+                        new HttpResponseDTO()
+                                .setBody(new FileBodyDTO(new FileBody("/some/file.bin")))
+                ), expectationDTO);
+    }
+
+    @Test
+    public void shouldParseJSONWithGeneratedBody() throws IOException {
+        // given
+        String json = ("{" + System.getProperty("line.separator") +
+                "    \"httpResponse\": {" + System.getProperty("line.separator") +
+                "        \"body\" : {" + System.getProperty("line.separator") +
+                "            \"type\" : \"GENERATED\"," + System.getProperty("line.separator") +
+                "            \"length\" : 1048576," + System.getProperty("line.separator") +
+                "            \"value\" : \"some_pattern\"" + System.getProperty("line.separator") +
+                "        }" + System.getProperty("line.separator") +
+                "    }" + System.getProperty("line.separator") +
+                "}");
+
+        // when
+        ExpectationDTO expectationDTO = ObjectMapperFactory.createObjectMapper().readValue(json, ExpectationDTO.class);
+
+        // then
+        assertEquals(new ExpectationDTO()
+                .setHttpResponse(
+                        new HttpResponseDTO()
+                                .setBody(new GeneratedBodyDTO(new GeneratedBody(1048576, "some_pattern")))
+                ), expectationDTO);
+    }
+
+}
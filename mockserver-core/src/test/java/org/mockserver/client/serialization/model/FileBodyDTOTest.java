@@ -0,0 +1,38 @@
+package org.mockserver.client.serialization.model;
+
+import org.junit.Test;
+import org.mockserver.model.Body;
+import org.mockserver.model.FileBody;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author jamesdbloom
+ */
+public class FileBodyDTOTest {
+
+    @Test
+    public void shouldReturnValuesSetInConstructor() {
+        // when
+        FileBodyDTO fileBody = new FileBodyDTO(new FileBody("/some/file.bin"));
+
+        // then
+        assertThat(fileBody.getValue(), is("/some/file.bin"));
+        assertThat(fileBody.getType(), is(Body.Type.FILE));
+    }
+
+    @Test
+    public void shouldBuildCorrectObject() {
+        // when
+        FileBody fileBody = new FileBodyDTO(new FileBody("/some/file.bin")).buildObject();
+
+        // then
+        assertThat(fileBody, is(new FileBody("/some/file.bin")));
+    }
+
+    @Test
+    public void coverage() {
+        new FileBodyDTO();
+    }
+}
@@ -0,0 +1,39 @@
+package org.mockserver.client.serialization.model;
+
+import org.junit.Test;
+import org.mockserver.model.Body;
+import org.mockserver.model.GeneratedBody;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author jamesdbloom
+ */
+public class GeneratedBodyDTOTest {
+
+    @Test
+    public void shouldReturnValuesSetInConstructor() {
+        // when
+        GeneratedBodyDTO generatedBody = new GeneratedBodyDTO(new GeneratedBody(1024, "some_pattern"));
+
+        // then
+        assertThat(generatedBody.getValue(), is("some_pattern"));
+        assertThat(generatedBody.getLength(), is(1024L));
+        assertThat(generatedBody.getType(), is(Body.Type.GENERATED));
+    }
+
+    @Test
+    public void shouldBuildCorrectObject() {
+        // when
+        GeneratedBody generatedBody = new GeneratedBodyDTO(new GeneratedBody(1024, "some_pattern")).buildObject();
+
+        // then
+        assertThat(generatedBody, is(new GeneratedBody(1024, "some_pattern")));
+    }
+
+    @Test
+    public void coverage() {
+        new GeneratedBodyDTO();
+    }
+}
@@ -0,0 +1,188 @@
+package org.mockserver.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class ConcurrentCircularBufferTest {
+
+    @Test
+    public void shouldNotAllowAddingMoreThenMaximumNumberOfEntries() {
+        // given
+        ConcurrentCircularBuffer<String> concurrentCircularBuffer = new ConcurrentCircularBuffer<String>(3);
+
+        // when
+        concurrentCircularBuffer.add("1");
+        concurrentCircularBuffer.add("2");
+        concurrentCircularBuffer.add("3");
+        concurrentCircularBuffer.add("4");
+        concurrentCircularBuffer.add("5");
+
+        // then
+        assertEquals(3, concurrentCircularBuffer.maxSize());
+        assertEquals(Arrays.asList("3", "4", "5"), concurrentCircularBuffer.snapshot());
+    }
+
+    @Test
+    public void shouldNotChangeSnapshotWhenAddingEntries() {
+        // given
+        ConcurrentCircularBuffer<String> concurrentCircularBuffer = new ConcurrentCircularBuffer<String>(3);
+        concurrentCircularBuffer.add("1");
+
+        // when
+        List<String> snapshot = concurrentCircularBuffer.snapshot();
+        concurrentCircularBuffer.add("2");
+
+        // then
+        assertEquals(Arrays.asList("1"), snapshot);
+        assertEquals(Arrays.asList("1", "2"), concurrentCircularBuffer.snapshot());
+    }
+
+    @Test
+    public void shouldRemoveSameInstances() {
+        // given
+        ConcurrentCircularBuffer<String> concurrentCircularBuffer = new ConcurrentCircularBuffer<String>(3);
+        String first = new String("1");
+        String second = new String("1");
+        concurrentCircularBuffer.add(first);
+        concurrentCircularBuffer.add(second);
+        concurrentCircularBuffer.add("2");
+
+        // when
+        concurrentCircularBuffer.removeAll(Arrays.asList(second));
+
+        // then
+        List<String> snapshot = concurrentCircularBuffer.snapshot();
+        assertEquals(Arrays.asList("1", "2"), snapshot);
+        assertSame(first, snapshot.get(0));
+    }
+
+    @Test
+    public void shouldClearAllEntries() {
+        // given
+        ConcurrentCircularBuffer<String> concurrentCircularBuffer = new ConcurrentCircularBuffer<String>(3);
+        concurrentCircularBuffer.add("1");
+        concurrentCircularBuffer.add("2");
+        concurrentCircularBuffer.add("3");
+        concurrentCircularBuffer.add("4");
+
+        // when
+        concurrentCircularBuffer.clear();
+        concurrentCircularBuffer.add("5");
+
+        // then
+        assertEquals(Arrays.asList("5"), concurrentCircularBuffer.snapshot());
+    }
+
+    @Test
+    public void shouldKeepMostRecentEntriesWhenAddingConcurrently() throws InterruptedException {
+        // given
+        final ConcurrentCircularBuffer<Integer> concurrentCircularBuffer = new ConcurrentCircularBuffer<Integer>(100);
+        final int numberOfThreads = 10;
+        final int entriesPerThread = 1000;
+        final CountDownLatch finished = new CountDownLatch(numberOfThreads);
+
+        // when
+        for (int thread = 0; thread < numberOfThreads; thread++) {
+            final int offset = thread * entriesPerThread;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < entriesPerThread; i++) {
+                        concurrentCircularBuffer.add(offset + i);
+                    }
+                    finished.countDown();
+                }
+            }).start();
+        }
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+
+        // then
+        List<Integer> snapshot = concurrentCircularBuffer.snapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(100, new HashSet<Integer>(snapshot).size());
+    }
+
+    @Test
+    public void shouldReturnOverwrittenEntries() {
+        // given
+        ConcurrentCircularBuffer<String> concurrentCircularBuffer = new ConcurrentCircularBuffer<String>(2);
+
+        // then
+        assertNull(concurrentCircularBuffer.add("1"));
+        assertNull(concurrentCircularBuffer.add("2"));
+        assertEquals("1", concurrentCircularBuffer.add("3"));
+        assertEquals("2", concurrentCircularBuffer.add("4"));
+    }
+
+    @Test
+    public void shouldReturnEachRemovedEntryOnce() {
+        // given
+        ConcurrentCircularBuffer<String> concurrentCircularBuffer = new ConcurrentCircularBuffer<String>(3);
+        String first = new String("1");
+        String second = new String("2");
+        concurrentCircularBuffer.add(first);
+        concurrentCircularBuffer.add(second);
+        concurrentCircularBuffer.add("3");
+
+        // when
+        List<String> removed = concurrentCircularBuffer.removeAll(Arrays.asList(first, new String("3")));
+
+        // then
+        assertEquals(1, removed.size());
+        assertSame(first, removed.get(0));
+        assertEquals(0, concurrentCircularBuffer.removeAll(Arrays.asList(first)).size());
+        assertNull(concurrentCircularBuffer.add("4"));
+        assertEquals(Arrays.asList("2", "3", "4"), concurrentCircularBuffer.clear());
+        assertEquals(0, concurrentCircularBuffer.clear().size());
+    }
+
+    @Test
+    public void shouldReturnEachOverwrittenEntryOnceWhenAddingConcurrently() throws InterruptedException {
+        // given
+        final ConcurrentCircularBuffer<Integer> concurrentCircularBuffer = new ConcurrentCircularBuffer<Integer>(100);
+        final Set<Integer> overwritten = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final int numberOfThreads = 10;
+        final int entriesPerThread = 1000;
+        final CountDownLatch finished = new CountDownLatch(numberOfThreads);
+
+        // when
+        for (int thread = 0; thread < numberOfThreads; thread++) {
+            final int offset = thread * entriesPerThread;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < entriesPerThread; i++) {
+                        Integer evicted = concurrentCircularBuffer.add(offset + i);
+                        if (evicted != null) {
+                            assertTrue(overwritten.add(evicted));
+                        }
+                    }
+                    finished.countDown();
+                }
+            }).start();
+        }
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+
+        // then
+        List<Integer> remaining = concurrentCircularBuffer.clear();
+        assertEquals(numberOfThreads * entriesPerThread - 100, overwritten.size());
+        assertEquals(100, remaining.size());
+        for (Integer entry : remaining) {
+            assertFalse(overwritten.contains(entry));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowZeroMaxSize() {
+        new ConcurrentCircularBuffer<String>(0);
+    }
+}
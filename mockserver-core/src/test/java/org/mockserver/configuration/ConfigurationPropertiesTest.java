@@ -15,6 +15,8 @@ import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -232,6 +234,61 @@ public class ConfigurationPropertiesTest {
         assertEquals(false, ConfigurationProperties.rebuildKeyStore());
     }
 
+    @Test
+    public void shouldSetAndReadSslSessionCache() {
+        // given
+        System.clearProperty("mockserver.sslSessionCacheSize");
+        System.clearProperty("mockserver.sslSessionTimeout");
+
+        // when
+        assertEquals(20480, ConfigurationProperties.sslSessionCacheSize());
+        assertEquals(86400, ConfigurationProperties.sslSessionTimeout());
+        ConfigurationProperties.sslSessionCacheSize(100);
+        ConfigurationProperties.sslSessionTimeout(60);
+
+        // then
+        assertEquals(100, ConfigurationProperties.sslSessionCacheSize());
+        assertEquals(60, ConfigurationProperties.sslSessionTimeout());
+    }
+
+    @Test
+    public void shouldSetAndReadSslLeafCertificateSettings() {
+        // given
+        System.clearProperty("mockserver.sslLeafCertificateCacheSize");
+        System.clearProperty("mockserver.sslLeafCertificateKeyAlgorithm");
+
+        // when
+        assertEquals(1000, ConfigurationProperties.sslLeafCertificateCacheSize());
+        assertEquals("RSA", ConfigurationProperties.sslLeafCertificateKeyAlgorithm());
+        ConfigurationProperties.sslLeafCertificateCacheSize(10);
+        ConfigurationProperties.sslLeafCertificateKeyAlgorithm("EC");
+
+        // then
+        assertEquals(10, ConfigurationProperties.sslLeafCertificateCacheSize());
+        assertEquals("EC", ConfigurationProperties.sslLeafCertificateKeyAlgorithm());
+    }
+
+    @Test
+    public void shouldSetAndReadHostResolverSettings() {
+        // given
+        System.clearProperty("mockserver.hostResolverClass");
+        System.clearProperty("mockserver.hostResolverCacheTimeToLive");
+        System.clearProperty("mockserver.hostsFile");
+
+        // when
+        assertEquals("org.mockserver.socket.JdkHostResolver", ConfigurationProperties.hostResolverClass());
+        assertEquals(60000L, ConfigurationProperties.hostResolverCacheTimeToLive());
+        assertEquals("", ConfigurationProperties.hostsFile());
+        ConfigurationProperties.hostResolverClass("some.HostResolver");
+        ConfigurationProperties.hostResolverCacheTimeToLive(1000L);
+        ConfigurationProperties.hostsFile("/some/hosts");
+
+        // then
+        assertEquals("some.HostResolver", ConfigurationProperties.hostResolverClass());
+        assertEquals(1000L, ConfigurationProperties.hostResolverCacheTimeToLive());
+        assertEquals("/some/hosts", ConfigurationProperties.hostsFile());
+    }
+
     @Test
     public void shouldSetAndReadRebuildKeyStore() {
         // given
@@ -289,6 +346,159 @@ public class ConfigurationPropertiesTest {
         assertEquals(-1, ConfigurationProperties.proxyPort());
     }
 
+    @Test
+    public void shouldSetAndReadRegexCacheSize() {
+        // given
+        System.clearProperty("mockserver.regexCacheSize");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_REGEX_CACHE_SIZE, ConfigurationProperties.regexCacheSize());
+        ConfigurationProperties.regexCacheSize(500);
+
+        // then
+        assertEquals(500, ConfigurationProperties.regexCacheSize());
+    }
+
+    @Test
+    public void shouldHandleInvalidRegexCacheSize() {
+        // given
+        String regexCacheSizeBeforeTest = System.getProperty("mockserver.regexCacheSize");
+        System.setProperty("mockserver.regexCacheSize", "invalid");
+
+        try {
+            // then
+            assertEquals(ConfigurationProperties.DEFAULT_REGEX_CACHE_SIZE, ConfigurationProperties.regexCacheSize());
+        } finally {
+            if (regexCacheSizeBeforeTest != null) {
+                System.setProperty("mockserver.regexCacheSize", regexCacheSizeBeforeTest);
+            } else {
+                System.clearProperty("mockserver.regexCacheSize");
+            }
+        }
+    }
+
+    @Test
+    public void shouldSetAndReadMaxConnectionsPerDestination() {
+        // given
+        System.clearProperty("mockserver.maxConnectionsPerDestination");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_MAX_CONNECTIONS_PER_DESTINATION, ConfigurationProperties.maxConnectionsPerDestination());
+        ConfigurationProperties.maxConnectionsPerDestination(10);
+
+        // then
+        assertEquals(10, ConfigurationProperties.maxConnectionsPerDestination());
+    }
+
+    @Test
+    public void shouldHandleInvalidMaxConnectionsPerDestination() {
+        // given
+        System.setProperty("mockserver.maxConnectionsPerDestination", "invalid");
+
+        // then
+        assertEquals(ConfigurationProperties.DEFAULT_MAX_CONNECTIONS_PER_DESTINATION, ConfigurationProperties.maxConnectionsPerDestination());
+    }
+
+    @Test
+    public void shouldSetAndReadConnectionIdleTimeout() {
+        // given
+        System.clearProperty("mockserver.connectionIdleTimeout");
+
+        // when
+        assertEquals(TimeUnit.SECONDS.toMillis(ConfigurationProperties.DEFAULT_CONNECTION_IDLE_TIMEOUT), ConfigurationProperties.connectionIdleTimeout());
+        ConfigurationProperties.connectionIdleTimeout(10L);
+
+        // then
+        assertEquals(10L, ConfigurationProperties.connectionIdleTimeout());
+    }
+
+    @Test
+    public void shouldHandleInvalidConnectionIdleTimeout() {
+        // given
+        System.setProperty("mockserver.connectionIdleTimeout", "invalid");
+
+        // then
+        assertEquals(TimeUnit.SECONDS.toMillis(ConfigurationProperties.DEFAULT_CONNECTION_IDLE_TIMEOUT), ConfigurationProperties.connectionIdleTimeout());
+    }
+
+    @Test
+    public void shouldSetAndReadEventLoopConfiguration() {
+        // given
+        System.clearProperty("mockserver.nativeTransport");
+        System.clearProperty("mockserver.bossThreadCount");
+        System.clearProperty("mockserver.workerThreadCount");
+        System.clearProperty("mockserver.acceptorCount");
+
+        // when
+        assertEquals(false, ConfigurationProperties.nativeTransport());
+        assertEquals(0, ConfigurationProperties.bossThreadCount());
+        assertEquals(0, ConfigurationProperties.workerThreadCount());
+        assertEquals(1, ConfigurationProperties.acceptorCount());
+        ConfigurationProperties.nativeTransport(true);
+        ConfigurationProperties.bossThreadCount(4);
+        ConfigurationProperties.workerThreadCount(32);
+        ConfigurationProperties.acceptorCount(4);
+
+        // then
+        assertEquals(true, ConfigurationProperties.nativeTransport());
+        assertEquals(4, ConfigurationProperties.bossThreadCount());
+        assertEquals(32, ConfigurationProperties.workerThreadCount());
+        assertEquals(4, ConfigurationProperties.acceptorCount());
+    }
+
+    @Test
+    public void shouldSetAndReadMaxContentLength() {
+        // given
+        System.clearProperty("mockserver.maxContentLength");
+        System.clearProperty("mockserver.maxInMemoryContentLength");
+
+        // when
+        assertEquals(Integer.MAX_VALUE, ConfigurationProperties.maxContentLength());
+        assertEquals(Integer.MAX_VALUE, ConfigurationProperties.maxInMemoryContentLength());
+        ConfigurationProperties.maxContentLength(1024L * 1024 * 1024 * 10);
+        ConfigurationProperties.maxInMemoryContentLength(1024 * 1024);
+
+        // then
+        assertEquals(1024L * 1024 * 1024 * 10, ConfigurationProperties.maxContentLength());
+        assertEquals(1024 * 1024, ConfigurationProperties.maxInMemoryContentLength());
+    }
+
+    @Test
+    public void shouldSetAndReadRequestLogSize() {
+        // given
+        System.clearProperty("mockserver.requestLogSize");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_REQUEST_LOG_SIZE, ConfigurationProperties.requestLogSize());
+        ConfigurationProperties.requestLogSize(10);
+
+        // then
+        assertEquals(10, ConfigurationProperties.requestLogSize());
+    }
+
+    @Test
+    public void shouldHandleInvalidRequestLogSize() {
+        // given
+        System.setProperty("mockserver.requestLogSize", "invalid");
+
+        // then
+        assertEquals(ConfigurationProperties.DEFAULT_REQUEST_LOG_SIZE, ConfigurationProperties.requestLogSize());
+    }
+
+    @Test
+    public void shouldSetAndReadRequestLogIndexedHeaders() {
+        // given
+        System.clearProperty("mockserver.requestLogIndexedHeaders");
+
+        // when
+        assertThat(Arrays.asList(ConfigurationProperties.requestLogIndexedHeaders()), empty());
+        ConfigurationProperties.requestLogIndexedHeaders("X-Request-Id", "Authorization");
+
+        // then
+        assertThat(Arrays.asList(ConfigurationProperties.requestLogIndexedHeaders()), contains("X-Request-Id", "Authorization"));
+        assertEquals("X-Request-Id,Authorization", System.getProperty("mockserver.requestLogIndexedHeaders"));
+    }
+
     @Test
     public void shouldThrowIllegalArgumentExceptionForInvalidLogLevel() {
         exception.expect(IllegalArgumentException.class);
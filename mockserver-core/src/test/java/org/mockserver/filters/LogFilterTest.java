@@ -1,5 +1,8 @@
 package org.mockserver.filters;
 
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
 import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
@@ -8,6 +11,7 @@ import org.mockserver.model.Cookie;
 import org.mockserver.model.Header;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.StringBody;
 
 import java.util.Arrays;
 import java.util.List;
@@ -77,6 +81,24 @@ public class LogFilterTest {
         assertEquals(logFilter.httpRequests(request("some_other_path")), Arrays.asList(request("some_other_path")));
     }
 
+    @Test
+    public void shouldOnlyRecordConfiguredNumberOfRequests() {
+        // given
+        LogFilter logFilter = new LogFilter(2);
+
+        // when
+        logFilter.onRequest(request("some_path"));
+        logFilter.onRequest(request("some_other_path"));
+        logFilter.onRequest(request("some_path"));
+        logFilter.onResponse(request("some_path"), response("body_one"));
+        logFilter.onResponse(request("some_other_path"), response("body_two"));
+        logFilter.onResponse(request("some_path"), response("body_three"));
+
+        // then
+        assertEquals(logFilter.httpRequests(request()), Arrays.asList(request("some_other_path"), request("some_path")));
+        assertEquals(logFilter.httpResponses(request()), Arrays.asList(response("body_two"), response("body_three")));
+    }
+
     @Test
     public void shouldRecordResponses() {
         // given
@@ -232,4 +254,56 @@ public class LogFilterTest {
         assertEquals(logFilter.httpResponses(request("some_path")), EMPTY_RESPONSE_LIST);
         assertEquals(logFilter.httpResponses(request("some_other_path")), Arrays.asList(response("some_other_body")));
     }
+
+    @Test
+    public void shouldReleaseReferenceCountedBodiesOnceNoLongerLogged() {
+        // given
+        LogFilter logFilter = new LogFilter(2);
+        ByteBuf[] contents = new ByteBuf[3];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = Unpooled.copiedBuffer("body_" + i, Charsets.ISO_8859_1);
+            HttpRequest httpRequest = request("/path_" + i).withBody(new StringBody(contents[i], null));
+            logFilter.onRequest(httpRequest);
+            logFilter.onResponse(httpRequest, response("response_" + i));
+            // released by the handler once the response has been written
+            httpRequest.release();
+        }
+
+        // then - oldest request is evicted from both logs
+        assertEquals(0, contents[0].refCnt());
+        assertEquals(2, contents[1].refCnt());
+        assertEquals(2, contents[2].refCnt());
+
+        // when
+        logFilter.clear(request("/path_1"));
+
+        // then
+        assertEquals(0, contents[1].refCnt());
+        assertEquals(2, contents[2].refCnt());
+
+        // when
+        logFilter.reset();
+
+        // then
+        assertEquals(0, contents[2].refCnt());
+    }
+
+    @Test
+    public void shouldRetrieveCopyOfReferenceCountedBodies() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        ByteBuf content = Unpooled.copiedBuffer("some_body", Charsets.ISO_8859_1);
+        HttpRequest httpRequest = request("/some_path").withBody(new StringBody(content, null));
+        logFilter.onResponse(httpRequest, response("some_response"));
+        httpRequest.release();
+
+        // when
+        Expectation[] expectations = logFilter.retrieve(request("/some_path"));
+        logFilter.reset();
+
+        // then
+        assertEquals(0, content.refCnt());
+        assertEquals(1, expectations.length);
+        assertEquals(request("/some_path").withBody("some_body"), expectations[0].getHttpRequest());
+    }
 }
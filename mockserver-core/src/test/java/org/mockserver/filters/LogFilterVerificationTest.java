@@ -155,6 +155,38 @@ public class LogFilterVerificationTest {
                 is(""));
     }
 
+    @Test
+    public void shouldPassVerificationUsingIndexedHeaders() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withPath("some_path").withHeader("X-Request-Id", "some_id");
+        HttpRequest requestWithoutHeader = new HttpRequest().withPath("some_path");
+        HttpRequest regexHttpRequest = new HttpRequest().withPath("some_.*").withHeader("x-request-id", "some_id");
+        LogFilter logFilter = new LogFilter(10, "X-Request-Id");
+
+        // when
+        logFilter.onRequest(httpRequest);
+        logFilter.onRequest(requestWithoutHeader);
+        logFilter.onRequest(regexHttpRequest);
+
+        // then
+        assertThat(logFilter.verify(
+                        new Verification()
+                                .withRequest(
+                                        new HttpRequest().withPath("some_path").withHeader("X-Request-Id", "some_id")
+                                )
+                                .withTimes(exactly(2))
+                ),
+                is(""));
+        assertThat(logFilter.verify(
+                        new Verification()
+                                .withRequest(
+                                        new HttpRequest().withPath("some_path")
+                                )
+                                .withTimes(exactly(3))
+                ),
+                is(""));
+    }
+
     @Test
     public void shouldFailVerificationWithNullRequest() {
         // given
@@ -0,0 +1,178 @@
+package org.mockserver.filters;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.collections.ConcurrentCircularBuffer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.Not;
+import org.mockserver.model.NottableString;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class RequestLogIndexTest {
+
+    private ConcurrentCircularBuffer<HttpRequest> requestLog;
+    private RequestLogIndex<HttpRequest> requestLogIndex;
+
+    @Before
+    public void createIndex() {
+        requestLog = new ConcurrentCircularBuffer<HttpRequest>(10);
+        requestLogIndex = new RequestLogIndex<HttpRequest>(requestLog, "X-Request-Id") {
+            @Override
+            HttpRequest httpRequest(HttpRequest httpRequest) {
+                return httpRequest;
+            }
+        };
+    }
+
+    @Test
+    public void shouldReturnOnlyRequestsWithSameLiteralPath() {
+        // given
+        HttpRequest somePath = request().withMethod("GET").withPath("/somePath");
+        HttpRequest someOtherPath = request().withMethod("GET").withPath("/someOtherPath");
+        requestLog.add(somePath);
+        requestLog.add(someOtherPath);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(somePath)));
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/unknownPath")), empty());
+    }
+
+    @Test
+    public void shouldReturnOnlyRequestsWithSameLiteralMethod() {
+        // given
+        HttpRequest get = request().withMethod("GET").withPath("/somePath");
+        HttpRequest post = request().withMethod("POST").withPath("/somePath");
+        requestLog.add(get);
+        requestLog.add(post);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withMethod("POST")), is(Arrays.asList(post)));
+    }
+
+    @Test
+    public void shouldReturnOnlyRequestsWithIndexedHeader() {
+        // given
+        HttpRequest withHeader = request().withPath("/somePath").withHeader("x-request-id", "some_id");
+        HttpRequest withoutHeader = request().withPath("/somePath").withHeader("X-Other", "some_value");
+        requestLog.add(withHeader);
+        requestLog.add(withoutHeader);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath").withHeader("X-Request-Id", "some_id")), is(Arrays.asList(withHeader)));
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath").withHeader("X-Other", "some_value")), is(Arrays.asList(withHeader, withoutHeader)));
+    }
+
+    @Test
+    public void shouldAlwaysReturnUnindexedRequests() {
+        // given
+        HttpRequest somePath = request().withMethod("GET").withPath("/somePath");
+        HttpRequest regexPath = request().withMethod("GET").withPath("/some.*");
+        HttpRequest notPath = request().withMethod("GET").withPath(NottableString.not("/somePath"));
+        HttpRequest notRequest = Not.not(request().withPath("/someOtherPath"));
+        requestLog.add(somePath);
+        requestLog.add(regexPath);
+        requestLog.add(notPath);
+        requestLog.add(notRequest);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/unknownPath")), is(Arrays.asList(regexPath, notPath, notRequest)));
+    }
+
+    @Test
+    public void shouldNotNarrowRegexOrNotQueries() {
+        // given
+        HttpRequest somePath = request().withMethod("GET").withPath("/somePath");
+        HttpRequest someOtherPath = request().withMethod("POST").withPath("/someOtherPath");
+        requestLog.add(somePath);
+        requestLog.add(someOtherPath);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/some.*")), is(Arrays.asList(somePath, someOtherPath)));
+        assertThat(requestLogIndex.candidatesFor(request().withPath(NottableString.not("/somePath"))), is(Arrays.asList(somePath, someOtherPath)));
+        assertThat(requestLogIndex.candidatesFor(Not.not(request().withPath("/somePath"))), is(Arrays.asList(somePath, someOtherPath)));
+        assertThat(requestLogIndex.candidatesFor(request()), is(Arrays.asList(somePath, someOtherPath)));
+        assertThat(requestLogIndex.candidatesFor(null), is(Arrays.asList(somePath, someOtherPath)));
+    }
+
+    @Test
+    public void shouldReturnCandidatesInLoggedOrder() {
+        // given
+        HttpRequest first = request().withPath("/somePath");
+        HttpRequest second = request().withPath("/.*");
+        HttpRequest third = request().withPath("/somePath");
+        HttpRequest fourth = request().withPath("/some.*");
+        requestLog.add(first);
+        requestLog.add(second);
+        requestLog.add(third);
+        requestLog.add(fourth);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(first, second, third, fourth)));
+    }
+
+    @Test
+    public void shouldIncludeRequestsLoggedAfterPreviousQuery() {
+        // given
+        HttpRequest first = request().withPath("/somePath");
+        HttpRequest second = request().withPath("/somePath");
+        requestLog.add(first);
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(first)));
+
+        // when
+        requestLog.add(second);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(first, second)));
+    }
+
+    @Test
+    public void shouldExcludeRemovedAndOverwrittenRequests() {
+        // given
+        HttpRequest first = request().withPath("/somePath");
+        HttpRequest second = request().withPath("/somePath");
+        requestLog.add(first);
+        requestLog.add(second);
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(first, second)));
+
+        // when
+        requestLog.removeAll(Collections.singletonList(first));
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(second)));
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            requestLog.add(request().withPath("/someOtherPath"));
+        }
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), empty());
+    }
+
+    @Test
+    public void shouldExcludeClearedRequests() {
+        // given
+        HttpRequest first = request().withPath("/somePath");
+        HttpRequest second = request().withPath("/somePath");
+        requestLog.add(first);
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(first)));
+
+        // when
+        requestLog.clear();
+        requestLogIndex.clear();
+        requestLog.add(second);
+
+        // then
+        assertThat(requestLogIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(second)));
+    }
+}
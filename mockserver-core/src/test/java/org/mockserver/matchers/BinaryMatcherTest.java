@@ -2,8 +2,7 @@ package org.mockserver.matchers;
 
 import org.junit.Test;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 import static org.mockserver.matchers.NotMatcher.not;
 
 /**
@@ -70,4 +69,26 @@ public class BinaryMatcherTest {
     public void shouldMatchEmptyTest() {
         assertTrue(not(new BinaryMatcher("some_value".getBytes())).matches("".getBytes()));
     }
+
+    @Test
+    public void shouldBeEqualForSameMatcher() {
+        assertEquals(new BinaryMatcher("some_value".getBytes()), new BinaryMatcher("some_value".getBytes()));
+        assertEquals(new BinaryMatcher("some_value".getBytes()).hashCode(), new BinaryMatcher("some_value".getBytes()).hashCode());
+        assertNotEquals(new BinaryMatcher("some_value".getBytes()), new BinaryMatcher("some_other_value".getBytes()));
+        assertNotEquals(new BinaryMatcher("some_value".getBytes()), not(new BinaryMatcher("some_value".getBytes())));
+    }
+
+    @Test
+    public void shouldNotBeChangedByModifyingMatcherArray() {
+        // given
+        byte[] matcher = "some_value".getBytes();
+        BinaryMatcher binaryMatcher = new BinaryMatcher(matcher);
+
+        // when
+        matcher[0] = 'S';
+
+        // then
+        assertTrue(binaryMatcher.matches("some_value".getBytes()));
+        assertEquals(new BinaryMatcher("some_value".getBytes()), binaryMatcher);
+    }
 }
@@ -1,14 +1,20 @@
 package org.mockserver.matchers;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import org.junit.Test;
 import org.mockserver.model.*;
 
+import java.io.File;
+import java.io.IOException;
+
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockserver.matchers.NotMatcher.not;
 import static org.mockserver.model.BinaryBody.binary;
+import static org.mockserver.model.FileBody.file;
+import static org.mockserver.model.GeneratedBody.generated;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.JsonBody.json;
 import static org.mockserver.model.JsonSchemaBody.jsonSchema;
@@ -419,6 +425,22 @@ public class HttpRequestMatcherTest {
         assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(binary("some binary value".getBytes()))).matches(new HttpRequest().withBody(binary(matched))));
     }
 
+    @Test
+    public void doesNotCheckBodyMatcherAgainstSpilledBody() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver-request-", ".body");
+        Files.write("some value", tempFile, Charsets.UTF_8);
+        TemporaryFileBody temporaryFileBody = new TemporaryFileBody(tempFile, null);
+
+        try {
+            // then
+            assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(exact("some value"))).matches(new HttpRequest().withBody(temporaryFileBody)));
+            assertTrue(new HttpRequestMatcher(new HttpRequest().withPath("/some_path")).matches(new HttpRequest().withPath("/some_path").withBody(temporaryFileBody)));
+        } finally {
+            temporaryFileBody.release();
+        }
+    }
+
     @Test
     public void doesNotMatchIncorrectBinaryBody() {
         byte[] matched = "some other binary value".getBytes();
@@ -505,4 +527,30 @@ public class HttpRequestMatcherTest {
                 ).toString()
         );
     }
+
+    @Test
+    public void matchesRequestAgainstDifferentBodyMatchersWithSharedParsedBody() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withBody("{ \"name\": \"value\" }");
+        ParsedBody parsedBody = new ParsedBody(httpRequest);
+
+        // then
+        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(xpath("/element"))).matches(httpRequest, parsedBody, false));
+        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(params(param("name", "value")))).matches(httpRequest, parsedBody, false));
+        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(jsonSchema("{ \"type\": \"object\", \"required\": [ \"name\" ] }"))).matches(httpRequest, parsedBody, false));
+        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(jsonSchema("{ \"type\": \"array\" }"))).matches(httpRequest, parsedBody, false));
+        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(json("{ \"name\": \"value\" }"))).matches(httpRequest, parsedBody, false));
+        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(regex("\\{.*\\}"))).matches(httpRequest, parsedBody, false));
+        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(binary("{ \"name\": \"value\" }".getBytes(Charsets.UTF_8)))).matches(httpRequest, parsedBody, false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFileBodyInRequestMatcher() {
+        new HttpRequestMatcher(new HttpRequest().withBody(file("/etc/passwd")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectGeneratedBodyInRequestMatcher() {
+        new HttpRequestMatcher(new HttpRequest().withBody(generated(1024)));
+    }
 }
@@ -582,4 +582,40 @@ public class JsonSchemaMatcherTest {
     public void showHaveCorrectEqualsBehaviour() {
         assertEquals(new JsonSchemaMatcher("some_value"), new JsonSchemaMatcher("some_value"));
     }
+
+
+    @Test
+    public void shouldMatchSameBodyAgainstSeveralSchemas() {
+        // given
+        JsonSchemaMatcher objectSchemaMatcher = new JsonSchemaMatcher(JSON_SCHEMA);
+        JsonSchemaMatcher arraySchemaMatcher = new JsonSchemaMatcher("{ \"type\": \"array\" }");
+        String body = "{arrayField: [ \"one\" ], enumField: \"one\"}";
+
+        // then
+        assertTrue(objectSchemaMatcher.matches(body));
+        assertFalse(arraySchemaMatcher.matches(new String(body)));
+        assertTrue(objectSchemaMatcher.matches(new String(body)));
+
+        // and
+        assertTrue(arraySchemaMatcher.matches("[ \"one\" ]"));
+        assertFalse(objectSchemaMatcher.matches("[ \"one\" ]"));
+        assertTrue(objectSchemaMatcher.matches(body));
+    }
+
+    @Test
+    public void shouldNotMatchSameIllegalBodyAgainstSeveralSchemas() {
+        // given
+        JsonSchemaMatcher objectSchemaMatcher = new JsonSchemaMatcher(JSON_SCHEMA);
+        objectSchemaMatcher.logger = logger;
+        JsonSchemaMatcher arraySchemaMatcher = new JsonSchemaMatcher("{ \"type\": \"array\" }");
+        arraySchemaMatcher.logger = logger;
+
+        // then
+        assertFalse(objectSchemaMatcher.matches("illegal_json"));
+        assertFalse(arraySchemaMatcher.matches("illegal_json"));
+
+        // and
+        verify(logger).trace("Failed to perform JSON match \"{}\" with \"{}\" because {}", "illegal_json", "{ \"type\": \"array\" }", "Unrecognized token 'illegal_json': was expecting ('true', 'false' or 'null')\n" +
+                " at [Source: illegal_json; line: 1, column: 25]");
+    }
 }
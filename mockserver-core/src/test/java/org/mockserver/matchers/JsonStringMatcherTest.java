@@ -1,6 +1,8 @@
 package org.mockserver.matchers;
 
 import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
 
 import static org.junit.Assert.*;
 import static org.mockserver.matchers.NotMatcher.not;
@@ -577,4 +579,78 @@ public class JsonStringMatcherTest {
     public void showHaveCorrectEqualsBehaviour() {
         assertEquals(new JsonStringMatcher("some_value", MatchType.ONLY_MATCHING_FIELDS), new JsonStringMatcher("some_value", MatchType.ONLY_MATCHING_FIELDS));
     }
+
+
+    @Test
+    public void shouldMatchNumbersWithDifferentRepresentation() {
+        assertTrue(new JsonStringMatcher("{id:1,price:10.50}", MatchType.STRICT).matches("{\"id\":1.0,\"price\":10.5}"));
+        assertFalse(new JsonStringMatcher("{id:1}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":2}"));
+    }
+
+    @Test
+    public void shouldNotMatchDifferentValueTypes() {
+        assertFalse(new JsonStringMatcher("{id:1}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":\"1\"}"));
+        assertFalse(new JsonStringMatcher("{id:true}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":\"true\"}"));
+        assertFalse(new JsonStringMatcher("{id:null}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":{}}"));
+        assertFalse(new JsonStringMatcher("{id:{}}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":[]}"));
+        assertTrue(new JsonStringMatcher("{id:null}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":null}"));
+    }
+
+    @Test
+    public void shouldNotMatchArrayWithDifferentLength() {
+        assertFalse(new JsonStringMatcher("{pets:[\"dog\",\"cat\"]}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"pets\":[\"dog\",\"cat\",\"fish\"]}"));
+        assertFalse(new JsonStringMatcher("{pets:[\"dog\",\"cat\",\"fish\"]}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"pets\":[\"dog\",\"cat\"]}"));
+    }
+
+    @Test
+    public void shouldMatchArrayOfObjectsInAnyOrder() {
+        // given - the first expected element matches both actual elements
+        String matched = "{\"items\":[{\"id\":1,\"name\":\"one\"},{\"id\":1}]}";
+
+        // then
+        assertTrue(new JsonStringMatcher("{items:[{id:1},{id:1,name:\"one\"}]}", MatchType.ONLY_MATCHING_FIELDS).matches(matched));
+        assertFalse(new JsonStringMatcher("{items:[{id:1},{id:1,name:\"one\"}]}", MatchType.STRICT).matches(matched));
+        assertFalse(new JsonStringMatcher("{items:[{id:1,name:\"one\"},{id:1,name:\"one\"}]}", MatchType.ONLY_MATCHING_FIELDS).matches(matched));
+    }
+
+    @Test
+    public void shouldMatchTopLevelArray() {
+        assertTrue(new JsonStringMatcher("[1,2,3]", MatchType.ONLY_MATCHING_FIELDS).matches("[3,2,1]"));
+        assertFalse(new JsonStringMatcher("[1,2,3]", MatchType.STRICT).matches("[3,2,1]"));
+        assertFalse(new JsonStringMatcher("[1,2,3]", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":1}"));
+    }
+
+    @Test
+    public void shouldNotMatchInvalidJson() {
+        assertFalse(new JsonStringMatcher("{id:1}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":1"));
+        assertFalse(new JsonStringMatcher("{id:1}", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":1,\"id\":1}"));
+        assertFalse(new JsonStringMatcher("[1]", MatchType.ONLY_MATCHING_FIELDS).matches("[1"));
+        assertFalse(new JsonStringMatcher("{id:1}", MatchType.ONLY_MATCHING_FIELDS).matches("id=1"));
+        assertFalse(new JsonStringMatcher("{id:1", MatchType.ONLY_MATCHING_FIELDS).matches("{\"id\":1}"));
+    }
+
+    @Test
+    public void shouldMatchSameAsJsonAssert() throws Exception {
+        String[][] expectedAndMatched = new String[][]{
+                {"{id:1}", "{\"id\":1,\"name\":\"some_name\"}"},
+                {"{id:1,name:\"some_name\"}", "{\"name\":\"some_name\",\"id\":1}"},
+                {"{id:1,tags:[\"a\",\"b\"]}", "{\"id\":1,\"tags\":[\"b\",\"a\"]}"},
+                {"{id:1,tags:[\"a\",\"b\"]}", "{\"id\":1,\"tags\":[\"a\",\"b\",\"c\"]}"},
+                {"{a:{b:{c:[1,{d:2}]}}}", "{\"a\":{\"b\":{\"c\":[{\"d\":2,\"e\":3},1]}}}"},
+                {"{a:{b:{c:[1,{d:2}]}}}", "{\"a\":{\"b\":{\"c\":[1,{\"d\":3}]}}}"},
+                {"[{id:1},{id:2}]", "[{\"id\":2},{\"id\":1}]"},
+                {"[[1,2],[3,4]]", "[[4,3],[2,1]]"},
+                {"{id:\"1\"}", "{\"id\":1}"},
+                {"{empty:{}}", "{\"empty\":{\"extra\":true}}"},
+                {"{empty:[]}", "{\"empty\":[]}"}
+        };
+
+        for (String[] pair : expectedAndMatched) {
+            for (MatchType matchType : MatchType.values()) {
+                JSONCompareMode jsonCompareMode = matchType == MatchType.STRICT ? JSONCompareMode.STRICT : JSONCompareMode.LENIENT;
+                boolean jsonAssertResult = JSONCompare.compareJSON(pair[0], pair[1], jsonCompareMode).passed();
+                assertEquals(pair[0] + " " + matchType + " " + pair[1], jsonAssertResult, new JsonStringMatcher(pair[0], matchType).matches(pair[1]));
+            }
+        }
+    }
 }
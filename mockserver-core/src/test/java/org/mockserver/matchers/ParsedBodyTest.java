@@ -0,0 +1,111 @@
+package org.mockserver.matchers;
+
+import com.google.common.base.Charsets;
+import org.junit.Test;
+import org.mockserver.model.KeyToMultiValue;
+import org.mockserver.model.Parameter;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class ParsedBodyTest {
+
+    @Test
+    public void shouldDecodeBodyWithCharset() {
+        // given
+        ParsedBody parsedBody = new ParsedBody(request().withBody("some_bódy", Charsets.UTF_16));
+
+        // then
+        assertThat(parsedBody.string(), is("some_bódy"));
+        assertThat(Arrays.equals(parsedBody.rawBytes(), "some_bódy".getBytes(Charsets.UTF_16)), is(true));
+    }
+
+    @Test
+    public void shouldHandleRequestWithoutBody() {
+        // given
+        ParsedBody parsedBody = new ParsedBody(request());
+
+        // then
+        assertThat(parsedBody.string(), is(""));
+        assertThat(parsedBody.rawBytes().length, is(0));
+        assertThat(parsedBody.parameters().size(), is(0));
+    }
+
+    @Test
+    public void shouldOnlyDecodeAndParseEachViewOnce() throws Exception {
+        // given
+        ParsedBody parsedBody = new ParsedBody(request().withBody("{ \"key\": \"value\" }"));
+
+        // then
+        assertThat(parsedBody.rawBytes(), sameInstance(parsedBody.rawBytes()));
+        assertThat(parsedBody.string(), sameInstance(parsedBody.string()));
+        assertThat(parsedBody.parameters(), sameInstance(parsedBody.parameters()));
+        assertThat(parsedBody.jsonTree(), sameInstance(parsedBody.jsonTree()));
+        assertThat(parsedBody.jsonTree().get("key").asText(), is("value"));
+    }
+
+    @Test
+    public void shouldDecodeParameters() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("parameterOneName=parameterOneValueOne&parameterOneName=parameterOneValueTwo&parameterTwoName=parameterTwoValue");
+
+        // then
+        assertThat(new MultiValueMapMatcher(KeyToMultiValue.toMultiMap(
+                new Parameter("parameterOneName", "parameterOneValueOne", "parameterOneValueTwo"),
+                new Parameter("parameterTwoName", "parameterTwoValue")
+        )).matches(parsedBody.parameters()), is(true));
+    }
+
+    @Test
+    public void shouldParseDocumentOnce() throws Exception {
+        // given
+        ParsedBody parsedBody = new ParsedBody("<element><key>some_key</key></element>");
+
+        // then
+        assertThat(parsedBody.document(), sameInstance(parsedBody.document()));
+        assertThat(parsedBody.document().getDocumentElement().getTagName(), is("element"));
+    }
+
+    @Test
+    public void shouldOnlyStreamBodyForFirstXPath() throws Exception {
+        // given
+        ParsedBody parsedBody = new ParsedBody("<element><key>some_key</key></element>");
+
+        // then
+        assertThat(parsedBody.streamedXPath(StreamingXPath.compile("/element/key")), is(true));
+        assertThat(parsedBody.streamedXPath(StreamingXPath.compile("/element/value")), nullValue());
+    }
+
+    @Test
+    public void shouldRethrowSameParseFailure() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("not json or xml");
+
+        // then
+        assertThat(parseFailure(parsedBody, true), sameInstance(parseFailure(parsedBody, true)));
+        assertThat(parseFailure(parsedBody, false), sameInstance(parseFailure(parsedBody, false)));
+    }
+
+    private Exception parseFailure(ParsedBody parsedBody, boolean json) {
+        try {
+            if (json) {
+                parsedBody.jsonTree();
+            } else {
+                parsedBody.document();
+            }
+        } catch (Exception e) {
+            return e;
+        }
+        fail("expected parse failure");
+        return null;
+    }
+}
@@ -3,8 +3,7 @@ package org.mockserver.matchers;
 import org.junit.Test;
 import org.mockserver.model.NottableString;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 import static org.mockserver.matchers.NotMatcher.not;
 import static org.mockserver.model.NottableString.string;
 
@@ -119,4 +118,36 @@ public class RegexStringMatcherTest {
     public void shouldHandleIllegalRegexPatternForTest() {
         assertFalse(new RegexStringMatcher("some_value").matches("/{}"));
     }
+
+    @Test
+    public void shouldDetectLiteralValues() {
+        assertTrue(RegexStringMatcher.isLiteral("/some_path/some-value"));
+        assertTrue(RegexStringMatcher.isLiteral(""));
+        assertTrue(RegexStringMatcher.isLiteral(null));
+        assertFalse(RegexStringMatcher.isLiteral("/some.*"));
+        assertFalse(RegexStringMatcher.isLiteral("[a-z]"));
+        assertFalse(RegexStringMatcher.isLiteral("/{}"));
+        assertFalse(RegexStringMatcher.isLiteral("some\\d"));
+    }
+
+    @Test
+    public void shouldCacheCompiledPatterns() {
+        assertSame(RegexStringMatcher.compile("some_[a-z]*"), RegexStringMatcher.compile("some_[a-z]*"));
+        assertNull(RegexStringMatcher.compile("/{}"));
+    }
+
+    @Test
+    public void shouldMatchRegexInEitherDirectionIgnoringCase() {
+        assertTrue(RegexStringMatcher.matches("SOME_[A-Z]*", "some_value", true));
+        assertTrue(RegexStringMatcher.matches("some_value", "SOME_[A-Z]*", true));
+        assertFalse(RegexStringMatcher.matches("SOME_[A-Z]*", "some_value", false));
+    }
+
+    @Test
+    public void shouldBeEqualForSameMatcher() {
+        assertEquals(new RegexStringMatcher("some_value.*"), new RegexStringMatcher("some_value.*"));
+        assertEquals(new RegexStringMatcher("some_value.*").hashCode(), new RegexStringMatcher("some_value.*").hashCode());
+        assertNotEquals(new RegexStringMatcher("some_value.*"), new RegexStringMatcher("some_other_value.*"));
+        assertNotEquals(new RegexStringMatcher("some_value.*"), not(new RegexStringMatcher("some_value.*")));
+    }
 }
@@ -0,0 +1,83 @@
+package org.mockserver.matchers;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+
+/**
+ * @author jamesdbloom
+ */
+public class StreamingXPathTest {
+
+    @Test
+    public void shouldCompileSimpleExpressions() {
+        assertThat(StreamingXPath.compile("/element/key"), notNullValue());
+        assertThat(StreamingXPath.compile("//key"), notNullValue());
+        assertThat(StreamingXPath.compile("/*/key"), notNullValue());
+        assertThat(StreamingXPath.compile("/element[@id]"), notNullValue());
+        assertThat(StreamingXPath.compile("/element[@id='1']/key"), notNullValue());
+        assertThat(StreamingXPath.compile("/element[key = 'some_key' and value = \"some_value\"]"), notNullValue());
+        assertThat(StreamingXPath.compile("/element/key[text()='some_key']"), notNullValue());
+    }
+
+    @Test
+    public void shouldNotCompileOtherExpressions() {
+        assertThat(StreamingXPath.compile(null), nullValue());
+        assertThat(StreamingXPath.compile("element/key"), nullValue());
+        assertThat(StreamingXPath.compile("/element//key"), nullValue());
+        assertThat(StreamingXPath.compile("/element[key]/value"), nullValue());
+        assertThat(StreamingXPath.compile("/element[key = 1]"), nullValue());
+        assertThat(StreamingXPath.compile("/element[key or value]"), nullValue());
+        assertThat(StreamingXPath.compile("/element[. = 'some_value']"), nullValue());
+        assertThat(StreamingXPath.compile("/element[@xmlns = 'urn:some']"), nullValue());
+        assertThat(StreamingXPath.compile("/soap:Envelope"), nullValue());
+        assertThat(StreamingXPath.compile("count(/element/key) = 1"), nullValue());
+        assertThat(StreamingXPath.compile("/element[key = 'some_key'"), nullValue());
+    }
+
+    @Test
+    public void shouldMatchChildPath() {
+        String matched = "<element id=\"1\"><key>some_key</key><value>some_value</value></element>";
+
+        assertThat(StreamingXPath.compile("/element/key").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/element/other").matches(matched), is(false));
+        assertThat(StreamingXPath.compile("/key").matches(matched), is(false));
+        assertThat(StreamingXPath.compile("//key").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/*/value").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/element[@id='1']/key").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/element[@id='2']/key").matches(matched), is(false));
+        assertThat(StreamingXPath.compile("/element[@name]").matches(matched), is(false));
+    }
+
+    @Test
+    public void shouldMatchChildAndTextConditions() {
+        String matched = "<element><key>some_<b>key</b></key><value>some<!-- comment -->_<![CDATA[value]]></value></element>";
+
+        assertThat(StreamingXPath.compile("/element[key = 'some_key']").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/element[key = 'some_']").matches(matched), is(false));
+        assertThat(StreamingXPath.compile("/element/key[text() = 'some_']").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/element/value[text() = '_value']").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/element/value[text() = 'some_value']").matches(matched), is(false));
+        assertThat(StreamingXPath.compile("/element[key and value and not_value]").matches(matched), is(false));
+    }
+
+    @Test
+    public void shouldMatchNestedElementsWithSameName() {
+        String matched = "<a><a><a>x</a></a></a>";
+
+        assertThat(StreamingXPath.compile("//a[a = 'x']").matches(matched), is(true));
+        assertThat(StreamingXPath.compile("/a/a/a/a").matches(matched), is(false));
+        assertThat(StreamingXPath.compile("//a/a/a").matches(matched), is(true));
+    }
+
+    @Test
+    public void shouldFallBackToDomForDocumentsItCannotEvaluate() {
+        assertThat(StreamingXPath.compile("/Envelope/Body").matches("<soap:Envelope xmlns:soap=\"urn:soap\"><soap:Body/></soap:Envelope>"), nullValue());
+        assertThat(StreamingXPath.compile("/a/b").matches("<!DOCTYPE a [<!ENTITY e 'text'>]><a><b>&e;</b></a>"), nullValue());
+        assertThat(StreamingXPath.compile("/a/b").matches("<a><b/></a><junk>"), nullValue());
+        assertThat(StreamingXPath.compile("/a/b").matches("not xml"), nullValue());
+    }
+}
@@ -2,6 +2,13 @@ package org.mockserver.matchers;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.*;
 import static org.mockserver.matchers.NotMatcher.not;
 
@@ -91,4 +98,83 @@ public class XPathStringMatcherTest {
     public void showHaveCorrectEqualsBehaviour() {
         assertEquals(new XPathStringMatcher("some_value"), new XPathStringMatcher("some_value"));
     }
+
+
+    @Test
+    public void shouldMatchXPathThatCannotBeStreamed() {
+        String matched = "" +
+                "<element>" +
+                "   <key>some_key</key>" +
+                "   <value>some_value</value>" +
+                "</element>";
+        assertTrue(new XPathStringMatcher("count(/element/*) = 2").matches(matched));
+        assertTrue(new XPathStringMatcher("/element[starts-with(key, 'some')]").matches(matched));
+        assertFalse(new XPathStringMatcher("/element[key = 'some_value']/value").matches(matched));
+    }
+
+    @Test
+    public void shouldMatchDocumentThatCannotBeStreamed() {
+        String matched = "" +
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
+                "   <soap:Body><key>some_key</key></soap:Body>" +
+                "</soap:Envelope>";
+        assertTrue(new XPathStringMatcher("//key[text()='some_key']").matches(matched));
+        assertTrue(new XPathStringMatcher("/Envelope/Body/key").matches(matched));
+        assertTrue(new XPathStringMatcher("/*[local-name()='Envelope']/*/key").matches(matched));
+    }
+
+    @Test
+    public void shouldNotMatchInvalidDocument() {
+        assertFalse(new XPathStringMatcher("/element/key").matches("<element><key>some_key</key></element><junk>"));
+        assertFalse(new XPathStringMatcher("/element/key").matches("<element><key>some_key</key>"));
+    }
+
+    @Test
+    public void shouldMatchSameDocumentWithSeveralExpressions() {
+        String matched = "" +
+                "<element id=\"1\">" +
+                "   <key>some_key</key>" +
+                "   <value>some_value</value>" +
+                "</element>";
+        assertTrue(new XPathStringMatcher("count(/element/*) = 2").matches(matched));
+        assertFalse(new XPathStringMatcher("count(/element/*) = 3").matches(new String(matched)));
+        assertTrue(new XPathStringMatcher("/element[@id = '1']/key").matches(new String(matched)));
+        assertFalse(new XPathStringMatcher("count(/element/*) = 2").matches("<element><key>some_key</key></element>"));
+    }
+
+    @Test
+    public void shouldMatchSeveralExpressionsAgainstSharedBody() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("<element><key>some_key</key></element>");
+
+        // then
+        assertTrue(new XPathStringMatcher("/element[key = 'some_key']").matchesParsed(parsedBody));
+        assertFalse(new XPathStringMatcher("/element[key = 'other_key']").matchesParsed(parsedBody));
+        assertTrue(new XPathStringMatcher("/element/key").matchesParsed(parsedBody));
+    }
+
+    @Test
+    public void shouldMatchFromSeveralThreads() throws Exception {
+        // given
+        final XPathStringMatcher streamedMatcher = new XPathStringMatcher("/element[key = 'some_key']");
+        final XPathStringMatcher domMatcher = new XPathStringMatcher("count(/element/key[. = 'some_key']) = 1");
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+        // when
+        for (int i = 0; i < 200; i++) {
+            final String matched = "<element><key>some_key</key><value>" + i + "</value></element>";
+            results.add(executorService.submit(new Callable<Boolean>() {
+                public Boolean call() {
+                    return streamedMatcher.matches(matched) && domMatcher.matches(matched);
+                }
+            }));
+        }
+
+        // then
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executorService.shutdown();
+    }
 }
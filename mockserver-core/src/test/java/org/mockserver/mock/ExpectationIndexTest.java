@@ -0,0 +1,193 @@
+package org.mockserver.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.matchers.TimeToLive;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.Not;
+import org.mockserver.model.NottableString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class ExpectationIndexTest {
+
+    private ExpectationIndex expectationIndex;
+
+    @Before
+    public void createIndex() {
+        expectationIndex = new ExpectationIndex();
+    }
+
+    private Expectation expectation(HttpRequest httpRequest) {
+        return new Expectation(httpRequest, Times.unlimited(), TimeToLive.unlimited());
+    }
+
+    @Test
+    public void shouldReturnOnlyExpectationsWithSameLiteralPath() {
+        // given
+        Expectation somePath = expectation(request().withPath("/somePath"));
+        Expectation someOtherPath = expectation(request().withPath("/someOtherPath"));
+        expectationIndex.add(somePath);
+        expectationIndex.add(someOtherPath);
+
+        // then
+        assertThat(expectationIndex.candidatesFor(request().withMethod("GET").withPath("/somePath")), is(Arrays.asList(somePath)));
+        assertThat(expectationIndex.candidatesFor(request().withMethod("GET").withPath("/unknownPath")), empty());
+    }
+
+    @Test
+    public void shouldReturnExpectationsWithRegexOrNotPathByMethod() {
+        // given
+        Expectation regexPathGet = expectation(request().withMethod("GET").withPath("/some.*"));
+        Expectation notPathPost = expectation(request().withMethod("POST").withPath(NottableString.not("/somePath")));
+        expectationIndex.add(regexPathGet);
+        expectationIndex.add(notPathPost);
+
+        // then
+        assertThat(expectationIndex.candidatesFor(request().withMethod("GET").withPath("/somePath")), is(Arrays.asList(regexPathGet)));
+        assertThat(expectationIndex.candidatesFor(request().withMethod("POST").withPath("/somePath")), is(Arrays.asList(notPathPost)));
+    }
+
+    @Test
+    public void shouldAlwaysReturnUnindexedExpectations() {
+        // given
+        Expectation matchAll = expectation(request());
+        Expectation regexMethodAndPath = expectation(request().withMethod("P.*").withPath("/some.*"));
+        Expectation notRequest = expectation(Not.not(request().withPath("/somePath")));
+        expectationIndex.add(matchAll);
+        expectationIndex.add(regexMethodAndPath);
+        expectationIndex.add(notRequest);
+
+        // then
+        assertThat(expectationIndex.candidatesFor(request().withMethod("GET").withPath("/anyPath")), is(Arrays.asList(matchAll, regexMethodAndPath, notRequest)));
+    }
+
+    @Test
+    public void shouldReturnCandidatesInInsertionOrder() {
+        // given
+        Expectation first = expectation(request().withPath("/.*"));
+        Expectation second = expectation(request().withMethod("GET").withPath("/somePath"));
+        Expectation third = expectation(request().withMethod("GET").withPath("/some.*"));
+        Expectation fourth = expectation(request().withPath("/somePath"));
+        Expectation fifth = expectation(request());
+        expectationIndex.add(first);
+        expectationIndex.add(second);
+        expectationIndex.add(third);
+        expectationIndex.add(fourth);
+        expectationIndex.add(fifth);
+
+        // then
+        assertThat(expectationIndex.candidatesFor(request().withMethod("GET").withPath("/somePath")), is(Arrays.asList(first, second, third, fourth, fifth)));
+    }
+
+    @Test
+    public void shouldRemoveExpectationFromIndex() {
+        // given
+        Expectation first = expectation(request().withPath("/somePath"));
+        Expectation second = expectation(request().withPath("/somePath"));
+        expectationIndex.add(first);
+        expectationIndex.add(second);
+
+        // when
+        expectationIndex.remove(first);
+
+        // then
+        assertThat(expectationIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(second)));
+    }
+
+    @Test
+    public void shouldNotChangeOtherGroupsOnAdd() {
+        // given
+        Expectation somePath = expectation(request().withPath("/somePath"));
+        Expectation someOtherPath = expectation(request().withPath("/someOtherPath"));
+        expectationIndex.add(somePath);
+        List<Expectation> candidatesBeforeAdd = expectationIndex.candidatesFor(request().withPath("/somePath"));
+
+        // when
+        expectationIndex.add(someOtherPath);
+
+        // then
+        assertThat(candidatesBeforeAdd, is(Arrays.asList(somePath)));
+        assertThat(expectationIndex.candidatesFor(request().withPath("/somePath")), is(Arrays.asList(somePath)));
+        assertThat(expectationIndex.candidatesFor(request().withPath("/someOtherPath")), is(Arrays.asList(someOtherPath)));
+    }
+
+    @Test
+    public void shouldIgnoreRemovalOfUnknownExpectation() {
+        // given
+        expectationIndex.add(expectation(request().withPath("/somePath")));
+
+        // then
+        assertFalse(expectationIndex.remove(expectation(request().withPath("/somePath"))));
+        assertFalse(expectationIndex.remove(expectation(request())));
+        assertThat(expectationIndex.expectations().size(), is(1));
+    }
+
+    @Test
+    public void shouldListAllExpectationsInInsertionOrder() {
+        // given
+        Expectation first = expectation(request().withPath("/somePath"));
+        Expectation second = expectation(request().withMethod("GET").withPath("/some.*"));
+        Expectation third = expectation(request());
+        Expectation fourth = expectation(request().withPath("/someOtherPath"));
+        expectationIndex.add(first);
+        expectationIndex.add(second);
+        expectationIndex.add(third);
+        expectationIndex.add(fourth);
+
+        // when
+        expectationIndex.remove(third);
+
+        // then
+        assertThat(new ArrayList<Expectation>(expectationIndex.expectations()), is(Arrays.asList(first, second, fourth)));
+    }
+
+    @Test
+    public void shouldClearIndex() {
+        // given
+        expectationIndex.add(expectation(request().withPath("/somePath")));
+        expectationIndex.add(expectation(request()));
+
+        // when
+        expectationIndex.clear();
+
+        // then
+        assertThat(expectationIndex.candidatesFor(request().withPath("/somePath")), empty());
+        assertThat(expectationIndex.expectations(), empty());
+    }
+
+    @Test
+    public void shouldOnlyNarrowLiteralRequests() {
+        assertTrue(expectationIndex.canNarrow(request().withMethod("GET").withPath("/somePath")));
+        assertTrue(expectationIndex.canNarrow(request()));
+        assertFalse(expectationIndex.canNarrow(request().withMethod("GET").withPath("/some.*")));
+        assertFalse(expectationIndex.canNarrow(request().withMethod(NottableString.not("GET")).withPath("/somePath")));
+        assertFalse(expectationIndex.canNarrow(Not.not(request().withPath("/somePath"))));
+        assertFalse(expectationIndex.canNarrow(null));
+    }
+
+    @Test
+    public void shouldReturnSameGroupForEqualRequests() {
+        // given
+        Expectation somePath = expectation(request().withMethod("GET").withPath("/somePath"));
+        Expectation regexPath = expectation(request().withMethod("GET").withPath("/some.*"));
+        expectationIndex.add(somePath);
+        expectationIndex.add(regexPath);
+
+        // then
+        assertThat(expectationIndex.sameGroupAs(request().withMethod("GET").withPath("/somePath")), is(Arrays.asList(somePath)));
+        assertThat(expectationIndex.sameGroupAs(request().withMethod("GET").withPath("/some.*")), is(Arrays.asList(regexPath)));
+    }
+}
@@ -7,7 +7,10 @@ import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
 import org.mockserver.model.*;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
@@ -70,4 +73,39 @@ public class MockServerMatcherManageExpectationsTest {
         assertThat(mockServerMatcher.handle(new HttpRequest().withPath("somePath")), Is.<Action>is(httpResponse.withBody("someBody")));
         assertThat(mockServerMatcher.expectations.size(), is(1));
     }
+
+    @Test
+    public void shouldNotRespondMoreThanExactlyTimesWhenMatchedConcurrently() throws Exception {
+        // given
+        mockServerMatcher.when(httpRequest.withPath("somePath"), Times.exactly(50), TimeToLive.unlimited()).thenRespond(httpResponse.withBody("someBody"));
+        final AtomicInteger responseCount = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        // when
+        for (int thread = 0; thread < 10; thread++) {
+            futures.add(executorService.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    startLatch.await();
+                    for (int i = 0; i < 20; i++) {
+                        if (mockServerMatcher.handle(new HttpRequest().withPath("somePath")) != null) {
+                            responseCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        // then
+        assertThat(responseCount.get(), is(50));
+        assertThat(mockServerMatcher.expectations, empty());
+    }
 }
@@ -1,5 +1,7 @@
 package org.mockserver.model;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
 import org.mockserver.client.serialization.Base64Converter;
 
@@ -39,4 +41,38 @@ public class BinaryBodyTest {
     public void shouldReturnFormattedRequestInToString() {
         assertEquals(Base64Converter.stringToBase64Bytes("some_body".getBytes()), binary("some_body".getBytes()).toString());
     }
+
+    @Test
+    public void shouldCopyRetainedBufferEachTimeItIsRead() {
+        // given
+        byte[] body = DatatypeConverter.parseBase64Binary("some_body");
+        ByteBuf content = Unpooled.wrappedBuffer(new byte[]{1, 2}, body).slice(2, body.length);
+
+        // when
+        BinaryBody binaryBody = new BinaryBody(content);
+
+        // then
+        assertThat(binaryBody.getValue(), is(body));
+        assertThat(binaryBody.getRawBytes(), is(body));
+        assertNotSame(binaryBody.getValue(), binaryBody.getValue());
+        assertEquals(binary(body), binaryBody);
+        assertEquals(binary(body).hashCode(), binaryBody.hashCode());
+        assertEquals(binary(body).toString(), binaryBody.toString());
+    }
+
+    @Test
+    public void shouldReleaseRetainedBuffer() {
+        // given
+        ByteBuf content = Unpooled.wrappedBuffer("some_body".getBytes());
+        BinaryBody binaryBody = new BinaryBody(content);
+
+        // when
+        binaryBody.retain();
+
+        // then
+        assertThat(binaryBody.isReferenceCounted(), is(true));
+        assertThat(binaryBody.release(), is(false));
+        assertThat(binaryBody.release(), is(true));
+        assertThat(content.refCnt(), is(0));
+    }
 }
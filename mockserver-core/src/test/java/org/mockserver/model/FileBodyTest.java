@@ -0,0 +1,142 @@
+package org.mockserver.model;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.After;
+import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+import static org.mockserver.model.FileBody.file;
+
+/**
+ * @author jamesdbloom
+ */
+public class FileBodyTest {
+
+    @After
+    public void clearFileBodyDirectory() {
+        System.clearProperty("mockserver.fileBodyDirectory");
+    }
+
+    @Test
+    public void shouldReturnValuesSetInConstructor() {
+        // when
+        FileBody fileBody = new FileBody("/some/file.bin");
+
+        // then
+        assertThat(fileBody.getValue(), is("/some/file.bin"));
+        assertThat(fileBody.getFile(), is(new File("/some/file.bin")));
+        assertThat(fileBody.getType(), is(Body.Type.FILE));
+    }
+
+    @Test
+    public void shouldStreamFile() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver", ".bin");
+        tempFile.deleteOnExit();
+        Files.write("some_file_content", tempFile, Charsets.UTF_8);
+        ConfigurationProperties.fileBodyDirectory(tempFile.getParent());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        file(tempFile.getAbsolutePath()).writeTo(outputStream);
+
+        // then
+        assertThat(new String(outputStream.toByteArray(), Charsets.UTF_8), is("some_file_content"));
+        assertThat(file(tempFile.getAbsolutePath()).getContentLength(), is((long) "some_file_content".length()));
+    }
+
+    @Test
+    public void shouldCompareFilePath() {
+        assertEquals(file("/some/file.bin"), file("/some/file.bin"));
+        assertEquals(file("/some/file.bin").hashCode(), file("/some/file.bin").hashCode());
+        assertNotEquals(file("/some/file.bin"), file("/some/other_file.bin"));
+    }
+
+    @Test
+    public void shouldResolveRelativePathAgainstFileBodyDirectory() throws IOException {
+        // given
+        File directory = Files.createTempDir();
+        directory.deleteOnExit();
+        File tempFile = new File(directory, "file.bin");
+        tempFile.deleteOnExit();
+        Files.write("some_file_content", tempFile, Charsets.UTF_8);
+        ConfigurationProperties.fileBodyDirectory(directory.getAbsolutePath());
+
+        // when
+        FileBody fileBody = file("file.bin").validate();
+
+        // then
+        assertThat(fileBody.getFile(), is(tempFile));
+        assertThat(file(tempFile.getAbsolutePath()).validate().getFile(), is(tempFile));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFileWhenFileBodyDirectoryNotSet() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver", ".bin");
+        tempFile.deleteOnExit();
+
+        // when
+        file(tempFile.getAbsolutePath()).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFileOutsideFileBodyDirectory() throws IOException {
+        // given
+        File directory = Files.createTempDir();
+        directory.deleteOnExit();
+        File tempFile = File.createTempFile("mockserver", ".bin");
+        tempFile.deleteOnExit();
+        ConfigurationProperties.fileBodyDirectory(directory.getAbsolutePath());
+
+        // when
+        file("../" + tempFile.getName()).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingFile() {
+        // given
+        File directory = Files.createTempDir();
+        directory.deleteOnExit();
+        ConfigurationProperties.fileBodyDirectory(directory.getAbsolutePath());
+
+        // when
+        file("missing.bin").validate();
+    }
+
+    @Test
+    public void shouldCheckFileIsInFileBodyDirectoryWhenOpened() throws IOException {
+        // given
+        File directory = Files.createTempDir();
+        directory.deleteOnExit();
+        File tempFile = new File(directory, "file.bin");
+        tempFile.deleteOnExit();
+        Files.write("some_file_content", tempFile, Charsets.UTF_8);
+        ConfigurationProperties.fileBodyDirectory(directory.getAbsolutePath());
+        FileBody fileBody = file(tempFile.getAbsolutePath()).validate();
+
+        // when
+        File otherDirectory = Files.createTempDir();
+        otherDirectory.deleteOnExit();
+        ConfigurationProperties.fileBodyDirectory(otherDirectory.getAbsolutePath());
+
+        // then
+        assertThat(fileBody.getContentLength(), is(0L));
+        try {
+            fileBody.writeTo(new ByteArrayOutputStream());
+            fail("expected IOException");
+        } catch (IOException ioe) {
+            assertThat(ioe.getMessage(), is("File [" + tempFile.getAbsolutePath() + "] is not in file body directory [" + otherDirectory.getAbsolutePath() + "]"));
+        }
+    }
+}
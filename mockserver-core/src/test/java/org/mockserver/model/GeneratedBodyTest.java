@@ -0,0 +1,63 @@
+package org.mockserver.model;
+
+import com.google.common.base.Charsets;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockserver.model.GeneratedBody.generated;
+
+/**
+ * @author jamesdbloom
+ */
+public class GeneratedBodyTest {
+
+    @Test
+    public void shouldReturnValuesSetInConstructor() {
+        // when
+        GeneratedBody generatedBody = new GeneratedBody(25, "abc");
+
+        // then
+        assertThat(generatedBody.getValue(), is("abc"));
+        assertThat(generatedBody.getLength(), is(25L));
+        assertThat(generatedBody.getContentLength(), is(25L));
+        assertThat(generatedBody.getType(), is(Body.Type.GENERATED));
+    }
+
+    @Test
+    public void shouldUseDefaultPattern() {
+        assertThat(generated(10).getValue(), is(GeneratedBody.DEFAULT_PATTERN));
+        assertThat(generated(10, "").getValue(), is(GeneratedBody.DEFAULT_PATTERN));
+    }
+
+    @Test
+    public void shouldRepeatPatternToLength() throws IOException {
+        // given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        generated(8, "abc").writeTo(outputStream);
+
+        // then
+        assertThat(new String(outputStream.toByteArray(), Charsets.UTF_8), is("abcabcab"));
+        assertThat(new String(generated(0, "abc").getRawBytes(), Charsets.UTF_8), is(""));
+    }
+
+    @Test
+    public void shouldCompareLengthAndPattern() {
+        assertEquals(generated(10, "abc"), generated(10, "abc"));
+        assertEquals(generated(10, "abc").hashCode(), generated(10, "abc").hashCode());
+        assertNotEquals(generated(10, "abc"), generated(11, "abc"));
+        assertNotEquals(generated(10, "abc"), generated(10, "abd"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNegativeLength() {
+        generated(-1);
+    }
+}
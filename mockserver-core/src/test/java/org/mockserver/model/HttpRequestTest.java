@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.NottableString.string;
@@ -101,4 +102,40 @@ public class HttpRequestTest {
         );
     }
 
+    @Test
+    public void shouldBeEqualWhenAllFieldsAreEqual() {
+        // given
+        HttpRequest httpRequest = request()
+                .withMethod("POST")
+                .withPath("some_path")
+                .withQueryStringParameter("parameterName", "parameterValue")
+                .withHeaders(new Header("headerNameOne", "headerValue"), new Header("headerNameTwo", "headerValue"))
+                .withCookie("cookieName", "cookieValue")
+                .withBody("some_body");
+        HttpRequest equalHttpRequest = request()
+                .withMethod("POST")
+                .withPath("some_path")
+                .withQueryStringParameter("parameterName", "parameterValue")
+                .withHeaders(new Header("headerNameTwo", "headerValue"), new Header("headerNameOne", "headerValue"))
+                .withCookie("cookieName", "cookieValue")
+                .withBody("some_body");
+
+        // then
+        assertEquals(httpRequest, equalHttpRequest);
+        assertEquals(httpRequest.hashCode(), equalHttpRequest.hashCode());
+    }
+
+    @Test
+    public void shouldNotBeEqualWhenAnyFieldIsDifferent() {
+        assertNotEquals(request().withMethod("GET"), request().withMethod("POST"));
+        assertNotEquals(request().withPath("some_path"), request().withPath("some_other_path"));
+        assertNotEquals(request().withQueryStringParameter("name", "value"), request().withQueryStringParameter("name", "other_value"));
+        assertNotEquals(request().withHeader("name", "value"), request().withHeader("name", "other_value"));
+        assertNotEquals(request().withCookie("name", "value"), request().withCookie("name", "other_value"));
+        assertNotEquals(request().withBody("some_body"), request().withBody("some_other_body"));
+        assertNotEquals(request().setKeepAlive(true), request().setKeepAlive(false));
+        assertNotEquals(request().setSecure(true), request().setSecure(false));
+        assertNotEquals(Not.not(request().withPath("some_path")), request().withPath("some_path"));
+        assertNotEquals(OutboundHttpRequest.outboundRequest("localhost", 80, "", request()), request());
+    }
 }
@@ -11,6 +11,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.mockito.Mockito.*;
 import static org.mockserver.model.HttpResponse.response;
@@ -150,4 +151,36 @@ public class HttpResponseTest {
                         .toString()
         );
     }
+
+    @Test
+    public void shouldBeEqualWhenAllFieldsAreEqual() {
+        // given
+        HttpResponse httpResponse = response()
+                .withStatusCode(201)
+                .withHeader("name", "value")
+                .withCookie("name", "value")
+                .withBody("some_body")
+                .withDelay(new Delay(TimeUnit.MILLISECONDS, 10));
+        HttpResponse equalHttpResponse = response()
+                .withStatusCode(201)
+                .withHeader("name", "value")
+                .withCookie("name", "value")
+                .withBody("some_body")
+                .withDelay(new Delay(TimeUnit.MILLISECONDS, 10));
+
+        // then
+        assertEquals(httpResponse, equalHttpResponse);
+        assertEquals(httpResponse.hashCode(), equalHttpResponse.hashCode());
+    }
+
+    @Test
+    public void shouldNotBeEqualWhenAnyFieldIsDifferent() {
+        assertNotEquals(response().withStatusCode(200), response().withStatusCode(404));
+        assertNotEquals(response().withHeader("name", "value"), response().withHeader("name", "other_value"));
+        assertNotEquals(response().withCookie("name", "value"), response().withCookie("name", "other_value"));
+        assertNotEquals(response().withBody("some_body"), response().withBody("some_other_body"));
+        assertNotEquals(response().withBody(new byte[]{1, 2}), response().withBody(new byte[]{1, 3}));
+        assertNotEquals(response().withDelay(new Delay(TimeUnit.MILLISECONDS, 10)), response().withDelay(new Delay(TimeUnit.MILLISECONDS, 20)));
+        assertNotEquals(response().withConnectionOptions(new ConnectionOptions().withCloseSocket(true)), response());
+    }
 }
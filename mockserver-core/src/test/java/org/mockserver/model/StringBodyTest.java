@@ -2,11 +2,14 @@ package org.mockserver.model;
 
 import com.google.common.base.Charsets;
 import com.google.common.net.MediaType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.mockserver.model.StringBody.exact;
 
 /**
@@ -70,4 +73,50 @@ public class StringBodyTest {
         assertThat(stringBody.getContentType(), is(MediaType.create("text", "plain").toString()));
     }
 
+    @Test
+    public void shouldDecodeRetainedBufferEachTimeItIsRead() {
+        // given
+        ByteBuf content = Unpooled.copiedBuffer("some_bódy", Charsets.UTF_16);
+
+        // when
+        StringBody stringBody = new StringBody(content, Charsets.UTF_16);
+
+        // then
+        assertThat(stringBody.getValue(), is("some_bódy"));
+        assertThat(stringBody.getRawBytes(), is("some_bódy".getBytes(Charsets.UTF_16)));
+        assertThat(stringBody.getCharset(), is(Charsets.UTF_16));
+        assertThat(stringBody.isReferenceCounted(), is(true));
+        assertThat(stringBody, is(new StringBody("some_bódy", Charsets.UTF_16)));
+        assertThat(stringBody.hashCode(), is(new StringBody("some_bódy", Charsets.UTF_16).hashCode()));
+        assertThat(content.readerIndex(), is(0));
+    }
+
+    @Test
+    public void shouldReleaseRetainedBuffer() {
+        // given
+        ByteBuf content = Unpooled.copiedBuffer("some_body", Charsets.ISO_8859_1);
+        StringBody stringBody = new StringBody(content, null);
+
+        // when
+        stringBody.retain();
+
+        // then
+        assertThat(content.refCnt(), is(2));
+        assertThat(stringBody.release(), is(false));
+        assertThat(stringBody.getValue(), is("some_body"));
+        assertThat(stringBody.release(), is(true));
+        assertThat(content.refCnt(), is(0));
+    }
+
+    @Test
+    public void shouldIgnoreRetainAndReleaseWithoutBuffer() {
+        // given
+        StringBody stringBody = new StringBody("some_body");
+
+        // then
+        assertThat(stringBody.isReferenceCounted(), is(false));
+        assertThat(stringBody.retain(), sameInstance(stringBody));
+        assertThat(stringBody.release(), is(false));
+        assertThat(stringBody.getValue(), is("some_body"));
+    }
 }
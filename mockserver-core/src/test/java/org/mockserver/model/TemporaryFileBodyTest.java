@@ -0,0 +1,71 @@
+package org.mockserver.model;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Test;
+import org.mockserver.client.serialization.model.BodyDTO;
+import org.mockserver.client.serialization.model.StringBodyDTO;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author jamesdbloom
+ */
+public class TemporaryFileBodyTest {
+
+    @Test
+    public void shouldReadFileWithCharset() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver-request-", ".body");
+        Files.write("some_bódy", tempFile, Charsets.UTF_16);
+
+        // when
+        TemporaryFileBody temporaryFileBody = new TemporaryFileBody(tempFile, Charsets.UTF_16);
+
+        // then
+        assertThat(temporaryFileBody.getType(), is(Body.Type.FILE));
+        assertThat(temporaryFileBody.getValue(), is(tempFile.getAbsolutePath()));
+        assertThat(temporaryFileBody.getCharset(Charsets.UTF_8), is(Charsets.UTF_16));
+        assertThat(new String(temporaryFileBody.getRawBytes(), Charsets.UTF_16), is("some_bódy"));
+        temporaryFileBody.release();
+    }
+
+    @Test
+    public void shouldDeleteFileWhenLastReferenceReleased() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver-request-", ".body");
+        TemporaryFileBody temporaryFileBody = new TemporaryFileBody(tempFile, null);
+
+        // when
+        temporaryFileBody.retain();
+
+        // then
+        assertThat(temporaryFileBody.isReferenceCounted(), is(true));
+        assertThat(temporaryFileBody.getCharset(Charsets.UTF_8), is(Charsets.UTF_8));
+        assertThat(temporaryFileBody.release(), is(false));
+        assertThat(tempFile.exists(), is(true));
+        assertThat(temporaryFileBody.release(), is(true));
+        assertThat(tempFile.exists(), is(false));
+    }
+
+    @Test
+    public void shouldReadIntoInMemoryBody() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver-request-", ".body");
+        Files.write("some_bódy", tempFile, Charsets.UTF_16);
+
+        // when
+        TemporaryFileBody stringBody = new TemporaryFileBody(tempFile, Charsets.UTF_16);
+        TemporaryFileBody binaryBody = new TemporaryFileBody(tempFile, null, true);
+
+        // then
+        assertThat(stringBody.inMemoryBody(), is((Body) new StringBody("some_bódy", Charsets.UTF_16)));
+        assertThat(binaryBody.inMemoryBody(), is((Body) new BinaryBody("some_bódy".getBytes(Charsets.UTF_16))));
+        assertThat(BodyDTO.createDTO(stringBody), is((BodyDTO) new StringBodyDTO(new StringBody("some_bódy", Charsets.UTF_16))));
+        stringBody.release();
+    }
+}
@@ -0,0 +1,150 @@
+package org.mockserver.server.http2;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+/**
+ * @author jamesdbloom
+ */
+public class HpackDecoderTest {
+
+    private static byte[] hex(String hex) {
+        hex = hex.replace(" ", "");
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static Map.Entry<String, String> header(String name, String value) {
+        return new AbstractMap.SimpleImmutableEntry<String, String>(name, value);
+    }
+
+    @Test
+    public void shouldDecodeRequestsWithoutHuffmanCoding() {
+        // given - RFC 7541 appendix C.3
+        HpackDecoder hpackDecoder = new HpackDecoder();
+
+        // when
+        List<Map.Entry<String, String>> first = hpackDecoder.decode(hex("8286 8441 0f77 7777 2e65 7861 6d70 6c65 2e63 6f6d"));
+        List<Map.Entry<String, String>> second = hpackDecoder.decode(hex("8286 84be 5808 6e6f 2d63 6163 6865"));
+
+        // then
+        assertThat(first, is(Arrays.asList(
+                header(":method", "GET"),
+                header(":scheme", "http"),
+                header(":path", "/"),
+                header(":authority", "www.example.com")
+        )));
+        assertThat(second, is(Arrays.asList(
+                header(":method", "GET"),
+                header(":scheme", "http"),
+                header(":path", "/"),
+                header(":authority", "www.example.com"),
+                header("cache-control", "no-cache")
+        )));
+    }
+
+    @Test
+    public void shouldDecodeRequestsWithHuffmanCoding() {
+        // given - RFC 7541 appendix C.4
+        HpackDecoder hpackDecoder = new HpackDecoder();
+        hpackDecoder.decode(hex("8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff"));
+        hpackDecoder.decode(hex("8286 84be 5886 a8eb 1064 9cbf"));
+
+        // when
+        List<Map.Entry<String, String>> headers = hpackDecoder.decode(hex("8287 85bf 4088 25a8 49e9 5ba9 7d7f 8925 a849 e95b b8e8 b4bf"));
+
+        // then
+        assertThat(headers, is(Arrays.asList(
+                header(":method", "GET"),
+                header(":scheme", "https"),
+                header(":path", "/index.html"),
+                header(":authority", "www.example.com"),
+                header("custom-key", "custom-value")
+        )));
+    }
+
+    @Test
+    public void shouldEvictOldestEntriesFromDynamicTable() {
+        // given - RFC 7541 appendix C.6 with a 256 byte table
+        HpackDecoder hpackDecoder = new HpackDecoder(256, Integer.MAX_VALUE);
+        hpackDecoder.decode(hex("4882 6402 5885 aec3 771a 4b61 96d0 7abe 9410 54d4 44a8 2005 9504 0b81 66e0 82a6 2d1b ff6e 919d 29ad 1718 63c7 8f0b 97c8 e9ae 82ae 43d3"));
+
+        // when - ":status: 307" evicts ":status: 302"
+        List<Map.Entry<String, String>> headers = hpackDecoder.decode(hex("4883 640e ffc1 c0bf"));
+
+        // then
+        assertThat(headers, is(Arrays.asList(
+                header(":status", "307"),
+                header("cache-control", "private"),
+                header("date", "Mon, 21 Oct 2013 20:13:21 GMT"),
+                header("location", "https://www.example.com")
+        )));
+    }
+
+    @Test
+    public void shouldDecodeHeadersWrittenByEncoder() {
+        // given
+        byte[] block = new HpackEncoder()
+                .encodeHeader(":status", "200")
+                .encodeHeader("content-type", "application/json")
+                .encodeHeader("x-custom", "some_value")
+                .toByteArray();
+
+        // when
+        List<Map.Entry<String, String>> headers = new HpackDecoder().decode(block);
+
+        // then
+        assertThat(headers, is(Arrays.asList(
+                header(":status", "200"),
+                header("content-type", "application/json"),
+                header("x-custom", "some_value")
+        )));
+    }
+
+    @Test
+    public void shouldRejectIndexOutsideTables() {
+        try {
+            // when
+            new HpackDecoder().decode(hex("be"));
+            fail();
+        } catch (Http2Exception e) {
+            // then
+            assertThat(e.getErrorCode(), is(Http2Exception.COMPRESSION_ERROR));
+        }
+    }
+
+    @Test
+    public void shouldRejectDynamicTableSizeLargerThanSetting() {
+        try {
+            // when
+            new HpackDecoder().decode(hex("3fe21f"));
+            fail();
+        } catch (Http2Exception e) {
+            // then
+            assertThat(e.getErrorCode(), is(Http2Exception.COMPRESSION_ERROR));
+        }
+    }
+
+    @Test
+    public void shouldRejectHeaderListLargerThanMaximum() {
+        try {
+            // when
+            new HpackDecoder(4096, 100).decode(hex("8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff"));
+            fail();
+        } catch (Http2Exception e) {
+            // then
+            assertThat(e.getErrorCode(), is(Http2Exception.ENHANCE_YOUR_CALM));
+        }
+    }
+}
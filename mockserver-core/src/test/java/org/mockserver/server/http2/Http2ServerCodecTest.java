@@ -0,0 +1,365 @@
+package org.mockserver.server.http2;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+/**
+ * @author jamesdbloom
+ */
+public class Http2ServerCodecTest {
+
+    private static final byte[] CONNECTION_PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(Charsets.US_ASCII);
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    private static final int END_STREAM = 0x1;
+    private static final int ACK = 0x1;
+    private static final int END_HEADERS = 0x4;
+
+    private static ByteBuf frame(int type, int flags, int streamId, byte[] payload) {
+        ByteBuf frame = Unpooled.buffer(9 + payload.length);
+        frame.writeMedium(payload.length).writeByte(type).writeByte(flags).writeInt(streamId);
+        frame.writeBytes(payload);
+        return frame;
+    }
+
+    private static byte[] headerBlock(String... namesAndValues) {
+        HpackEncoder hpackEncoder = new HpackEncoder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            hpackEncoder.encodeHeader(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return hpackEncoder.toByteArray();
+    }
+
+    private static ByteBuf connection(ByteBuf... frames) {
+        ByteBuf connection = Unpooled.buffer();
+        connection.writeBytes(CONNECTION_PREFACE);
+        connection.writeBytes(frame(SETTINGS, 0, 0, new byte[0]));
+        for (ByteBuf frame : frames) {
+            connection.writeBytes(frame);
+            frame.release();
+        }
+        return connection;
+    }
+
+    private static ByteBuf getRequest(int streamId) {
+        return frame(HEADERS, END_HEADERS | END_STREAM, streamId, headerBlock(":method", "GET", ":scheme", "http", ":path", "/somePath", ":authority", "localhost:1080"));
+    }
+
+    private static List<Frame> readFrames(EmbeddedChannel channel) {
+        channel.flush();
+        ByteBuf outbound = Unpooled.buffer();
+        Object message;
+        while ((message = channel.readOutbound()) != null) {
+            outbound.writeBytes((ByteBuf) message);
+            ((ByteBuf) message).release();
+        }
+        List<Frame> frames = new ArrayList<Frame>();
+        while (outbound.isReadable()) {
+            int length = outbound.readUnsignedMedium();
+            Frame frame = new Frame(outbound.readUnsignedByte(), outbound.readUnsignedByte(), outbound.readInt(), new byte[length]);
+            outbound.readBytes(frame.payload);
+            frames.add(frame);
+        }
+        outbound.release();
+        return frames;
+    }
+
+    private static Frame findFrame(List<Frame> frames, int type) {
+        for (Frame frame : frames) {
+            if (frame.type == type) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static EmbeddedChannel channel(int maxConcurrentStreams, long maxContentLength) {
+        EmbeddedChannel channel = new EmbeddedChannel(new Http2ServerCodec(maxConcurrentStreams, maxContentLength));
+        // discard the server connection preface
+        readFrames(channel);
+        return channel;
+    }
+
+    @Test
+    public void shouldSendSettingsWhenAdded() {
+        // when
+        EmbeddedChannel channel = new EmbeddedChannel(new Http2ServerCodec(10, 100));
+
+        // then
+        List<Frame> frames = readFrames(channel);
+        assertThat(frames.size(), is(1));
+        assertThat(frames.get(0).type, is(SETTINGS));
+        assertThat(frames.get(0).flags, is(0));
+    }
+
+    @Test
+    public void shouldSendSettingsWhenAddedToActiveChannel() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+
+        // when
+        channel.pipeline().addLast(new Http2ServerCodec(10, 100));
+
+        // then
+        List<Frame> frames = readFrames(channel);
+        assertThat(frames.size(), is(1));
+        assertThat(frames.get(0).type, is(SETTINGS));
+    }
+
+    @Test
+    public void shouldDecodeRequestFromHeadersAndDataFrames() {
+        // given
+        EmbeddedChannel channel = channel(10, 100);
+
+        // when
+        channel.writeInbound(connection(
+                frame(HEADERS, END_HEADERS, 1, headerBlock(":method", "POST", ":scheme", "http", ":path", "/somePath?param=value", ":authority", "localhost:1080", "content-type", "text/plain", "cookie", "one=1", "cookie", "two=2")),
+                frame(DATA, 0, 1, "some_".getBytes(Charsets.UTF_8)),
+                frame(DATA, END_STREAM, 1, "body".getBytes(Charsets.UTF_8))
+        ));
+
+        // then
+        FullHttpRequest request = (FullHttpRequest) channel.readInbound();
+        assertThat(request.getMethod(), is(HttpMethod.POST));
+        assertThat(request.getUri(), is("/somePath?param=value"));
+        assertThat(request.headers().get(HttpHeaders.Names.HOST), is("localhost:1080"));
+        assertThat(request.headers().get(HttpHeaders.Names.CONTENT_TYPE), is("text/plain"));
+        assertThat(request.headers().get(HttpHeaders.Names.COOKIE), is("one=1; two=2"));
+        assertThat(request.headers().get(Http2ServerCodec.STREAM_ID_HEADER), is("1"));
+        assertThat(HttpHeaders.getContentLength(request), is(9L));
+        assertThat(request.content().toString(Charsets.UTF_8), is("some_body"));
+        request.release();
+
+        List<Frame> frames = readFrames(channel);
+        Frame settingsAck = findFrame(frames, SETTINGS);
+        assertThat(settingsAck.flags, is(ACK));
+        assertThat(findFrame(frames, WINDOW_UPDATE).streamId, is(0));
+    }
+
+    @Test
+    public void shouldEncodeResponseAsHeadersAndDataFrames() {
+        // given
+        EmbeddedChannel channel = channel(10, 100);
+        channel.writeInbound(connection(getRequest(1)));
+        ((FullHttpRequest) channel.readInbound()).release();
+        readFrames(channel);
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.copiedBuffer("some_body", Charsets.UTF_8));
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, "text/plain");
+        response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+        response.headers().set(Http2ServerCodec.STREAM_ID_HEADER, 1);
+
+        // when
+        channel.writeOutbound(response);
+
+        // then
+        List<Frame> frames = readFrames(channel);
+        assertThat(frames.size(), is(2));
+        assertThat(frames.get(0).type, is(HEADERS));
+        assertThat(frames.get(0).flags, is(END_HEADERS));
+        assertThat(frames.get(0).streamId, is(1));
+        assertThat(new HpackDecoder().decode(frames.get(0).payload), is(Arrays.<Map.Entry<String, String>>asList(
+                new AbstractMap.SimpleImmutableEntry<String, String>(":status", "200"),
+                new AbstractMap.SimpleImmutableEntry<String, String>("content-type", "text/plain")
+        )));
+        assertThat(frames.get(1).type, is(DATA));
+        assertThat(frames.get(1).flags, is(END_STREAM));
+        assertThat(frames.get(1).streamId, is(1));
+        assertThat(new String(frames.get(1).payload, Charsets.UTF_8), is("some_body"));
+    }
+
+    @Test
+    public void shouldHoldResponseDataUntilWindowUpdate() {
+        // given - an initial stream window of 4 bytes
+        EmbeddedChannel channel = channel(10, 100);
+        ByteBuf connection = Unpooled.buffer();
+        connection.writeBytes(CONNECTION_PREFACE);
+        connection.writeBytes(frame(SETTINGS, 0, 0, new byte[]{0x0, 0x4, 0x0, 0x0, 0x0, 0x4}));
+        connection.writeBytes(getRequest(1));
+        channel.writeInbound(connection);
+        ((FullHttpRequest) channel.readInbound()).release();
+        readFrames(channel);
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.copiedBuffer("some_body", Charsets.UTF_8));
+        response.headers().set(Http2ServerCodec.STREAM_ID_HEADER, 1);
+
+        // when
+        // the write only completes once all the data has been sent
+        channel.writeAndFlush(response);
+
+        // then
+        List<Frame> frames = readFrames(channel);
+        assertThat(frames.size(), is(2));
+        assertThat(frames.get(1).type, is(DATA));
+        assertThat(frames.get(1).flags, is(0));
+        assertThat(new String(frames.get(1).payload, Charsets.UTF_8), is("some"));
+
+        // when
+        channel.writeInbound(frame(WINDOW_UPDATE, 0, 1, new byte[]{0x0, 0x0, 0x0, 0x10}));
+
+        // then
+        frames = readFrames(channel);
+        assertThat(frames.size(), is(1));
+        assertThat(frames.get(0).type, is(DATA));
+        assertThat(frames.get(0).flags, is(END_STREAM));
+        assertThat(new String(frames.get(0).payload, Charsets.UTF_8), is("_body"));
+    }
+
+    @Test
+    public void shouldAdvertiseStreamWindowOneByteLargerThanMaximumBody() {
+        // when
+        EmbeddedChannel channel = new EmbeddedChannel(new Http2ServerCodec(10, 100));
+
+        // then
+        ByteBuf settings = Unpooled.wrappedBuffer(findFrame(readFrames(channel), SETTINGS).payload);
+        Long initialWindowSize = null;
+        while (settings.isReadable()) {
+            int identifier = settings.readUnsignedShort();
+            long value = settings.readUnsignedInt();
+            if (identifier == SETTINGS_INITIAL_WINDOW_SIZE) {
+                initialWindowSize = value;
+            }
+        }
+        assertThat(initialWindowSize, is(101L));
+    }
+
+    @Test
+    public void shouldEnlargeConnectionWindowToHoldMaximumBody() {
+        // when
+        EmbeddedChannel channel = new EmbeddedChannel(new Http2ServerCodec(10, 100000));
+
+        // then
+        Frame windowUpdate = findFrame(readFrames(channel), WINDOW_UPDATE);
+        assertThat(windowUpdate.streamId, is(0));
+        assertThat(Unpooled.wrappedBuffer(windowUpdate.payload).readInt(), is(100001 - 65535));
+    }
+
+    @Test
+    public void shouldOnlyRestoreConnectionWindowOnceRequestIsPassedOn() {
+        // given
+        EmbeddedChannel channel = channel(10, 100);
+
+        // when
+        channel.writeInbound(connection(
+                frame(HEADERS, END_HEADERS, 1, headerBlock(":method", "POST", ":scheme", "http", ":path", "/somePath")),
+                frame(DATA, 0, 1, "some_".getBytes(Charsets.UTF_8))
+        ));
+
+        // then
+        assertThat(channel.readInbound(), nullValue());
+        assertThat(findFrame(readFrames(channel), WINDOW_UPDATE), nullValue());
+
+        // when
+        channel.writeInbound(frame(DATA, END_STREAM, 1, "body".getBytes(Charsets.UTF_8)));
+
+        // then
+        ((FullHttpRequest) channel.readInbound()).release();
+        List<Frame> frames = readFrames(channel);
+        assertThat(frames.size(), is(1));
+        assertThat(frames.get(0).type, is(WINDOW_UPDATE));
+        assertThat(frames.get(0).streamId, is(0));
+        assertThat(Unpooled.wrappedBuffer(frames.get(0).payload).readInt(), is(9));
+    }
+
+    @Test
+    public void shouldRefuseStreamsOverMaximum() {
+        // given
+        EmbeddedChannel channel = channel(1, 100);
+
+        // when
+        channel.writeInbound(connection(getRequest(1), getRequest(3)));
+
+        // then
+        FullHttpRequest request = (FullHttpRequest) channel.readInbound();
+        assertThat(request.headers().get(Http2ServerCodec.STREAM_ID_HEADER), is("1"));
+        request.release();
+        assertThat(channel.readInbound(), nullValue());
+        Frame rstStream = findFrame(readFrames(channel), RST_STREAM);
+        assertThat(rstStream.streamId, is(3));
+        assertThat(Unpooled.wrappedBuffer(rstStream.payload).readInt(), is(Http2Exception.REFUSED_STREAM));
+    }
+
+    @Test
+    public void shouldRejectRequestBodyLargerThanMaximum() {
+        // given
+        EmbeddedChannel channel = channel(10, 5);
+
+        // when
+        channel.writeInbound(connection(
+                frame(HEADERS, END_HEADERS, 1, headerBlock(":method", "POST", ":scheme", "http", ":path", "/somePath")),
+                frame(DATA, END_STREAM, 1, "some_body".getBytes(Charsets.UTF_8))
+        ));
+
+        // then
+        assertThat(channel.readInbound(), nullValue());
+        List<Frame> frames = readFrames(channel);
+        Frame headers = findFrame(frames, HEADERS);
+        assertThat(headers.flags, is(END_HEADERS | END_STREAM));
+        assertThat(new HpackDecoder().decode(headers.payload).get(0).getValue(), is("413"));
+        assertThat(findFrame(frames, RST_STREAM).streamId, is(1));
+    }
+
+    @Test
+    public void shouldReplyToPing() {
+        // given
+        EmbeddedChannel channel = channel(10, 100);
+        byte[] opaqueData = {1, 2, 3, 4, 5, 6, 7, 8};
+
+        // when
+        channel.writeInbound(connection(frame(PING, 0, 0, opaqueData)));
+
+        // then
+        Frame ping = findFrame(readFrames(channel), PING);
+        assertThat(ping.flags, is(ACK));
+        assertThat(ping.payload, is(opaqueData));
+    }
+
+    @Test
+    public void shouldSendGoAwayForInvalidPreface() {
+        // given
+        EmbeddedChannel channel = channel(10, 100);
+
+        // when
+        channel.writeInbound(Unpooled.copiedBuffer("PRI * HTTP/1.1\r\n\r\nSM\r\n\r\n", Charsets.US_ASCII));
+
+        // then
+        Frame goAway = findFrame(readFrames(channel), GOAWAY);
+        ByteBuf payload = Unpooled.wrappedBuffer(goAway.payload);
+        assertThat(payload.readInt(), is(0));
+        assertThat(payload.readInt(), is(Http2Exception.PROTOCOL_ERROR));
+        assertThat(channel.isOpen(), is(false));
+    }
+
+    private static class Frame {
+        private final int type;
+        private final int flags;
+        private final int streamId;
+        private final byte[] payload;
+
+        private Frame(int type, int flags, int streamId, byte[] payload) {
+            this.type = type;
+            this.flags = flags;
+            this.streamId = streamId;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.mockserver.server.unification;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+
+/**
+ * @author jamesdbloom
+ */
+public class HttpRequestAggregatorTest {
+
+    @Test
+    public void shouldAggregateRequestInMemory() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestAggregator(100, 100));
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri");
+        HttpHeaders.setTransferEncodingChunked(request);
+
+        // when
+        channel.writeInbound(request);
+        channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", Charsets.UTF_8)));
+        channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("body", Charsets.UTF_8)));
+
+        // then
+        FullHttpRequest fullHttpRequest = (FullHttpRequest) channel.readInbound();
+        assertThat(fullHttpRequest, instanceOf(DefaultFullHttpRequest.class));
+        assertThat(fullHttpRequest.getUri(), is("/uri"));
+        assertThat(fullHttpRequest.content().toString(Charsets.UTF_8), is("some_body"));
+        assertThat(HttpHeaders.getContentLength(fullHttpRequest), is(9L));
+        assertThat(HttpHeaders.isTransferEncodingChunked(fullHttpRequest), is(false));
+        fullHttpRequest.release();
+    }
+
+    @Test
+    public void shouldWriteLargeBodyToTemporaryFile() throws IOException {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestAggregator(100, 5));
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri");
+        HttpHeaders.setTransferEncodingChunked(request);
+
+        // when
+        channel.writeInbound(request);
+        channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", Charsets.UTF_8)));
+        channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("body", Charsets.UTF_8)));
+
+        // then
+        SpilledHttpRequest spilledHttpRequest = (SpilledHttpRequest) channel.readInbound();
+        assertThat(spilledHttpRequest.content().readableBytes(), is(0));
+        assertThat(HttpHeaders.getContentLength(spilledHttpRequest), is(9L));
+        File file = spilledHttpRequest.takeFile();
+        assertThat(Files.toString(file, Charsets.UTF_8), is("some_body"));
+        spilledHttpRequest.release();
+        assertThat(file.delete(), is(true));
+    }
+
+    @Test
+    public void shouldDeleteTemporaryFileWhenRequestReleasedWithoutTakingFile() throws IOException {
+        // given
+        File file = File.createTempFile("mockserver-request-", ".body");
+        SpilledHttpRequest spilledHttpRequest = new SpilledHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri", file);
+
+        // when
+        spilledHttpRequest.release();
+
+        // then
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void shouldRejectRequestWithContentLengthLargerThanMaximum() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestAggregator(5, 5));
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri");
+        HttpHeaders.setContentLength(request, 9);
+
+        // when
+        channel.writeInbound(request);
+
+        // then
+        FullHttpResponse response = (FullHttpResponse) channel.readOutbound();
+        assertThat(response.getStatus(), is(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+        assertThat(channel.readInbound(), nullValue());
+        assertThat(channel.isOpen(), is(false));
+    }
+
+    @Test
+    public void shouldRejectChunkedRequestLargerThanMaximum() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestAggregator(5, 5));
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri");
+        HttpHeaders.setTransferEncodingChunked(request);
+        DefaultLastHttpContent tooLargeContent = new DefaultLastHttpContent(Unpooled.copiedBuffer("body", Charsets.UTF_8));
+
+        // when
+        channel.writeInbound(request);
+        channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", Charsets.UTF_8)));
+        channel.writeInbound(tooLargeContent);
+
+        // then
+        FullHttpResponse response = (FullHttpResponse) channel.readOutbound();
+        assertThat(response.getStatus(), is(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+        assertThat(channel.readInbound(), nullValue());
+        assertThat(tooLargeContent.refCnt(), is(0));
+    }
+
+    @Test
+    public void shouldSendContinueWhenExpected() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestAggregator(100, 100));
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri");
+        HttpHeaders.setContentLength(request, 9);
+        request.headers().set(HttpHeaders.Names.EXPECT, HttpHeaders.Values.CONTINUE);
+
+        // when
+        channel.writeInbound(request);
+        channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("some_body", Charsets.UTF_8)));
+
+        // then
+        FullHttpResponse response = (FullHttpResponse) channel.readOutbound();
+        assertThat(response.getStatus(), is(HttpResponseStatus.CONTINUE));
+        FullHttpRequest fullHttpRequest = (FullHttpRequest) channel.readInbound();
+        assertThat(fullHttpRequest.headers().contains(HttpHeaders.Names.EXPECT), is(false));
+        assertThat(fullHttpRequest.content().toString(Charsets.UTF_8), is("some_body"));
+        fullHttpRequest.release();
+    }
+}
@@ -0,0 +1,161 @@
+package org.mockserver.socket;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+/**
+ * @author jamesdbloom
+ */
+public class CachingHostResolverTest {
+
+    private static final Map<String, InetAddress[]> NO_HOSTS = Collections.emptyMap();
+
+    @Test
+    public void shouldCacheResolvedHost() throws Exception {
+        // given
+        CountingHostResolver hostResolver = new CountingHostResolver();
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(hostResolver, 60000, NO_HOSTS);
+
+        // when
+        InetAddress[] first = cachingHostResolver.resolve("www.example.com");
+        InetAddress[] second = cachingHostResolver.resolve("WWW.EXAMPLE.COM");
+
+        // then
+        assertThat(first[0].getHostAddress(), is("10.0.0.1"));
+        assertThat(second, is(first));
+        assertThat(hostResolver.lookups.get(), is(1));
+    }
+
+    @Test
+    public void shouldResolveHostAgainOnceTimeToLiveExpires() throws Exception {
+        // given
+        CountingHostResolver hostResolver = new CountingHostResolver();
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(hostResolver, 1, NO_HOSTS);
+        cachingHostResolver.resolve("www.example.com");
+
+        // when
+        TimeUnit.MILLISECONDS.sleep(10);
+        cachingHostResolver.resolve("www.example.com");
+
+        // then
+        assertThat(hostResolver.lookups.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotCacheFailedLookup() throws Exception {
+        // given
+        CountingHostResolver hostResolver = new CountingHostResolver();
+        hostResolver.fail = true;
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(hostResolver, 60000, NO_HOSTS);
+        try {
+            cachingHostResolver.resolveAsync("www.example.com").get();
+            fail("expected UnknownHostException");
+        } catch (ExecutionException ee) {
+            assertThat(ee.getCause(), instanceOf(UnknownHostException.class));
+        }
+
+        // when
+        hostResolver.fail = false;
+        InetAddress[] resolved = cachingHostResolver.resolve("www.example.com");
+
+        // then
+        assertThat(resolved[0].getHostAddress(), is("10.0.0.1"));
+        assertThat(hostResolver.lookups.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotResolveIpAddress() throws Exception {
+        // given
+        CountingHostResolver hostResolver = new CountingHostResolver();
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(hostResolver, 60000, NO_HOSTS);
+
+        // when
+        InetAddress[] resolved = cachingHostResolver.resolve("127.0.0.1");
+
+        // then
+        assertThat(resolved[0].getHostAddress(), is("127.0.0.1"));
+        assertThat(hostResolver.lookups.get(), is(0));
+    }
+
+    @Test
+    public void shouldResolveHostsFromHostsFile() throws Exception {
+        // given
+        File hostsFile = File.createTempFile("hosts", ".txt");
+        hostsFile.deleteOnExit();
+        Files.write("# comment line" + System.getProperty("line.separator") +
+                "10.0.0.2    offline.example.com   Other.Example.com # trailing comment" + System.getProperty("line.separator") +
+                "not_an_address   ignored.example.com" + System.getProperty("line.separator"), hostsFile, Charsets.UTF_8);
+        CountingHostResolver hostResolver = new CountingHostResolver();
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(hostResolver, 60000, CachingHostResolver.readHostsFile(hostsFile.getAbsolutePath()));
+
+        // when
+        InetAddress[] offline = cachingHostResolver.resolve("offline.example.com");
+        InetAddress[] other = cachingHostResolver.resolve("other.example.com");
+        InetAddress[] ignored = cachingHostResolver.resolve("ignored.example.com");
+
+        // then
+        assertThat(offline[0].getHostAddress(), is("10.0.0.2"));
+        assertThat(offline[0].getHostName(), is("offline.example.com"));
+        assertThat(other[0].getHostAddress(), is("10.0.0.2"));
+        assertThat(ignored[0].getHostAddress(), is("10.0.0.1"));
+        assertThat(hostResolver.lookups.get(), is(1));
+    }
+
+    @Test
+    public void shouldResolveSocketAddressKeepingHostName() throws Exception {
+        // given
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(new CountingHostResolver(), 60000, NO_HOSTS);
+
+        // when
+        InetSocketAddress resolved = cachingHostResolver.resolveAsync(InetSocketAddress.createUnresolved("www.example.com", 8080)).get();
+
+        // then
+        assertThat(resolved.isUnresolved(), is(false));
+        assertThat(resolved.getHostName(), is("www.example.com"));
+        assertThat(resolved.getAddress().getHostAddress(), is("10.0.0.1"));
+        assertThat(resolved.getPort(), is(8080));
+    }
+
+    @Test
+    public void shouldResolveSocketAddressForIpAddressLikeJdk() throws Exception {
+        // given
+        CachingHostResolver cachingHostResolver = new CachingHostResolver(new CountingHostResolver(), 60000, NO_HOSTS);
+
+        // when
+        InetSocketAddress resolved = cachingHostResolver.resolveAsync(InetSocketAddress.createUnresolved("127.0.0.1", 8080)).get();
+
+        // then
+        assertThat(resolved.toString(), is(new InetSocketAddress("127.0.0.1", 8080).toString()));
+    }
+
+    private static class CountingHostResolver implements HostResolver {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile boolean fail;
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            lookups.incrementAndGet();
+            if (fail) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[]{InetAddress.getByAddress(host, new byte[]{10, 0, 0, 1})};
+        }
+    }
+}
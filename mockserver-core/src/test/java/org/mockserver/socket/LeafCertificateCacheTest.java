@@ -0,0 +1,130 @@
+package org.mockserver.socket;
+
+import org.junit.Test;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class LeafCertificateCacheTest {
+
+    @Test
+    public void shouldIssueCertificateForHostSignedByCertificateAuthority() throws Exception {
+        // given
+        LeafCertificateCache leafCertificateCache = new LeafCertificateCache(10, "RSA");
+
+        // when
+        KeyStore.PrivateKeyEntry certificate = leafCertificateCache.issue("www.example.com").get();
+
+        // then
+        X509Certificate leafCertificate = (X509Certificate) certificate.getCertificateChain()[0];
+        X509Certificate certificateAuthorityCertificate = (X509Certificate) certificate.getCertificateChain()[1];
+        leafCertificate.verify(certificateAuthorityCertificate.getPublicKey());
+        assertThat(certificate.getPrivateKey().getAlgorithm(), is("RSA"));
+        assertThat(leafCertificate.getSubjectAlternativeNames().iterator().next(), contains((Object) 2, "www.example.com"));
+    }
+
+    @Test
+    public void shouldIssueCertificateForIpAddress() throws Exception {
+        // given
+        LeafCertificateCache leafCertificateCache = new LeafCertificateCache(10, "RSA");
+
+        // when
+        KeyStore.PrivateKeyEntry certificate = leafCertificateCache.issue("10.0.0.1").get();
+
+        // then
+        List<?> subjectAlternativeName = ((X509Certificate) certificate.getCertificateChain()[0]).getSubjectAlternativeNames().iterator().next();
+        assertThat(subjectAlternativeName, contains((Object) 7, "10.0.0.1"));
+    }
+
+    @Test
+    public void shouldIssueCertificateWithECKey() throws Exception {
+        // given
+        LeafCertificateCache leafCertificateCache = new LeafCertificateCache(10, "EC");
+
+        // when
+        KeyStore.PrivateKeyEntry certificate = leafCertificateCache.issue("www.example.com").get();
+
+        // then
+        assertThat(certificate.getPrivateKey().getAlgorithm(), is("EC"));
+        assertThat(certificate.getCertificateChain()[0].getPublicKey().getAlgorithm(), is("EC"));
+    }
+
+    @Test
+    public void shouldReuseIssuedCertificate() throws Exception {
+        // given
+        LeafCertificateCache leafCertificateCache = new LeafCertificateCache(10, "RSA");
+        KeyStore.PrivateKeyEntry certificate = leafCertificateCache.issue("www.example.com").get();
+
+        // then
+        assertThat(leafCertificateCache.issue("WWW.EXAMPLE.COM").isDone(), is(true));
+        assertThat(leafCertificateCache.certificate("www.example.com"), sameInstance(certificate));
+    }
+
+    @Test
+    public void shouldChooseCertificateForPeerHost() throws Exception {
+        // given
+        LeafCertificateCache leafCertificateCache = new LeafCertificateCache(10, "RSA");
+        X509ExtendedKeyManager keyStoreKeyManager = mock(X509ExtendedKeyManager.class);
+        LeafCertificateKeyManager leafCertificateKeyManager = new LeafCertificateKeyManager(keyStoreKeyManager, leafCertificateCache);
+        SSLEngine engine = mock(SSLEngine.class);
+        when(engine.getPeerHost()).thenReturn("www.example.com");
+        leafCertificateCache.issue("www.example.com").get();
+
+        // when
+        String alias = leafCertificateKeyManager.chooseEngineServerAlias("RSA", null, engine);
+
+        // then
+        assertThat(alias, startsWith(LeafCertificateKeyManager.LEAF_CERTIFICATE_ALIAS_PREFIX + "www.example.com"));
+        assertThat(leafCertificateKeyManager.getPrivateKey(alias), sameInstance(leafCertificateCache.certificate("www.example.com").getPrivateKey()));
+        assertThat(leafCertificateKeyManager.getCertificateChain(alias)[0], is(leafCertificateCache.certificate("www.example.com").getCertificateChain()[0]));
+        verifyZeroInteractions(keyStoreKeyManager);
+    }
+
+    @Test
+    public void shouldChooseKeyStoreCertificateWithoutPeerHost() {
+        // given
+        X509ExtendedKeyManager keyStoreKeyManager = mock(X509ExtendedKeyManager.class);
+        LeafCertificateKeyManager leafCertificateKeyManager = new LeafCertificateKeyManager(keyStoreKeyManager, new LeafCertificateCache(10, "RSA"));
+        SSLEngine engine = mock(SSLEngine.class);
+        when(keyStoreKeyManager.chooseEngineServerAlias("RSA", null, engine)).thenReturn(SSLFactory.KEY_STORE_CERT_ALIAS);
+
+        // when
+        String alias = leafCertificateKeyManager.chooseEngineServerAlias("RSA", null, engine);
+
+        // then
+        assertEquals(SSLFactory.KEY_STORE_CERT_ALIAS, alias);
+    }
+
+    @Test
+    public void shouldKeepChosenCertificateAfterEviction() throws Exception {
+        // given
+        LeafCertificateCache leafCertificateCache = new LeafCertificateCache(1, "RSA");
+        LeafCertificateKeyManager leafCertificateKeyManager = new LeafCertificateKeyManager(mock(X509ExtendedKeyManager.class), leafCertificateCache);
+        SSLEngine engine = mock(SSLEngine.class);
+        when(engine.getPeerHost()).thenReturn("www.example.com");
+        KeyStore.PrivateKeyEntry certificate = leafCertificateCache.issue("www.example.com").get();
+        String alias = leafCertificateKeyManager.chooseEngineServerAlias("RSA", null, engine);
+
+        // when
+        leafCertificateCache.issue("www.other-example.com").get();
+
+        // then
+        assertThat(leafCertificateKeyManager.getPrivateKey(alias), sameInstance(certificate.getPrivateKey()));
+        assertThat(leafCertificateKeyManager.getCertificateChain(alias)[0], is(certificate.getCertificateChain()[0]));
+        assertThat(leafCertificateKeyManager.chooseEngineServerAlias("RSA", null, engine), startsWith(LeafCertificateKeyManager.LEAF_CERTIFICATE_ALIAS_PREFIX + "www.example.com"));
+    }
+}
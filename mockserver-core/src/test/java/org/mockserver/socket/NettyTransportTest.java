@@ -0,0 +1,67 @@
+package org.mockserver.socket;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author jamesdbloom
+ */
+public class NettyTransportTest {
+
+    @Test
+    public void shouldUseNioWhenNativeTransportDisabled() {
+        // given
+        NettyTransport nettyTransport = new NettyTransport(false);
+
+        // when
+        EventLoopGroup eventLoopGroup = nettyTransport.createEventLoopGroup(1);
+        NioSocketChannel socketChannel = new NioSocketChannel();
+
+        // then
+        try {
+            assertThat(nettyTransport.isNative(), is(false));
+            assertThat(eventLoopGroup, instanceOf(NioEventLoopGroup.class));
+            assertEquals(NioServerSocketChannel.class, nettyTransport.serverChannelClass());
+            assertEquals(NioSocketChannel.class, NettyTransport.socketChannelClass(socketChannel));
+        } finally {
+            socketChannel.unsafe().closeForcibly();
+            eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void shouldBindSingleChannelWithNio() throws InterruptedException {
+        // given
+        NettyTransport nettyTransport = new NettyTransport(false);
+        EventLoopGroup eventLoopGroup = nettyTransport.createEventLoopGroup(1);
+        int port = PortFactory.findFreePort();
+
+        try {
+            // when
+            Channel channel = nettyTransport.bind(new ServerBootstrap()
+                    .group(eventLoopGroup)
+                    .channel(nettyTransport.serverChannelClass())
+                    .childHandler(new ChannelInboundHandlerAdapter()), port);
+
+            // then
+            assertThat(((InetSocketAddress) channel.localAddress()).getPort(), is(port));
+            channel.close().sync();
+        } finally {
+            eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        }
+    }
+}
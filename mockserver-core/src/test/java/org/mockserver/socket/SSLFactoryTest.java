@@ -0,0 +1,61 @@
+package org.mockserver.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import javax.net.ssl.SSLContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * @author jamesdbloom
+ */
+public class SSLFactoryTest {
+
+    private String subjectAlternativeNameDomains;
+
+    @Before
+    public void backupSubjectAlternativeNames() {
+        subjectAlternativeNameDomains = System.getProperty("mockserver.sslSubjectAlternativeNameDomains");
+    }
+
+    @After
+    public void restoreSubjectAlternativeNames() {
+        if (subjectAlternativeNameDomains != null) {
+            System.setProperty("mockserver.sslSubjectAlternativeNameDomains", subjectAlternativeNameDomains);
+        } else {
+            System.clearProperty("mockserver.sslSubjectAlternativeNameDomains");
+        }
+    }
+
+    @Test
+    public void shouldReuseSSLContextUntilKeyStoreChanges() {
+        // given
+        SSLContext sslContext = SSLFactory.getInstance().sslContext();
+
+        // when
+        SSLContext reusedSSLContext = SSLFactory.getInstance().sslContext();
+        ConfigurationProperties.addSslSubjectAlternativeNameDomains("ssl-factory-test.mock-server.com");
+        SSLContext rebuiltSSLContext = SSLFactory.getInstance().sslContext();
+
+        // then
+        assertThat(reusedSSLContext, sameInstance(sslContext));
+        assertThat(rebuiltSSLContext, not(sameInstance(sslContext)));
+        assertThat(SSLFactory.getInstance().sslContext(), sameInstance(rebuiltSSLContext));
+    }
+
+    @Test
+    public void shouldConfigureSessionCache() {
+        // when
+        SSLContext sslContext = SSLFactory.getInstance().sslContext();
+
+        // then
+        assertThat(sslContext.getServerSessionContext().getSessionCacheSize(), is(ConfigurationProperties.sslSessionCacheSize()));
+        assertThat(sslContext.getServerSessionContext().getSessionTimeout(), is(ConfigurationProperties.sslSessionTimeout()));
+    }
+}
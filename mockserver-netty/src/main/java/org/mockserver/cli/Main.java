@@ -3,6 +3,7 @@ package org.mockserver.cli;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.mockserver.MockServerBuilder;
 import org.mockserver.proxy.ProxyBuilder;
 import org.slf4j.Logger;
@@ -22,8 +23,13 @@ public class Main {
     public static final String PROXY_PORT_KEY = "proxyPort";
     public static final String PROXY_REMOTE_PORT_KEY = "proxyRemotePort";
     public static final String PROXY_REMOTE_HOST_KEY = "proxyRemoteHost";
+    public static final String NATIVE_TRANSPORT_KEY = "nativeTransport";
+    public static final String BOSS_THREADS_KEY = "bossThreads";
+    public static final String WORKER_THREADS_KEY = "workerThreads";
+    public static final String ACCEPTORS_KEY = "acceptors";
     public static final String USAGE = "" +
             "   java -jar <path to mockserver-jetty-jar-with-dependencies.jar> [-serverPort <port>] [-proxyPort <port>] [-proxyRemotePort <port>] [-proxyRemoteHost <hostname>]" + System.getProperty("line.separator") +
+            "                      [-nativeTransport <true|false>] [-bossThreads <count>] [-workerThreads <count>] [-acceptors <count>]" + System.getProperty("line.separator") +
             "                                                                                       " + System.getProperty("line.separator") +
             "     valid options are:                                                                " + System.getProperty("line.separator") +
             "        -serverPort <port>           specifies the HTTP, HTTPS, SOCKS and HTTP         " + System.getProperty("line.separator") +
@@ -48,6 +54,19 @@ public class Main {
             "                                     value is provided for proxyRemoteHost when        " + System.getProperty("line.separator") +
             "                                     proxyRemotePort has been specified,               " + System.getProperty("line.separator") +
             "                                     proxyRemoteHost will default to \"localhost\"     " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -nativeTransport <true|false> use the native epoll transport when available    " + System.getProperty("line.separator") +
+            "                                     (i.e. on Linux) instead of NIO                    " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -bossThreads <count>         specifies the number of threads accepting         " + System.getProperty("line.separator") +
+            "                                     connections, defaults to twice the number of cores" + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -workerThreads <count>       specifies the number of threads handling          " + System.getProperty("line.separator") +
+            "                                     requests, defaults to twice the number of cores   " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -acceptors <count>           specifies the number of server sockets bound to   " + System.getProperty("line.separator") +
+            "                                     each port with SO_REUSEPORT, this requires the    " + System.getProperty("line.separator") +
+            "                                     native transport                                  " + System.getProperty("line.separator") +
             "                                                                                       " + System.getProperty("line.separator");
 
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
@@ -80,6 +99,18 @@ public class Main {
         }
 
         if (parsedArguments.size() > 0) {
+            if (parsedArguments.containsKey(NATIVE_TRANSPORT_KEY)) {
+                ConfigurationProperties.nativeTransport(Boolean.parseBoolean(parsedArguments.get(NATIVE_TRANSPORT_KEY)));
+            }
+            if (parsedArguments.containsKey(BOSS_THREADS_KEY)) {
+                ConfigurationProperties.bossThreadCount(Integer.parseInt(parsedArguments.get(BOSS_THREADS_KEY)));
+            }
+            if (parsedArguments.containsKey(WORKER_THREADS_KEY)) {
+                ConfigurationProperties.workerThreadCount(Integer.parseInt(parsedArguments.get(WORKER_THREADS_KEY)));
+            }
+            if (parsedArguments.containsKey(ACCEPTORS_KEY)) {
+                ConfigurationProperties.acceptorCount(Integer.parseInt(parsedArguments.get(ACCEPTORS_KEY)));
+            }
             if (parsedArguments.containsKey(SERVER_PORT_KEY)) {
                 mockServerBuilder.withHTTPPort(Integer.parseInt(parsedArguments.get(SERVER_PORT_KEY))).build();
             }
@@ -106,9 +137,13 @@ public class Main {
             String argumentName = argumentsIterator.next();
             if (argumentsIterator.hasNext()) {
                 String argumentValue = argumentsIterator.next();
-                if (!parsePort(parsedIntegerArguments, SERVER_PORT_KEY, argumentName, argumentValue)
-                        && !parsePort(parsedIntegerArguments, PROXY_PORT_KEY, argumentName, argumentValue)
-                        && !parsePort(parsedIntegerArguments, PROXY_REMOTE_PORT_KEY, argumentName, argumentValue)
+                if (!parseInteger(parsedIntegerArguments, SERVER_PORT_KEY, argumentName, argumentValue)
+                        && !parseInteger(parsedIntegerArguments, PROXY_PORT_KEY, argumentName, argumentValue)
+                        && !parseInteger(parsedIntegerArguments, PROXY_REMOTE_PORT_KEY, argumentName, argumentValue)
+                        && !parseInteger(parsedIntegerArguments, BOSS_THREADS_KEY, argumentName, argumentValue)
+                        && !parseInteger(parsedIntegerArguments, WORKER_THREADS_KEY, argumentName, argumentValue)
+                        && !parseInteger(parsedIntegerArguments, ACCEPTORS_KEY, argumentName, argumentValue)
+                        && !parseBoolean(parsedIntegerArguments, NATIVE_TRANSPORT_KEY, argumentName, argumentValue)
                         && !("-" + PROXY_REMOTE_HOST_KEY).equalsIgnoreCase(argumentName)) {
                     showUsage();
                     break;
@@ -124,7 +159,7 @@ public class Main {
         return parsedIntegerArguments;
     }
 
-    private static boolean parsePort(Map<String, String> parsedArguments, final String key, final String argumentName, final String argumentValue) {
+    private static boolean parseInteger(Map<String, String> parsedArguments, final String key, final String argumentName, final String argumentValue) {
         if (argumentName.equals("-" + key)) {
             try {
                 parsedArguments.put(key, String.valueOf(Integer.parseInt(argumentValue)));
@@ -136,6 +171,18 @@ public class Main {
         return false;
     }
 
+    private static boolean parseBoolean(Map<String, String> parsedArguments, final String key, final String argumentName, final String argumentValue) {
+        if (argumentName.equals("-" + key)) {
+            if (argumentValue.equalsIgnoreCase("true") || argumentValue.equalsIgnoreCase("false")) {
+                parsedArguments.put(key, argumentValue.toLowerCase());
+                return true;
+            } else {
+                logger.error("Please provide a value of true or false for -" + key + ", [" + argumentValue + "] is not a valid boolean");
+            }
+        }
+        return false;
+    }
+
     private static void showUsage() {
         if (!usagePrinted) {
             outputPrintStream.print(USAGE);
@@ -0,0 +1,105 @@
+package org.mockserver.codec;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import org.mockserver.model.HttpResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The status line, headers and body of each mocked response encoded once into a direct buffer, so every request
+ * matching the same expectation is served with a duplicate of the same bytes instead of encoding the response again
+ * <p/>
+ * Entries are keyed by the identity of the response held by the expectation, and released once that response is no
+ * longer reachable, so an expectation that is cleared or replaced is never served from the cache
+ *
+ * @author jamesdbloom
+ */
+public class EncodedResponseCache {
+
+    private final LoadingCache<HttpResponse, EncodedResponse> encodedResponses = CacheBuilder.newBuilder()
+            .weakKeys()
+            .removalListener(new RemovalListener<HttpResponse, EncodedResponse>() {
+                @Override
+                public void onRemoval(RemovalNotification<HttpResponse, EncodedResponse> notification) {
+                    notification.getValue().release();
+                }
+            })
+            .build(new CacheLoader<HttpResponse, EncodedResponse>() {
+                @Override
+                public EncodedResponse load(HttpResponse key) {
+                    return new EncodedResponse();
+                }
+            });
+
+    /**
+     * @param template  the response returned by the expectation
+     * @param keepAlive if the response is for a keep-alive request, which determines the Connection header
+     * @return a retained duplicate of the encoded response, which the caller must write or release, or null if the
+     * response has not been encoded yet
+     */
+    public ByteBuf get(HttpResponse template, boolean keepAlive) {
+        ByteBuf encoded = encodedResponses.getUnchecked(template).slot(keepAlive).get();
+        return encoded != null ? encoded.duplicate().retain() : null;
+    }
+
+    /**
+     * @param template  the response returned by the expectation
+     * @param keepAlive if the response is for a keep-alive request, which determines the Connection header
+     * @param response  the response to encode, which is the template with all headers added for this type of request
+     * @return a retained duplicate of the encoded response, which the caller must write or release
+     */
+    public ByteBuf put(HttpResponse template, boolean keepAlive, HttpResponse response) {
+        AtomicReference<ByteBuf> slot = encodedResponses.getUnchecked(template).slot(keepAlive);
+        ByteBuf encoded = encode(response);
+        if (!slot.compareAndSet(null, encoded)) {
+            // another event loop encoded the same response first
+            encoded.release();
+        }
+        return slot.get().duplicate().retain();
+    }
+
+    private ByteBuf encode(HttpResponse response) {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(), new MockServerResponseEncoder());
+        channel.writeOutbound(response);
+        channel.finish();
+        ByteBuf encoded = Unpooled.directBuffer();
+        for (Object part = channel.readOutbound(); part != null; part = channel.readOutbound()) {
+            ByteBuf buffer = (ByteBuf) part;
+            try {
+                encoded.writeBytes(buffer);
+            } finally {
+                buffer.release();
+            }
+        }
+        return encoded.capacity(encoded.writerIndex());
+    }
+
+    private static class EncodedResponse {
+        private final AtomicReference<ByteBuf> keepAlive = new AtomicReference<ByteBuf>();
+        private final AtomicReference<ByteBuf> close = new AtomicReference<ByteBuf>();
+
+        AtomicReference<ByteBuf> slot(boolean keepAlive) {
+            return keepAlive ? this.keepAlive : close;
+        }
+
+        void release() {
+            release(keepAlive);
+            release(close);
+        }
+
+        private static void release(AtomicReference<ByteBuf> slot) {
+            ByteBuf encoded = slot.getAndSet(null);
+            if (encoded != null) {
+                encoded.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.mockserver.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import org.mockserver.model.GeneratedBody;
+
+/**
+ * Streams a generated body as slices of a single chunk filled with whole repetitions of the pattern, so a body of
+ * any length is written using one chunk of memory
+ *
+ * @author jamesdbloom
+ */
+public class GeneratedBodyChunkedInput implements ChunkedInput<ByteBuf> {
+
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+    private final ByteBuf chunk;
+    private final long length;
+    private long offset;
+    private boolean closed;
+
+    public GeneratedBodyChunkedInput(GeneratedBody generatedBody) {
+        this(generatedBody, DEFAULT_CHUNK_SIZE);
+    }
+
+    GeneratedBodyChunkedInput(GeneratedBody generatedBody, int chunkSize) {
+        byte[] pattern = generatedBody.getPatternBytes();
+        int repetitions = Math.max(1, chunkSize / pattern.length);
+        this.chunk = Unpooled.directBuffer(repetitions * pattern.length);
+        for (int i = 0; i < repetitions; i++) {
+            chunk.writeBytes(pattern);
+        }
+        this.length = generatedBody.getLength();
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return offset >= length;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            chunk.release();
+        }
+    }
+
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) {
+        if (isEndOfInput()) {
+            return null;
+        }
+        int chunkLength = (int) Math.min(chunk.readableBytes(), length - offset);
+        offset += chunkLength;
+        // every chunk starts at the beginning of the pattern because the chunk holds whole repetitions
+        return chunk.slice(0, chunkLength).retain();
+    }
+}
@@ -1,14 +1,18 @@
 package org.mockserver.codec;
 
 import com.google.common.base.Splitter;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import org.apache.commons.lang3.StringUtils;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.mappers.ContentTypeMapper;
 import org.mockserver.model.*;
+import org.mockserver.server.http2.Http2ServerCodec;
+import org.mockserver.server.unification.SpilledHttpRequest;
 import org.mockserver.url.URLParser;
 
 import java.nio.charset.Charset;
@@ -24,9 +28,19 @@ import static org.mockserver.mappers.ContentTypeMapper.*;
 public class MockServerRequestDecoder extends MessageToMessageDecoder<FullHttpRequest> {
 
     private final boolean isSecure;
+    private final boolean zeroCopyBodies;
 
     public MockServerRequestDecoder(boolean isSecure) {
+        this(isSecure, ConfigurationProperties.zeroCopyRequestBodies());
+    }
+
+    /**
+     * @param zeroCopyBodies true if bodies should wrap a retained slice of the request's buffer instead of a copy,
+     *                       whoever handles the request must then release it
+     */
+    public MockServerRequestDecoder(boolean isSecure, boolean zeroCopyBodies) {
         this.isSecure = isSecure;
+        this.zeroCopyBodies = zeroCopyBodies;
     }
 
     @Override
@@ -40,6 +54,7 @@ public class MockServerRequestDecoder extends MessageToMessageDecoder<FullHttpRe
             setQueryString(httpRequest, queryStringDecoder);
 
             setBody(httpRequest, fullHttpRequest);
+            setStreamId(ctx, httpRequest, fullHttpRequest);
             setHeaders(httpRequest, fullHttpRequest);
             setCookies(httpRequest, fullHttpRequest);
 
@@ -62,10 +77,24 @@ public class MockServerRequestDecoder extends MessageToMessageDecoder<FullHttpRe
     }
 
     private void setBody(HttpRequest httpRequest, FullHttpRequest fullHttpRequest) {
-        if (fullHttpRequest.content() != null && fullHttpRequest.content().readableBytes() > 0) {
-            byte[] bodyBytes = new byte[fullHttpRequest.content().readableBytes()];
-            fullHttpRequest.content().readBytes(bodyBytes);
-            if (bodyBytes.length > 0) {
+        if (fullHttpRequest instanceof SpilledHttpRequest) {
+            // the body was too large to hold in memory, the body takes over the file and deletes it once released
+            Charset requestCharset = determineCharsetForMessage(fullHttpRequest);
+            boolean binary = ContentTypeMapper.isBinary(fullHttpRequest.headers().get(HttpHeaders.Names.CONTENT_TYPE));
+            httpRequest.withBody(new TemporaryFileBody(((SpilledHttpRequest) fullHttpRequest).takeFile(), DEFAULT_HTTP_CHARACTER_SET.equals(requestCharset) ? null : requestCharset, binary));
+        } else if (fullHttpRequest.content() != null && fullHttpRequest.content().readableBytes() > 0) {
+            if (zeroCopyBodies) {
+                // the slice shares the request's reference count so retaining it keeps the buffer once the request is released
+                ByteBuf content = fullHttpRequest.content().slice().retain();
+                if (ContentTypeMapper.isBinary(fullHttpRequest.headers().get(HttpHeaders.Names.CONTENT_TYPE))) {
+                    httpRequest.withBody(new BinaryBody(content));
+                } else {
+                    Charset requestCharset = determineCharsetForMessage(fullHttpRequest);
+                    httpRequest.withBody(new StringBody(content, DEFAULT_HTTP_CHARACTER_SET.equals(requestCharset) ? null : requestCharset));
+                }
+            } else {
+                byte[] bodyBytes = new byte[fullHttpRequest.content().readableBytes()];
+                fullHttpRequest.content().readBytes(bodyBytes);
                 if (ContentTypeMapper.isBinary(fullHttpRequest.headers().get(HttpHeaders.Names.CONTENT_TYPE))) {
                     httpRequest.withBody(new BinaryBody(bodyBytes));
                 } else {
@@ -76,6 +105,17 @@ public class MockServerRequestDecoder extends MessageToMessageDecoder<FullHttpRe
         }
     }
 
+    private void setStreamId(ChannelHandlerContext ctx, HttpRequest httpRequest, FullHttpRequest fullHttpRequest) {
+        // only trust the header when it was added by the HTTP/2 codec
+        if (ctx != null && ctx.pipeline().get(Http2ServerCodec.class) != null) {
+            String streamId = fullHttpRequest.headers().get(Http2ServerCodec.STREAM_ID_HEADER);
+            if (streamId != null) {
+                fullHttpRequest.headers().remove(Http2ServerCodec.STREAM_ID_HEADER);
+                httpRequest.withStreamId(Integer.valueOf(streamId));
+            }
+        }
+    }
+
     private void setHeaders(HttpRequest httpRequest, FullHttpRequest fullHttpResponse) {
         HttpHeaders headers = fullHttpResponse.headers();
         for (String headerName : headers.names()) {
@@ -4,15 +4,22 @@ import com.google.common.base.Strings;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
 import org.mockserver.mappers.ContentTypeMapper;
 import org.mockserver.model.*;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.server.http2.Http2ServerCodec;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,14 +33,71 @@ import static io.netty.handler.codec.http.HttpHeaders.Names.SET_COOKIE;
 public class MockServerResponseEncoder extends MessageToMessageEncoder<HttpResponse> {
     @Override
     protected void encode(ChannelHandlerContext ctx, HttpResponse response, List<Object> out) {
-        DefaultFullHttpResponse defaultFullHttpResponse = new DefaultFullHttpResponse(
-                HttpVersion.HTTP_1_1,
-                HttpResponseStatus.valueOf((response.getStatusCode() != null ? response.getStatusCode() : 200)),
-                getBody(response)
-        );
-        setHeaders(response, defaultFullHttpResponse);
-        setCookies(response, defaultFullHttpResponse);
-        out.add(defaultFullHttpResponse);
+        if (response.getBody() instanceof StreamedBody) {
+            List<Object> streamedBody;
+            try {
+                streamedBody = streamedBody(ctx, (StreamedBody) response.getBody());
+            } catch (IOException ioe) {
+                // the file was removed, or is no longer in the file body directory, after the expectation was created, no
+                // headers have been written so the client can still be answered
+                DefaultFullHttpResponse notFoundResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND, Unpooled.buffer(0, 0));
+                HttpHeaders.setContentLength(notFoundResponse, 0);
+                setStreamId(response, notFoundResponse);
+                out.add(notFoundResponse);
+                return;
+            }
+            DefaultHttpResponse defaultHttpResponse = new DefaultHttpResponse(
+                    HttpVersion.HTTP_1_1,
+                    HttpResponseStatus.valueOf((response.getStatusCode() != null ? response.getStatusCode() : 200))
+            );
+            setHeaders(response, defaultHttpResponse);
+            setCookies(response, defaultHttpResponse);
+            if (!HttpHeaders.isContentLengthSet(defaultHttpResponse)) {
+                HttpHeaders.setTransferEncodingChunked(defaultHttpResponse);
+            }
+            setStreamId(response, defaultHttpResponse);
+            out.add(defaultHttpResponse);
+            out.addAll(streamedBody);
+        } else {
+            DefaultFullHttpResponse defaultFullHttpResponse = new DefaultFullHttpResponse(
+                    HttpVersion.HTTP_1_1,
+                    HttpResponseStatus.valueOf((response.getStatusCode() != null ? response.getStatusCode() : 200)),
+                    getBody(response)
+            );
+            setHeaders(response, defaultFullHttpResponse);
+            setCookies(response, defaultFullHttpResponse);
+            setStreamId(response, defaultFullHttpResponse);
+            out.add(defaultFullHttpResponse);
+        }
+    }
+
+    /**
+     * Streamed bodies are written by the ChunkedWriteHandler as the channel becomes writable, files are sent with
+     * zero-copy file transfer unless the connection is encrypted or the body has to be framed for HTTP/2
+     * <p/>
+     * Files are opened before the response headers are written so a file that can't be read can still be reported
+     */
+    private List<Object> streamedBody(ChannelHandlerContext ctx, StreamedBody body) throws IOException {
+        List<Object> out = new ArrayList<Object>();
+        if (body instanceof FileBody) {
+            File file = ((FileBody) body).resolveFile();
+            if (ctx != null && (ctx.pipeline().get(SslHandler.class) != null || ctx.pipeline().get(Http2ServerCodec.class) != null)) {
+                out.add(new HttpChunkedInput(new ChunkedNioFile(file)));
+            } else {
+                RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                out.add(new DefaultFileRegion(randomAccessFile.getChannel(), 0, randomAccessFile.length()));
+                out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+            }
+        } else if (body instanceof GeneratedBody) {
+            out.add(new HttpChunkedInput(new GeneratedBodyChunkedInput((GeneratedBody) body)));
+        }
+        return out;
+    }
+
+    private void setStreamId(HttpResponse response, HttpMessage httpMessage) {
+        if (response.getStreamId() != null) {
+            httpMessage.headers().set(Http2ServerCodec.STREAM_ID_HEADER, response.getStreamId());
+        }
     }
 
     private ByteBuf getBody(HttpResponse response) {
@@ -54,7 +118,7 @@ public class MockServerResponseEncoder extends MessageToMessageEncoder<HttpRespo
         return content;
     }
 
-    private void setHeaders(HttpResponse response, DefaultFullHttpResponse httpServletResponse) {
+    private void setHeaders(HttpResponse response, HttpMessage httpServletResponse) {
         if (response.getHeaders() != null) {
             for (Header header : response.getHeaders()) {
                 for (NottableString value : header.getValues()) {
@@ -76,7 +140,7 @@ public class MockServerResponseEncoder extends MessageToMessageEncoder<HttpRespo
         }
     }
 
-    private void setCookies(HttpResponse response, DefaultFullHttpResponse httpServletResponse) {
+    private void setCookies(HttpResponse response, HttpMessage httpServletResponse) {
         if (response.getCookies() != null) {
             List<Cookie> cookieValues = new ArrayList<Cookie>();
             for (org.mockserver.model.Cookie cookie : response.getCookies()) {
@@ -0,0 +1,103 @@
+package org.mockserver.codec;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import org.mockserver.model.HttpRequest;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes HTTP/1.1 responses in the order the requests were received on a channel, a response that is ready before
+ * the responses to earlier requests, for example because they are delayed or forwarded, is held until they have been
+ * written, HTTP/2 streams are written as soon as they are ready
+ * <p/>
+ * The requests waiting for a response are held on the channel so handlers shared by every channel can use this, all
+ * methods must be called from the channel's event loop
+ *
+ * @author jamesdbloom
+ */
+public class PipelinedResponses {
+
+    private static final AttributeKey<Deque<PendingResponse>> PENDING_RESPONSES = AttributeKey.valueOf("PENDING_RESPONSES");
+
+    /**
+     * Reserves the position of the request's response, every request passed to this must be responded to with
+     * {@link #write(Channel, HttpRequest, Object, Runnable)} otherwise responses to later requests are never written
+     */
+    public static void received(Channel channel, HttpRequest request) {
+        if (request.getStreamId() == null) {
+            Deque<PendingResponse> pendingResponses = channel.attr(PENDING_RESPONSES).get();
+            if (pendingResponses == null) {
+                pendingResponses = new ArrayDeque<PendingResponse>();
+                channel.attr(PENDING_RESPONSES).set(pendingResponses);
+            }
+            pendingResponses.add(new PendingResponse(request));
+        }
+    }
+
+    /**
+     * @return true if the responses to all earlier requests on the channel have been written
+     */
+    public static boolean isNext(Channel channel, HttpRequest request) {
+        Deque<PendingResponse> pendingResponses = channel.attr(PENDING_RESPONSES).get();
+        return request.getStreamId() != null || pendingResponses == null || pendingResponses.isEmpty() || pendingResponses.peek().request == request;
+    }
+
+    /**
+     * Runs the write once the responses to all earlier requests have been written
+     *
+     * @param response the response the write sends, released if it is never written
+     */
+    public static void write(Channel channel, HttpRequest request, Object response, Runnable write) {
+        Deque<PendingResponse> pendingResponses = channel.attr(PENDING_RESPONSES).get();
+        if (request.getStreamId() != null || pendingResponses == null) {
+            write.run();
+            return;
+        }
+        boolean pending = false;
+        for (PendingResponse pendingResponse : pendingResponses) {
+            if (pendingResponse.request == request && pendingResponse.write == null) {
+                pendingResponse.ready(response, write);
+                pending = true;
+                break;
+            }
+        }
+        if (!pending) {
+            // the request has already been responded to
+            ReferenceCountUtil.release(response);
+        }
+        while (!pendingResponses.isEmpty() && pendingResponses.peek().write != null) {
+            pendingResponses.poll().write.run();
+        }
+    }
+
+    /**
+     * Releases the responses that are still waiting to be written when the channel is closed
+     */
+    public static void closed(Channel channel) {
+        Deque<PendingResponse> pendingResponses = channel.attr(PENDING_RESPONSES).get();
+        if (pendingResponses != null) {
+            for (PendingResponse pendingResponse : pendingResponses) {
+                ReferenceCountUtil.release(pendingResponse.response);
+            }
+            pendingResponses.clear();
+        }
+    }
+
+    private static class PendingResponse {
+        private final HttpRequest request;
+        private Object response;
+        private Runnable write;
+
+        private PendingResponse(HttpRequest request) {
+            this.request = request;
+        }
+
+        private void ready(Object response, Runnable write) {
+            this.response = response;
+            this.write = write;
+        }
+    }
+}
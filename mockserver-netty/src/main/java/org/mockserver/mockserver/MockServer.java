@@ -6,11 +6,11 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.AttributeKey;
+import org.mockserver.codec.EncodedResponseCache;
 import org.mockserver.filters.LogFilter;
 import org.mockserver.mock.MockServerMatcher;
+import org.mockserver.socket.NettyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,14 +24,17 @@ import java.util.concurrent.TimeUnit;
 public class MockServer {
 
     public static final AttributeKey<LogFilter> LOG_FILTER = AttributeKey.valueOf("SERVER_LOG_FILTER");
+    public static final AttributeKey<EncodedResponseCache> ENCODED_RESPONSE_CACHE = AttributeKey.valueOf("SERVER_ENCODED_RESPONSE_CACHE");
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     // mockserver
     private final MockServerMatcher mockServerMatcher = new MockServerMatcher();
     private final LogFilter logFilter = new LogFilter();
+    private final EncodedResponseCache encodedResponseCache = new EncodedResponseCache();
     private final SettableFuture<String> hasStarted;
     // netty
-    private final EventLoopGroup bossGroup = new NioEventLoopGroup();
-    private final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private final NettyTransport transport = NettyTransport.configured();
+    private final EventLoopGroup bossGroup = transport.createBossGroup();
+    private final EventLoopGroup workerGroup = transport.createWorkerGroup();
     private Channel channel;
 
     /**
@@ -50,17 +53,15 @@ public class MockServer {
             @Override
             public void run() {
                 try {
-                    channel = new ServerBootstrap()
+                    channel = transport.bind(new ServerBootstrap()
                             .group(bossGroup, workerGroup)
                             .option(ChannelOption.SO_BACKLOG, 1024)
-                            .channel(NioServerSocketChannel.class)
+                            .channel(transport.serverChannelClass())
                             .childOption(ChannelOption.AUTO_READ, true)
                             .childHandler(new MockServerInitializer(mockServerMatcher, MockServer.this, false))
                             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                             .childAttr(LOG_FILTER, logFilter)
-                            .bind(port)
-                            .sync()
-                            .channel();
+                            .childAttr(ENCODED_RESPONSE_CACHE, encodedResponseCache), port);
 
                     logger.info("MockServer started on port: {}", ((InetSocketAddress) channel.localAddress()).getPort());
 
@@ -2,26 +2,39 @@ package org.mockserver.mockserver;
 
 import com.google.common.base.Strings;
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.util.AttributeKey;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
+import org.mockserver.client.serialization.model.HttpResponseDTO;
+import org.mockserver.codec.EncodedResponseCache;
+import org.mockserver.codec.PipelinedResponses;
 import org.mockserver.filters.LogFilter;
 import org.mockserver.logging.LogFormatter;
 import org.mockserver.mappers.ContentTypeMapper;
 import org.mockserver.mock.Expectation;
 import org.mockserver.mock.MockServerMatcher;
 import org.mockserver.mock.action.ActionHandler;
+import org.mockserver.model.Action;
 import org.mockserver.model.Body;
 import org.mockserver.model.ConnectionOptions;
+import org.mockserver.model.Delay;
+import org.mockserver.model.FileBody;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.StreamedBody;
 import org.mockserver.socket.SSLFactory;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
@@ -40,6 +53,8 @@ import static org.mockserver.model.HttpResponse.response;
 @ChannelHandler.Sharable
 public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest> {
 
+    // the handler is shared by every channel so the last streamed response write is held on the channel itself
+    private static final AttributeKey<ChannelFuture> STREAMED_RESPONSE_WRITE = AttributeKey.valueOf("STREAMED_RESPONSE_WRITE");
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private LogFormatter logFormatter = new LogFormatter(logger);
     // mockserver
@@ -47,6 +62,7 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
     private LogFilter logFilter;
     private MockServerMatcher mockServerMatcher;
     private ActionHandler actionHandler;
+    private EncodedResponseCache encodedResponseCache;
     // serializers
     private ExpectationSerializer expectationSerializer = new ExpectationSerializer();
     private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
@@ -54,15 +70,24 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
     private VerificationSequenceSerializer verificationSequenceSerializer = new VerificationSequenceSerializer();
 
     public MockServerHandler(MockServer server, MockServerMatcher mockServerMatcher, LogFilter logFilter) {
+        this(server, mockServerMatcher, logFilter, null);
+    }
+
+    public MockServerHandler(MockServer server, MockServerMatcher mockServerMatcher, LogFilter logFilter, EncodedResponseCache encodedResponseCache) {
         this.mockServerMatcher = mockServerMatcher;
         this.server = server;
         this.logFilter = logFilter;
+        this.encodedResponseCache = encodedResponseCache;
         actionHandler = new ActionHandler(logFilter);
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request) {
+    protected void channelRead0(final ChannelHandlerContext ctx, final HttpRequest request) {
 
+        PipelinedResponses.received(ctx.channel(), request);
+
+        // a forwarded request is released once the forwarded response has been written
+        boolean releaseRequest = true;
         try {
             if (request.matches("PUT", "/status")) {
 
@@ -71,6 +96,9 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
             } else if (request.matches("PUT", "/expectation")) {
 
                 Expectation expectation = expectationSerializer.deserialize(request.getBodyAsString());
+                if (expectation.getHttpResponse() != null && expectation.getHttpResponse().getBody() instanceof FileBody) {
+                    ((FileBody) expectation.getHttpResponse().getBody()).validate();
+                }
                 SSLFactory.addSubjectAlternativeName(expectation.getHttpRequest().getFirstHeader(HttpHeaders.Names.HOST));
                 mockServerMatcher.when(expectation.getHttpRequest(), expectation.getTimes(), expectation.getTimeToLive()).thenRespond(expectation.getHttpResponse(false)).thenForward(expectation.getHttpForward()).thenCallback(expectation.getHttpCallback());
                 logFormatter.infoLog("creating expectation:{}", expectation);
@@ -132,14 +160,51 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
 
             } else {
 
-                HttpResponse response = actionHandler.processAction(mockServerMatcher.handle(request), request);
-                logFormatter.infoLog("returning response:{}" + System.getProperty("line.separator") + " for request:{}", response, request);
-                writeResponse(ctx, request, response);
+                Action action = mockServerMatcher.handle(request, false);
+                if (action != null && action.getType() == Action.Type.FORWARD) {
+                    // write the forwarded response once it is received so the event loop is not blocked
+                    Futures.addCallback(actionHandler.processActionAsync(action, request), new FutureCallback<HttpResponse>() {
+                        @Override
+                        public void onSuccess(HttpResponse response) {
+                            try {
+                                logFormatter.infoLog("returning response:{}" + System.getProperty("line.separator") + " for request:{}", response, request);
+                                writeResponse(ctx, request, response);
+                                ctx.flush();
+                            } finally {
+                                request.release();
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            try {
+                                logger.error("Exception processing " + request, throwable);
+                                writeResponse(ctx, request, HttpResponseStatus.BAD_REQUEST);
+                                ctx.flush();
+                            } finally {
+                                request.release();
+                            }
+                        }
+                    }, ctx.executor());
+                    releaseRequest = false;
+                } else {
+                    HttpResponse response = actionHandler.processAction(action, request);
+                    logFormatter.infoLog("returning response:{}" + System.getProperty("line.separator") + " for request:{}", response, request);
+                    Delay delay = (action instanceof HttpResponse ? ((HttpResponse) action).getDelay() : null);
+                    // a response returned unchanged from an expectation is the same for every matching request so is only encoded once
+                    if (response != action || !writeEncodedResponse(ctx, request, response, delay)) {
+                        writeResponse(ctx, request, response, delay);
+                    }
+                }
 
             }
         } catch (Exception e) {
             logger.error("Exception processing " + request, e);
             writeResponse(ctx, request, HttpResponseStatus.BAD_REQUEST);
+        } finally {
+            if (releaseRequest) {
+                request.release();
+            }
         }
 
     }
@@ -159,17 +224,84 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
     }
 
     private void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
+        writeResponse(ctx, request, response, null);
+    }
+
+    private void writeResponse(final ChannelHandlerContext ctx, final HttpRequest request, HttpResponse response, Delay delay) {
         if (response == null) {
             response = notFoundResponse();
         }
+        if (request.getStreamId() != null) {
+            // the response may be an expectation's shared template so the stream is set on a copy
+            response = new HttpResponseDTO(response).buildObject().withStreamId(request.getStreamId());
+        }
 
         ConnectionOptions connectionOptions = response.getConnectionOptions();
 
         addContentLengthHeader(response, connectionOptions);
-        addConnectionHeader(request, response, connectionOptions);
+        addConnectionHeader(request.isKeepAlive(), response, connectionOptions);
         addContentTypeHeader(response);
 
-        writeAndCloseSocket(ctx, request, response, connectionOptions);
+        writeOrScheduleResponse(ctx, ctx, request, response, connectionOptions, delay);
+    }
+
+    /**
+     * Writes the cached encoding of the response directly below the http codec, the response is only encoded the
+     * first time it is returned for a keep-alive or a non keep-alive request and the template itself is not modified
+     *
+     * @return false if the response can't be written pre-encoded on this pipeline
+     */
+    private boolean writeEncodedResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse template, Delay delay) {
+        if (encodedResponseCache == null || template.getBody() instanceof StreamedBody) {
+            return false;
+        }
+        ChannelFuture streamedResponseWrite = ctx.channel().attr(STREAMED_RESPONSE_WRITE).get();
+        if ((streamedResponseWrite != null && !streamedResponseWrite.isDone()) || !PipelinedResponses.isNext(ctx.channel(), request)) {
+            // pre-encoded responses bypass the chunked writer so must not overtake a response that is, or may be, streaming
+            return false;
+        }
+        ChannelHandlerContext httpCodecContext = ctx.pipeline().context(HttpServerCodec.class);
+        if (httpCodecContext == null) {
+            return false;
+        }
+
+        ConnectionOptions connectionOptions = template.getConnectionOptions();
+        boolean keepAlive = request.isKeepAlive();
+        ByteBuf encodedResponse = encodedResponseCache.get(template, keepAlive);
+        if (encodedResponse == null) {
+            HttpResponse response = new HttpResponseDTO(template).buildObject();
+            addContentLengthHeader(response, connectionOptions);
+            addConnectionHeader(keepAlive, response, connectionOptions);
+            addContentTypeHeader(response);
+            encodedResponse = encodedResponseCache.put(template, keepAlive, response);
+        }
+
+        writeOrScheduleResponse(ctx, httpCodecContext, request, encodedResponse, connectionOptions, delay);
+        return true;
+    }
+
+    private void writeOrScheduleResponse(final ChannelHandlerContext ctx, final ChannelHandlerContext writeContext, final HttpRequest request, final Object response, final ConnectionOptions connectionOptions, Delay delay) {
+        if (delay != null && delay.getTimeUnit() != null && delay.getValue() > 0) {
+            // schedule the write on the event loop instead of sleeping so the worker thread is free to serve other channels during the delay
+            ctx.executor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    writeInOrder(ctx, writeContext, request, response, connectionOptions);
+                    ctx.flush();
+                }
+            }, delay.getValue(), delay.getTimeUnit());
+        } else {
+            writeInOrder(ctx, writeContext, request, response, connectionOptions);
+        }
+    }
+
+    private void writeInOrder(ChannelHandlerContext ctx, final ChannelHandlerContext writeContext, final HttpRequest request, final Object response, final ConnectionOptions connectionOptions) {
+        PipelinedResponses.write(ctx.channel(), request, response, new Runnable() {
+            @Override
+            public void run() {
+                writeAndCloseSocket(writeContext, request, response, connectionOptions);
+            }
+        });
     }
 
     private void addContentTypeHeader(HttpResponse response) {
@@ -187,6 +319,10 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
     private void addContentLengthHeader(HttpResponse response, ConnectionOptions connectionOptions) {
         if (connectionOptions != null && connectionOptions.getContentLengthHeaderOverride() != null) {
             response.updateHeader(header(CONTENT_LENGTH, connectionOptions.getContentLengthHeaderOverride()));
+        } else if (response.getBody() instanceof StreamedBody) {
+            if (connectionOptions == null || isFalseOrNull(connectionOptions.getSuppressContentLengthHeader())) {
+                response.updateHeader(header(CONTENT_LENGTH, String.valueOf(((StreamedBody) response.getBody()).getContentLength())));
+            }
         } else if (connectionOptions == null || isFalseOrNull(connectionOptions.getSuppressContentLengthHeader())) {
             Body body = response.getBody();
             byte[] bodyBytes = new byte[0];
@@ -205,7 +341,7 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         }
     }
 
-    private void addConnectionHeader(HttpRequest request, HttpResponse response, ConnectionOptions connectionOptions) {
+    private void addConnectionHeader(boolean keepAlive, HttpResponse response, ConnectionOptions connectionOptions) {
         if (connectionOptions != null && connectionOptions.getKeepAliveOverride() != null) {
             if (connectionOptions.getKeepAliveOverride()) {
                 response.updateHeader(header(CONNECTION, HttpHeaders.Values.KEEP_ALIVE));
@@ -213,7 +349,7 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
                 response.updateHeader(header(CONNECTION, HttpHeaders.Values.CLOSE));
             }
         } else if (connectionOptions == null || isFalseOrNull(connectionOptions.getSuppressConnectionHeader())) {
-            if (request.isKeepAlive()) {
+            if (keepAlive) {
                 response.updateHeader(header(CONNECTION, HttpHeaders.Values.KEEP_ALIVE));
             } else {
                 response.updateHeader(header(CONNECTION, HttpHeaders.Values.CLOSE));
@@ -221,20 +357,24 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         }
     }
 
-    private void writeAndCloseSocket(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response, ConnectionOptions connectionOptions) {
+    private void writeAndCloseSocket(ChannelHandlerContext ctx, HttpRequest request, Object response, ConnectionOptions connectionOptions) {
+        ChannelFuture writeFuture;
         if (connectionOptions != null && connectionOptions.getCloseSocket() != null) {
             if (connectionOptions.getCloseSocket()) {
-                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+                writeFuture = ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
             } else {
-                ctx.write(response);
+                writeFuture = ctx.write(response);
             }
         } else {
             if (request.isKeepAlive()) {
-                ctx.write(response);
+                writeFuture = ctx.write(response);
             } else {
-                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+                writeFuture = ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
             }
         }
+        if (response instanceof HttpResponse && ((HttpResponse) response).getBody() instanceof StreamedBody) {
+            ctx.channel().attr(STREAMED_RESPONSE_WRITE).set(writeFuture);
+        }
     }
 
     @Override
@@ -242,6 +382,12 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         ctx.flush();
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        PipelinedResponses.closed(ctx.channel());
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         if (!cause.getMessage().contains("Connection reset by peer")) {
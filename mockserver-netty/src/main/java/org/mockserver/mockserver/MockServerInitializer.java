@@ -1,10 +1,13 @@
 package org.mockserver.mockserver;
 
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.mockserver.codec.MockServerServerCodec;
 import org.mockserver.logging.LoggingHandler;
 import org.mockserver.mock.MockServerMatcher;
+import org.mockserver.server.unification.HttpRequestAggregator;
 import org.mockserver.server.unification.PortUnificationHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +25,17 @@ public class MockServerInitializer extends PortUnificationHandler {
         this.mockServer = mockServer;
     }
 
+    @Override
+    protected ChannelHandler createRequestAggregator() {
+        // large uploads are written to a temporary file instead of being held in memory
+        return new HttpRequestAggregator();
+    }
+
+    @Override
+    protected boolean supportsHttp2() {
+        return true;
+    }
+
     @Override
     protected void configurePipeline(ChannelHandlerContext ctx, ChannelPipeline pipeline) {
         // add logging
@@ -29,9 +43,12 @@ public class MockServerInitializer extends PortUnificationHandler {
             pipeline.addLast(new LoggingHandler(logger));
         }
 
+        // streams file and generated response bodies
+        pipeline.addLast(new ChunkedWriteHandler());
+
         pipeline.addLast(new MockServerServerCodec(secure));
 
         // add mock server handlers
-        pipeline.addLast(new MockServerHandler(mockServer, mockServerMatcher, ctx.channel().attr(MockServer.LOG_FILTER).get()));
+        pipeline.addLast(new MockServerHandler(mockServer, mockServerMatcher, ctx.channel().attr(MockServer.LOG_FILTER).get(), ctx.channel().attr(MockServer.ENCODED_RESPONSE_CACHE).get()));
     }
 }
@@ -5,9 +5,11 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
+import org.apache.commons.lang3.StringUtils;
 import org.mockserver.codec.MockServerServerCodec;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.proxy.relay.RelayConnectHandler;
+import org.mockserver.server.unification.HttpRequestAggregator;
 
 import static org.mockserver.model.HttpResponse.response;
 
@@ -19,11 +21,15 @@ public final class HttpConnectHandler extends RelayConnectHandler<HttpRequest> {
         removeHandler(pipeline, SslHandler.class);
         removeHandler(pipeline, HttpServerCodec.class);
         removeHandler(pipeline, HttpContentDecompressor.class);
-        removeHandler(pipeline, HttpObjectAggregator.class);
+        removeHandler(pipeline, HttpRequestAggregator.class);
         removeHandler(pipeline, MockServerServerCodec.class);
         pipeline.remove(this);
     }
 
+    protected String connectHost(HttpRequest request) {
+        return StringUtils.substringBeforeLast(request.getPath().getValue(), ":");
+    }
+
     protected Object successResponse(Object request) {
         return response();
     }
@@ -6,10 +6,9 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.mockserver.filters.LogFilter;
 import org.mockserver.proxy.Proxy;
+import org.mockserver.socket.NettyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,8 +29,9 @@ public class DirectProxy implements Proxy {
     private final LogFilter logFilter = new LogFilter();
     private final SettableFuture<String> hasStarted;
     // netty
-    private final EventLoopGroup bossGroup = new NioEventLoopGroup();
-    private final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private final NettyTransport transport = NettyTransport.configured();
+    private final EventLoopGroup bossGroup = transport.createBossGroup();
+    private final EventLoopGroup workerGroup = transport.createWorkerGroup();
     private Channel channel;
     // remote socket
     private InetSocketAddress remoteSocket;
@@ -62,19 +62,16 @@ public class DirectProxy implements Proxy {
             public void run() {
                 try {
                     remoteSocket = new InetSocketAddress(remoteHost, remotePort);
-                    channel = new ServerBootstrap()
+                    channel = transport.bind(new ServerBootstrap()
                             .group(bossGroup, workerGroup)
                             .option(ChannelOption.SO_BACKLOG, 1024)
-                            .channel(NioServerSocketChannel.class)
+                            .channel(transport.serverChannelClass())
                             .childOption(ChannelOption.AUTO_READ, true)
                             .childHandler(new DirectProxyUnificationHandler())
                             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                             .childAttr(HTTP_PROXY, DirectProxy.this)
                             .childAttr(REMOTE_SOCKET, remoteSocket)
-                            .childAttr(LOG_FILTER, logFilter)
-                            .bind(localPort)
-                            .sync()
-                            .channel();
+                            .childAttr(LOG_FILTER, logFilter), localPort);
 
                     logger.info("MockServer proxy started on port: {} connected to remote server: {}", ((InetSocketAddress) channel.localAddress()).getPort(), remoteHost + ":" + remotePort);
 
@@ -14,6 +14,11 @@ import org.mockserver.proxy.unification.PortUnificationHandler;
 @ChannelHandler.Sharable
 public class DirectProxyUnificationHandler extends PortUnificationHandler {
 
+    @Override
+    protected boolean supportsHttp2() {
+        return true;
+    }
+
     @Override
     protected void configurePipeline(ChannelHandlerContext ctx, ChannelPipeline pipeline) {
         pipeline.addLast(new MockServerServerCodec(isSslEnabledDownstream(ctx.channel())));
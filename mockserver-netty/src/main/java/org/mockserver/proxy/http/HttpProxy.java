@@ -6,11 +6,10 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.filters.LogFilter;
 import org.mockserver.proxy.Proxy;
+import org.mockserver.socket.NettyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,8 +36,9 @@ public class HttpProxy implements Proxy {
     private final LogFilter logFilter = new LogFilter();
     private final SettableFuture<String> hasStarted;
     // netty
-    private final EventLoopGroup bossGroup = new NioEventLoopGroup();
-    private final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private final NettyTransport transport = NettyTransport.configured();
+    private final EventLoopGroup bossGroup = transport.createBossGroup();
+    private final EventLoopGroup workerGroup = transport.createWorkerGroup();
     private Channel channel;
 
     /**
@@ -57,19 +57,16 @@ public class HttpProxy implements Proxy {
             @Override
             public void run() {
                 try {
-                    channel = new ServerBootstrap()
+                    channel = transport.bind(new ServerBootstrap()
                             .group(bossGroup, workerGroup)
                             .option(ChannelOption.SO_BACKLOG, 1024)
-                            .channel(NioServerSocketChannel.class)
+                            .channel(transport.serverChannelClass())
                             .childOption(ChannelOption.AUTO_READ, true)
                             .childHandler(new HttpProxyUnificationHandler())
                             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                             .childAttr(HTTP_PROXY, HttpProxy.this)
                             .childAttr(HTTP_CONNECT_SOCKET, new InetSocketAddress(port))
-                            .childAttr(LOG_FILTER, logFilter)
-                            .bind(port)
-                            .sync()
-                            .channel();
+                            .childAttr(LOG_FILTER, logFilter), port);
 
                     logger.info("MockServer proxy started on port: {}", ((InetSocketAddress) channel.localAddress()).getPort());
 
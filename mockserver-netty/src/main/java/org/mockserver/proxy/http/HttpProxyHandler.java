@@ -1,7 +1,11 @@
 package org.mockserver.proxy.http;
 
+import com.google.common.base.Function;
 import com.google.common.base.Strings;
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
@@ -10,6 +14,7 @@ import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
+import org.mockserver.codec.PipelinedResponses;
 import org.mockserver.filters.Filters;
 import org.mockserver.filters.HopByHopHeaderFilter;
 import org.mockserver.filters.LogFilter;
@@ -22,7 +27,6 @@ import org.mockserver.model.HttpResponse;
 import org.mockserver.proxy.Proxy;
 import org.mockserver.proxy.connect.HttpConnectHandler;
 import org.mockserver.proxy.unification.PortUnificationHandler;
-import org.mockserver.socket.SSLFactory;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 import org.slf4j.Logger;
@@ -64,18 +68,22 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request) {
+    protected void channelRead0(final ChannelHandlerContext ctx, final HttpRequest request) {
 
+        // a proxied request is released once the proxied response has been written
+        boolean releaseRequest = true;
         try {
 
             logFormatter.traceLog("received request:{}" + System.getProperty("line.separator"), request);
 
+            if (!request.getMethod().getValue().equals("CONNECT")) {
+                PipelinedResponses.received(ctx.channel(), request);
+            }
+
             if (request.getMethod().getValue().equals("CONNECT")) {
 
                 // assume CONNECT always for SSL
                 PortUnificationHandler.enabledSslUpstreamAndDownstream(ctx.channel());
-                // add Subject Alternative Name for SSL certificate
-                SSLFactory.addSubjectAlternativeName(request.getPath().getValue());
                 ctx.pipeline().addLast(new HttpConnectHandler());
                 ctx.pipeline().remove(this);
                 ctx.fireChannelRead(request);
@@ -138,19 +146,45 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
 
             } else {
 
-                HttpResponse response = sendRequest(ctx.channel(), filters.applyOnRequestFilters(request));
-                logFormatter.infoLog("returning response:{}" + System.getProperty("line.separator") + " for request:{}", response, request);
-                writeResponse(ctx, request, response);
+                // write the response once it is received so the event loop is not blocked
+                Futures.addCallback(sendRequest(ctx.channel(), filters.applyOnRequestFilters(request)), new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void onSuccess(HttpResponse response) {
+                        try {
+                            logFormatter.infoLog("returning response:{}" + System.getProperty("line.separator") + " for request:{}", response, request);
+                            writeResponse(ctx, request, response);
+                            ctx.flush();
+                        } finally {
+                            request.release();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        try {
+                            logger.error("Exception processing " + request, throwable);
+                            writeResponse(ctx, request, HttpResponseStatus.BAD_REQUEST);
+                            ctx.flush();
+                        } finally {
+                            request.release();
+                        }
+                    }
+                }, ctx.executor());
+                releaseRequest = false;
 
             }
         } catch (Exception e) {
             logger.error("Exception processing " + request, e);
             writeResponse(ctx, request, HttpResponseStatus.BAD_REQUEST);
+        } finally {
+            if (releaseRequest) {
+                request.release();
+            }
         }
 
     }
 
-    private HttpResponse sendRequest(Channel channel, HttpRequest httpRequest) {
+    private ListenableFuture<HttpResponse> sendRequest(Channel channel, final HttpRequest httpRequest) {
         // if HttpRequest was set to null by a filter don't send request
         if (httpRequest != null) {
 
@@ -171,21 +205,25 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
                     port = Integer.parseInt(hostHeaderParts[1]);  // non-default
                 }
 
-                // add Subject Alternative Name for SSL certificate (just in case this hasn't been added before)
-                SSLFactory.addSubjectAlternativeName(hostHeaderParts[0]);
-
-                inetSocketAddress = new InetSocketAddress(hostHeaderParts[0], port);
+                inetSocketAddress = InetSocketAddress.createUnresolved(hostHeaderParts[0], port);
             } else {
                 logger.error("Host header must be provided for requests being forwarded, the following request does not include the \"Host\" header:" + System.getProperty("line.separator") + httpRequest);
-                return notFoundResponse();
+                return Futures.immediateFuture(notFoundResponse());
             }
 
-            HttpResponse httpResponse = filters.applyOnResponseFilters(httpRequest, httpClient.sendRequest(outboundRequest(inetSocketAddress, "", httpRequest)));
-            if (httpResponse != null) {
-                return httpResponse;
-            }
+            // apply response filters once the response is received
+            return Futures.transform(httpClient.sendRequestAsync(outboundRequest(inetSocketAddress, "", httpRequest)), new Function<HttpResponse, HttpResponse>() {
+                @Override
+                public HttpResponse apply(HttpResponse response) {
+                    HttpResponse httpResponse = filters.applyOnResponseFilters(httpRequest, response);
+                    if (httpResponse != null) {
+                        return httpResponse;
+                    }
+                    return notFoundResponse();
+                }
+            });
         }
-        return notFoundResponse();
+        return Futures.immediateFuture(notFoundResponse());
     }
 
     private void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponseStatus responseStatus) {
@@ -201,15 +239,21 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
         );
     }
 
-    private void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
+    private void writeResponse(final ChannelHandlerContext ctx, final HttpRequest request, final HttpResponse response) {
         addContentLengthHeader(response);
-        if (request.isKeepAlive()) {
-            response.updateHeader(header(CONNECTION, HttpHeaders.Values.KEEP_ALIVE));
-            ctx.write(response);
-        } else {
-            response.updateHeader(header(CONNECTION, HttpHeaders.Values.CLOSE));
-            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
-        }
+        response.withStreamId(request.getStreamId());
+        PipelinedResponses.write(ctx.channel(), request, response, new Runnable() {
+            @Override
+            public void run() {
+                if (request.isKeepAlive()) {
+                    response.updateHeader(header(CONNECTION, HttpHeaders.Values.KEEP_ALIVE));
+                    ctx.write(response);
+                } else {
+                    response.updateHeader(header(CONNECTION, HttpHeaders.Values.CLOSE));
+                    ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+                }
+            }
+        });
     }
 
     private void addContentLengthHeader(HttpResponse response) {
@@ -234,6 +278,12 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
         ctx.flush();
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        PipelinedResponses.closed(ctx.channel());
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         if (!cause.getMessage().contains("Connection reset by peer")) {
@@ -13,6 +13,11 @@ import org.mockserver.proxy.unification.PortUnificationHandler;
 @ChannelHandler.Sharable
 public class HttpProxyUnificationHandler extends PortUnificationHandler {
 
+    @Override
+    protected boolean supportsHttp2() {
+        return true;
+    }
+
     @Override
     protected void configurePipeline(ChannelHandlerContext ctx, ChannelPipeline pipeline) {
         pipeline.addLast(new MockServerServerCodec(isSslEnabledDownstream(ctx.channel())));
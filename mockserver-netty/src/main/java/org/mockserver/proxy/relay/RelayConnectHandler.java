@@ -4,16 +4,19 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.ssl.NotSslRecordException;
 import io.netty.handler.ssl.SslHandler;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.logging.LoggingHandler;
 import org.mockserver.proxy.http.HttpProxy;
 import org.mockserver.proxy.unification.PortUnificationHandler;
+import org.mockserver.proxy.unification.SniCertificateHandler;
+import org.mockserver.server.unification.HttpRequestAggregator;
+import org.mockserver.socket.NettyTransport;
 import org.mockserver.socket.SSLFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +31,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
     public void channelRead0(final ChannelHandlerContext serverCtx, final T request) throws Exception {
         Bootstrap bootstrap = new Bootstrap()
                 .group(serverCtx.channel().eventLoop())
-                .channel(NioSocketChannel.class)
+                .channel(NettyTransport.socketChannelClass(serverCtx.channel()))
                 .handler(new ChannelInboundHandlerAdapter() {
                     @Override
                     public void channelActive(final ChannelHandlerContext clientCtx) throws Exception {
@@ -54,7 +57,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
 
                                         downstreamPipeline.addLast(new HttpContentDecompressor());
 
-                                        downstreamPipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+                                        downstreamPipeline.addLast(new HttpObjectAggregator((int) Math.min(ConfigurationProperties.maxContentLength(), Integer.MAX_VALUE)));
 
                                         downstreamPipeline.addLast(new DownstreamProxyRelayHandler(serverCtx.channel(), logger));
 
@@ -63,7 +66,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
                                         ChannelPipeline upstreamPipeline = serverCtx.channel().pipeline();
 
                                         if (PortUnificationHandler.isSslEnabledUpstream(serverCtx.channel())) {
-                                            upstreamPipeline.addLast(new SslHandler(SSLFactory.createServerSSLEngine()));
+                                            upstreamPipeline.addLast(new SniCertificateHandler(connectHost(request)));
                                         }
 
                                         if (logger.isDebugEnabled()) {
@@ -74,7 +77,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
 
                                         upstreamPipeline.addLast(new HttpContentDecompressor());
 
-                                        upstreamPipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+                                        upstreamPipeline.addLast(new HttpRequestAggregator(ConfigurationProperties.maxContentLength()));
 
                                         upstreamPipeline.addLast(new UpstreamProxyRelayHandler(clientCtx.channel(), logger));
                                     }
@@ -119,6 +122,12 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
 
     protected abstract void removeCodecSupport(ChannelHandlerContext ctx);
 
+    /**
+     * @return the host being connected to, this is used for the intercepted TLS connection's certificate if the client
+     * doesn't send a server name
+     */
+    protected abstract String connectHost(T request);
+
     protected abstract Object successResponse(Object request);
 
     protected abstract Object failureResponse(Object request);
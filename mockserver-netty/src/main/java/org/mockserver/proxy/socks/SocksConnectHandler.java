@@ -4,11 +4,11 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.socks.*;
 import io.netty.handler.ssl.SslHandler;
 import org.mockserver.proxy.relay.RelayConnectHandler;
+import org.mockserver.server.unification.HttpRequestAggregator;
 
 @ChannelHandler.Sharable
 public final class SocksConnectHandler extends RelayConnectHandler<SocksCmdRequest> {
@@ -18,11 +18,15 @@ public final class SocksConnectHandler extends RelayConnectHandler<SocksCmdReque
         removeHandler(pipeline, SslHandler.class);
         removeHandler(pipeline, HttpServerCodec.class);
         removeHandler(pipeline, HttpContentDecompressor.class);
-        removeHandler(pipeline, HttpObjectAggregator.class);
+        removeHandler(pipeline, HttpRequestAggregator.class);
         removeHandler(pipeline, SocksMessageEncoder.class);
         pipeline.remove(this);
     }
 
+    protected String connectHost(SocksCmdRequest request) {
+        return request.host();
+    }
+
     protected Object successResponse(Object request) {
         if (request != null && request instanceof SocksCmdRequest) {
             return new SocksCmdResponse(SocksCmdStatus.SUCCESS, ((SocksCmdRequest) request).addressType());
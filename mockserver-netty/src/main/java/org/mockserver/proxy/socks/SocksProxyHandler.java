@@ -4,7 +4,6 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.socks.*;
 import org.mockserver.proxy.unification.PortUnificationHandler;
-import org.mockserver.socket.SSLFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,9 +42,6 @@ public class SocksProxyHandler extends SimpleChannelInboundHandler<SocksRequest>
                     // assume SSL enabled, if this is incorrect client retries without SSL
                     PortUnificationHandler.enabledSslDownstream(ctx.channel());
 
-                    // add Subject Alternative Name for SSL certificate
-                    SSLFactory.addSubjectAlternativeName(req.host());
-
                     ctx.pipeline().addLast(new SocksConnectHandler());
                     ctx.pipeline().remove(this);
                     ctx.fireChannelRead(socksRequest);
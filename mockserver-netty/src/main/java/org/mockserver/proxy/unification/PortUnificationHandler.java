@@ -3,7 +3,6 @@ package org.mockserver.proxy.unification;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.socks.SocksAuthScheme;
 import io.netty.handler.codec.socks.SocksInitRequestDecoder;
@@ -11,8 +10,10 @@ import io.netty.handler.codec.socks.SocksMessageEncoder;
 import io.netty.handler.codec.socks.SocksProtocolVersion;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.AttributeKey;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.proxy.socks.SocksProxyHandler;
-import org.mockserver.socket.SSLFactory;
+import org.mockserver.server.http2.Http2ServerCodec;
+import org.mockserver.server.unification.HttpRequestAggregator;
 
 /**
  * @author jamesdbloom
@@ -63,6 +64,8 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
             enableSsl(ctx, msg);
         } else if (isSocks(msg)) {
             enableSocks(ctx, msg);
+        } else if (isHttp2(msg)) {
+            switchToHttp2(ctx, msg);
         } else if (isHttp(msg)) {
             switchToHttp(ctx, msg);
         } else {
@@ -100,6 +103,14 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
         return true;
     }
 
+    private boolean isHttp2(ByteBuf msg) {
+        // the HTTP/2 connection preface starts "PRI * HTTP/2.0", either sent with prior knowledge or after ALPN
+        return supportsHttp2() &&
+                msg.getUnsignedByte(msg.readerIndex()) == 'P' &&
+                msg.getUnsignedByte(msg.readerIndex() + 1) == 'R' &&
+                msg.getUnsignedByte(msg.readerIndex() + 2) == 'I';
+    }
+
     private boolean isHttp(ByteBuf msg) {
         int letterOne = (int) msg.getUnsignedByte(msg.readerIndex());
         int letterTwo = (int) msg.getUnsignedByte(msg.readerIndex() + 1);
@@ -117,7 +128,11 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
 
     private void enableSsl(ChannelHandlerContext ctx, ByteBuf msg) {
         ChannelPipeline pipeline = ctx.pipeline();
-        pipeline.addFirst(new SslHandler(SSLFactory.createServerSSLEngine()));
+        if (supportsHttp2()) {
+            pipeline.addFirst(new SniCertificateHandler(null, "h2", "http/1.1"));
+        } else {
+            pipeline.addFirst(new SniCertificateHandler(null));
+        }
 
         // re-unify (with SSL enabled)
         PortUnificationHandler.enabledSslUpstreamAndDownstream(ctx.channel());
@@ -139,7 +154,19 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
 
         addLastIfNotPresent(pipeline, new HttpServerCodec());
         addLastIfNotPresent(pipeline, new HttpContentDecompressor());
-        addLastIfNotPresent(pipeline, new HttpObjectAggregator(Integer.MAX_VALUE));
+        addLastIfNotPresent(pipeline, new HttpRequestAggregator(ConfigurationProperties.maxContentLength()));
+
+        configurePipeline(ctx, pipeline);
+        pipeline.remove(this);
+
+        // pass message to next stage in pipeline
+        ctx.fireChannelRead(msg);
+    }
+
+    private void switchToHttp2(ChannelHandlerContext ctx, ByteBuf msg) {
+        ChannelPipeline pipeline = ctx.pipeline();
+
+        addLastIfNotPresent(pipeline, new Http2ServerCodec());
 
         configurePipeline(ctx, pipeline);
         pipeline.remove(this);
@@ -154,5 +181,12 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
         }
     }
 
+    /**
+     * @return true if HTTP/2 connections should be accepted, with prior knowledge or by ALPN for TLS connections
+     */
+    protected boolean supportsHttp2() {
+        return false;
+    }
+
     protected abstract void configurePipeline(ChannelHandlerContext ctx, ChannelPipeline pipeline);
 }
@@ -0,0 +1,197 @@
+package org.mockserver.proxy.unification;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.CharsetUtil;
+import org.mockserver.socket.LeafCertificateCache;
+import org.mockserver.socket.SSLFactory;
+
+import javax.net.ssl.SSLEngine;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the server name (SNI) from the TLS ClientHello and replaces itself with an SslHandler presenting a certificate
+ * issued for that host, if the client doesn't send a server name the host the client connected to, for example with
+ * CONNECT, is used instead
+ * <p/>
+ * If the certificate for the host hasn't been issued yet reading from the channel is suspended until it has, so key
+ * pairs are never generated on the event loop
+ *
+ * @author jamesdbloom
+ */
+public class SniCertificateHandler extends ByteToMessageDecoder {
+
+    private static final int RECORD_HEADER_LENGTH = 5;
+    private static final int HANDSHAKE = 22;
+    private static final int CLIENT_HELLO = 1;
+    private static final int SERVER_NAME_EXTENSION = 0;
+    private static final int HOST_NAME = 0;
+    private static final Pattern HOST = Pattern.compile("[a-z0-9._-]{1,255}|[0-9a-f:.]{2,45}");
+    private final String connectHost;
+    private final String[] applicationProtocols;
+    private boolean selected;
+
+    /**
+     * @param connectHost          the host used if the ClientHello doesn't include a server name, may be null
+     * @param applicationProtocols the protocols offered with ALPN
+     */
+    public SniCertificateHandler(String connectHost, String... applicationProtocols) {
+        this.connectHost = validHost(connectHost);
+        this.applicationProtocols = applicationProtocols;
+    }
+
+    private static String validHost(String host) {
+        if (host != null) {
+            host = host.toLowerCase(Locale.ENGLISH);
+            if (host.startsWith("[") && host.endsWith("]")) {
+                host = host.substring(1, host.length() - 1);
+            }
+            if (HOST.matcher(host).matches()) {
+                return host;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the host_name in the server_name extension of the ClientHello at the start of the buffer, or null if
+     * there is no server name or the first record isn't a ClientHello, see RFC 5246 section 7.4.1.2 and RFC 6066
+     */
+    static String serverName(ByteBuf buffer) {
+        int offset = buffer.readerIndex();
+        int end = buffer.writerIndex();
+
+        // record header - content type, version and length
+        if (end - offset < RECORD_HEADER_LENGTH || buffer.getUnsignedByte(offset) != HANDSHAKE) {
+            return null;
+        }
+        end = Math.min(end, offset + RECORD_HEADER_LENGTH + buffer.getUnsignedShort(offset + 3));
+        offset += RECORD_HEADER_LENGTH;
+
+        // handshake header - message type and length, then client version and random
+        if (end - offset < 4 || buffer.getUnsignedByte(offset) != CLIENT_HELLO) {
+            return null;
+        }
+        offset += 4 + 2 + 32;
+
+        // session id
+        if (offset + 1 > end) {
+            return null;
+        }
+        offset += 1 + buffer.getUnsignedByte(offset);
+
+        // cipher suites
+        if (offset + 2 > end) {
+            return null;
+        }
+        offset += 2 + buffer.getUnsignedShort(offset);
+
+        // compression methods
+        if (offset + 1 > end) {
+            return null;
+        }
+        offset += 1 + buffer.getUnsignedByte(offset);
+
+        // extensions
+        if (offset + 2 > end) {
+            return null;
+        }
+        int extensionsEnd = Math.min(end, offset + 2 + buffer.getUnsignedShort(offset));
+        offset += 2;
+        while (offset + 4 <= extensionsEnd) {
+            int extensionType = buffer.getUnsignedShort(offset);
+            int extensionLength = buffer.getUnsignedShort(offset + 2);
+            offset += 4;
+            if (extensionType == SERVER_NAME_EXTENSION) {
+                if (extensionLength < 2 || offset + extensionLength > extensionsEnd) {
+                    return null;
+                }
+                // server name list - entries of name type, length and name
+                int listEnd = Math.min(offset + extensionLength, offset + 2 + buffer.getUnsignedShort(offset));
+                int entry = offset + 2;
+                while (entry + 3 <= listEnd) {
+                    int nameType = buffer.getUnsignedByte(entry);
+                    int nameLength = buffer.getUnsignedShort(entry + 1);
+                    entry += 3;
+                    if (entry + nameLength > listEnd) {
+                        return null;
+                    }
+                    if (nameType == HOST_NAME) {
+                        return validHost(buffer.toString(entry, nameLength, CharsetUtil.US_ASCII));
+                    }
+                    entry += nameLength;
+                }
+                return null;
+            }
+            offset += extensionLength;
+        }
+        return null;
+    }
+
+    private static boolean isIssued(ListenableFuture<KeyStore.PrivateKeyEntry> certificate) {
+        try {
+            return certificate.get() != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (selected || in.readableBytes() < RECORD_HEADER_LENGTH) {
+            return;
+        }
+        // wait for the whole of the first record, which holds the ClientHello
+        if (in.getUnsignedByte(in.readerIndex()) == HANDSHAKE && in.readableBytes() < RECORD_HEADER_LENGTH + in.getUnsignedShort(in.readerIndex() + 3)) {
+            return;
+        }
+        selected = true;
+
+        String serverName = serverName(in);
+        final String host = serverName != null ? serverName : connectHost;
+        if (host == null) {
+            replaceWithSslHandler(ctx, sslEngine(null));
+            return;
+        }
+
+        final ListenableFuture<KeyStore.PrivateKeyEntry> certificate = LeafCertificateCache.getInstance().issue(host);
+        if (certificate.isDone()) {
+            replaceWithSslHandler(ctx, sslEngine(isIssued(certificate) ? host : null));
+        } else {
+            // the ClientHello is held in this handler until the certificate has been issued
+            ctx.channel().config().setAutoRead(false);
+            certificate.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (!ctx.isRemoved()) {
+                        replaceWithSslHandler(ctx, sslEngine(isIssued(certificate) ? host : null));
+                        ctx.fireChannelReadComplete();
+                    }
+                    ctx.channel().config().setAutoRead(true);
+                }
+            }, ctx.executor());
+        }
+    }
+
+    /**
+     * @param host the host the certificate was issued for, or null to use the key store certificate
+     */
+    private SSLEngine sslEngine(String host) {
+        SSLEngine engine = host != null ? SSLFactory.createServerSSLEngine(host) : SSLFactory.createServerSSLEngine();
+        if (applicationProtocols.length > 0) {
+            SSLFactory.withApplicationProtocols(engine, applicationProtocols);
+        }
+        return engine;
+    }
+
+    private void replaceWithSslHandler(ChannelHandlerContext ctx, SSLEngine engine) {
+        // any buffered bytes, including the ClientHello, are passed to the SslHandler when this handler is removed
+        ctx.pipeline().replace(this, SslHandler.class.getName(), new SslHandler(engine));
+    }
+}
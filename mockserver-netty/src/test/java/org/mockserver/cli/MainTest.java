@@ -3,12 +3,15 @@ package org.mockserver.cli;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.mockserver.MockServerBuilder;
 import org.mockserver.proxy.ProxyBuilder;
 import org.mockserver.socket.PortFactory;
 
 import java.io.PrintStream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -152,6 +155,37 @@ public class MainTest {
         verify(mockProxyBuilder).build();
     }
 
+    @Test
+    public void shouldParseArgumentsForEventLoops() {
+        String nativeTransport = System.getProperty("mockserver.nativeTransport");
+        String bossThreadCount = System.getProperty("mockserver.bossThreadCount");
+        String workerThreadCount = System.getProperty("mockserver.workerThreadCount");
+        String acceptorCount = System.getProperty("mockserver.acceptorCount");
+        try {
+            Main.main("-serverPort", SERVER_PORT.toString(), "-nativeTransport", "true", "-bossThreads", "4", "-workerThreads", "32", "-acceptors", "4");
+
+            verify(mockMockServerBuilder).withHTTPPort(SERVER_PORT);
+            verify(mockMockServerBuilder).build();
+            assertThat(ConfigurationProperties.nativeTransport(), is(true));
+            assertThat(ConfigurationProperties.bossThreadCount(), is(4));
+            assertThat(ConfigurationProperties.workerThreadCount(), is(32));
+            assertThat(ConfigurationProperties.acceptorCount(), is(4));
+        } finally {
+            restoreProperty("mockserver.nativeTransport", nativeTransport);
+            restoreProperty("mockserver.bossThreadCount", bossThreadCount);
+            restoreProperty("mockserver.workerThreadCount", workerThreadCount);
+            restoreProperty("mockserver.acceptorCount", acceptorCount);
+        }
+    }
+
+    @Test
+    public void shouldPrintOutUsageForInvalidNativeTransport() {
+        Main.main("-serverPort", "1", "-nativeTransport", "yes");
+
+        verify(mockPrintStream, times(1)).print(Main.USAGE);
+        verify(mockRuntime, times(1)).exit(1);
+    }
+
     @Test
     public void shouldPrintOutUsageForInvalidPort() {
         Main.main("-proxyPort", "1", "-invalidOption", "2");
@@ -190,4 +224,12 @@ public class MainTest {
         verifyZeroInteractions(mockMockServerBuilder);
         verifyZeroInteractions(mockProxyBuilder);
     }
+
+    private void restoreProperty(String key, String value) {
+        if (value != null) {
+            System.setProperty(key, value);
+        } else {
+            System.clearProperty(key);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package org.mockserver.codec;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockserver.model.GeneratedBody.generated;
+
+/**
+ * @author jamesdbloom
+ */
+public class GeneratedBodyChunkedInputTest {
+
+    @Test
+    public void shouldReadPatternInChunksUntilLength() {
+        // given
+        GeneratedBodyChunkedInput chunkedInput = new GeneratedBodyChunkedInput(generated(14, "abc"), 8);
+
+        // then
+        assertThat(readChunk(chunkedInput), is("abcabc"));
+        assertThat(readChunk(chunkedInput), is("abcabc"));
+        assertThat(chunkedInput.isEndOfInput(), is(false));
+        assertThat(readChunk(chunkedInput), is("ab"));
+        assertThat(chunkedInput.isEndOfInput(), is(true));
+        assertThat(chunkedInput.readChunk(null), nullValue());
+        chunkedInput.close();
+    }
+
+    @Test
+    public void shouldUseWholePatternWhenLongerThanChunk() {
+        // given
+        GeneratedBodyChunkedInput chunkedInput = new GeneratedBodyChunkedInput(generated(5, "abcdefgh"), 4);
+
+        // then
+        assertThat(readChunk(chunkedInput), is("abcde"));
+        assertThat(chunkedInput.isEndOfInput(), is(true));
+        chunkedInput.close();
+    }
+
+    @Test
+    public void shouldBeEmptyForZeroLength() {
+        // given
+        GeneratedBodyChunkedInput chunkedInput = new GeneratedBodyChunkedInput(generated(0, "abc"), 8);
+
+        // then
+        assertThat(chunkedInput.isEndOfInput(), is(true));
+        assertThat(chunkedInput.readChunk(null), nullValue());
+        chunkedInput.close();
+        chunkedInput.close();
+    }
+
+    private String readChunk(GeneratedBodyChunkedInput chunkedInput) {
+        ByteBuf chunk = chunkedInput.readChunk(null);
+        try {
+            return chunk.toString(Charsets.UTF_8);
+        } finally {
+            chunk.release();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.mockserver.codec;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import com.google.common.net.MediaType;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.*;
 import org.hamcrest.core.Is;
 import org.junit.Before;
@@ -11,13 +13,19 @@ import org.mockserver.mappers.ContentTypeMapper;
 import org.mockserver.model.*;
 import org.mockserver.model.Cookie;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.server.http2.Http2ServerCodec;
+import org.mockserver.server.unification.SpilledHttpRequest;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.mockserver.model.BinaryBody.binary;
 import static org.mockserver.model.Cookie.cookie;
 import static org.mockserver.model.Header.header;
@@ -250,4 +258,89 @@ public class MockServerRequestDecoderTest {
         assertThat(body, Is.<Body>is(binary("some_random_bytes".getBytes())));
     }
 
+    @Test
+    public void shouldDecodeBodyAsRetainedSliceOfContent() {
+        // given
+        fullHttpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/uri", Unpooled.wrappedBuffer("我说中国话".getBytes(Charsets.UTF_16)));
+        fullHttpRequest.headers().add(HttpHeaders.Names.CONTENT_TYPE, MediaType.create("text", "plain").withCharset(Charsets.UTF_16).toString());
+
+        // when
+        new MockServerRequestDecoder(false, true).decode(null, fullHttpRequest, output);
+
+        // then
+        HttpRequest httpRequest = (HttpRequest) output.get(0);
+        assertThat(httpRequest.getBody(), Is.<Body>is(exact("我说中国话", Charsets.UTF_16)));
+        assertThat(fullHttpRequest.refCnt(), is(2));
+        httpRequest.release();
+        assertThat(fullHttpRequest.refCnt(), is(1));
+    }
+
+    @Test
+    public void shouldDecodeBinaryBodyAsRetainedSliceOfContent() {
+        // given
+        fullHttpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/uri", Unpooled.wrappedBuffer("some_random_bytes".getBytes()));
+        fullHttpRequest.headers().add(HttpHeaders.Names.CONTENT_TYPE, MediaType.JPEG);
+
+        // when
+        new MockServerRequestDecoder(false, true).decode(null, fullHttpRequest, output);
+
+        // then
+        HttpRequest httpRequest = (HttpRequest) output.get(0);
+        assertThat(httpRequest.getBody(), Is.<Body>is(binary("some_random_bytes".getBytes())));
+        assertThat(fullHttpRequest.refCnt(), is(2));
+        httpRequest.release();
+        assertThat(fullHttpRequest.refCnt(), is(1));
+    }
+
+    @Test
+    public void shouldDecodeSpilledBodyAsTemporaryFile() throws IOException {
+        // given
+        File spillFile = File.createTempFile("mockserver-request-", ".body");
+        Files.write("some_spilled_body", spillFile, Charsets.UTF_8);
+        SpilledHttpRequest spilledHttpRequest = new SpilledHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/uri", spillFile);
+
+        // when
+        new MockServerRequestDecoder(false).decode(null, spilledHttpRequest, output);
+        spilledHttpRequest.release();
+
+        // then
+        HttpRequest httpRequest = (HttpRequest) output.get(0);
+        assertThat(httpRequest.getBody(), instanceOf(TemporaryFileBody.class));
+        assertThat(new String(httpRequest.getBody().getRawBytes(), Charsets.UTF_8), is("some_spilled_body"));
+        assertThat(spillFile.exists(), is(true));
+        httpRequest.release();
+        assertThat(spillFile.exists(), is(false));
+    }
+
+    @Test
+    public void shouldDecodeStreamIdFromHttp2Codec() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new Http2ServerCodec(10, 100), new MockServerRequestDecoder(false));
+        fullHttpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/uri");
+        fullHttpRequest.headers().set(Http2ServerCodec.STREAM_ID_HEADER, "3");
+
+        // when
+        channel.writeInbound(fullHttpRequest);
+
+        // then
+        HttpRequest httpRequest = (HttpRequest) channel.readInbound();
+        assertThat(httpRequest.getStreamId(), is(3));
+        assertThat(httpRequest.getFirstHeader(Http2ServerCodec.STREAM_ID_HEADER), is(""));
+        channel.finish();
+    }
+
+    @Test
+    public void shouldIgnoreStreamIdHeaderWithoutHttp2Codec() {
+        // given
+        fullHttpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/uri");
+        fullHttpRequest.headers().set(Http2ServerCodec.STREAM_ID_HEADER, "3");
+
+        // when
+        mockServerRequestDecoder.decode(null, fullHttpRequest, output);
+
+        // then
+        HttpRequest httpRequest = (HttpRequest) output.get(0);
+        assertThat(httpRequest.getStreamId(), nullValue());
+        assertThat(httpRequest.getFirstHeader(Http2ServerCodec.STREAM_ID_HEADER), is("3"));
+    }
 }
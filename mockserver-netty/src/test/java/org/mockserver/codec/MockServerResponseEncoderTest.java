@@ -1,24 +1,36 @@
 package org.mockserver.codec;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import com.google.common.net.MediaType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockserver.mappers.ContentTypeMapper;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.*;
 import org.mockserver.model.Cookie;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.server.http2.Http2ServerCodec;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.collection.IsEmptyIterable.emptyIterable;
 import static org.hamcrest.core.Is.is;
 import static org.mockserver.model.BinaryBody.binary;
+import static org.mockserver.model.FileBody.file;
+import static org.mockserver.model.GeneratedBody.generated;
 import static org.mockserver.model.HttpResponse.response;
 import static org.mockserver.model.JsonBody.json;
 
@@ -55,6 +67,19 @@ public class MockServerResponseEncoderTest {
         assertThat(headers.getAll("headerName2"), containsInAnyOrder("headerValue2_1", "headerValue2_2"));
     }
 
+    @Test
+    public void shouldEncodeStreamIdForHttp2Response() {
+        // given
+        httpResponse = response().withStreamId(3);
+
+        // when
+        mockServerResponseEncoder.encode(null, httpResponse, output);
+
+        // then
+        HttpHeaders headers = ((FullHttpResponse) output.get(0)).headers();
+        assertThat(headers.get(Http2ServerCodec.STREAM_ID_HEADER), is("3"));
+    }
+
     @Test
     public void shouldEncodeNoHeaders() {
         // given
@@ -300,4 +325,99 @@ public class MockServerResponseEncoderTest {
         FullHttpResponse fullHttpResponse = (FullHttpResponse) output.get(0);
         assertThat(new String(fullHttpResponse.content().array(), Charsets.UTF_16), is("avro işarəsi: \u20AC"));
     }
+
+    @Test
+    public void shouldStreamGeneratedBodyWithContentLength() {
+        // given
+        httpResponse.withBody(generated(20, "abc")).withHeader(CONTENT_LENGTH, "20");
+
+        // when
+        new MockServerResponseEncoder().encode(null, httpResponse, output);
+
+        // then
+        HttpMessage httpMessage = (HttpMessage) output.get(0);
+        assertThat(httpMessage instanceof FullHttpResponse, is(false));
+        assertThat(httpMessage.headers().get(CONTENT_LENGTH), is("20"));
+        assertThat(HttpHeaders.isTransferEncodingChunked(httpMessage), is(false));
+        assertThat(output.get(1) instanceof HttpChunkedInput, is(true));
+    }
+
+    @Test
+    public void shouldStreamGeneratedBodyWithChunkedTransferEncodingWithoutContentLength() {
+        // given
+        httpResponse.withBody(generated(20, "abc"));
+
+        // when
+        new MockServerResponseEncoder().encode(null, httpResponse, output);
+
+        // then
+        assertThat(HttpHeaders.isTransferEncodingChunked((HttpMessage) output.get(0)), is(true));
+        assertThat(output.get(1) instanceof HttpChunkedInput, is(true));
+    }
+
+    @Test
+    public void shouldSendFileBodyAsFileRegion() throws IOException {
+        // given
+        File tempFile = File.createTempFile("mockserver", ".bin");
+        tempFile.deleteOnExit();
+        Files.write("some_file_content", tempFile, Charsets.UTF_8);
+        httpResponse.withBody(file(tempFile.getAbsolutePath()));
+        ConfigurationProperties.fileBodyDirectory(tempFile.getParent());
+
+        try {
+            // when
+            new MockServerResponseEncoder().encode(null, httpResponse, output);
+
+            // then
+            FileRegion fileRegion = (FileRegion) output.get(1);
+            try {
+                assertThat(fileRegion.count(), is((long) "some_file_content".length()));
+                assertThat(output.get(2), is((Object) LastHttpContent.EMPTY_LAST_CONTENT));
+            } finally {
+                fileRegion.release();
+            }
+        } finally {
+            System.clearProperty("mockserver.fileBodyDirectory");
+        }
+    }
+
+    @Test
+    public void shouldReturnNotFoundForMissingFileBody() {
+        // given
+        httpResponse.withBody(file(new File(System.getProperty("java.io.tmpdir"), "mockserver_missing_file.bin").getAbsolutePath()));
+
+        // when
+        new MockServerResponseEncoder().encode(null, httpResponse, output);
+
+        // then
+        assertThat(output.size(), is(1));
+        FullHttpResponse fullHttpResponse = (FullHttpResponse) output.get(0);
+        assertThat(fullHttpResponse.getStatus(), is(HttpResponseStatus.NOT_FOUND));
+        assertThat(HttpHeaders.getContentLength(fullHttpResponse), is(0L));
+    }
+
+    @Test
+    public void shouldWriteGeneratedBodyInChunks() {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(), new ChunkedWriteHandler(), new MockServerResponseEncoder());
+        httpResponse.withBody(generated(20000, "abc")).withHeader(CONTENT_LENGTH, "20000");
+
+        // when
+        channel.writeOutbound(httpResponse);
+
+        // then
+        StringBuilder written = new StringBuilder();
+        int chunks = 0;
+        for (Object part = channel.readOutbound(); part != null; part = channel.readOutbound()) {
+            written.append(((ByteBuf) part).toString(Charsets.UTF_8));
+            ((ByteBuf) part).release();
+            chunks++;
+        }
+        String body = written.substring(written.indexOf("\r\n\r\n") + 4);
+        assertThat(body.length(), is(20000));
+        assertThat(body.startsWith("abcabc"), is(true));
+        assertThat(body.endsWith("cab"), is(true));
+        assertThat(chunks > 2, is(true));
+        assertThat(channel.finish(), is(false));
+    }
 }
@@ -0,0 +1,101 @@
+package org.mockserver.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.model.HttpRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class PipelinedResponsesTest {
+
+    private EmbeddedChannel channel;
+    private List<String> written;
+
+    @Before
+    public void createChannel() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        written = new ArrayList<String>();
+    }
+
+    @Test
+    public void shouldHoldResponseUntilEarlierResponsesWritten() {
+        // given
+        HttpRequest first = request("/first");
+        HttpRequest second = request("/second");
+        HttpRequest third = request("/third");
+        PipelinedResponses.received(channel, first);
+        PipelinedResponses.received(channel, second);
+        PipelinedResponses.received(channel, third);
+
+        // when
+        PipelinedResponses.write(channel, third, "third", write("third"));
+        PipelinedResponses.write(channel, second, "second", write("second"));
+
+        // then
+        assertThat(written, empty());
+        assertThat(PipelinedResponses.isNext(channel, first), is(true));
+        assertThat(PipelinedResponses.isNext(channel, second), is(false));
+
+        // when
+        PipelinedResponses.write(channel, first, "first", write("first"));
+
+        // then
+        assertThat(written, is(Arrays.asList("first", "second", "third")));
+    }
+
+    @Test
+    public void shouldWriteStreamResponsesImmediately() {
+        // given
+        HttpRequest first = request("/first");
+        HttpRequest stream = request("/stream").withStreamId(3);
+        PipelinedResponses.received(channel, first);
+        PipelinedResponses.received(channel, stream);
+
+        // when
+        PipelinedResponses.write(channel, stream, "stream", write("stream"));
+
+        // then
+        assertThat(written, is(Arrays.asList("stream")));
+    }
+
+    @Test
+    public void shouldReleaseHeldResponsesWhenClosed() {
+        // given
+        HttpRequest first = request("/first");
+        HttpRequest second = request("/second");
+        PipelinedResponses.received(channel, first);
+        PipelinedResponses.received(channel, second);
+        ByteBuf encodedResponse = Unpooled.buffer().writeByte(1);
+        PipelinedResponses.write(channel, second, encodedResponse, write("second"));
+
+        // when
+        PipelinedResponses.closed(channel);
+
+        // then
+        assertThat(encodedResponse.refCnt(), is(0));
+        assertThat(written, empty());
+    }
+
+    private Runnable write(final String response) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                written.add(response);
+            }
+        };
+    }
+}
@@ -1,20 +1,26 @@
 package org.mockserver.mockserver;
 
 import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.util.concurrent.EventExecutor;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
+import org.mockserver.codec.EncodedResponseCache;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.filters.LogFilter;
 import org.mockserver.matchers.TimeToLive;
@@ -29,11 +35,16 @@ import org.mockserver.verify.VerificationSequence;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.hamcrest.core.StringEndsWith.endsWith;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -202,6 +213,24 @@ public class MockServerHandlerTest {
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
 
+    @Test
+    public void shouldRejectExpectationWithFileBodyWhenFileBodiesDisabled() {
+        // given
+        System.clearProperty("mockserver.fileBodyDirectory");
+        HttpRequest request = request("/expectation").withMethod("PUT").withBody("some_content");
+        when(mockExpectation.getHttpResponse()).thenReturn(response().withBody(FileBody.file("/etc/passwd")));
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - expectation not setup
+        verify(mockMockServerMatcher, never()).when(any(HttpRequest.class), any(Times.class), any(TimeToLive.class));
+
+        // and - correct response written to ChannelHandlerContext
+        HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.BAD_REQUEST.code()));
+    }
+
     @Test
     public void shouldAddSubjectAlternativeName() throws UnknownHostException {
         // given
@@ -256,7 +285,7 @@ public class MockServerHandlerTest {
     public void shouldReturnBadRequestAfterException() {
         // given
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
-        when(mockMockServerMatcher.handle(request)).thenThrow(new RuntimeException("TEST EXCEPTION"));
+        when(mockMockServerMatcher.handle(request, false)).thenThrow(new RuntimeException("TEST EXCEPTION"));
 
         // when
         embeddedChannel.writeInbound(request);
@@ -271,7 +300,7 @@ public class MockServerHandlerTest {
     public void shouldReturnNotFoundAfterNoMatch() {
         // given
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
-        when(mockMockServerMatcher.handle(request)).thenReturn(null);
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(null);
 
         // when
         embeddedChannel.writeInbound(request);
@@ -288,7 +317,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request))
@@ -321,7 +350,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(true)))
@@ -358,7 +387,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(true)))
@@ -394,7 +423,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(false)))
@@ -430,7 +459,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(true)))
@@ -462,7 +491,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(true)))
@@ -498,7 +527,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(false)))
@@ -530,7 +559,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(true)))
@@ -566,7 +595,7 @@ public class MockServerHandlerTest {
         HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
 
         // and - a matcher
-        when(mockMockServerMatcher.handle(request)).thenReturn(response().withBody("some_response"));
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
         when(mockActionHandler.processAction(response().withBody("some_response"), request.setKeepAlive(false)))
@@ -596,6 +625,98 @@ public class MockServerHandlerTest {
         assertThat(httpResponse.getBodyAsString(), is("some_content"));
     }
 
+    @Test
+    public void shouldWriteForwardedResponseWhenReceived() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").setKeepAlive(true);
+
+        // and - a matcher with a forward
+        HttpForward httpForward = HttpForward.forward().withHost("some_host").withPort(1080);
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(httpForward);
+
+        // and - a forwarded response that hasn't been received
+        SettableFuture<HttpResponse> forwardedResponse = SettableFuture.create();
+        when(mockActionHandler.processActionAsync(httpForward, request)).thenReturn(forwardedResponse);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - nothing written
+        verify(mockActionHandler, never()).processAction(any(Action.class), any(HttpRequest.class));
+        assertThat(embeddedChannel.readOutbound(), nullValue());
+
+        // when - forwarded response received
+        forwardedResponse.set(response().withBody("some_response"));
+        embeddedChannel.runPendingTasks();
+
+        // then - response written
+        HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.OK.code()));
+        assertThat(httpResponse.getBodyAsString(), is("some_response"));
+        assertThat(httpResponse.getHeader("Connection"), containsInAnyOrder("keep-alive"));
+    }
+
+    @Test
+    public void shouldWritePipelinedResponsesInRequestOrder() {
+        // given - a request that is forwarded
+        HttpRequest forwardedRequest = request("/forwardedPath").withMethod("GET").setKeepAlive(true);
+        HttpForward httpForward = HttpForward.forward().withHost("some_host").withPort(1080);
+        when(mockMockServerMatcher.handle(forwardedRequest, false)).thenReturn(httpForward);
+        SettableFuture<HttpResponse> forwardedResponse = SettableFuture.create();
+        when(mockActionHandler.processActionAsync(httpForward, forwardedRequest)).thenReturn(forwardedResponse);
+
+        // and - a request pipelined after it that is responded to immediately
+        HttpRequest mockedRequest = request("/mockedPath").withMethod("GET").setKeepAlive(true);
+        HttpResponse mockedResponse = response().withBody("mocked_response");
+        when(mockMockServerMatcher.handle(mockedRequest, false)).thenReturn(mockedResponse);
+        when(mockActionHandler.processAction(mockedResponse, mockedRequest)).thenReturn(mockedResponse);
+
+        // when
+        embeddedChannel.writeInbound(forwardedRequest, mockedRequest);
+
+        // then - the second response waits for the first
+        assertThat(embeddedChannel.readOutbound(), nullValue());
+
+        // when - forwarded response received
+        forwardedResponse.set(response().withBody("forwarded_response"));
+        embeddedChannel.runPendingTasks();
+
+        // then - both responses written in request order
+        assertThat(((HttpResponse) embeddedChannel.readOutbound()).getBodyAsString(), is("forwarded_response"));
+        assertThat(((HttpResponse) embeddedChannel.readOutbound()).getBodyAsString(), is("mocked_response"));
+    }
+
+    @Test
+    public void shouldScheduleDelayedResponseOnEventLoop() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").setKeepAlive(true);
+
+        // and - a matcher with a delayed response
+        HttpResponse delayedResponse = response().withBody("some_response").withDelay(TimeUnit.SECONDS, 2);
+        when(mockMockServerMatcher.handle(request, false)).thenReturn(delayedResponse);
+        when(mockActionHandler.processAction(delayedResponse, request)).thenReturn(delayedResponse);
+
+        // and - an event loop
+        EventExecutor mockEventExecutor = mock(EventExecutor.class);
+        when(mockChannelHandlerContext.executor()).thenReturn(mockEventExecutor);
+        when(mockChannelHandlerContext.channel()).thenReturn(embeddedChannel);
+
+        // when
+        mockServerHandler.channelRead0(mockChannelHandlerContext, request);
+
+        // then - response is scheduled not written
+        ArgumentCaptor<Runnable> scheduledWrite = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockEventExecutor).schedule(scheduledWrite.capture(), eq(2L), eq(TimeUnit.SECONDS));
+        verify(mockChannelHandlerContext, never()).write(any());
+
+        // when - delay has elapsed
+        scheduledWrite.getValue().run();
+
+        // then - response is written and flushed
+        verify(mockChannelHandlerContext).write(delayedResponse);
+        verify(mockChannelHandlerContext).flush();
+    }
+
     @Test
     public void shouldVerifyPassingRequest() {
         // given
@@ -704,4 +825,49 @@ public class MockServerHandlerTest {
         assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
+
+    @Test
+    public void shouldOnlyEncodeResponseFromExpectationOnce() {
+        // given - a mock server handler with an encoded response cache
+        EmbeddedChannel httpChannel = new EmbeddedChannel(new HttpServerCodec(), new MockServerHandler(mockMockServer, mockMockServerMatcher, new LogFilter(), new EncodedResponseCache()));
+
+        // and - a matcher with a response
+        HttpResponse expectedResponse = response().withBody("some_response");
+        when(mockMockServerMatcher.handle(any(HttpRequest.class), eq(false))).thenReturn(expectedResponse);
+
+        // when
+        httpChannel.writeInbound(request("/randomPath").withMethod("GET").setKeepAlive(true));
+        httpChannel.writeInbound(request("/randomPath").withMethod("GET").setKeepAlive(true));
+
+        // then - same encoded response written for each request
+        ByteBuf firstResponse = (ByteBuf) httpChannel.readOutbound();
+        ByteBuf secondResponse = (ByteBuf) httpChannel.readOutbound();
+        try {
+            assertThat(firstResponse.toString(Charsets.UTF_8), startsWith("HTTP/1.1 200 OK\r\n"));
+            assertThat(firstResponse.toString(Charsets.UTF_8), containsString("Connection: keep-alive\r\n"));
+            assertThat(firstResponse.toString(Charsets.UTF_8), containsString("Content-Length: " + "some_response".length() + "\r\n"));
+            assertThat(firstResponse.toString(Charsets.UTF_8), endsWith("\r\n\r\nsome_response"));
+            assertThat(secondResponse.toString(Charsets.UTF_8), is(firstResponse.toString(Charsets.UTF_8)));
+        } finally {
+            firstResponse.release();
+            secondResponse.release();
+        }
+
+        // and - response from expectation is not modified
+        assertThat(expectedResponse.getHeaders(), empty());
+
+        // when
+        httpChannel.writeInbound(request("/randomPath").withMethod("GET").setKeepAlive(false));
+
+        // then - response encoded separately for non keep-alive request
+        ByteBuf closeResponse = (ByteBuf) httpChannel.readOutbound();
+        try {
+            assertThat(closeResponse.toString(Charsets.UTF_8), containsString("Connection: close\r\n"));
+            assertThat(closeResponse.toString(Charsets.UTF_8), endsWith("\r\n\r\nsome_response"));
+        } finally {
+            closeResponse.release();
+        }
+        assertThat(httpChannel.isOpen(), is(false));
+        assertThat(httpChannel.finish(), is(false));
+    }
 }
@@ -0,0 +1,106 @@
+package org.mockserver.proxy.unification;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.ssl.SslHandler;
+import org.junit.Test;
+import org.mockserver.socket.LeafCertificateCache;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+
+/**
+ * @author jamesdbloom
+ */
+public class SniCertificateHandlerTest {
+
+    private static ByteBuf clientHello(String serverName) throws Exception {
+        SSLEngine engine;
+        if (serverName != null) {
+            // the JDK sends the peer host as the server name
+            engine = SSLContext.getDefault().createSSLEngine(serverName, 443);
+        } else {
+            engine = SSLContext.getDefault().createSSLEngine();
+        }
+        engine.setUseClientMode(true);
+        ByteBuffer clientHello = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        engine.wrap(ByteBuffer.allocate(0), clientHello);
+        clientHello.flip();
+        return Unpooled.wrappedBuffer(clientHello);
+    }
+
+    @Test
+    public void shouldReadServerNameFromClientHello() throws Exception {
+        // given
+        ByteBuf clientHello = clientHello("WWW.Example.com");
+
+        // then
+        assertThat(SniCertificateHandler.serverName(clientHello), is("www.example.com"));
+        assertThat(clientHello.readerIndex(), is(0));
+    }
+
+    @Test
+    public void shouldReturnNullForClientHelloWithoutServerName() throws Exception {
+        assertThat(SniCertificateHandler.serverName(clientHello(null)), nullValue());
+    }
+
+    @Test
+    public void shouldReturnNullForTruncatedClientHello() throws Exception {
+        // given
+        ByteBuf clientHello = clientHello("www.example.com");
+
+        // then
+        assertThat(SniCertificateHandler.serverName(clientHello.slice(0, 60)), nullValue());
+    }
+
+    @Test
+    public void shouldWaitForWholeClientHello() throws Exception {
+        // given
+        EmbeddedChannel channel = new EmbeddedChannel(new SniCertificateHandler(null));
+        ByteBuf clientHello = clientHello("www.example.com");
+
+        // when
+        channel.writeInbound(clientHello.readBytes(20));
+
+        // then
+        assertThat(channel.pipeline().get(SniCertificateHandler.class), notNullValue());
+        assertThat(channel.pipeline().get(SslHandler.class), nullValue());
+        clientHello.release();
+    }
+
+    @Test
+    public void shouldReplaceWithSslHandlerOnceCertificateIssued() throws Exception {
+        // given
+        LeafCertificateCache.getInstance().issue("www.example.com").get();
+        EmbeddedChannel channel = new EmbeddedChannel(new SniCertificateHandler(null));
+
+        // when
+        channel.writeInbound(clientHello("www.example.com"));
+
+        // then
+        assertThat(channel.pipeline().get(SniCertificateHandler.class), nullValue());
+        SslHandler sslHandler = channel.pipeline().get(SslHandler.class);
+        assertThat(sslHandler.engine().getPeerHost(), is("www.example.com"));
+        assertThat(sslHandler.engine().getUseClientMode(), is(false));
+    }
+
+    @Test
+    public void shouldUseConnectHostWithoutServerName() throws Exception {
+        // given
+        LeafCertificateCache.getInstance().issue("10.0.0.1").get();
+        EmbeddedChannel channel = new EmbeddedChannel(new SniCertificateHandler("10.0.0.1"));
+
+        // when
+        channel.writeInbound(clientHello(null));
+
+        // then
+        assertThat(channel.pipeline().get(SslHandler.class).engine().getPeerHost(), is("10.0.0.1"));
+    }
+}
@@ -12,6 +12,7 @@ import org.mockserver.mappers.MockServerResponseToHttpServletResponseEncoder;
 import org.mockserver.mock.Expectation;
 import org.mockserver.mock.MockServerMatcher;
 import org.mockserver.mock.action.ActionHandler;
+import org.mockserver.model.FileBody;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.model.HttpStatusCode;
@@ -84,6 +85,9 @@ public class MockServerServlet extends HttpServlet {
             } else if (requestPath.equals("/expectation")) {
 
                 Expectation expectation = expectationSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                if (expectation.getHttpResponse() != null && expectation.getHttpResponse().getBody() instanceof FileBody) {
+                    ((FileBody) expectation.getHttpResponse().getBody()).validate();
+                }
                 mockServerMatcher.when(expectation.getHttpRequest(), expectation.getTimes(), expectation.getTimeToLive()).thenRespond(expectation.getHttpResponse(false)).thenForward(expectation.getHttpForward()).thenCallback(expectation.getHttpCallback());
                 httpServletResponse.setStatus(HttpStatusCode.CREATED_201.code());
 